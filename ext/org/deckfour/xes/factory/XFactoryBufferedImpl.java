@@ -44,7 +44,8 @@ import org.deckfour.xes.model.XAttributeMap;
 import org.deckfour.xes.model.XLog;
 import org.deckfour.xes.model.XTrace;
 import org.deckfour.xes.model.buffered.XAttributeMapBufferedImpl;
-import org.deckfour.xes.model.buffered.XAttributeMapSerializerImpl;
+import org.deckfour.xes.model.buffered.XAttributeMapDictionarySerializerImpl;
+import org.deckfour.xes.model.buffered.XAttributeMapSerializer;
 import org.deckfour.xes.model.buffered.XTraceBufferedImpl;
 import org.deckfour.xes.model.impl.XAttributeMapLazyImpl;
 import org.deckfour.xes.model.impl.XLogImpl;
@@ -60,6 +61,12 @@ import org.deckfour.xes.model.impl.XLogImpl;
  */
 public class XFactoryBufferedImpl extends XFactoryNaiveImpl {
 
+	/**
+	 * Serializer for the events of all traces created by this factory, which
+	 * shares its dictionary of attribute keys among them.
+	 */
+	private final XAttributeMapSerializer eventSerializer = new XAttributeMapDictionarySerializerImpl();
+
 	/* (non-Javadoc)
 	 * @see org.deckfour.xes.model.factory.XModelFactoryStandardImpl#getAuthor()
 	 */
@@ -124,7 +131,7 @@ public class XFactoryBufferedImpl extends XFactoryNaiveImpl {
 	public XTrace createTrace() {
 		return new XTraceBufferedImpl(
 				new XAttributeMapLazyImpl<XAttributeMapBufferedImpl>(XAttributeMapBufferedImpl.class), 
-				new XAttributeMapSerializerImpl());
+				eventSerializer);
 	}
 
 	/* (non-Javadoc)
@@ -134,7 +141,7 @@ public class XFactoryBufferedImpl extends XFactoryNaiveImpl {
 	public XTrace createTrace(XAttributeMap attributes) {
 		return new XTraceBufferedImpl(
 				attributes, 
-				new XAttributeMapSerializerImpl());
+				eventSerializer);
 	}
 
 }
@@ -0,0 +1,394 @@
+/*
+ * OpenXES
+ * 
+ * The reference implementation of the XES meta-model for event 
+ * log data management.
+ * 
+ * Copyright (c) 2008 Christian W. Guenther (christian@deckfour.org)
+ * 
+ * 
+ * LICENSE:
+ * 
+ * This code is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA
+ * 
+ * EXEMPTION:
+ * 
+ * The use of this software can also be conditionally licensed for
+ * other programs, which do not satisfy the specified conditions. This
+ * requires an exemption from the general license, which may be
+ * granted on a per-case basis.
+ * 
+ * If you want to license the use of this software with a program
+ * incompatible with the LGPL, please contact the author for an
+ * exemption at the following email address: 
+ * christian@deckfour.org
+ * 
+ */
+package org.deckfour.xes.model.buffered;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.deckfour.xes.extension.XExtension;
+import org.deckfour.xes.extension.XExtensionManager;
+import org.deckfour.xes.factory.XFactory;
+import org.deckfour.xes.factory.XFactoryRegistry;
+import org.deckfour.xes.id.XID;
+import org.deckfour.xes.model.XAttribute;
+import org.deckfour.xes.model.XAttributeBoolean;
+import org.deckfour.xes.model.XAttributeCollection;
+import org.deckfour.xes.model.XAttributeContainer;
+import org.deckfour.xes.model.XAttributeContinuous;
+import org.deckfour.xes.model.XAttributeDiscrete;
+import org.deckfour.xes.model.XAttributeID;
+import org.deckfour.xes.model.XAttributeList;
+import org.deckfour.xes.model.XAttributeLiteral;
+import org.deckfour.xes.model.XAttributeMap;
+import org.deckfour.xes.model.XAttributeTimestamp;
+import org.deckfour.xes.model.impl.XAttributeMapImpl;
+
+/**
+ * This class provides compact binary serialization of XAttributeMap
+ * instances, based on the DataInput and DataOutput interfaces.
+ * <p>
+ * In contrast to {@link XAttributeMapSerializerImpl}, attribute keys are not
+ * written as strings, but as index in a dictionary of attribute keys, which
+ * is kept by this instance and shared by all storages serialized with it.
+ * Numbers of attributes, extension indices, discrete values and timestamps
+ * are written as variable-length integers, which occupy a single byte for
+ * small values. Literal values are written as UTF-8 bytes preceded by their
+ * length. Serialization does not allocate memory, and deserialization reuses
+ * a buffer per thread for literal values.
+ * <p>
+ * Since the dictionary only exists in memory, data serialized with an
+ * instance can only be deserialized with the same instance. This suits the
+ * transient storages of the NikeFS2 virtual file system. Instances are
+ * thread-safe.
+ * <p>
+ * The encoding of an attribute map is:
+ * <ul>
+ * <li>Number of attributes (varint)</li>
+ * <li>A corresponding number of attribute serializations</li>
+ * </ul>
+ * Attribute serializations are composed as follows:
+ * <ul>
+ * <li>Index of the attribute key in the dictionary (varint)</li>
+ * <li>Index of the attribute extension plus one, or zero for generic
+ * attributes (varint)</li>
+ * <li>Attribute type (byte), as in {@link XAttributeMapSerializerImpl}</li>
+ * <li>Attribute value, depending on the type</li>
+ * <li>Serialization of the attribute's attribute map or collection</li>
+ * </ul>
+ */
+public class XAttributeMapDictionarySerializerImpl implements XAttributeMapSerializer {
+
+	/**
+	 * Indices of the attribute keys in the dictionary.
+	 */
+	private final Map<String, Integer> keyIndices = new ConcurrentHashMap<String, Integer>();
+	/**
+	 * Attribute keys of the dictionary by their index. The array is replaced
+	 * when it is grown; writing the reference after adding a key publishes the
+	 * key to threads reading the array.
+	 */
+	private volatile String[] keys = new String[64];
+	/**
+	 * Number of keys in the dictionary.
+	 */
+	private int keyCount = 0;
+	/**
+	 * Buffers for decoding literal values, one per thread.
+	 */
+	private final ThreadLocal<byte[]> decodingBuffers = new ThreadLocal<byte[]>() {
+		@Override
+		protected byte[] initialValue() {
+			return new byte[256];
+		}
+	};
+
+	/**
+	 * Returns the number of attribute keys in the dictionary.
+	 * 
+	 * @return The size of the dictionary.
+	 */
+	public int getDictionarySize() {
+		synchronized (keyIndices) {
+			return keyCount;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.deckfour.xes.model.buffered.XAttributeMapSerializer#serialize(org
+	 * .deckfour.xes.model.XAttributeMap, java.io.DataOutput)
+	 */
+	public void serialize(XAttributeMap map, DataOutput out) throws IOException {
+		serialize(map.values(), out);
+	}
+
+	private void serialize(Collection<XAttribute> attributes, DataOutput out) throws IOException {
+		writeVarLong(attributes.size(), out);
+		for (XAttribute attribute : attributes) {
+			// encode attribute key
+			writeVarLong(indexOf(attribute.getKey()), out);
+			// encode attribute extension
+			XExtension extension = attribute.getExtension();
+			if (extension == null) {
+				writeVarLong(0, out);
+			} else {
+				writeVarLong(XExtensionManager.instance().getIndex(extension) + 1, out);
+			}
+			// encode attribute type and value
+			/*
+			 * List and Container need to precede Literal, as they both extend Literal
+			 * (for reasons of backwards compatibility).
+			 */
+			if (attribute instanceof XAttributeList) {
+				out.writeByte(6);
+			} else if (attribute instanceof XAttributeContainer) {
+				out.writeByte(7);
+			} else if (attribute instanceof XAttributeBoolean) {
+				out.writeByte(0);
+				out.writeBoolean(((XAttributeBoolean) attribute).getValue());
+			} else if (attribute instanceof XAttributeContinuous) {
+				out.writeByte(1);
+				out.writeDouble(((XAttributeContinuous) attribute).getValue());
+			} else if (attribute instanceof XAttributeDiscrete) {
+				out.writeByte(2);
+				writeSignedVarLong(((XAttributeDiscrete) attribute).getValue(), out);
+			} else if (attribute instanceof XAttributeLiteral) {
+				out.writeByte(3);
+				writeString(((XAttributeLiteral) attribute).getValue(), out);
+			} else if (attribute instanceof XAttributeTimestamp) {
+				out.writeByte(4);
+				writeSignedVarLong(((XAttributeTimestamp) attribute).getValueMillis(), out);
+			} else if (attribute instanceof XAttributeID) {
+				out.writeByte(5);
+				XID.write(((XAttributeID) attribute).getValue(), out);
+			} else {
+				throw new AssertionError(
+						"Unknown attribute type, cannot serialize!");
+			}
+			// recursive serialization of attribute map
+			if (attribute instanceof XAttributeCollection) {
+				Collection<XAttribute> childAttributes = ((XAttributeCollection) attribute).getCollection();
+				serialize(childAttributes, out);
+			} else {
+				serialize(attribute.getAttributes(), out);
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.deckfour.xes.model.buffered.XAttributeMapSerializer#deserialize(java
+	 * .io.DataInput)
+	 */
+	public XAttributeMap deserialize(DataInput in) throws IOException {
+		return deserialize(in, null, XFactoryRegistry.instance().currentDefault());
+	}
+
+	private XAttributeMap deserialize(DataInput in, XAttribute parent, XFactory factory) throws IOException {
+		int size = (int) readVarLong(in);
+		XAttributeMapImpl map = new XAttributeMapImpl(size * 2);
+		for (int i = 0; i < size; i++) {
+			// look up attribute key
+			String key = keyAt((int) readVarLong(in));
+			// decode attribute extension
+			int ext = (int) readVarLong(in);
+			XExtension extension = null;
+			if (ext > 0) {
+				extension = XExtensionManager.instance().getByIndex(ext - 1);
+			}
+			// assemble according to type and read value
+			XAttribute attribute;
+			byte type = in.readByte();
+			if (type == 0) {
+				boolean value = in.readBoolean();
+				attribute = factory.createAttributeBoolean(key, value,
+						extension);
+			} else if (type == 1) {
+				double value = in.readDouble();
+				attribute = factory.createAttributeContinuous(key, value,
+						extension);
+			} else if (type == 2) {
+				long value = readSignedVarLong(in);
+				attribute = factory.createAttributeDiscrete(key, value,
+						extension);
+			} else if (type == 3) {
+				String value = readString(in);
+				attribute = factory.createAttributeLiteral(key, value,
+						extension);
+			} else if (type == 4) {
+				long value = readSignedVarLong(in);
+				attribute = factory.createAttributeTimestamp(key, value,
+						extension);
+			} else if (type == 5) {
+				XID value = XID.read(in);
+				attribute = factory.createAttributeID(key, value, extension);
+			} else if (type == 6) {
+				attribute = factory.createAttributeList(key, extension);
+			} else if (type == 7) {
+				attribute = factory.createAttributeContainer(key, extension);
+			} else {
+				throw new AssertionError(
+						"Unknown attribute type, cannot deserialize!");
+			}
+			if (parent != null && parent instanceof XAttributeCollection) {
+				((XAttributeCollection) parent).addToCollection(attribute);
+			}
+			// read meta-attribute map
+			XAttributeMap metamap = deserialize(in, attribute, factory);
+			attribute.setAttributes(metamap);
+			// add to map
+			map.put(key, attribute);
+		}
+		return map;
+	}
+
+	/**
+	 * Returns the index of the given key in the dictionary, adding the key if
+	 * it is not contained yet.
+	 */
+	private int indexOf(String key) {
+		Integer index = keyIndices.get(key);
+		if (index != null) {
+			return index;
+		}
+		synchronized (keyIndices) {
+			index = keyIndices.get(key);
+			if (index == null) {
+				String[] dictionary = keys;
+				if (keyCount == dictionary.length) {
+					String[] grown = new String[keyCount * 2];
+					System.arraycopy(dictionary, 0, grown, 0, keyCount);
+					dictionary = grown;
+				}
+				dictionary[keyCount] = key;
+				// publishes the key before its index can be written
+				keys = dictionary;
+				index = keyCount++;
+				keyIndices.put(key, index);
+			}
+			return index;
+		}
+	}
+
+	private String keyAt(int index) throws IOException {
+		String[] dictionary = keys;
+		if (index < 0 || index >= dictionary.length || dictionary[index] == null) {
+			throw new IOException("Unknown attribute key index: " + index);
+		}
+		return dictionary[index];
+	}
+
+	/**
+	 * Writes the string as UTF-8 bytes, preceded by their number as varint,
+	 * without encoding it into a temporary array.
+	 */
+	private static void writeString(String value, DataOutput out) throws IOException {
+		int length = value.length();
+		long utfLength = 0;
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				utfLength++;
+			} else if (c < 0x800) {
+				utfLength += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+				utfLength += 4;
+				i++;
+			} else if (Character.isSurrogate(c)) {
+				// unpaired surrogates are replaced by '?', like by String.getBytes()
+				utfLength++;
+			} else {
+				utfLength += 3;
+			}
+		}
+		writeVarLong(utfLength, out);
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				out.writeByte(c);
+			} else if (c < 0x800) {
+				out.writeByte(0xC0 | (c >> 6));
+				out.writeByte(0x80 | (c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				out.writeByte(0xF0 | (codePoint >> 18));
+				out.writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+				out.writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+				out.writeByte(0x80 | (codePoint & 0x3F));
+			} else if (Character.isSurrogate(c)) {
+				out.writeByte('?');
+			} else {
+				out.writeByte(0xE0 | (c >> 12));
+				out.writeByte(0x80 | ((c >> 6) & 0x3F));
+				out.writeByte(0x80 | (c & 0x3F));
+			}
+		}
+	}
+
+	private String readString(DataInput in) throws IOException {
+		int length = (int) readVarLong(in);
+		byte[] buffer = decodingBuffers.get();
+		if (buffer.length < length) {
+			buffer = new byte[Math.max(length, buffer.length * 2)];
+			decodingBuffers.set(buffer);
+		}
+		in.readFully(buffer, 0, length);
+		return new String(buffer, 0, length, StandardCharsets.UTF_8);
+	}
+
+	private static void writeVarLong(long value, DataOutput out) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	private static void writeSignedVarLong(long value, DataOutput out) throws IOException {
+		// zig-zag encoding, so that small negative values are short as well
+		writeVarLong((value << 1) ^ (value >> 63), out);
+	}
+
+	private static long readVarLong(DataInput in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable-length integer.");
+	}
+
+	private static long readSignedVarLong(DataInput in) throws IOException {
+		long value = readVarLong(in);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+}
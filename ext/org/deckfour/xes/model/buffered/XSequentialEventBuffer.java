@@ -52,6 +52,7 @@ import org.deckfour.xes.model.XAttributeMap;
 import org.deckfour.xes.model.XEvent;
 import org.deckfour.xes.nikefs2.NikeFS2RandomAccessStorage;
 import org.deckfour.xes.nikefs2.NikeFS2StorageProvider;
+import org.deckfour.xes.nikefs2.NikeFS2VirtualFileSystem;
 
 /**
  * This class provides a random-access interface to a sequential set of events.
@@ -126,6 +127,20 @@ public class XSequentialEventBuffer implements Cloneable {
 	 * Factory for model elements.
 	 */
 	private XFactory factory = null;
+	/**
+	 * Buffer holding the record of the event read last by the current thread,
+	 * which is reused for reading subsequent events of all buffers.
+	 */
+	private static final ThreadLocal<byte[]> readBuffer = new ThreadLocal<byte[]>();
+	/**
+	 * Stream for encoding events in the current thread, which is reused for
+	 * subsequent events of all buffers.
+	 */
+	private static final ThreadLocal<ByteArrayOutputStream> encodingStream = new ThreadLocal<ByteArrayOutputStream>() {
+		protected ByteArrayOutputStream initialValue() {
+			return new ByteArrayOutputStream();
+		}
+	};
 
 	/**
 	 * Creates and initializes a new instance of this class.
@@ -234,6 +249,11 @@ public class XSequentialEventBuffer implements Cloneable {
 		lastInsertPosition = insertPosition;
 		// update collection size
 		size++;
+		// report buffer size for adaptive block sizing
+		if (provider instanceof NikeFS2VirtualFileSystem) {
+			((NikeFS2VirtualFileSystem) provider).recordBufferGrowth(
+					insertPosition, storage.length());
+		}
 	}
 
 	/**
@@ -430,11 +450,16 @@ public class XSequentialEventBuffer implements Cloneable {
 		// read payload size
 		int eventSize = storage.readInt();
 		// buffered implementation: reads the byte array representing the
-		// event and interprets it from that buffer subsequently.
-		byte[] eventData = new byte[eventSize];
-		storage.readFully(eventData);
+		// event and interprets it from that buffer subsequently. The buffer
+		// is reused, as events are decoded completely before returning.
+		byte[] buffer = readBuffer.get();
+		if (buffer == null || buffer.length < eventSize) {
+			buffer = new byte[Math.max(eventSize, 256)];
+			readBuffer.set(buffer);
+		}
+		storage.readFully(buffer, 0, eventSize);
 		DataInputStream dis = new DataInputStream(new ByteArrayInputStream(
-				eventData));
+				buffer, 0, eventSize));
 		// read event data attributes in specified order from file
 		XID id = XID.read(dis);
 		// read event attribute set
@@ -459,7 +484,8 @@ public class XSequentialEventBuffer implements Cloneable {
 	 */
 	protected byte[] encode(XEvent event) throws IOException {
 		// prepare output stream for encoding
-		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ByteArrayOutputStream baos = encodingStream.get();
+		baos.reset();
 		DataOutputStream dos = new DataOutputStream(baos);
 		// write event id to output stream
 		XID.write(event.getID(), dos);
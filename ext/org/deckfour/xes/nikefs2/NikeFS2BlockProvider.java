@@ -41,17 +41,26 @@ package org.deckfour.xes.nikefs2;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
-import java.util.BitSet;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This class implements a block provider for the NikeFS2 virtual
  * file system. It is backed by an OS-level random-access file, which
  * stores the actual contents of the blocks.
  * 
- * Also, this class contains static facilities for managing the
- * current set of open files, thereby reducing the number of
- * concurrently open and used file handles to a sensible minimum.
+ * Blocks can be allocated, freed, read and written by several threads
+ * concurrently without locking the provider. Allocation uses a
+ * bit map of free blocks which is updated by compare-and-set
+ * operations. Reads and writes address their position explicitly,
+ * either in a mapping of the whole backing file or by positional
+ * accesses to its file channel, so that they do not share a file
+ * pointer. Accesses to the same block are ordered by the block
+ * itself (see {@link NikeFS2Block}).
  * 
  * @author Christian W. Guenther (christian@deckfour.org)
  *
@@ -69,9 +78,20 @@ public class NikeFS2BlockProvider {
 	 */
 	protected final File file;
 	/**
-	 * Random-access file wrapper, if non-mapped
+	 * Random-access file wrapper of the backing file.
 	 */
 	protected final RandomAccessFile rafile;
+	/**
+	 * Channel of the backing file, used for positional accesses
+	 * if non-mapped.
+	 */
+	protected final FileChannel channel;
+	/**
+	 * Mapping of the whole backing file, if mapped. Accesses use
+	 * absolute positions or duplicates of this buffer, so that
+	 * its position is never changed.
+	 */
+	protected final MappedByteBuffer map;
 	/**
 	 * Size (in bytes) of this block provider, i.e. of its backing file.
 	 */
@@ -85,15 +105,37 @@ public class NikeFS2BlockProvider {
 	 */
 	protected final int numberOfBlocks;
 	/**
-	 * Bit set indicating which blocks served by this provider
+	 * Bit map indicating which blocks served by this provider
 	 * are still free, i.e. not yet allocated. Every block is
-	 * addressed by its unique index within this provider. For
-	 * each block, a bit set to <code>true</code>, at the block's
-	 * index in this bit set, indicates that the block is free.
-	 * Blocks whose index's bit is set to <code>false</code> are
-	 * currently allocated.
+	 * addressed by its unique index within this provider, which
+	 * is stored in bit <code>index % 64</code> of the word
+	 * <code>index / 64</code>. A set bit indicates that the block
+	 * is free, blocks whose bit is not set are currently allocated.
+	 * Words are only updated by compare-and-set operations.
 	 */
-	protected final BitSet blockAllocationMap;
+	protected final AtomicLongArray blockAllocationMap;
+	/**
+	 * Number of free blocks.
+	 */
+	protected final AtomicInteger freeBlocks;
+	/**
+	 * Index of the word of the allocation map in which the last
+	 * block has been allocated, where the search for a free block
+	 * starts.
+	 */
+	protected final AtomicInteger allocationHint = new AtomicInteger(0);
+	/**
+	 * Number of bytes read from this provider.
+	 */
+	protected final LongAdder bytesRead = new LongAdder();
+	/**
+	 * Number of bytes written to this provider.
+	 */
+	protected final LongAdder bytesWritten = new LongAdder();
+	/**
+	 * Number of read and write accesses to this provider.
+	 */
+	protected final LongAdder accesses = new LongAdder();
 	
 	
 	/**
@@ -107,29 +149,35 @@ public class NikeFS2BlockProvider {
 	 */
 	public NikeFS2BlockProvider(File storage, int size, int blockSize, boolean mapped) 
 			throws IOException {
-		synchronized(this) {
-			// initialize
-			this.mapped = mapped;
-			this.size = size;
-			this.blockSize = blockSize;
-			// create backing file, if not present yet
-			if(storage.exists()==false) {
-				storage.createNewFile();
-			}
-			// wrap backing file in random access file
-			this.file = storage;
-			if(this.mapped) {
-				this.rafile = new RandomAccessFile(file, "rw");
-			} else {
-				this.rafile = null;
-			}
-			// compute number of available blocks
-			numberOfBlocks = size / blockSize;
-			// allocate block allocation map.
-			blockAllocationMap = new BitSet(numberOfBlocks);
-			// initialize all fields to true, i.e. free blocks
-			blockAllocationMap.set(0, numberOfBlocks);
+		// initialize
+		this.mapped = mapped;
+		this.size = size;
+		this.blockSize = blockSize;
+		// create backing file, if not present yet
+		if(storage.exists()==false) {
+			storage.createNewFile();
+		}
+		// wrap backing file in random access file
+		this.file = storage;
+		this.rafile = new RandomAccessFile(file, "rw");
+		this.channel = rafile.getChannel();
+		if(this.mapped) {
+			this.map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		} else {
+			this.map = null;
+		}
+		// compute number of available blocks
+		numberOfBlocks = size / blockSize;
+		// allocate block allocation map.
+		blockAllocationMap = new AtomicLongArray((numberOfBlocks + 63) / 64);
+		// initialize all fields to true, i.e. free blocks
+		for(int i=0; i<numberOfBlocks / 64; i++) {
+			blockAllocationMap.set(i, -1L);
 		}
+		if(numberOfBlocks % 64 > 0) {
+			blockAllocationMap.set(numberOfBlocks / 64, (1L << (numberOfBlocks % 64)) - 1);
+		}
+		freeBlocks = new AtomicInteger(numberOfBlocks);
 	}
 	
 	/**
@@ -161,13 +209,50 @@ public class NikeFS2BlockProvider {
 	
 	/**
 	 * Returns the number of non-allocated blocks in this instance.
+	 * With concurrent allocations, the number may already be outdated
+	 * when it is returned.
 	 * 
 	 * @return The number of non-allocated blocks in this instance.
 	 */
-	public synchronized int numberOfFreeBlocks() {
-		// The number of free blocks equals the number of bits
-		// set to true in the allocation map.
-		return blockAllocationMap.cardinality();
+	public int numberOfFreeBlocks() {
+		return freeBlocks.get();
+	}
+	
+	/**
+	 * Returns whether the backing file of this instance is accessed
+	 * through a memory mapping.
+	 * 
+	 * @return Whether this instance uses memory mapping.
+	 */
+	public boolean isMapped() {
+		return mapped;
+	}
+	
+	/**
+	 * Returns the number of bytes read from this instance.
+	 * 
+	 * @return The number of bytes read from this instance.
+	 */
+	public long bytesRead() {
+		return bytesRead.sum();
+	}
+	
+	/**
+	 * Returns the number of bytes written to this instance.
+	 * 
+	 * @return The number of bytes written to this instance.
+	 */
+	public long bytesWritten() {
+		return bytesWritten.sum();
+	}
+	
+	/**
+	 * Returns the number of read and write accesses to this instance.
+	 * 
+	 * @return The number of accesses to this instance.
+	 */
+	public long numberOfAccesses() {
+		return accesses.sum();
 	}
 	
 	/**
@@ -186,19 +271,29 @@ public class NikeFS2BlockProvider {
 	 * May return <code>null</code>, if no free blocks are
 	 * currently available.
 	 */
-	public synchronized NikeFS2Block allocateBlock() {
-		// look for free block, i.e. first block whose index
-		// bit is set to true in the allocation map.
-		int freeBlockIndex = blockAllocationMap.nextSetBit(0);
-		if(freeBlockIndex < 0) {
-			// no free blocks left in this provider.
-			return null;
-		} else {
-			// set index bit to false in allocation map,
-			// and return in block wrapper.
-			blockAllocationMap.set(freeBlockIndex, false);
-			return new NikeFS2Block(this, freeBlockIndex);
+	public NikeFS2Block allocateBlock() {
+		int words = blockAllocationMap.length();
+		int start = allocationHint.get();
+		// look for free block, i.e. a set bit in the allocation map,
+		// starting at the word of the last allocation.
+		for(int i=0; i<words; i++) {
+			int word = (start + i) % words;
+			long bits = blockAllocationMap.get(word);
+			while(bits != 0) {
+				long freeBit = Long.lowestOneBit(bits);
+				// clear the bit, unless another thread changed the word.
+				if(blockAllocationMap.compareAndSet(word, bits, bits & ~freeBit)) {
+					freeBlocks.decrementAndGet();
+					if(word != start) {
+						allocationHint.set(word);
+					}
+					return new NikeFS2Block(this, word * 64 + Long.numberOfTrailingZeros(freeBit));
+				}
+				bits = blockAllocationMap.get(word);
+			}
 		}
+		// no free blocks left in this provider.
+		return null;
 	}
 	
 	/**
@@ -206,9 +301,21 @@ public class NikeFS2BlockProvider {
 	 * 
 	 * @param block The block to be freed.
 	 */
-	public synchronized void freeBlock(NikeFS2Block block) {
+	public void freeBlock(NikeFS2Block block) {
 		// set block index to true in allocation map.
-		blockAllocationMap.set(block.blockNumber(), true);
+		int word = block.blockNumber() / 64;
+		long bit = 1L << (block.blockNumber() % 64);
+		while(true) {
+			long bits = blockAllocationMap.get(word);
+			if((bits & bit) != 0) {
+				// already free
+				return;
+			}
+			if(blockAllocationMap.compareAndSet(word, bits, bits | bit)) {
+				freeBlocks.incrementAndGet();
+				return;
+			}
+		}
 	}
 	
 	/**
@@ -230,7 +337,7 @@ public class NikeFS2BlockProvider {
 	 * @param buffer Buffer to store read data in.
 	 * @return The number of read bytes.
 	 */
-	public synchronized int read(int blockNumber, int blockOffset, byte[] buffer) 
+	public int read(int blockNumber, int blockOffset, byte[] buffer) 
 			throws IOException {
 		return read(blockNumber, blockOffset, buffer, 0, buffer.length);
 	}
@@ -245,22 +352,31 @@ public class NikeFS2BlockProvider {
 	 * @param length Number of bytes to be read.
 	 * @return The number of read bytes.
 	 */
-	public synchronized int read(int blockNumber, int blockOffset, byte[] buffer, int bufferOffset, int length) 
+	public int read(int blockNumber, int blockOffset, byte[] buffer, int bufferOffset, int length) 
 			throws IOException {
-		long pointer = getBlockOffset(blockNumber) + blockOffset;
+		int pointer = getBlockOffset(blockNumber) + blockOffset;
 		int readable = blockSize - blockOffset;
 		int readLength = length;
 		if(readable < length) {
 			readLength = readable;
 		}
+		accesses.increment();
 		if(mapped == true) {
-			MappedByteBuffer map = NikeFS2FileAccessMonitor.instance().requestMap(this);
-			map.position((int)pointer);
-			map.get(buffer, bufferOffset, readLength);
+			ByteBuffer view = map.duplicate();
+			view.position(pointer);
+			view.get(buffer, bufferOffset, readLength);
+			bytesRead.add(readLength);
 			return readLength;
 		} else {
-			rafile.seek(pointer);
-			return rafile.read(buffer, bufferOffset, readLength);
+			ByteBuffer target = ByteBuffer.wrap(buffer, bufferOffset, readLength);
+			while(target.hasRemaining()) {
+				if(channel.read(target, pointer + target.position() - bufferOffset) < 0) {
+					break;
+				}
+			}
+			int read = target.position() - bufferOffset;
+			bytesRead.add(read);
+			return (read == 0 && readLength > 0) ? -1 : read;
 		}
 	}
 	
@@ -271,17 +387,20 @@ public class NikeFS2BlockProvider {
 	 * @param blockOffset Offset, in bytes, within this block.
 	 * @return The read byte.
 	 */
-	public synchronized int read(int blockNumber, int blockOffset) 
+	public int read(int blockNumber, int blockOffset) 
 			throws IOException {
-		long pointer = getBlockOffset(blockNumber) + blockOffset;
+		int pointer = getBlockOffset(blockNumber) + blockOffset;
+		accesses.increment();
+		bytesRead.increment();
 		if(mapped == true) {
-			MappedByteBuffer map = NikeFS2FileAccessMonitor.instance().requestMap(this);
-			map.position((int)pointer);
-			int result = map.get();
-			return result + 128;
+			// same representation as bulk accesses, so that both can be mixed
+			return map.get(pointer) & 0xFF;
 		} else {
-			rafile.seek(pointer);
-			return rafile.read();
+			ByteBuffer target = ByteBuffer.allocate(1);
+			if(channel.read(target, pointer) <= 0) {
+				return -1;
+			}
+			return target.get(0) & 0xFF;
 		}
 	}
 	
@@ -292,7 +411,7 @@ public class NikeFS2BlockProvider {
 	 * @param blockOffset Offset within the block to commence writing at.
 	 * @param buffer Buffer storing the data to be written.
 	 */
-	public synchronized void write(int blockNumber, int blockOffset, byte[] buffer) 
+	public void write(int blockNumber, int blockOffset, byte[] buffer) 
 			throws IOException {
 		write(blockNumber, blockOffset, buffer, 0, buffer.length);
 	}
@@ -306,21 +425,25 @@ public class NikeFS2BlockProvider {
 	 * @param bufferOffset Offset within the buffer from where to read.
 	 * @param length Number of bytes to be written.
 	 */
-	public synchronized void write(int blockNumber, int blockOffset, byte[] buffer, int bufferOffset, int length) 
+	public void write(int blockNumber, int blockOffset, byte[] buffer, int bufferOffset, int length) 
 			throws IOException {
-		long pointer = getBlockOffset(blockNumber) + blockOffset;
+		int pointer = getBlockOffset(blockNumber) + blockOffset;
 		int writable = blockSize - blockOffset;
 		int writeLength = length;
 		if(writable < length) {
 			writeLength = writable;
 		}
+		accesses.increment();
+		bytesWritten.add(writeLength);
 		if(mapped == true) {
-			MappedByteBuffer map = NikeFS2FileAccessMonitor.instance().requestMap(this);
-			map.position((int)pointer);
-			map.put(buffer, bufferOffset, writeLength);
+			ByteBuffer view = map.duplicate();
+			view.position(pointer);
+			view.put(buffer, bufferOffset, writeLength);
 		} else {
-			rafile.seek(pointer);
-			rafile.write(buffer, bufferOffset, writeLength);
+			ByteBuffer source = ByteBuffer.wrap(buffer, bufferOffset, writeLength);
+			while(source.hasRemaining()) {
+				channel.write(source, pointer + source.position() - bufferOffset);
+			}
 		}
 	}
 	
@@ -331,16 +454,19 @@ public class NikeFS2BlockProvider {
 	 * @param blockOffset Offset within the block to commence writing at.
 	 * @param value Byte value to be written.
 	 */
-	public synchronized void write(int blockNumber, int blockOffset, int value) 
+	public void write(int blockNumber, int blockOffset, int value) 
 			throws IOException {
-		long pointer = getBlockOffset(blockNumber) + blockOffset;
+		int pointer = getBlockOffset(blockNumber) + blockOffset;
+		accesses.increment();
+		bytesWritten.increment();
 		if(mapped == true) {
-			MappedByteBuffer map = NikeFS2FileAccessMonitor.instance().requestMap(this);
-			map.position((int)pointer);
-			map.put((byte)(value - 128));
+			map.put(pointer, (byte)value);
 		} else {
-			rafile.seek(pointer);
-			rafile.write(value);
+			ByteBuffer source = ByteBuffer.allocate(1);
+			source.put(0, (byte)value);
+			while(source.hasRemaining()) {
+				channel.write(source, pointer);
+			}
 		}
 	}
 
@@ -73,7 +73,20 @@ public class NikeFS2LazyRandomAccessStorageImpl extends
 	 */
 	public NikeFS2LazyRandomAccessStorageImpl(
 			NikeFS2VirtualFileSystem virtualFileSystem) {
-		super(virtualFileSystem);
+		this(virtualFileSystem, virtualFileSystem.blockSize());
+	}
+
+	/**
+	 * Creates a new instance.
+	 * 
+	 * @param virtualFileSystem
+	 *            Virtual file system to store data to.
+	 * @param blockSize
+	 *            Size, in bytes, of the blocks to store data in.
+	 */
+	public NikeFS2LazyRandomAccessStorageImpl(
+			NikeFS2VirtualFileSystem virtualFileSystem, int blockSize) {
+		super(virtualFileSystem, blockSize);
 		synchronized (NikeFS2RandomAccessStorageImpl.class) {
 			isSoftCopy = false;
 			parent = null;
@@ -89,7 +102,7 @@ public class NikeFS2LazyRandomAccessStorageImpl extends
 	 */
 	public NikeFS2LazyRandomAccessStorageImpl(
 			NikeFS2LazyRandomAccessStorageImpl template) {
-		super(template.vfs);
+		super(template.vfs, template.blockSize);
 		synchronized (NikeFS2RandomAccessStorageImpl.class) {
 			isSoftCopy = true;
 			softCopies = new ArrayList<NikeFS2LazyRandomAccessStorageImpl>();
@@ -153,7 +166,7 @@ public class NikeFS2LazyRandomAccessStorageImpl extends
 				// make copies of all contained blocks
 				byte[] buffer = new byte[blocks.get(0).size()];
 				for (NikeFS2Block block : blocks) {
-					NikeFS2Block copyBlock = vfs.allocateBlock();
+					NikeFS2Block copyBlock = vfs.allocateBlock(blockSize);
 					block.read(0, buffer);
 					copyBlock.write(0, buffer);
 					copyBlocks.add(copyBlock);
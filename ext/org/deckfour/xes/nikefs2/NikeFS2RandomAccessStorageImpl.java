@@ -62,6 +62,12 @@ public class NikeFS2RandomAccessStorageImpl implements NikeFS2RandomAccessStorag
 	 * References the virtual file system for block provision.
 	 */
 	protected NikeFS2VirtualFileSystem vfs;
+	/**
+	 * Size, in bytes, of the blocks of this virtual file. It is
+	 * fixed on creation, since the virtual file system may serve
+	 * blocks of a different size later on.
+	 */
+	protected final int blockSize;
 	/**
 	 * List of blocks used to store data.
 	 */
@@ -93,7 +99,20 @@ public class NikeFS2RandomAccessStorageImpl implements NikeFS2RandomAccessStorag
 	 * this virtual file can allocate storage blocks from.
 	 */
 	public NikeFS2RandomAccessStorageImpl(NikeFS2VirtualFileSystem virtualFileSystem) {
+		this(virtualFileSystem, virtualFileSystem.blockSize());
+	}
+	
+	/**
+	 * Creates a new instance of this class.
+	 * 
+	 * @param virtualFileSystem The virtual file system instance
+	 * this virtual file can allocate storage blocks from.
+	 * @param blockSize Size, in bytes, of the blocks to store
+	 * data in.
+	 */
+	public NikeFS2RandomAccessStorageImpl(NikeFS2VirtualFileSystem virtualFileSystem, int blockSize) {
 		vfs = virtualFileSystem;
+		this.blockSize = blockSize;
 		size = 0;
 		pointer = 0;
 		blocks = new ArrayList<NikeFS2Block>();
@@ -121,7 +140,7 @@ public class NikeFS2RandomAccessStorageImpl implements NikeFS2RandomAccessStorag
 	 * @return The number of the referenced block.
 	 */
 	protected int translateToBlockNumber(long offset) {
-		return (int)(offset / vfs.blockSize());
+		return (int)(offset / blockSize);
 	}
 	
 	/**
@@ -135,7 +154,7 @@ public class NikeFS2RandomAccessStorageImpl implements NikeFS2RandomAccessStorag
 	 * data is actually stored
 	 */
 	protected int translateToBlockOffset(long offset) {
-		return (int)(offset % vfs.blockSize());
+		return (int)(offset % blockSize);
 	}
 
 	/* (non-Javadoc)
@@ -153,16 +172,13 @@ public class NikeFS2RandomAccessStorageImpl implements NikeFS2RandomAccessStorag
 	 * @see org.processmining.framework.log.rfb.io.RandomAccessStorage#copy()
 	 */
 	public synchronized NikeFS2RandomAccessStorage copy() throws IOException {
-		// NOTE: This method's implementation assumes that all blocks served
-		// from the virtual file system are of equal block size!
-		// If this condition does not hold, unexpected results will be
-		// expected!
-		NikeFS2RandomAccessStorageImpl clone = new NikeFS2RandomAccessStorageImpl(vfs);
+		// the copy uses blocks of the same size as this instance
+		NikeFS2RandomAccessStorageImpl clone = new NikeFS2RandomAccessStorageImpl(vfs, blockSize);
 		if(blocks.size() > 0) {
 			// add copies of all contained blocks
 			byte[] buffer = new byte[blocks.get(0).size()];
 			for(NikeFS2Block block : blocks) {
-				NikeFS2Block copyBlock = vfs.allocateBlock();
+				NikeFS2Block copyBlock = vfs.allocateBlock(blockSize);
 				block.read(0, buffer);
 				copyBlock.write(0, buffer);
 				clone.blocks.add(copyBlock);
@@ -588,7 +604,7 @@ public class NikeFS2RandomAccessStorageImpl implements NikeFS2RandomAccessStorag
 			int blockOffset = translateToBlockOffset(pointer);
 			// allocate blocks if necessary
 			while(blockNumber >= blocks.size()) {
-				blocks.add(vfs.allocateBlock());
+				blocks.add(vfs.allocateBlock(blockSize));
 			}
 			NikeFS2Block block = blocks.get(blockNumber);
 			block.write(blockOffset, value);
@@ -605,7 +621,7 @@ public class NikeFS2RandomAccessStorageImpl implements NikeFS2RandomAccessStorag
 			int blockOffset = translateToBlockOffset(pointer);
 			// allocate blocks if necessary
 			while(blockNumber >= blocks.size()) {
-				blocks.add(vfs.allocateBlock());
+				blocks.add(vfs.allocateBlock(blockSize));
 			}
 			NikeFS2Block block = blocks.get(blockNumber);
 			int bytesToWrite = block.size() - blockOffset;
@@ -622,7 +638,7 @@ public class NikeFS2RandomAccessStorageImpl implements NikeFS2RandomAccessStorag
 				// get next block to write to
 				if(blockNumber >= blocks.size()) {
 					// allocate new block
-					blocks.add(vfs.allocateBlock());
+					blocks.add(vfs.allocateBlock(blockSize));
 				}
 				block = blocks.get(blockNumber);
 				// determine chunk size to write now
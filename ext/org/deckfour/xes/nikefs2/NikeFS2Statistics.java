@@ -0,0 +1,171 @@
+/*
+ * OpenXES
+ * 
+ * The reference implementation of the XES meta-model for event 
+ * log data management.
+ * 
+ * Copyright (c) 2008 Christian W. Guenther (christian@deckfour.org)
+ * 
+ * 
+ * LICENSE:
+ * 
+ * This code is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA
+ * 
+ * EXEMPTION:
+ * 
+ * The use of this software can also be conditionally licensed for
+ * other programs, which do not satisfy the specified conditions. This
+ * requires an exemption from the general license, which may be
+ * granted on a per-case basis.
+ * 
+ * If you want to license the use of this software with a program
+ * incompatible with the LGPL, please contact the author for an
+ * exemption at the following email address: 
+ * christian@deckfour.org
+ * 
+ */
+package org.deckfour.xes.nikefs2;
+
+/**
+ * Usage statistics of a NikeFS2 virtual file system. The block and
+ * swap file figures are computed from the block providers of the
+ * file system on each call, so that they are always current.
+ * 
+ * The statistics of the singleton virtual file system are registered
+ * as MBean under the name {@link #OBJECT_NAME}.
+ * 
+ * @see NikeFS2VirtualFileSystem#getStatistics()
+ */
+public class NikeFS2Statistics implements NikeFS2StatisticsMBean {
+	
+	/**
+	 * Object name of the MBean of the singleton virtual file system.
+	 */
+	public static final String OBJECT_NAME = "org.deckfour.xes.nikefs2:type=NikeFS2VirtualFileSystem";
+	
+	/**
+	 * The virtual file system whose usage is described.
+	 */
+	protected final NikeFS2VirtualFileSystem vfs;
+	
+	/**
+	 * Creates statistics of the given virtual file system.
+	 * 
+	 * @param vfs The virtual file system.
+	 */
+	public NikeFS2Statistics(NikeFS2VirtualFileSystem vfs) {
+		this.vfs = vfs;
+	}
+
+	public int getSwapFileCount() {
+		return vfs.blockProviders.size();
+	}
+
+	public long getSwapFileBytes() {
+		long bytes = 0;
+		for(NikeFS2BlockProvider provider : vfs.blockProviders) {
+			bytes += provider.size();
+		}
+		return bytes;
+	}
+
+	public long getAllocatedBlocks() {
+		long blocks = 0;
+		for(NikeFS2BlockProvider provider : vfs.blockProviders) {
+			blocks += provider.numberOfBlocks() - provider.numberOfFreeBlocks();
+		}
+		return blocks;
+	}
+
+	public long getFreeBlocks() {
+		long blocks = 0;
+		for(NikeFS2BlockProvider provider : vfs.blockProviders) {
+			blocks += provider.numberOfFreeBlocks();
+		}
+		return blocks;
+	}
+
+	public long getAllocatedBytes() {
+		long bytes = 0;
+		for(NikeFS2BlockProvider provider : vfs.blockProviders) {
+			bytes += (long)(provider.numberOfBlocks() - provider.numberOfFreeBlocks()) * provider.blockSize();
+		}
+		return bytes;
+	}
+
+	public long getBytesRead() {
+		long bytes = 0;
+		for(NikeFS2BlockProvider provider : vfs.blockProviders) {
+			bytes += provider.bytesRead();
+		}
+		return bytes;
+	}
+
+	public long getBytesWritten() {
+		long bytes = 0;
+		for(NikeFS2BlockProvider provider : vfs.blockProviders) {
+			bytes += provider.bytesWritten();
+		}
+		return bytes;
+	}
+
+	public long getMappedAccesses() {
+		long accesses = 0;
+		for(NikeFS2BlockProvider provider : vfs.blockProviders) {
+			if(provider.isMapped()) {
+				accesses += provider.numberOfAccesses();
+			}
+		}
+		return accesses;
+	}
+
+	public long getUnmappedAccesses() {
+		long accesses = 0;
+		for(NikeFS2BlockProvider provider : vfs.blockProviders) {
+			if(!provider.isMapped()) {
+				accesses += provider.numberOfAccesses();
+			}
+		}
+		return accesses;
+	}
+
+	public long getObservedBuffers() {
+		return vfs.observedBuffers.sum();
+	}
+
+	public long getAverageBufferSize() {
+		return vfs.averageBufferSize();
+	}
+
+	public int getBlockSize() {
+		return vfs.currentBlockSize();
+	}
+
+	public boolean isAdaptive() {
+		return vfs.isAdaptive();
+	}
+	
+	@Override
+	public String toString() {
+		return "NikeFS2: " + getSwapFileCount() + " swap files (" + getSwapFileBytes() + " bytes), "
+				+ getAllocatedBlocks() + " blocks allocated (" + getAllocatedBytes() + " bytes), "
+				+ getFreeBlocks() + " blocks free, " + getBytesRead() + " bytes read, "
+				+ getBytesWritten() + " bytes written, " + getMappedAccesses() + " mapped / "
+				+ getUnmappedAccesses() + " unmapped accesses, " + getObservedBuffers()
+				+ " buffers of " + getAverageBufferSize() + " bytes on average, block size "
+				+ getBlockSize() + (isAdaptive() ? " (adaptive)" : "");
+	}
+
+}
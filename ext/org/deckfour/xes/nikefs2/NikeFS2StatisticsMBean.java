@@ -0,0 +1,145 @@
+/*
+ * OpenXES
+ * 
+ * The reference implementation of the XES meta-model for event 
+ * log data management.
+ * 
+ * Copyright (c) 2008 Christian W. Guenther (christian@deckfour.org)
+ * 
+ * 
+ * LICENSE:
+ * 
+ * This code is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 3
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA
+ * 
+ * EXEMPTION:
+ * 
+ * The use of this software can also be conditionally licensed for
+ * other programs, which do not satisfy the specified conditions. This
+ * requires an exemption from the general license, which may be
+ * granted on a per-case basis.
+ * 
+ * If you want to license the use of this software with a program
+ * incompatible with the LGPL, please contact the author for an
+ * exemption at the following email address: 
+ * christian@deckfour.org
+ * 
+ */
+package org.deckfour.xes.nikefs2;
+
+/**
+ * Management interface exposing the usage of the NikeFS2 virtual
+ * file system via JMX.
+ * 
+ * @see NikeFS2Statistics
+ */
+public interface NikeFS2StatisticsMBean {
+	
+	/**
+	 * Returns the number of swap files.
+	 * 
+	 * @return The number of swap files.
+	 */
+	public int getSwapFileCount();
+	
+	/**
+	 * Returns the total size, in bytes, of all swap files.
+	 * 
+	 * @return The total size of all swap files.
+	 */
+	public long getSwapFileBytes();
+	
+	/**
+	 * Returns the number of currently allocated blocks.
+	 * 
+	 * @return The number of allocated blocks.
+	 */
+	public long getAllocatedBlocks();
+	
+	/**
+	 * Returns the number of free blocks in all swap files.
+	 * 
+	 * @return The number of free blocks.
+	 */
+	public long getFreeBlocks();
+	
+	/**
+	 * Returns the number of bytes in currently allocated blocks.
+	 * 
+	 * @return The number of allocated bytes.
+	 */
+	public long getAllocatedBytes();
+	
+	/**
+	 * Returns the number of bytes read from all swap files.
+	 * 
+	 * @return The number of read bytes.
+	 */
+	public long getBytesRead();
+	
+	/**
+	 * Returns the number of bytes written to all swap files.
+	 * 
+	 * @return The number of written bytes.
+	 */
+	public long getBytesWritten();
+	
+	/**
+	 * Returns the number of accesses to memory-mapped swap files.
+	 * 
+	 * @return The number of mapped accesses.
+	 */
+	public long getMappedAccesses();
+	
+	/**
+	 * Returns the number of accesses to swap files which are
+	 * not memory-mapped.
+	 * 
+	 * @return The number of unmapped accesses.
+	 */
+	public long getUnmappedAccesses();
+	
+	/**
+	 * Returns the number of event buffers which have stored
+	 * events in the virtual file system.
+	 * 
+	 * @return The number of observed event buffers.
+	 */
+	public long getObservedBuffers();
+	
+	/**
+	 * Returns the average size, in bytes, of the event buffers
+	 * which have stored events in the virtual file system.
+	 * 
+	 * @return The average size of observed event buffers.
+	 */
+	public long getAverageBufferSize();
+	
+	/**
+	 * Returns the block size, in bytes, of newly created
+	 * virtual files.
+	 * 
+	 * @return The current block size.
+	 */
+	public int getBlockSize();
+	
+	/**
+	 * Returns whether block sizes and swap file sizes are
+	 * adapted to the observed event buffers.
+	 * 
+	 * @return Whether the sizing policy is adaptive.
+	 */
+	public boolean isAdaptive();
+
+}
@@ -40,8 +40,12 @@ package org.deckfour.xes.nikefs2;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.lang.management.ManagementFactory;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.ObjectName;
 
 import org.deckfour.xes.logging.XLogging;
 import org.deckfour.xes.logging.XLogging.Importance;
@@ -55,11 +59,42 @@ import org.deckfour.xes.logging.XLogging.Importance;
  * file systems per application. A single VFS instance operates with maximum
  * efficiency, and guarantees that no data corruption or swap loss will occur.
  * 
+ * The usage of the file system is described by its statistics (see
+ * {@link #getStatistics()}), which are also registered via JMX. With an
+ * adaptive sizing policy (see {@link #setAdaptive(boolean)}), the block size
+ * of new virtual files is derived from the average size of the event buffers
+ * stored so far, and each new swap file is twice as large as the previous one
+ * of the same block size.
+ * 
  * @author Christian W. Guenther (christian@deckfour.org)
  * 
  */
 public class NikeFS2VirtualFileSystem implements NikeFS2StorageProvider {
 
+	/**
+	 * Minimal number of observed event buffers before the block size is
+	 * adapted.
+	 */
+	public static final int MIN_OBSERVED_BUFFERS = 100;
+	/**
+	 * Number of blocks an average event buffer is meant to occupy with an
+	 * adaptive block size. On average, half a block per buffer is unused, so
+	 * that at most about 1/16 of the allocated space is wasted.
+	 */
+	public static final int BLOCKS_PER_BUFFER = 8;
+	/**
+	 * Smallest adaptive block size, in bytes.
+	 */
+	public static final int MIN_BLOCK_SIZE = 512;
+	/**
+	 * Largest adaptive block size, in bytes.
+	 */
+	public static final int MAX_BLOCK_SIZE = 65536;
+	/**
+	 * Largest size of swap files with an adaptive policy, in bytes, i.e. 1 GB.
+	 */
+	public static final int MAX_SWAP_FILE_SIZE = 1 << 30;
+
 	/**
 	 * The singleton VFS instance.
 	 */
@@ -73,10 +108,28 @@ public class NikeFS2VirtualFileSystem implements NikeFS2StorageProvider {
 	public synchronized static NikeFS2VirtualFileSystem instance() {
 		if (instance == null) {
 			instance = new NikeFS2VirtualFileSystem();
+			registerStatistics(instance.statistics);
 		}
 		return instance;
 	}
 
+	/**
+	 * Registers the given statistics as MBean, if possible.
+	 * 
+	 * @param statistics
+	 *            Statistics of the singleton instance.
+	 */
+	private static void registerStatistics(NikeFS2Statistics statistics) {
+		try {
+			ObjectName name = new ObjectName(NikeFS2Statistics.OBJECT_NAME);
+			if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(statistics, name);
+			}
+		} catch (Exception e) {
+			XLogging.log("NikeFS2: Unable to register statistics MBean: " + e.getMessage(), Importance.WARNING);
+		}
+	}
+
 	/**
 	 * Block size, in bytes, of virtual storage blocks. Default value is 2048,
 	 * i.e. 2kB.
@@ -95,16 +148,36 @@ public class NikeFS2VirtualFileSystem implements NikeFS2StorageProvider {
 	protected boolean useLazyCopies = true;
 	/**
 	 * List of block providers, i.e. currently used swap files that serve for
-	 * providing storage blocks to virtual file abstractions.
+	 * providing storage blocks to virtual file abstractions. The list is
+	 * only modified while holding the lock of this instance, so that it can
+	 * be iterated without locking.
 	 */
 	protected List<NikeFS2BlockProvider> blockProviders;
+	/**
+	 * Flag determining whether block sizes and swap file sizes are adapted to
+	 * the observed event buffers. Default is <code>false</code>.
+	 */
+	protected volatile boolean adaptive = false;
+	/**
+	 * Number of event buffers which have stored events in this VFS.
+	 */
+	protected final LongAdder observedBuffers = new LongAdder();
+	/**
+	 * Total size, in bytes, of the event buffers which have stored events in
+	 * this VFS.
+	 */
+	protected final LongAdder observedBufferBytes = new LongAdder();
+	/**
+	 * Usage statistics of this VFS.
+	 */
+	protected final NikeFS2Statistics statistics = new NikeFS2Statistics(this);
 
 	/**
 	 * Creates a new virtual file system instance. (Hidden private constructor,
 	 * use singleton accessor method!)
 	 */
 	private NikeFS2VirtualFileSystem() {
-		blockProviders = new ArrayList<NikeFS2BlockProvider>();
+		blockProviders = new CopyOnWriteArrayList<NikeFS2BlockProvider>();
 	}
 
 	/**
@@ -129,9 +202,41 @@ public class NikeFS2VirtualFileSystem implements NikeFS2StorageProvider {
 		this.swapFileSize = bytes;
 	}
 
+	/**
+	 * Sets whether block sizes and swap file sizes are adapted to the observed
+	 * event buffers. The swap file size and block size set for this VFS then
+	 * serve as initial values. This will only affect newly created virtual
+	 * files and swap files.
+	 * 
+	 * @param adaptive
+	 *            Whether to use an adaptive sizing policy.
+	 */
+	public void setAdaptive(boolean adaptive) {
+		this.adaptive = adaptive;
+	}
+
+	/**
+	 * Returns whether block sizes and swap file sizes are adapted to the
+	 * observed event buffers.
+	 * 
+	 * @return Whether this VFS uses an adaptive sizing policy.
+	 */
+	public boolean isAdaptive() {
+		return adaptive;
+	}
+
+	/**
+	 * Returns the usage statistics of this VFS.
+	 * 
+	 * @return The statistics of this VFS.
+	 */
+	public NikeFS2Statistics getStatistics() {
+		return statistics;
+	}
+
 	/**
 	 * Sets the block size of the virtual file system. (used henceforth until
-	 * successive change).
+	 * successive change). Existing virtual files keep their block size.
 	 * 
 	 * @param bytes
 	 *            Size of blocks, in bytes.
@@ -147,10 +252,11 @@ public class NikeFS2VirtualFileSystem implements NikeFS2StorageProvider {
 	 * org.processmining.framework.log.rfb.io.StorageProvider#createStorage()
 	 */
 	public NikeFS2RandomAccessStorage createStorage() throws IOException {
+		int storageBlockSize = currentBlockSize();
 		if (useLazyCopies == true) {
-			return new NikeFS2LazyRandomAccessStorageImpl(this);
+			return new NikeFS2LazyRandomAccessStorageImpl(this, storageBlockSize);
 		} else {
-			return new NikeFS2RandomAccessStorageImpl(this);
+			return new NikeFS2RandomAccessStorageImpl(this, storageBlockSize);
 		}
 	}
 
@@ -163,6 +269,55 @@ public class NikeFS2VirtualFileSystem implements NikeFS2StorageProvider {
 		return blockSize;
 	}
 
+	/**
+	 * Returns the block size of newly created virtual files. With an adaptive
+	 * policy, this is the smallest power of two of at least
+	 * {@link #MIN_BLOCK_SIZE} bytes, for which the average observed event
+	 * buffer fits into {@link #BLOCKS_PER_BUFFER} blocks, but at most
+	 * {@link #MAX_BLOCK_SIZE} bytes. Until {@link #MIN_OBSERVED_BUFFERS}
+	 * buffers have been observed, and without an adaptive policy, it is the
+	 * block size set for this VFS.
+	 * 
+	 * @return The block size of new virtual files, in bytes.
+	 */
+	public int currentBlockSize() {
+		if (adaptive == false || observedBuffers.sum() < MIN_OBSERVED_BUFFERS) {
+			return blockSize;
+		}
+		long averageBufferSize = averageBufferSize();
+		int size = MIN_BLOCK_SIZE;
+		while (size < MAX_BLOCK_SIZE && (long) size * BLOCKS_PER_BUFFER < averageBufferSize) {
+			size <<= 1;
+		}
+		return size;
+	}
+
+	/**
+	 * Records the growth of an event buffer stored in this VFS. Buffers are
+	 * counted when they grow for the first time.
+	 * 
+	 * @param previousSize
+	 *            Size of the buffer before, in bytes.
+	 * @param size
+	 *            Size of the buffer after growing, in bytes.
+	 */
+	public void recordBufferGrowth(long previousSize, long size) {
+		if (previousSize == 0 && size > 0) {
+			observedBuffers.increment();
+		}
+		observedBufferBytes.add(size - previousSize);
+	}
+
+	/**
+	 * Returns the average size of the event buffers stored in this VFS.
+	 * 
+	 * @return The average size of observed event buffers, in bytes.
+	 */
+	protected long averageBufferSize() {
+		long buffers = observedBuffers.sum();
+		return buffers == 0 ? 0 : observedBufferBytes.sum() / buffers;
+	}
+
 	/**
 	 * Allocates a new virtual storage block from this virtual file system
 	 * instance. If no currently allocated swap file can provide any more
@@ -171,6 +326,20 @@ public class NikeFS2VirtualFileSystem implements NikeFS2StorageProvider {
 	 * @return An empty storage block abstraction.
 	 */
 	public NikeFS2Block allocateBlock() throws IOException {
+		return allocateBlock(blockSize);
+	}
+
+	/**
+	 * Allocates a new virtual storage block of the given size from this
+	 * virtual file system instance. If no currently allocated swap file with
+	 * this block size can provide any more storage blocks, a new swap file
+	 * will be allocated.
+	 * 
+	 * @param blockSize
+	 *            Size of the block, in bytes.
+	 * @return An empty storage block abstraction.
+	 */
+	public NikeFS2Block allocateBlock(int blockSize) throws IOException {
 //		synchronized (this) {
 //			// try to allocate from already created providers first
 //			for (NikeFS2BlockProvider provider : blockProviders) {
@@ -188,26 +357,73 @@ public class NikeFS2VirtualFileSystem implements NikeFS2StorageProvider {
 //		System.gc();
 //		System.runFinalization();
 //		Thread.yield();
+		// block providers allocate without locking, so that concurrent
+		// allocations only need the lock if a new swap file is required
+		NikeFS2Block block = allocateFromProviders(blockSize);
+		if (block != null) {
+			return block;
+		}
 		synchronized (this) {
-			for (NikeFS2BlockProvider provider : blockProviders) {
-				if (provider.numberOfFreeBlocks() > 0) {
-					NikeFS2Block block = provider.allocateBlock();
-					if (block != null) {
-						return block;
-					}
-				}
+			// another thread may have added a provider in the meantime
+			block = allocateFromProviders(blockSize);
+			if (block != null) {
+				return block;
 			}
 			// ok, we give up:
 			// create new swap file and provider, and allocate from there
+			int size = nextSwapFileSize(blockSize);
 			XLogging.log("NikeFS2: Allocating new swap file. (#"
-					+ (blockProviders.size() + 1) + ": " + swapFileSize
-					+ " bytes)", Importance.DEBUG);
+					+ (blockProviders.size() + 1) + ": " + size
+					+ " bytes, blocks of " + blockSize + " bytes)", Importance.DEBUG);
 			File swapFile = NikeFS2SwapFileManager.createSwapFile();
 			NikeFS2BlockProvider addedProvider = new NikeFS2BlockProvider(
-					swapFile, swapFileSize, blockSize, true);
+					swapFile, size, blockSize, true);
 			blockProviders.add(addedProvider);
 			return addedProvider.allocateBlock();
 		}
 	}
 
+	/**
+	 * Returns the size of the next swap file with the given block size. With
+	 * an adaptive policy, it is twice the size of the last swap file with this
+	 * block size, but at most {@link #MAX_SWAP_FILE_SIZE} bytes.
+	 * 
+	 * @param blockSize
+	 *            Size of the blocks of the swap file, in bytes.
+	 * @return The size of the next swap file, in bytes.
+	 */
+	protected int nextSwapFileSize(int blockSize) {
+		int size = swapFileSize;
+		if (adaptive == true) {
+			for (NikeFS2BlockProvider provider : blockProviders) {
+				if (provider.blockSize() == blockSize) {
+					size = (int) Math.min(MAX_SWAP_FILE_SIZE, Math.max(size, 2L * provider.size()));
+				}
+			}
+		}
+		// a swap file holds at least one block
+		return Math.max(size, blockSize);
+	}
+
+	/**
+	 * Allocates a block from the first swap file with free blocks of the given
+	 * size.
+	 * 
+	 * @param blockSize
+	 *            Size of the block, in bytes.
+	 * @return An empty storage block abstraction, or <code>null</code> if
+	 *         no swap file has free blocks.
+	 */
+	protected NikeFS2Block allocateFromProviders(int blockSize) {
+		for (NikeFS2BlockProvider provider : blockProviders) {
+			if (provider.blockSize() == blockSize && provider.numberOfFreeBlocks() > 0) {
+				NikeFS2Block block = provider.allocateBlock();
+				if (block != null) {
+					return block;
+				}
+			}
+		}
+		return null;
+	}
+
 }
@@ -3,6 +3,7 @@ package de.uni.freiburg.iig.telematik.sewol.accesscontrol;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -36,6 +37,14 @@ public abstract class AbstractACModel<T extends ACModelProperties> implements Na
         protected ACModelType type = null;
 
         protected ACModelListenerSupport acModelListenerSupport;
+        /**
+         * Activities of the context which are not executable,<br>
+         * computed on first request. Afterwards, only activities affected by
+         * permission changes are re-evaluated, so that validity checks do not
+         * have to consider all subjects.
+         */
+        private Set<String> nonExecutableTransactions;
+        private Set<String> invalidExecutabilityTransactions;
 
 //	public ACModel(){
 //		super();
@@ -73,6 +82,8 @@ public abstract class AbstractACModel<T extends ACModelProperties> implements Na
                 validUsageModes = new HashSet<>(Arrays.asList(DataUsage.values()));
                 acModelListenerSupport = new ACModelListenerSupport(this);
                 acModelListenerSupport.addListener(this);
+                nonExecutableTransactions = null;
+                invalidExecutabilityTransactions = new HashSet<>();
         }
 
         public boolean isEmpty() {
@@ -107,6 +118,7 @@ public abstract class AbstractACModel<T extends ACModelProperties> implements Na
                 this.context = context;
                 this.context.addContextListener(this);
                 contextChangeProcedure();
+                invalidateExecutability();
         }
 
         public abstract void checkContextChange(SOABase context);
@@ -187,6 +199,103 @@ public abstract class AbstractACModel<T extends ACModelProperties> implements Na
                 return !getAuthorizedSubjectsForTransaction(activity).isEmpty();
         }
 
+        /**
+         * Returns all activities of the context which are executable, i.e.
+         * for which there is at least one authorized subject.<br>
+         * In contrast to calling {@link #isExecutable(String)} for every
+         * activity, the transaction permissions of each subject are retrieved
+         * only once.
+         *
+         * @return The set of executable activities.
+         */
+        public Set<String> getExecutableTransactions() {
+                Set<String> executableTransactions = new HashSet<>();
+                int activityCount = getContext().getActivities().size();
+                for (String subject : getContext().getSubjects()) {
+                        executableTransactions.addAll(getTransactionPermissionsForSubject(subject));
+                        if (executableTransactions.size() == activityCount) {
+                                break;
+                        }
+                }
+                return executableTransactions;
+        }
+
+        /**
+         * Returns all activities of the context which are not executable,
+         * i.e. for which there is no authorized subject.<br>
+         * The result is maintained incrementally, only activities affected by
+         * permission changes since the last request are re-evaluated.
+         *
+         * @return The set of non-executable activities.
+         */
+        public Set<String> getNonExecutableTransactions() {
+                updateExecutability();
+                return new HashSet<>(nonExecutableTransactions);
+        }
+
+        /**
+         * Discards the set of non-executable activities, which is computed
+         * from scratch on the next request.
+         */
+        protected void invalidateExecutability() {
+                nonExecutableTransactions = null;
+                invalidExecutabilityTransactions.clear();
+        }
+
+        /**
+         * Marks the executability of the given activity for re-evaluation on
+         * the next request.
+         *
+         * @param transaction The activity whose authorized subjects changed.
+         */
+        protected void invalidateExecutability(String transaction) {
+                if (nonExecutableTransactions != null) {
+                        invalidExecutabilityTransactions.add(transaction);
+                }
+        }
+
+        private void updateExecutability() {
+                if (nonExecutableTransactions == null) {
+                        nonExecutableTransactions = new HashSet<>(getContext().getActivities());
+                        nonExecutableTransactions.removeAll(getExecutableTransactions());
+                } else {
+                        for (String transaction : invalidExecutabilityTransactions) {
+                                if (getContext().containsActivity(transaction) && !isExecutable(transaction)) {
+                                        nonExecutableTransactions.add(transaction);
+                                } else {
+                                        nonExecutableTransactions.remove(transaction);
+                                }
+                        }
+                }
+                invalidExecutabilityTransactions.clear();
+        }
+
+        /**
+         * Returns the authorization matrix for the given subjects and
+         * activities, i.e. for each subject the set of given activities it is
+         * authorized to execute.<br>
+         * Subjects and activities are validated once and the transaction
+         * permissions of each subject are retrieved only once.
+         *
+         * @param subjects The subjects in question.
+         * @param transactions The activities in question.
+         * @return A map from each subject to its authorized activities.
+         * @throws CompatibilityException If a subject or activity is not
+         * known.
+         */
+        public Map<String, Set<String>> getAuthorizedTransactions(Collection<String> subjects, Collection<String> transactions) throws CompatibilityException {
+                getContext().validateSubjects(subjects);
+                getContext().validateActivities(transactions);
+                Set<String> transactionSet = new HashSet<>(transactions);
+                Map<String, Set<String>> authorizedTransactions = new HashMap<>();
+                for (String subject : subjects) {
+                        Set<String> subjectTransactions = new HashSet<>(getTransactionPermissionsForSubject(subject));
+                        subjectTransactions.retainAll(transactionSet);
+                        authorizedTransactions.put(subject, subjectTransactions);
+                }
+                return authorizedTransactions;
+        }
+
         /**
          * An Access Control Model is considered valid, if all transactions are
          * executable.
@@ -205,7 +314,9 @@ public abstract class AbstractACModel<T extends ACModelProperties> implements Na
 
         /**
          * An Access Control Model is considered valid, if all transactions are
-         * executable.
+         * executable.<br>
+         * Executability is tracked incrementally, see
+         * {@link #getNonExecutableTransactions()}.
          *
          * @throws ACMValidationException
          */
@@ -216,14 +327,13 @@ public abstract class AbstractACModel<T extends ACModelProperties> implements Na
                 if (!getContext().containsActivities()) {
                         return;
                 }
-                for (String activity : getContext().getActivities()) {
-                        try {
-                                if (!isExecutable(activity)) {
-                                        throw new ACMValidationException("Model contains non-executable transactions: " + activity);
-                                }
-                        } catch (CompatibilityException e) {
-                                throw new ACMValidationException("Error during validation check: " + e.getMessage());
-                        }
+                try {
+                        updateExecutability();
+                } catch (CompatibilityException e) {
+                        throw new ACMValidationException("Error during validation check: " + e.getMessage());
+                }
+                if (!nonExecutableTransactions.isEmpty()) {
+                        throw new ACMValidationException("Model contains non-executable transactions: " + nonExecutableTransactions.iterator().next());
                 }
         }
 
@@ -338,6 +448,7 @@ public abstract class AbstractACModel<T extends ACModelProperties> implements Na
 
         @Override
         public void subjectRemoved(String subject) {
+                invalidateExecutability();
         }
 
         @Override
@@ -350,10 +461,12 @@ public abstract class AbstractACModel<T extends ACModelProperties> implements Na
 
         @Override
         public void activityAdded(String transaction) {
+                invalidateExecutability(transaction);
         }
 
         @Override
         public void activityRemoved(String transaction) {
+                invalidateExecutability(transaction);
         }
 
         @Override
@@ -394,10 +507,23 @@ public abstract class AbstractACModel<T extends ACModelProperties> implements Na
 
         @Override
         public void executionPermissionAdded(AbstractACModel<?> sender, String subject, String transaction) {
+                if (sender == this) {
+                        invalidateExecutability(transaction);
+                }
         }
 
         @Override
         public void executionPermissionRemoved(AbstractACModel<?> sender, String subject, String transaction) {
+                if (sender == this) {
+                        invalidateExecutability(transaction);
+                }
+        }
+
+        @Override
+        public void authorizationsChanged(AbstractACModel<?> sender) {
+                if (sender == this) {
+                        invalidateExecutability();
+                }
         }
 
         @Override
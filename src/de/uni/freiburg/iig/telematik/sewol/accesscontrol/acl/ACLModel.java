@@ -412,6 +412,17 @@ public class ACLModel extends AbstractACModel<ACLModelProperties> {
         return objectPermissionsUO.get(subject).get(object).contains(dataUsageMode);
     }
 
+    @Override
+    public boolean isExecutable(String activity) throws CompatibilityException {
+        context.validateActivity(activity);
+        return activityPermissionsTU.containsKey(activity);
+    }
+
+    @Override
+    public Set<String> getExecutableTransactions() {
+        return new HashSet<>(activityPermissionsTU.keySet());
+    }
+
     @Override
     public List<String> getAuthorizedSubjectsForTransaction(String activity) throws CompatibilityException {
         context.validateActivity(activity);
@@ -533,6 +544,7 @@ public class ACLModel extends AbstractACModel<ACLModelProperties> {
 
     @Override
     public void activityRemoved(String transaction) {
+        super.activityRemoved(transaction);
         Set<String> removedSubjects = activityPermissionsTU.remove(transaction);
         if (removedSubjects != null) {
             for (String subject : removedSubjects) {
@@ -605,6 +617,7 @@ public class ACLModel extends AbstractACModel<ACLModelProperties> {
         activityPermissionsUT.clear();
         objectPermissionsOU.clear();
         objectPermissionsUO.clear();
+        acModelListenerSupport.notifyAuthorizationsChanged();
     }
 
 //	public static void main(String[] args) throws Exception {
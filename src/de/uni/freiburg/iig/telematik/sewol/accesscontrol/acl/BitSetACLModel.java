@@ -0,0 +1,342 @@
+package de.uni.freiburg.iig.telematik.sewol.accesscontrol.acl;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import de.invation.code.toval.misc.soabase.SOABase;
+import de.invation.code.toval.properties.PropertyException;
+import de.invation.code.toval.types.DataUsage;
+import de.invation.code.toval.validate.CompatibilityException;
+import de.uni.freiburg.iig.telematik.sewol.accesscontrol.properties.ACLModelProperties;
+
+/**
+ * ACL model that answers authorization checks from a dense permission
+ * matrix.<br>
+ * Subjects, activities and objects of the context are mapped to int ids.
+ * Transaction permissions are stored as one bitset per subject (one bit per
+ * activity), object permissions as one byte per subject and object holding
+ * the bitmask of permitted data usage modes.<br>
+ * The map structures of {@link ACLModel} are still maintained for all
+ * methods returning collections, the matrix is updated along with every
+ * change of permissions or context elements.
+ */
+public class BitSetACLModel extends ACLModel {
+
+    private static final int USAGE_BITS = 8;
+    private static final int USAGE_SLOTS_PER_WORD = Long.SIZE / USAGE_BITS;
+    private static final long USAGE_SLOT_MASK = (1L << USAGE_BITS) - 1;
+    /**
+     * Marks an existing object permission entry, which may also have no
+     * usage modes.
+     */
+    private static final long PRESENT = 1L << (USAGE_BITS - 1);
+
+    protected Map<String, Integer> subjectIds;
+    protected Map<String, Integer> activityIds;
+    protected Map<String, Integer> objectIds;
+    /**
+     * Transaction permissions per subject id, bit n of a row stands for the
+     * activity with id n.
+     */
+    protected long[][] activityBits;
+    /**
+     * Object permissions per subject id, byte n of a row holds the usage
+     * modes for the object with id n.
+     */
+    protected long[][] objectBits;
+
+    private int nextSubjectId;
+    private int nextActivityId;
+    private int nextObjectId;
+
+    public BitSetACLModel(String name) {
+        super(name);
+    }
+
+    public BitSetACLModel(String name, SOABase context) {
+        super(name, context);
+    }
+
+    public BitSetACLModel(ACLModelProperties properties, SOABase context) throws PropertyException {
+        super(properties, context);
+    }
+
+    @Override
+    protected void initialize() {
+        super.initialize();
+        subjectIds = new HashMap<>();
+        activityIds = new HashMap<>();
+        objectIds = new HashMap<>();
+        activityBits = new long[0][];
+        objectBits = new long[0][];
+        nextSubjectId = 0;
+        nextActivityId = 0;
+        nextObjectId = 0;
+    }
+
+    //------- Permission changes ---------------------------------------------------------
+    @Override
+    public boolean addActivityPermission(String subject, String activity) throws CompatibilityException {
+        boolean added = super.addActivityPermission(subject, activity);
+        updateActivityPermission(subject, activity);
+        return added;
+    }
+
+    @Override
+    public void removeActivityPermissions(String subject) {
+        super.removeActivityPermissions(subject);
+        Integer subjectId = subjectIds.get(subject);
+        if (subjectId != null) {
+            activityBits[subjectId] = null;
+        }
+    }
+
+    @Override
+    public void removeActivityPermission(String subject, String activity) {
+        super.removeActivityPermission(subject, activity);
+        updateActivityPermission(subject, activity);
+    }
+
+    @Override
+    public boolean addObjectPermission(String subject, String object, Collection<DataUsage> dataUsageModes) throws CompatibilityException {
+        boolean added = super.addObjectPermission(subject, object, dataUsageModes);
+        updateObjectPermission(subject, object);
+        return added;
+    }
+
+    @Override
+    public void removeObjectPermissions(String subject) {
+        super.removeObjectPermissions(subject);
+        Integer subjectId = subjectIds.get(subject);
+        if (subjectId != null) {
+            objectBits[subjectId] = null;
+        }
+    }
+
+    @Override
+    public void removeObjectPermissions(String subject, String object) {
+        super.removeObjectPermissions(subject, object);
+        updateObjectPermission(subject, object);
+    }
+
+    @Override
+    public void removeObjectPermissions(String subject, String object, Collection<DataUsage> dataUsageModes) {
+        super.removeObjectPermissions(subject, object, dataUsageModes);
+        updateObjectPermission(subject, object);
+    }
+
+    @Override
+    public void resetPermissions() {
+        super.resetPermissions();
+        Arrays.fill(activityBits, null);
+        Arrays.fill(objectBits, null);
+    }
+
+    //------- Inherited methods ----------------------------------------------------------
+    @Override
+    public boolean isAuthorizedForTransaction(String subject, String activity) throws CompatibilityException {
+        Integer subjectId = subjectIds.get(subject);
+        Integer activityId = activityIds.get(activity);
+        if (subjectId == null || activityId == null) {
+            return super.isAuthorizedForTransaction(subject, activity);
+        }
+        long[] row = activityBits[subjectId];
+        int word = activityId >>> 6;
+        return row != null && word < row.length && (row[word] & (1L << activityId)) != 0;
+    }
+
+    @Override
+    public boolean isAuthorizedForObject(String subject, String object) throws CompatibilityException {
+        Integer subjectId = subjectIds.get(subject);
+        Integer objectId = objectIds.get(object);
+        if (subjectId == null || objectId == null) {
+            return super.isAuthorizedForObject(subject, object);
+        }
+        return (getUsageMask(subjectId, objectId) & PRESENT) != 0;
+    }
+
+    @Override
+    public boolean isAuthorizedForObject(String subject, String object, DataUsage dataUsageMode) throws CompatibilityException {
+        Integer subjectId = subjectIds.get(subject);
+        Integer objectId = objectIds.get(object);
+        if (subjectId == null || objectId == null) {
+            return super.isAuthorizedForObject(subject, object, dataUsageMode);
+        }
+        return dataUsageMode != null && (getUsageMask(subjectId, objectId) & (1L << dataUsageMode.ordinal())) != 0;
+    }
+
+    //------- Context changes ------------------------------------------------------------
+    @Override
+    protected void contextChangeProcedure() {
+        super.contextChangeProcedure();
+        subjectIds.clear();
+        activityIds.clear();
+        objectIds.clear();
+        nextSubjectId = 0;
+        nextActivityId = 0;
+        nextObjectId = 0;
+        for (String activity : context.getActivities()) {
+            activityIds.put(activity, nextActivityId++);
+        }
+        for (String object : context.getObjects()) {
+            objectIds.put(object, nextObjectId++);
+        }
+        activityBits = new long[context.getSubjects().size()][];
+        objectBits = new long[context.getSubjects().size()][];
+        for (String subject : context.getSubjects()) {
+            addSubjectId(subject);
+            if (activityPermissionsUT.containsKey(subject)) {
+                for (String activity : activityPermissionsUT.get(subject)) {
+                    updateActivityPermission(subject, activity);
+                }
+            }
+            if (objectPermissionsUO.containsKey(subject)) {
+                for (String object : objectPermissionsUO.get(subject).keySet()) {
+                    updateObjectPermission(subject, object);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void subjectAdded(String subject) {
+        super.subjectAdded(subject);
+        addSubjectId(subject);
+    }
+
+    @Override
+    public void subjectRemoved(String subject) {
+        super.subjectRemoved(subject);
+        Integer subjectId = subjectIds.remove(subject);
+        if (subjectId != null) {
+            activityBits[subjectId] = null;
+            objectBits[subjectId] = null;
+        }
+    }
+
+    @Override
+    public void activityAdded(String transaction) {
+        super.activityAdded(transaction);
+        if (!activityIds.containsKey(transaction)) {
+            activityIds.put(transaction, nextActivityId++);
+        }
+    }
+
+    @Override
+    public void activityRemoved(String transaction) {
+        super.activityRemoved(transaction);
+        activityIds.remove(transaction);
+    }
+
+    @Override
+    public void objectAdded(String object) {
+        super.objectAdded(object);
+        if (!objectIds.containsKey(object)) {
+            objectIds.put(object, nextObjectId++);
+            // Entries without usage modes are not removed together with their object.
+            for (String subject : objectPermissionsUO.keySet()) {
+                updateObjectPermission(subject, object);
+            }
+        }
+    }
+
+    @Override
+    public void objectRemoved(String object) {
+        super.objectRemoved(object);
+        objectIds.remove(object);
+    }
+
+    @Override
+    public BitSetACLModel clone() {
+        try {
+            return new BitSetACLModel(getProperties(), getContext());
+        } catch (PropertyException e) {
+            return null;
+        }
+    }
+
+    //------- Helper methods -------------------------------------------------------------
+    private void addSubjectId(String subject) {
+        if (subjectIds.containsKey(subject)) {
+            return;
+        }
+        int subjectId = nextSubjectId++;
+        subjectIds.put(subject, subjectId);
+        if (subjectId >= activityBits.length) {
+            int capacity = Math.max(subjectId + 1, activityBits.length * 2);
+            activityBits = Arrays.copyOf(activityBits, capacity);
+            objectBits = Arrays.copyOf(objectBits, capacity);
+        }
+    }
+
+    /**
+     * Sets the bit of the given subject and activity according to the
+     * transaction permissions of the underlying map structures.
+     */
+    private void updateActivityPermission(String subject, String activity) {
+        Integer subjectId = subjectIds.get(subject);
+        Integer activityId = activityIds.get(activity);
+        if (subjectId == null || activityId == null) {
+            return;
+        }
+        Set<String> activities = activityPermissionsUT.get(subject);
+        boolean permitted = activities != null && activities.contains(activity);
+        int word = activityId >>> 6;
+        long[] row = activityBits[subjectId];
+        if (row == null || word >= row.length) {
+            if (!permitted) {
+                return;
+            }
+            row = row == null ? new long[word + 1] : Arrays.copyOf(row, Math.max(word + 1, row.length * 2));
+            activityBits[subjectId] = row;
+        }
+        if (permitted) {
+            row[word] |= 1L << activityId;
+        } else {
+            row[word] &= ~(1L << activityId);
+        }
+    }
+
+    /**
+     * Sets the usage mask of the given subject and object according to the
+     * object permissions of the underlying map structures.
+     */
+    private void updateObjectPermission(String subject, String object) {
+        Integer subjectId = subjectIds.get(subject);
+        Integer objectId = objectIds.get(object);
+        if (subjectId == null || objectId == null) {
+            return;
+        }
+        long mask = 0;
+        Map<String, Set<DataUsage>> objectPermissions = objectPermissionsUO.get(subject);
+        if (objectPermissions != null && objectPermissions.containsKey(object)) {
+            mask = PRESENT;
+            for (DataUsage dataUsage : objectPermissions.get(object)) {
+                mask |= 1L << dataUsage.ordinal();
+            }
+        }
+        int word = objectId / USAGE_SLOTS_PER_WORD;
+        int shift = (objectId % USAGE_SLOTS_PER_WORD) * USAGE_BITS;
+        long[] row = objectBits[subjectId];
+        if (row == null || word >= row.length) {
+            if (mask == 0) {
+                return;
+            }
+            row = row == null ? new long[word + 1] : Arrays.copyOf(row, Math.max(word + 1, row.length * 2));
+            objectBits[subjectId] = row;
+        }
+        row[word] = (row[word] & ~(USAGE_SLOT_MASK << shift)) | (mask << shift);
+    }
+
+    private long getUsageMask(int subjectId, int objectId) {
+        long[] row = objectBits[subjectId];
+        int word = objectId / USAGE_SLOTS_PER_WORD;
+        if (row == null || word >= row.length) {
+            return 0;
+        }
+        return (row[word] >>> ((objectId % USAGE_SLOTS_PER_WORD) * USAGE_BITS)) & USAGE_SLOT_MASK;
+    }
+}
@@ -20,4 +20,13 @@ public interface ACModelListener {
 	public void executionPermissionAdded(AbstractACModel<?> sender, String subject, String transaction);
 
 	public void executionPermissionRemoved(AbstractACModel<?> sender, String subject, String transaction);
+
+	/**
+	 * Signals that authorizations of subjects may have changed in a way that is not reported by the other methods,
+	 * e.g. by resetting permissions or by changing role membership.<br>
+	 * Listeners have to discard all information derived from the authorizations of the sender.
+	 * Does nothing by default.
+	 * @param sender The access control model whose authorizations changed.
+	 */
+	public default void authorizationsChanged(AbstractACModel<?> sender) {}
 }
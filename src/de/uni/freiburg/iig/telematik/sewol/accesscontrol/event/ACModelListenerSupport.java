@@ -56,5 +56,11 @@ public class ACModelListenerSupport extends AbstractListenerSupport<ACModelListe
 			listener.executionPermissionRemoved(acModel, subject, transaction);
 		}
 	}
+	
+	public void notifyAuthorizationsChanged(){
+		for(ACModelListener listener: listeners){
+			listener.authorizationsChanged(acModel);
+		}
+	}
 
 }
@@ -9,6 +9,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import de.invation.code.toval.misc.CollectionUtils;
 import de.invation.code.toval.misc.soabase.SOABase;
@@ -42,6 +43,12 @@ public class RBACModel extends AbstractACModel<RBACModelProperties> implements R
 	protected HashMap<String, HashList<String>> roleMembershipRU;
 	protected HashMap<String, HashList<String>> roleMembershipUR;
 	protected ACLModel rolePermissions;
+	/**
+	 * Roles of subjects including the roles dominated by their primary roles in case of rights propagation.<br>
+	 * Entries are computed on first request and discarded on changes of role membership, rights propagation or the role lattice.<br>
+	 * The map is concurrent, so that authorization queries can be evaluated in parallel.
+	 */
+	protected Map<String, Set<String>> effectiveRoles;
 	
 	private boolean rightPropagationAlongLattice;
 	
@@ -86,6 +93,7 @@ public class RBACModel extends AbstractACModel<RBACModelProperties> implements R
 		super.initialize();
 		roleMembershipRU = new HashMap<>();
 		roleMembershipUR = new HashMap<>();
+		effectiveRoles = new ConcurrentHashMap<>();
 		rolePermissions = new ACLModel("rolePermissions");
 		rolePermissions.addACModelListener(this);
 		rightPropagationAlongLattice = false;
@@ -97,6 +105,8 @@ public class RBACModel extends AbstractACModel<RBACModelProperties> implements R
 		rolePermissions.getContext().setSubjects(roleLattice.getRoles());
 		this.roleLattice = roleLattice;
 		this.roleLattice.addRoleLatticeListener(this);
+		effectiveRoles.clear();
+		acModelListenerSupport.notifyAuthorizationsChanged();
 	}
 	
 	@Override
@@ -122,6 +132,8 @@ public class RBACModel extends AbstractACModel<RBACModelProperties> implements R
 	
 	public void setRightsPropagation(boolean propagate){
 		this.rightPropagationAlongLattice = propagate;
+		effectiveRoles.clear();
+		acModelListenerSupport.notifyAuthorizationsChanged();
 	}
 	
 	public boolean propagatesRights(){
@@ -136,16 +148,38 @@ public class RBACModel extends AbstractACModel<RBACModelProperties> implements R
 	
 	public Set<String> getRolesFor(String subject, boolean withPropagation) throws CompatibilityException{
 		getContext().validateSubject(subject);
+		if(withPropagation)
+			return new HashSet<>(getEffectiveRolesFor(subject));
 		Set<String> userRoles = new HashSet<>();
 		if(roleMembershipUR.containsKey(subject)){
 			userRoles.addAll(roleMembershipUR.get(subject));
-			if(withPropagation && propagatesRights()){
-				for(String primaryRole: roleMembershipUR.get(subject)){
-					try {
-						userRoles.addAll(roleLattice.getDominatedRolesFor(primaryRole));
-					} catch (Exception e) {}
+		}
+		return userRoles;
+	}
+	
+	/**
+	 * Returns all roles of the given subject, including the roles dominated by its primary roles in case of rights propagation.<br>
+	 * The result is cached until role membership, rights propagation or the role lattice change.<br>
+	 * It is assumed that the caller ensures parameter validity.
+	 * @param subject
+	 * @return An unmodifiable set of roles.
+	 */
+	protected Set<String> getEffectiveRolesFor(String subject){
+		Set<String> userRoles = effectiveRoles.get(subject);
+		if(userRoles == null){
+			userRoles = new HashSet<>();
+			if(roleMembershipUR.containsKey(subject)){
+				userRoles.addAll(roleMembershipUR.get(subject));
+				if(propagatesRights()){
+					for(String primaryRole: roleMembershipUR.get(subject)){
+						try {
+							userRoles.addAll(roleLattice.getDominatedRolesFor(primaryRole));
+						} catch (Exception e) {}
+					}
 				}
 			}
+			userRoles = Collections.unmodifiableSet(userRoles);
+			effectiveRoles.put(subject, userRoles);
 		}
 		return userRoles;
 	}
@@ -155,16 +189,20 @@ public class RBACModel extends AbstractACModel<RBACModelProperties> implements R
 		getContext().validateSubjects(members);
 		if(roleMembershipRU.containsKey(roleName)){
 			//role membership was already set before -> cleanup
-			for(String member: roleMembershipRU.get(roleName))
+			for(String member: roleMembershipRU.get(roleName)){
 				roleMembershipUR.get(member).remove(roleName);
+				effectiveRoles.remove(member);
+			}
 		}
 		roleMembershipRU.put(roleName, new HashList<>(members));
 		for(String member: members){
+			effectiveRoles.remove(member);
 			if(!roleMembershipUR.containsKey(member)){
 				roleMembershipUR.put(member, new HashList<>());
 			}
 			roleMembershipUR.get(member).add(roleName);
 		}
+		acModelListenerSupport.notifyAuthorizationsChanged();
 	}
 	
 	public void setRoleMembership(String roleName, String... members) throws CompatibilityException {
@@ -181,6 +219,7 @@ public class RBACModel extends AbstractACModel<RBACModelProperties> implements R
 		if(roles.isEmpty())
 			return;
 		
+		effectiveRoles.remove(subject);
 		if(!roleMembershipUR.containsKey(subject)){
 			roleMembershipUR.put(subject, new HashList<>());
 		}
@@ -192,6 +231,7 @@ public class RBACModel extends AbstractACModel<RBACModelProperties> implements R
 			}
 			roleMembershipRU.get(role).add(subject);
 		}
+		acModelListenerSupport.notifyAuthorizationsChanged();
 	}
 	
 	public void removeRoleMembership(String subject, String... roles) throws CompatibilityException {
@@ -204,9 +244,11 @@ public class RBACModel extends AbstractACModel<RBACModelProperties> implements R
 		
 		if(!roleMembershipUR.containsKey(subject))
 			return;
+		effectiveRoles.remove(subject);
 		roleMembershipUR.get(subject).removeAll(roles);
 		if(roleMembershipUR.get(subject).isEmpty())
 			roleMembershipUR.remove(subject);
+		acModelListenerSupport.notifyAuthorizationsChanged();
 		
 		for(String role: roles){
 			if(!roleMembershipRU.containsKey(role))
@@ -269,7 +311,7 @@ public class RBACModel extends AbstractACModel<RBACModelProperties> implements R
 		getContext().validateActivity(transaction);
 		if(!roleMembershipUR.containsKey(subject))
 			return false;
-		for(String role: getRolesFor(subject, true))
+		for(String role: getEffectiveRolesFor(subject))
 			if(rolePermissions.isAuthorizedForTransaction(role, transaction))
 				return true;
 		return false;
@@ -281,7 +323,7 @@ public class RBACModel extends AbstractACModel<RBACModelProperties> implements R
 		getContext().validateObject(object);
 		if(!roleMembershipUR.containsKey(subject))
 			return false;
-		for(String role: getRolesFor(subject, true))
+		for(String role: getEffectiveRolesFor(subject))
 			if(rolePermissions.isAuthorizedForObject(role, object))
 				return true;
 		return false;
@@ -293,7 +335,7 @@ public class RBACModel extends AbstractACModel<RBACModelProperties> implements R
 		getContext().validateObject(object);
 		if(!roleMembershipUR.containsKey(subject))
 			return false;
-		for(String role: getRolesFor(subject, true))
+		for(String role: getEffectiveRolesFor(subject))
 			if(rolePermissions.isAuthorizedForObject(role, object, dataUsage))
 				return true;
 		return false;
@@ -302,6 +344,52 @@ public class RBACModel extends AbstractACModel<RBACModelProperties> implements R
 	@Override
 	public List<String> getAuthorizedSubjectsForTransaction(String transaction) throws CompatibilityException {
 		getContext().validateActivity(transaction);
+		return getUsersFor(getAuthorizedRolesForTransaction(transaction));
+	}
+	
+	/**
+	 * Checks if there is a role authorized for the given transaction which has at least one member,<br>
+	 * without collecting the authorized subjects.
+	 */
+	@Override
+	public boolean isExecutable(String transaction) throws CompatibilityException {
+		getContext().validateActivity(transaction);
+		for(String role: getAuthorizedRolesForTransaction(transaction)){
+			if(roleMembershipRU.containsKey(role) && !roleMembershipRU.get(role).isEmpty())
+				return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Determines the executable transactions from the permissions of all roles which have at least one member,<br>
+	 * so that the effort depends on the number of roles instead of the number of subjects.
+	 */
+	@Override
+	public Set<String> getExecutableTransactions() {
+		Set<String> populatedRoles = new HashSet<>();
+		for(String role: roleMembershipRU.keySet()){
+			if(roleMembershipRU.get(role).isEmpty())
+				continue;
+			populatedRoles.add(role);
+			if(propagatesRights()){
+				populatedRoles.addAll(roleLattice.getDominatedRolesFor(role));
+			}
+		}
+		Set<String> executableTransactions = new HashSet<>();
+		for(String role: populatedRoles){
+			executableTransactions.addAll(rolePermissions.getTransactionPermissionsForSubject(role));
+		}
+		return executableTransactions;
+	}
+	
+	/**
+	 * Returns all roles which are authorized for the given transaction,<br>
+	 * including the roles dominating them in case of rights propagation.<br>
+	 * It is assumed that the caller ensures parameter validity.
+	 * @param transaction
+	 */
+	private HashList<String> getAuthorizedRolesForTransaction(String transaction){
 		HashList<String> authorizedRoles = new HashList<>();
 		try { authorizedRoles.addAll(rolePermissions.getAuthorizedSubjectsForTransaction(transaction));
 		} catch (Exception e1) {}
@@ -312,7 +400,7 @@ public class RBACModel extends AbstractACModel<RBACModelProperties> implements R
 				} catch (Exception e) {}
 			}
 		}
-		return getUsersFor(authorizedRoles);
+		return authorizedRoles;
 	}
 
 	@Override
@@ -330,7 +418,7 @@ public class RBACModel extends AbstractACModel<RBACModelProperties> implements R
 		}
 		for(String subject: getContext().getSubjects()){
 			userPermissions.put(subject, new HashSet<>());
-			for(String role: getRolesFor(subject, true)){
+			for(String role: getEffectiveRolesFor(subject)){
 				if(!userRolePermissions.containsKey(role)){
 					continue;
 				}
@@ -644,6 +732,7 @@ public class RBACModel extends AbstractACModel<RBACModelProperties> implements R
 	@Override
 	public void roleAdded(String roleName){
 		rolePermissions.getContext().addSubject(roleName);
+		effectiveRoles.clear();
 	}
 
 	@Override
@@ -655,6 +744,23 @@ public class RBACModel extends AbstractACModel<RBACModelProperties> implements R
 				removeRoleMembership(subject, roleName);
 			}
 		}
+		effectiveRoles.clear();
+	}
+	
+	@Override
+	public void relationAdded(String dominatingRole, String dominatedRole){
+		effectiveRoles.clear();
+		if(propagatesRights()){
+			acModelListenerSupport.notifyAuthorizationsChanged();
+		}
+	}
+	
+	@Override
+	public void relationRemoved(String dominatingRole, String dominatedRole){
+		effectiveRoles.clear();
+		if(propagatesRights()){
+			acModelListenerSupport.notifyAuthorizationsChanged();
+		}
 	}
 	
 	@Override
@@ -701,6 +807,8 @@ public class RBACModel extends AbstractACModel<RBACModelProperties> implements R
 	public void resetRoleMembership(){
 		roleMembershipRU.clear();
 		roleMembershipUR.clear();
+		effectiveRoles.clear();
+		acModelListenerSupport.notifyAuthorizationsChanged();
 	}
 	
 	@Override
@@ -764,6 +872,8 @@ public class RBACModel extends AbstractACModel<RBACModelProperties> implements R
 	public void executionPermissionAdded(AbstractACModel sender, String subject, String transaction) {
 		if(sender == rolePermissions){
 			acModelListenerSupport.notifyExecutionPermissionAdded(subject, transaction);
+		} else {
+			super.executionPermissionAdded(sender, subject, transaction);
 		}
 	}
 
@@ -771,6 +881,17 @@ public class RBACModel extends AbstractACModel<RBACModelProperties> implements R
 	public void executionPermissionRemoved(AbstractACModel sender, String subject, String transaction) {
 		if(sender == rolePermissions){
 			acModelListenerSupport.notifyExecutionPermissionRemoved(subject, transaction);
+		} else {
+			super.executionPermissionRemoved(sender, subject, transaction);
+		}
+	}
+	
+	@Override
+	public void authorizationsChanged(AbstractACModel<?> sender) {
+		if(sender == rolePermissions){
+			acModelListenerSupport.notifyAuthorizationsChanged();
+		} else {
+			super.authorizationsChanged(sender);
 		}
 	}
 	
@@ -4,7 +4,9 @@ package de.uni.freiburg.iig.telematik.sewol.accesscontrol.rbac.lattice;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import de.invation.code.toval.graphic.dialog.DialogObject;
 import de.invation.code.toval.validate.CompatibilityException;
@@ -25,6 +27,13 @@ public class RoleLattice implements Cloneable, DialogObject<RoleLattice>{
 	protected Set<String> roles = new HashSet<String>();
 	protected Graph<String> lattice = new Graph<String>();
 	protected RoleLatticeListenerSupport listenerSupport = new RoleLatticeListenerSupport();
+	/**
+	 * Transitive closures of the dominating and dominated roles,<br>
+	 * computed on first request and discarded on every change of the lattice.<br>
+	 * The maps are concurrent, so that queries can be evaluated in parallel.
+	 */
+	protected Map<String, Set<String>> dominatingRolesClosure = new ConcurrentHashMap<String, Set<String>>();
+	protected Map<String, Set<String>> dominatedRolesClosure = new ConcurrentHashMap<String, Set<String>>();
 	
 	public RoleLattice() {}
 	
@@ -65,8 +74,17 @@ public class RoleLattice implements Cloneable, DialogObject<RoleLattice>{
 		obsoleteRoles.removeAll(roles);
 		addRoles(newRoles);
 		removeRoles(obsoleteRoles);
+		Set<RoleRelation> obsoleteRelations = getRoleRelations();
 		lattice = new Graph<String>();
 		lattice.addVertices(roles);
+		invalidateClosures();
+		for(RoleRelation relation: obsoleteRelations){
+			try {
+				listenerSupport.notifyRelationRemoved(relation.getDominatingRole(), relation.getDominatedRole());
+			} catch (Exception e) {
+				throw new ParameterException(e.getMessage());
+			}
+		}
 	}
 	
 	public void addRoles(Collection<String> roles){
@@ -82,6 +100,7 @@ public class RoleLattice implements Cloneable, DialogObject<RoleLattice>{
 		Validate.notNull(role);
 		this.roles.add(role);
 		lattice.addVertex(role);
+		invalidateClosures();
 		try {
 			listenerSupport.notifyRoleAdded(role);
 		} catch (Exception e) {
@@ -109,16 +128,12 @@ public class RoleLattice implements Cloneable, DialogObject<RoleLattice>{
 	
 	public Set<String> getDominatingRolesFor(String role, boolean transitive) throws CompatibilityException {
 		validateRole(role);
+		if(transitive)
+			return new HashSet<String>(getDominatingRolesClosure(role));
 		Set<String> dominatingRoles = new HashSet<String>();
 		try {
-			if(!transitive){
-				for(Vertex<String> parentVertex : lattice.getParents(role))
-					dominatingRoles.add(parentVertex.getName());
-			} else {
-				for(Vertex<String> predecessorVertex: TraversalUtils.getPredecessorsFor(lattice, lattice.getVertex(role))){
-					dominatingRoles.add(predecessorVertex.getName());
-				}
-			}
+			for(Vertex<String> parentVertex : lattice.getParents(role))
+				dominatingRoles.add(parentVertex.getName());
 		} catch (GraphException e) {
 			// Cannot happen, since the role is contained in the lattice (enforced by setRoles).
 			e.printStackTrace();
@@ -139,16 +154,12 @@ public class RoleLattice implements Cloneable, DialogObject<RoleLattice>{
 	
 	public Set<String> getDominatedRolesFor(String role, boolean transitive) throws CompatibilityException {
 		validateRole(role);
+		if(transitive)
+			return new HashSet<String>(getDominatedRolesClosure(role));
 		Set<String> dominatedRoles = new HashSet<String>();
 		try {
-			if(!transitive){
-				for(Vertex<String> childVertex : lattice.getChildren(role))
-					dominatedRoles.add(childVertex.getName());
-			} else {
-				for(Vertex<String> successorVertex: TraversalUtils.getSuccessorsFor(lattice, lattice.getVertex(role))){
-					dominatedRoles.add(successorVertex.getName());
-				}
-			}
+			for(Vertex<String> childVertex : lattice.getChildren(role))
+				dominatedRoles.add(childVertex.getName());
 		} catch (GraphException e) {
 			// Cannot happen, since the role is contained in the lattice (enforced by setRoles).
 			e.printStackTrace();
@@ -156,6 +167,73 @@ public class RoleLattice implements Cloneable, DialogObject<RoleLattice>{
 		return dominatedRoles;
 	}
 	
+	/**
+	 * Checks if the given dominating role (transitively) dominates the given dominated role.
+	 * @param dominatingRole A role of the lattice
+	 * @param dominatedRole A role of the lattice
+	 * @return <code>true</code> if the dominated role is reachable from the dominating role;<br>
+	 * <code>false</code> otherwise.
+	 * @throws CompatibilityException If one of the roles is not known.
+	 */
+	public boolean dominates(String dominatingRole, String dominatedRole) throws CompatibilityException {
+		validateRole(dominatingRole);
+		validateRole(dominatedRole);
+		return getDominatedRolesClosure(dominatingRole).contains(dominatedRole);
+	}
+	
+	/**
+	 * Returns the cached transitive closure of the roles dominating the given role.<br>
+	 * It is assumed that the caller ensures parameter validity.
+	 * @param role A role of the lattice
+	 * @return An unmodifiable set of all dominating roles.
+	 */
+	protected Set<String> getDominatingRolesClosure(String role){
+		Set<String> closure = dominatingRolesClosure.get(role);
+		if(closure == null){
+			closure = new HashSet<String>();
+			try {
+				for(Vertex<String> predecessorVertex: TraversalUtils.getPredecessorsFor(lattice, lattice.getVertex(role))){
+					closure.add(predecessorVertex.getName());
+				}
+			} catch (GraphException e) {
+				// Cannot happen, since the role is contained in the lattice (enforced by setRoles).
+				e.printStackTrace();
+			}
+			closure = Collections.unmodifiableSet(closure);
+			dominatingRolesClosure.put(role, closure);
+		}
+		return closure;
+	}
+	
+	/**
+	 * Returns the cached transitive closure of the roles dominated by the given role.<br>
+	 * It is assumed that the caller ensures parameter validity.
+	 * @param role A role of the lattice
+	 * @return An unmodifiable set of all dominated roles.
+	 */
+	protected Set<String> getDominatedRolesClosure(String role){
+		Set<String> closure = dominatedRolesClosure.get(role);
+		if(closure == null){
+			closure = new HashSet<String>();
+			try {
+				for(Vertex<String> successorVertex: TraversalUtils.getSuccessorsFor(lattice, lattice.getVertex(role))){
+					closure.add(successorVertex.getName());
+				}
+			} catch (GraphException e) {
+				// Cannot happen, since the role is contained in the lattice (enforced by setRoles).
+				e.printStackTrace();
+			}
+			closure = Collections.unmodifiableSet(closure);
+			dominatedRolesClosure.put(role, closure);
+		}
+		return closure;
+	}
+	
+	protected void invalidateClosures(){
+		dominatingRolesClosure.clear();
+		dominatedRolesClosure.clear();
+	}
+	
 	public boolean addRelation(RoleRelation relation){
 		Validate.notNull(relation);
 		return addRelation(relation.getDominatingRole(), relation.getDominatedRole());
@@ -165,21 +243,37 @@ public class RoleLattice implements Cloneable, DialogObject<RoleLattice>{
 		validateRole(dominatedRole);
 		validateRole(dominatingRole);
 		try {
-			return (lattice.addEdge(dominatingRole, dominatedRole) != null);
+			if(lattice.addEdge(dominatingRole, dominatedRole) == null)
+				return false;
 		} catch(VertexNotFoundException e){
 			// Cannot happen, since both roles are in the lattice (enforced by setRoles).
 			return false;
 		}
+		invalidateClosures();
+		try {
+			listenerSupport.notifyRelationAdded(dominatingRole, dominatedRole);
+		} catch (Exception e) {
+			throw new ParameterException(e.getMessage());
+		}
+		return true;
 	}
 	
 	public boolean removeRelation(String dominatingRole, String dominatedRole){
 		validateRole(dominatedRole);
 		validateRole(dominatingRole);
 		try {
-			return lattice.removeEdge(dominatingRole, dominatedRole);
+			if(!lattice.removeEdge(dominatingRole, dominatedRole))
+				return false;
 		} catch(GraphException e){
 			return false;
 		}
+		invalidateClosures();
+		try {
+			listenerSupport.notifyRelationRemoved(dominatingRole, dominatedRole);
+		} catch (Exception e) {
+			throw new ParameterException(e.getMessage());
+		}
+		return true;
 	}
 	
 	public void removeRoles(Collection<String> roles){
@@ -196,6 +290,7 @@ public class RoleLattice implements Cloneable, DialogObject<RoleLattice>{
 		try {
 			if(roles.remove(role)){
 				boolean success = lattice.removeVertex(role);
+				invalidateClosures();
 				try {
 					listenerSupport.notifyRoleRemoved(role);
 				} catch (Exception e) {
@@ -5,4 +5,14 @@ public interface RoleLatticeListener {
 	public void roleAdded(String roleName) throws Exception;
 	
 	public void roleRemoved(String roleName) throws Exception;
+	
+	/**
+	 * Signals that the first role now dominates the second one. Does nothing by default.
+	 */
+	public default void relationAdded(String dominatingRole, String dominatedRole) throws Exception {}
+	
+	/**
+	 * Signals that the first role no longer dominates the second one. Does nothing by default.
+	 */
+	public default void relationRemoved(String dominatingRole, String dominatedRole) throws Exception {}
 }
@@ -29,4 +29,16 @@ public class RoleLatticeListenerSupport {
 			listener.roleRemoved(roleName);
 		}
 	}
+	
+	public void notifyRelationAdded(String dominatingRole, String dominatedRole) throws Exception{
+		for(RoleLatticeListener listener: listeners){
+			listener.relationAdded(dominatingRole, dominatedRole);
+		}
+	}
+	
+	public void notifyRelationRemoved(String dominatingRole, String dominatedRole) throws Exception{
+		for(RoleLatticeListener listener: listeners){
+			listener.relationRemoved(dominatingRole, dominatedRole);
+		}
+	}
 }
@@ -10,6 +10,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import de.invation.code.toval.misc.SetUtils;
 import de.invation.code.toval.misc.soabase.SOABase;
@@ -25,6 +29,7 @@ import de.invation.code.toval.validate.ParameterException;
 import de.invation.code.toval.validate.ParameterException.ErrorCode;
 import de.invation.code.toval.validate.Validate;
 import de.uni.freiburg.iig.telematik.sewol.accesscontrol.AbstractACModel;
+import de.uni.freiburg.iig.telematik.sewol.accesscontrol.event.ACModelListener;
 import de.uni.freiburg.iig.telematik.sewol.accesscontrol.rbac.RBACModel;
 import java.io.File;
 import java.util.EnumSet;
@@ -44,7 +49,7 @@ import java.util.EnumSet;
  *
  * @author Thomas Stocker
  */
-public class ProcessContext extends SOABase implements SOABaseListener {
+public class ProcessContext extends SOABase implements SOABaseListener, ACModelListener {
 
         /**
          * Data usage (read, write, ...) for attributes which are used in
@@ -56,6 +61,19 @@ public class ProcessContext extends SOABase implements SOABaseListener {
          * activities.
          */
         protected AbstractACModel<?> acModel;
+        /**
+         * Authorized subjects per activity and authorized activities per
+         * subject in the sense of {@link #isAuthorized(String, String)}.<br>
+         * Both indexes are built on first request. Changes of the access
+         * control model, the data usage and the context elements only
+         * invalidate the affected subjects and activities, which are
+         * re-evaluated on the next request.
+         */
+        protected Map<String, Set<String>> authorizedSubjectsIndex;
+        protected Map<String, Set<String>> authorizedActivitiesIndex;
+        private boolean authorizationIndexValid;
+        private Set<String> invalidIndexSubjects;
+        private Set<String> invalidIndexActivities;
 
         protected Set<DataUsage> validUsageModes;
 
@@ -107,6 +125,11 @@ public class ProcessContext extends SOABase implements SOABaseListener {
                 processContextListenerSupport = new ProcessContextListenerSupport();
                 activityDataUsage = new HashMap<>();
                 validUsageModes = new HashSet<>(Arrays.asList(DataUsage.values()));
+                authorizedSubjectsIndex = new HashMap<>();
+                authorizedActivitiesIndex = new HashMap<>();
+                authorizationIndexValid = false;
+                invalidIndexSubjects = new HashSet<>();
+                invalidIndexActivities = new HashSet<>();
         }
 
         public boolean addProcessContextListener(ProcessContextListener listener) {
@@ -148,6 +171,7 @@ public class ProcessContext extends SOABase implements SOABaseListener {
                                 acModel.getContext().addActivity(activity);
                         }
                 }
+                invalidateAuthorizationIndexForActivity(activity);
                 if (notifyListeners) {
                         contextListenerSupport.notifyActivityAdded(activity);
                 }
@@ -184,6 +208,7 @@ public class ProcessContext extends SOABase implements SOABaseListener {
                         acModel.getContext().removeActivity(activity);
                 }
                 this.activityDataUsage.keySet().remove(activity);
+                invalidateAuthorizationIndexForActivity(activity);
                 if (notifyListeners) {
                         contextListenerSupport.notifyActivityRemoved(activity);
                 }
@@ -217,6 +242,7 @@ public class ProcessContext extends SOABase implements SOABaseListener {
                                 acModel.getContext().addSubject(subject);
                         }
                 }
+                invalidateAuthorizationIndexForSubject(subject);
                 if (notifyListeners) {
                         contextListenerSupport.notifySubjectAdded(subject);
                 }
@@ -252,6 +278,7 @@ public class ProcessContext extends SOABase implements SOABaseListener {
                 if (acModel != null && removeFromACModel && acModel.getContext() != this) {
                         acModel.getContext().removeSubject(subject);
                 }
+                invalidateAuthorizationIndexForSubject(subject);
                 if (notifyListeners) {
                         contextListenerSupport.notifySubjectRemoved(subject);
                 }
@@ -467,8 +494,13 @@ public class ProcessContext extends SOABase implements SOABaseListener {
                         return;
                 }
                 validateACModel(acModel);
+                if (this.acModel != null) {
+                        this.acModel.removeACModelListener(this);
+                }
                 this.acModel = acModel;
                 acModel.getContext().addContextListener(this);
+                acModel.addACModelListener(this);
+                invalidateAuthorizationIndex();
                 if (notifyListeners) {
                         processContextListenerSupport.notifyACModelSet(acModel);
                 }
@@ -480,7 +512,9 @@ public class ProcessContext extends SOABase implements SOABaseListener {
 
         public void removeACModel(boolean notifyListeners) {
                 this.acModel.getContext().removeContextListener(this);
+                this.acModel.removeACModelListener(this);
                 this.acModel = null;
+                invalidateAuthorizationIndex();
                 if (notifyListeners) {
                         processContextListenerSupport.notifyACModelRemoved();
                 }
@@ -564,6 +598,7 @@ public class ProcessContext extends SOABase implements SOABaseListener {
                                 dataUsage.put(attribute, new HashSet<>(validUsageModes));
                         }
                         activityDataUsage.put(activity, dataUsage);
+                        invalidateAuthorizationIndexForActivity(activity);
                 }
         }
 
@@ -590,6 +625,7 @@ public class ProcessContext extends SOABase implements SOABaseListener {
                 validateActivity(activity);
                 validateDataUsage(dataUsage);
                 activityDataUsage.put(activity, dataUsage);
+                invalidateAuthorizationIndexForActivity(activity);
         }
 
         public final void setDataUsageFor(String activity, String attribute, Set<DataUsage> usageModes) throws CompatibilityException {
@@ -600,6 +636,7 @@ public class ProcessContext extends SOABase implements SOABaseListener {
                         activityDataUsage.put(activity, new HashMap<>());
                 }
                 activityDataUsage.get(activity).put(attribute, usageModes);
+                invalidateAuthorizationIndexForActivity(activity);
         }
 
         public void setDataUsageFor(String activity, String attribute, DataUsage... usageModes) throws CompatibilityException {
@@ -611,6 +648,7 @@ public class ProcessContext extends SOABase implements SOABaseListener {
                         activityDataUsage.put(activity, new HashMap<>());
                 }
                 activityDataUsage.get(activity).put(attribute, new HashSet<>(usageModesCollection));
+                invalidateAuthorizationIndexForActivity(activity);
         }
 
         /**
@@ -660,6 +698,7 @@ public class ProcessContext extends SOABase implements SOABaseListener {
                         activityDataUsage.get(activity).put(attribute, new HashSet<>());
                 }
                 activityDataUsage.get(activity).get(attribute).add(dataUsage);
+                invalidateAuthorizationIndexForActivity(activity);
         }
 
         public boolean removeDataUsageFor(String activity, String attribute, DataUsage dataUsage) throws CompatibilityException {
@@ -673,6 +712,7 @@ public class ProcessContext extends SOABase implements SOABaseListener {
                         return false;
                 }
                 activityDataUsage.get(activity).get(attribute).remove(dataUsage);
+                invalidateAuthorizationIndexForActivity(activity);
                 return true;
         }
 
@@ -683,6 +723,7 @@ public class ProcessContext extends SOABase implements SOABaseListener {
                         return false;
                 }
                 activityDataUsage.get(activity).remove(attribute);
+                invalidateAuthorizationIndexForActivity(activity);
                 return true;
         }
 
@@ -817,7 +858,8 @@ public class ProcessContext extends SOABase implements SOABaseListener {
          * the activity itself,<br>
          * plus has permission to access all attributes the activity uses in the
          * same modes.<br>
-         * This method delegates the call to the access control model.
+         * The result is taken from the authorization index, which is built
+         * from the access control model on first request.
          *
          * @param subject The subject in question.
          * @param activity The name of a process activity.
@@ -832,33 +874,211 @@ public class ProcessContext extends SOABase implements SOABaseListener {
                         throw new CompatibilityException("Unknown subject: " + subject);
                 }
                 validateActivity(activity);
-                boolean authorizedForActivity = acModel.isAuthorizedForTransaction(subject, activity);
-                if (!authorizedForActivity) {
+                if (acModel == null) {
                         return false;
                 }
-                if (hasDataUsage(activity)) {
-                        for (String attribute : activityDataUsage.get(activity).keySet()) {
-                                for (DataUsage usageMode : activityDataUsage.get(activity).get(attribute)) {
-                                        if (!acModel.isAuthorizedForObject(subject, attribute, usageMode)) {
-                                                return false;
-                                        }
-                                }
-                        }
+                synchronized (this) {
+                        updateAuthorizationIndex();
+                        return authorizedActivitiesIndex.get(subject).contains(activity);
                 }
-                return true;
         }
 
+        /**
+         * Returns all subjects which are authorized to execute the given
+         * activity.<br>
+         * The result is taken from the authorization index, which is built
+         * from the access control model on first request.
+         *
+         * @param activity The name of a process activity.
+         * @return The set of authorized subjects.
+         * @throws CompatibilityException If the activity is not known.
+         * @see #isAuthorized(String, String)
+         */
         public Set<String> getAuthorizedSubjects(String activity) throws CompatibilityException {
                 validateActivity(activity);
+                if (acModel == null) {
+                        return new HashSet<>();
+                }
+                synchronized (this) {
+                        updateAuthorizationIndex();
+                        return new HashSet<>(authorizedSubjectsIndex.get(activity));
+                }
+        }
+
+        /**
+         * Returns all activities the given subject is authorized to
+         * execute.<br>
+         * The result is taken from the authorization index, which is built
+         * from the access control model on first request.
+         *
+         * @param subject The subject in question.
+         * @return The set of authorized activities.
+         * @throws CompatibilityException If the subject is not known.
+         * @see #isAuthorized(String, String)
+         */
+        public Set<String> getAuthorizedActivities(String subject) throws CompatibilityException {
+                if (!subjects.contains(subject)) {
+                        throw new CompatibilityException("Unknown subject: " + subject);
+                }
+                if (acModel == null) {
+                        return new HashSet<>();
+                }
+                synchronized (this) {
+                        updateAuthorizationIndex();
+                        return new HashSet<>(authorizedActivitiesIndex.get(subject));
+                }
+        }
+
+        /**
+         * Returns the authorization matrix for the given subjects and
+         * activities, i.e. for each subject the set of given activities it is
+         * authorized to execute in the sense of
+         * {@link #isAuthorized(String, String)}.
+         *
+         * @param subjects The subjects in question.
+         * @param activities The names of process activities.
+         * @return A map from each subject to its authorized activities.
+         * @throws CompatibilityException If a subject or activity is not
+         * known.
+         * @see #getAuthorizedActivities(Collection, Collection, ForkJoinPool)
+         */
+        public Map<String, Set<String>> getAuthorizedActivities(Collection<String> subjects, Collection<String> activities) throws CompatibilityException {
+                return getAuthorizedActivities(subjects, activities, null);
+        }
+
+        /**
+         * Returns the authorization matrix for the given subjects and
+         * activities, i.e. for each subject the set of given activities it is
+         * authorized to execute in the sense of
+         * {@link #isAuthorized(String, String)}.<br>
+         * Subjects and activities are validated once. The transaction and
+         * object permissions of each subject are retrieved from the access
+         * control model only once and checked against all activities.
+         *
+         * @param subjects The subjects in question.
+         * @param activities The names of process activities.
+         * @param pool The pool in which the subjects are evaluated
+         * concurrently or <code>null</code> for sequential evaluation. The
+         * context and its access control model must not be modified during
+         * the evaluation.
+         * @return A map from each subject to its authorized activities.
+         * @throws CompatibilityException If a subject or activity is not
+         * known.
+         */
+        public Map<String, Set<String>> getAuthorizedActivities(Collection<String> subjects, Collection<String> activities, ForkJoinPool pool) throws CompatibilityException {
+                Validate.notNull(subjects);
+                for (String subject : subjects) {
+                        if (!this.subjects.contains(subject)) {
+                                throw new CompatibilityException("Unknown subject: " + subject);
+                        }
+                }
+                validateActivities(activities);
+                final Set<String> activitySet = new HashSet<>(activities);
+                Map<String, Set<String>> authorizedActivities = new HashMap<>();
+                if (pool == null) {
+                        for (String subject : subjects) {
+                                authorizedActivities.put(subject, getAuthorizedActivitiesFor(subject, activitySet));
+                        }
+                        return authorizedActivities;
+                }
+                List<String> subjectList = new ArrayList<>(new HashSet<>(subjects));
+                List<Callable<Set<String>>> tasks = new ArrayList<>(subjectList.size());
+                for (final String subject : subjectList) {
+                        tasks.add(new Callable<Set<String>>() {
+                                @Override
+                                public Set<String> call() {
+                                        return getAuthorizedActivitiesFor(subject, activitySet);
+                                }
+                        });
+                }
+                List<Future<Set<String>>> results = pool.invokeAll(tasks);
+                for (int i = 0; i < subjectList.size(); i++) {
+                        try {
+                                authorizedActivities.put(subjectList.get(i), results.get(i).get());
+                        } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                throw new ParameterException("Interrupted during authorization check");
+                        } catch (ExecutionException e) {
+                                if (e.getCause() instanceof RuntimeException) {
+                                        throw (RuntimeException) e.getCause();
+                                }
+                                throw new ParameterException(e.getCause().getMessage());
+                        }
+                }
+                return authorizedActivities;
+        }
+
+        /**
+         * Returns the given activities the given subject is authorized to
+         * execute.<br>
+         * It is assumed that the caller ensures parameter validity.
+         */
+        private Set<String> getAuthorizedActivitiesFor(String subject, Set<String> activities) {
+                Set<String> authorizedActivities = new HashSet<>();
+                Set<String> transactionPermissions = acModel.getTransactionPermissionsForSubject(subject);
+                Map<String, Set<DataUsage>> objectPermissions = null;
+                for (String activity : activities) {
+                        if (!transactionPermissions.contains(activity)) {
+                                continue;
+                        }
+                        Map<String, Set<DataUsage>> dataUsage = activityDataUsage.get(activity);
+                        if (dataUsage != null) {
+                                if (objectPermissions == null) {
+                                        objectPermissions = acModel.getObjectPermissionsForSubject(subject);
+                                }
+                                if (!isPermitted(dataUsage, objectPermissions)) {
+                                        continue;
+                                }
+                        }
+                        authorizedActivities.add(activity);
+                }
+                return authorizedActivities;
+        }
+
+        /**
+         * Returns the subjects which are authorized to execute the given
+         * activity.<br>
+         * The candidates are taken from the subjects the access control model
+         * authorizes for the activity itself, so only their data usage has to
+         * be checked. It is assumed that the caller ensures parameter
+         * validity.
+         */
+        private Set<String> getAuthorizedSubjectsFor(String activity) {
                 Set<String> authorizedSubjects = new HashSet<>();
-                for (String subject : getSubjects()) {
-                        if (isAuthorized(subject, activity)) {
+                Map<String, Set<DataUsage>> dataUsage = activityDataUsage.get(activity);
+                for (String subject : acModel.getAuthorizedSubjectsForTransaction(activity)) {
+                        if (subjects.contains(subject) && (dataUsage == null || isAuthorizedForDataUsage(subject, dataUsage))) {
                                 authorizedSubjects.add(subject);
                         }
                 }
                 return authorizedSubjects;
         }
 
+        private boolean isAuthorizedForDataUsage(String subject, Map<String, Set<DataUsage>> dataUsage) throws CompatibilityException {
+                for (String attribute : dataUsage.keySet()) {
+                        for (DataUsage usageMode : dataUsage.get(attribute)) {
+                                if (!acModel.isAuthorizedForObject(subject, attribute, usageMode)) {
+                                        return false;
+                                }
+                        }
+                }
+                return true;
+        }
+
+        private static boolean isPermitted(Map<String, Set<DataUsage>> dataUsage, Map<String, Set<DataUsage>> objectPermissions) {
+                for (String attribute : dataUsage.keySet()) {
+                        Set<DataUsage> permittedModes = objectPermissions.get(attribute);
+                        if (permittedModes == null) {
+                                if (!dataUsage.get(attribute).isEmpty()) {
+                                        return false;
+                                }
+                        } else if (!permittedModes.containsAll(dataUsage.get(attribute))) {
+                                return false;
+                        }
+                }
+                return true;
+        }
+
         /**
          * Checks if the given activity is executable, i.e. there is at least
          * one subject which is authorized to execute it.<br>
@@ -875,6 +1095,109 @@ public class ProcessContext extends SOABase implements SOABaseListener {
                 return acModel != null && acModel.isExecutable(activity);
         }
 
+        //------- Authorization index ------------------------------------------------------------
+        /**
+         * Discards the authorization index, which is rebuilt completely on
+         * the next request.
+         */
+        protected synchronized void invalidateAuthorizationIndex() {
+                authorizationIndexValid = false;
+        }
+
+        /**
+         * Marks the authorizations of the given subject for re-evaluation on
+         * the next request.
+         *
+         * @param subject The subject whose authorizations changed.
+         */
+        protected synchronized void invalidateAuthorizationIndexForSubject(String subject) {
+                if (authorizationIndexValid) {
+                        invalidIndexSubjects.add(subject);
+                }
+        }
+
+        /**
+         * Marks the authorized subjects of the given activity for
+         * re-evaluation on the next request.
+         *
+         * @param activity The activity whose authorized subjects changed.
+         */
+        protected synchronized void invalidateAuthorizationIndexForActivity(String activity) {
+                if (authorizationIndexValid) {
+                        invalidIndexActivities.add(activity);
+                }
+        }
+
+        /**
+         * Brings the authorization index up to date by re-evaluating all
+         * invalidated subjects and activities or by rebuilding it completely
+         * if it was discarded.<br>
+         * The access control model must not be <code>null</code>.
+         */
+        private synchronized void updateAuthorizationIndex() {
+                if (authorizationIndexValid) {
+                        for (String subject : invalidIndexSubjects) {
+                                Set<String> authorizedActivities = authorizedActivitiesIndex.remove(subject);
+                                if (authorizedActivities != null) {
+                                        for (String activity : authorizedActivities) {
+                                                authorizedSubjectsIndex.get(activity).remove(subject);
+                                        }
+                                }
+                                if (subjects.contains(subject)) {
+                                        authorizedActivities = getAuthorizedActivitiesFor(subject, activities);
+                                        authorizedActivitiesIndex.put(subject, authorizedActivities);
+                                        for (String activity : authorizedActivities) {
+                                                getIndexEntry(authorizedSubjectsIndex, activity).add(subject);
+                                        }
+                                }
+                        }
+                        for (String activity : invalidIndexActivities) {
+                                Set<String> authorizedSubjects = authorizedSubjectsIndex.remove(activity);
+                                if (authorizedSubjects != null) {
+                                        for (String subject : authorizedSubjects) {
+                                                authorizedActivitiesIndex.get(subject).remove(activity);
+                                        }
+                                }
+                                if (activities.contains(activity)) {
+                                        authorizedSubjects = getAuthorizedSubjectsFor(activity);
+                                        authorizedSubjectsIndex.put(activity, authorizedSubjects);
+                                        for (String subject : authorizedSubjects) {
+                                                getIndexEntry(authorizedActivitiesIndex, subject).add(activity);
+                                        }
+                                }
+                        }
+                        // Subjects or activities may have been changed without invalidation.
+                        authorizationIndexValid = authorizedActivitiesIndex.size() == subjects.size() && authorizedSubjectsIndex.size() == activities.size();
+                }
+                invalidIndexSubjects.clear();
+                invalidIndexActivities.clear();
+                if (authorizationIndexValid) {
+                        return;
+                }
+                authorizedSubjectsIndex.clear();
+                authorizedActivitiesIndex.clear();
+                for (String activity : activities) {
+                        authorizedSubjectsIndex.put(activity, new HashSet<String>());
+                }
+                for (String subject : subjects) {
+                        Set<String> authorizedActivities = getAuthorizedActivitiesFor(subject, activities);
+                        authorizedActivitiesIndex.put(subject, authorizedActivities);
+                        for (String activity : authorizedActivities) {
+                                authorizedSubjectsIndex.get(activity).add(subject);
+                        }
+                }
+                authorizationIndexValid = true;
+        }
+
+        private static Set<String> getIndexEntry(Map<String, Set<String>> index, String key) {
+                Set<String> entry = index.get(key);
+                if (entry == null) {
+                        entry = new HashSet<>();
+                        index.put(key, entry);
+                }
+                return entry;
+        }
+
         //------- Helper methods ----------------------------------------------------------------
         /**
          * Checks if the given attribute is known, i.e. is contained in the
@@ -1130,6 +1453,9 @@ public class ProcessContext extends SOABase implements SOABaseListener {
 
                 ProcessContext context = (ProcessContext) soaBase;
                 //Set AC Model
+                if (acModel != null) {
+                        acModel.removeACModelListener(this);
+                }
                 acModel = null;
                 AbstractACModel<?> otherACModel = context.getACModel();
                 if (otherACModel != null) {
@@ -1147,6 +1473,7 @@ public class ProcessContext extends SOABase implements SOABaseListener {
                                 setDataUsageFor(activity, attribute, EnumSet.copyOf(dataUsage.get(attribute)));
                         }
                 }
+                invalidateAuthorizationIndex();
         }
 
         @Override
@@ -1205,10 +1532,12 @@ public class ProcessContext extends SOABase implements SOABaseListener {
 
         @Override
         public void subjectAdded(String subject) {
+                invalidateAuthorizationIndexForSubject(subject);
         }
 
         @Override
         public void subjectRemoved(String subject) {
+                invalidateAuthorizationIndexForSubject(subject);
         }
 
         @Override
@@ -1221,10 +1550,77 @@ public class ProcessContext extends SOABase implements SOABaseListener {
 
         @Override
         public void activityAdded(String activities) {
+                invalidateAuthorizationIndexForActivity(activities);
         }
 
         @Override
         public void activityRemoved(String activities) {
+                invalidateAuthorizationIndexForActivity(activities);
+        }
+
+        @Override
+        public void validUsageModesChanged(AbstractACModel<?> sender, Set<DataUsage> oldModes, Set<DataUsage> newModes) {
+                invalidateAuthorizationIndex();
+        }
+
+        @Override
+        public void contextChanged(AbstractACModel<?> sender, SOABase context) {
+                invalidateAuthorizationIndex();
+        }
+
+        @Override
+        public void accessPermissionAdded(AbstractACModel<?> sender, String subject, String object, Collection<DataUsage> dataUsageModes) {
+                accessPermissionChanged(sender, subject, object);
+        }
+
+        @Override
+        public void accessPermissionRemoved(AbstractACModel<?> sender, String subject, String object, Collection<DataUsage> dataUsageModes) {
+                accessPermissionChanged(sender, subject, object);
+        }
+
+        @Override
+        public void executionPermissionAdded(AbstractACModel<?> sender, String subject, String transaction) {
+                executionPermissionChanged(sender, subject, transaction);
+        }
+
+        @Override
+        public void executionPermissionRemoved(AbstractACModel<?> sender, String subject, String transaction) {
+                executionPermissionChanged(sender, subject, transaction);
+        }
+
+        @Override
+        public void authorizationsChanged(AbstractACModel<?> sender) {
+                invalidateAuthorizationIndex();
+        }
+
+        /**
+         * RBAC models report permission changes of roles, which affect all
+         * subjects executing the activity or using the object.
+         */
+        private void executionPermissionChanged(AbstractACModel<?> sender, String subject, String transaction) {
+                if (sender != acModel) {
+                        return;
+                }
+                if (acModel instanceof RBACModel) {
+                        invalidateAuthorizationIndexForActivity(transaction);
+                } else {
+                        invalidateAuthorizationIndexForSubject(subject);
+                }
+        }
+
+        private void accessPermissionChanged(AbstractACModel<?> sender, String subject, String object) {
+                if (sender != acModel) {
+                        return;
+                }
+                if (acModel instanceof RBACModel) {
+                        for (String activity : activityDataUsage.keySet()) {
+                                if (activityDataUsage.get(activity).containsKey(object)) {
+                                        invalidateAuthorizationIndexForActivity(activity);
+                                }
+                        }
+                } else {
+                        invalidateAuthorizationIndexForSubject(subject);
+                }
         }
 
         @Override
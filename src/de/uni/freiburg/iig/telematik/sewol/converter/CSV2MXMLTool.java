@@ -436,7 +436,7 @@ public class CSV2MXMLTool extends JFrame {
 						if(!actualCaseID.equals(lastCaseID)){
 							if(actualTrace != null){
 								//Write actual Trace into file
-								output.write(logFormat.getTraceAsString(actualTrace));
+								logFormat.writeTrace(actualTrace, output);
 								System.out.println("Writing new trace ["+lastCaseID+"]: "+actualTrace.size()+" entries");
 								addActivityNumber(actualTrace.size());
 							}
@@ -454,7 +454,7 @@ public class CSV2MXMLTool extends JFrame {
 						lineCount++;
 					}
 				}
-				output.write(logFormat.getTraceAsString(actualTrace));
+				logFormat.writeTrace(actualTrace, output);
 				addActivityNumber(actualTrace.size());
 				System.out.println("Writing new trace ["+actualCaseID+"]: "+actualTrace.size()+" entries");
 				System.out.println();
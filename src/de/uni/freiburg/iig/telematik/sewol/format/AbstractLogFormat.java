@@ -1,9 +1,13 @@
 package de.uni.freiburg.iig.telematik.sewol.format;
 
+import java.io.IOException;
 import java.nio.charset.Charset;
+import java.text.DateFormat;
 import java.text.DateFormatSymbols;
+import java.text.FieldPosition;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
+import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
 
@@ -26,6 +30,10 @@ public abstract class AbstractLogFormat extends FileFormat {
         private Locale locale;
         protected SimpleDateFormat dateFormat;
 
+        /** Incremented whenever the cached dates of all threads become invalid */
+        private volatile int dateFormatVersion = 0;
+        private final ThreadLocal<DateCache> dateCache = new ThreadLocal<>();
+
         protected String logName;
         protected String processName;
 
@@ -89,6 +97,7 @@ public abstract class AbstractLogFormat extends FileFormat {
                         if (ID.equals(validID)) {
                                 this.timeZone = TimeZone.getTimeZone(ID);
                                 dateFormat.setTimeZone(timeZone);
+                                resetDateCache();
                                 return;
                         }
                 }
@@ -102,16 +111,155 @@ public abstract class AbstractLogFormat extends FileFormat {
         public void setLocale(Locale locale) {
                 this.locale = locale;
                 dateFormat.setDateFormatSymbols(DateFormatSymbols.getInstance(this.locale));
+                resetDateCache();
+        }
+
+        /**
+         * Appends the given date formatted with {@link #dateFormat}.<br>
+         * The formatted start of the second of the last date is cached, so
+         * that for consecutive dates within the same second only the
+         * milliseconds have to be replaced. Every thread uses its own copy of
+         * the date format and its own cache, so that traces can be serialized
+         * by several threads concurrently. Subclasses changing
+         * {@link #dateFormat} directly have to call
+         * {@link #resetDateCache()}.
+         *
+         * @param date The date to format.
+         * @param output The target of the formatted date.
+         * @throws IOException if appending to the target fails.
+         */
+        protected void appendDate(Date date, Appendable output) throws IOException {
+                DateCache cache = dateCache.get();
+                int version = dateFormatVersion;
+                if (cache == null || cache.version != version) {
+                        cache = new DateCache((DateFormat) dateFormat.clone(), version);
+                        dateCache.set(cache);
+                }
+                long time = date.getTime();
+                long second = Math.floorDiv(time, 1000) * 1000;
+                if (cache.date == null || second != cache.second) {
+                        StringBuffer buffer = new StringBuffer();
+                        FieldPosition millisPosition = new FieldPosition(DateFormat.MILLISECOND_FIELD);
+                        cache.format.format(new Date(second), buffer, millisPosition);
+                        cache.date = buffer.toString();
+                        cache.second = second;
+                        cache.millisBegin = millisPosition.getBeginIndex();
+                        cache.millisEnd = millisPosition.getEndIndex();
+                }
+                int millis = (int) (time - second);
+                if (cache.millisEnd - cache.millisBegin != 3) {
+                        if (cache.millisBegin == cache.millisEnd) {
+                                // The pattern does not contain milliseconds.
+                                output.append(cache.date);
+                        } else {
+                                output.append(cache.format.format(date));
+                        }
+                        return;
+                }
+                // Digits are derived from the formatted zero milliseconds to respect the digits of the locale.
+                char zero = cache.date.charAt(cache.millisBegin);
+                output.append(cache.date, 0, cache.millisBegin);
+                output.append((char) (zero + millis / 100));
+                output.append((char) (zero + millis / 10 % 10));
+                output.append((char) (zero + millis % 10));
+                output.append(cache.date, cache.millisEnd, cache.date.length());
+        }
+
+        /**
+         * Discards the cached formatted dates used by
+         * {@link #appendDate(Date, Appendable)}.
+         */
+        protected void resetDateCache() {
+                dateFormatVersion++;
         }
 
         public abstract String formatComment(String comment);
 
         public abstract boolean supportsLogPerspective(LogPerspective logPerspective);
 
-        public abstract <E extends LogEntry> String getTraceAsString(LogTrace<E> trace);
+        /**
+         * Returns the representation of the given trace in this format.
+         *
+         * @param <E> Type of log entries.
+         * @param trace The trace to format.
+         * @return The formatted trace.
+         * @see #writeTrace(LogTrace, Appendable)
+         */
+        public <E extends LogEntry> String getTraceAsString(LogTrace<E> trace) {
+                StringBuilder builder = new StringBuilder();
+                try {
+                        writeTrace(trace, builder);
+                } catch (IOException e) {
+                        // Cannot happen, since StringBuilder does not throw IOExceptions
+                        throw new RuntimeException(e);
+                }
+                return builder.toString();
+        }
+
+        /**
+         * Returns the representation of the given entry in this format.
+         *
+         * @param <E> Type of log entries.
+         * @param entry The entry to format.
+         * @param caseNumber The case number of the trace of the entry.
+         * @return The formatted entry.
+         * @see #writeEntry(LogEntry, long, Appendable)
+         */
+        public <E extends LogEntry> String getEntryAsString(E entry, long caseNumber) {
+                StringBuilder builder = new StringBuilder();
+                try {
+                        writeEntry(entry, caseNumber, builder);
+                } catch (IOException e) {
+                        // Cannot happen, since StringBuilder does not throw IOExceptions
+                        throw new RuntimeException(e);
+                }
+                return builder.toString();
+        }
+
+        /**
+         * Appends the representation of the given trace in this format to the
+         * given target, e.g. the {@link java.io.Writer} of a log file, without
+         * creating the trace representation as a string first.
+         *
+         * @param <E> Type of log entries.
+         * @param trace The trace to write.
+         * @param output The target of the formatted trace.
+         * @throws IOException if appending to the target fails.
+         */
+        public abstract <E extends LogEntry> void writeTrace(LogTrace<E> trace, Appendable output) throws IOException;
 
-        public abstract <E extends LogEntry> String getEntryAsString(E entry, long caseNumber);
+        /**
+         * Appends the representation of the given entry in this format to the
+         * given target.
+         *
+         * @param <E> Type of log entries.
+         * @param entry The entry to write.
+         * @param caseNumber The case number of the trace of the entry.
+         * @param output The target of the formatted entry.
+         * @throws IOException if appending to the target fails.
+         */
+        public abstract <E extends LogEntry> void writeEntry(E entry, long caseNumber, Appendable output) throws IOException;
 
         public abstract LogFormatType getLogFormatType();
 
+        /**
+         * Date format and formatted start of the last second of a thread.
+         */
+        private static class DateCache {
+
+                private final DateFormat format;
+                private final int version;
+                /** Start of the second of the cached date, in milliseconds */
+                private long second = Long.MIN_VALUE;
+                /** Formatted start of the second of the cached date */
+                private String date = null;
+                private int millisBegin = 0;
+                private int millisEnd = 0;
+
+                private DateCache(DateFormat format, int version) {
+                        this.format = format;
+                        this.version = version;
+                }
+        }
+
 }
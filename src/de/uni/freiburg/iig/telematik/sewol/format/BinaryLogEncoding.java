@@ -0,0 +1,881 @@
+package de.uni.freiburg.iig.telematik.sewol.format;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.invation.code.toval.parser.ParserException;
+import de.invation.code.toval.types.DataUsage;
+import de.invation.code.toval.validate.ParameterException;
+import de.uni.freiburg.iig.telematik.sewol.log.DULogEntry;
+import de.uni.freiburg.iig.telematik.sewol.log.DataAttribute;
+import de.uni.freiburg.iig.telematik.sewol.log.EventType;
+import de.uni.freiburg.iig.telematik.sewol.log.LockingException;
+import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
+import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
+
+/**
+ * <p>
+ * Encoding of binary log files.
+ * </p>
+ * <p>
+ * A binary log file starts with the {@link #MAGIC} number and the
+ * {@link #VERSION} of the encoding, followed by one record per trace and a
+ * trailer. Integers are encoded with 7 bits per byte, signed integers in
+ * zigzag encoding, so that small values take a single byte. Strings are
+ * encoded in UTF-8, preceded by their length.
+ * </p>
+ * <p>
+ * Activities, originators, roles and attribute names are replaced by indexes
+ * into a dictionary. A dictionary entry is defined inline by the first trace
+ * that uses it, so that the file can be read sequentially, and is repeated in
+ * the trailer, so that every trace can be decoded without reading the
+ * preceding traces. The timestamp of an entry is encoded as difference to the
+ * timestamp of the preceding entry of the same trace. Attribute values of
+ * types other than {@link String}, {@link Integer}, {@link Long},
+ * {@link Double}, {@link Float}, {@link Boolean} and {@link Date} are stored
+ * as their string representation.
+ * </p>
+ * <p>
+ * The trailer contains the dictionary and the case numbers and file offsets
+ * of all traces. The file ends with the offset of the trailer and the
+ * {@link #END_MAGIC} number, so that the trailer can be found by reading the
+ * last {@link #FOOTER_SIZE} bytes of the file.
+ * </p>
+ *
+ * @version 1.0.2
+ * @since 1.0.2
+ */
+public final class BinaryLogEncoding {
+
+        /** Bytes at the beginning of a binary log file */
+        public static final byte[] MAGIC = {'S', 'W', 'L', 'B'};
+        /** Bytes at the end of a complete binary log file */
+        public static final byte[] END_MAGIC = {'S', 'W', 'L', 'E'};
+        public static final int VERSION = 1;
+        /** Size of the magic number and version at the beginning of a file */
+        public static final int HEADER_SIZE = MAGIC.length + 1;
+        /** Size of the trailer offset and magic number at the end of a file */
+        public static final int FOOTER_SIZE = 8 + END_MAGIC.length;
+
+        /** Type of records containing a trace */
+        public static final int RECORD_TRACE = 1;
+        /** Type of the record containing the dictionary and the index */
+        public static final int RECORD_TRAILER = 2;
+
+        private static final int FLAG_DATA_USAGE = 1;
+        private static final int FLAG_TIMESTAMP = 1 << 1;
+        private static final int FLAG_ACTIVITY = 1 << 2;
+        private static final int FLAG_ORIGINATOR = 1 << 3;
+        private static final int FLAG_ROLE = 1 << 4;
+        private static final int FLAG_EVENT_TYPE = 1 << 5;
+        private static final int FLAG_GROUP = 1 << 6;
+        private static final int FLAG_META_DATA = 1 << 7;
+
+        private static final int VALUE_NULL = 0;
+        private static final int VALUE_STRING = 1;
+        private static final int VALUE_INTEGER = 2;
+        private static final int VALUE_LONG = 3;
+        private static final int VALUE_DOUBLE = 4;
+        /** Double without fractional part, encoded like a long */
+        private static final int VALUE_INTEGRAL_DOUBLE = 5;
+        private static final int VALUE_FLOAT = 6;
+        private static final int VALUE_FALSE = 7;
+        private static final int VALUE_TRUE = 8;
+        private static final int VALUE_DATE = 9;
+
+        private static final long NEGATIVE_ZERO_BITS = Double.doubleToRawLongBits(-0.0);
+        private static final EventType[] EVENT_TYPES = EventType.values();
+        private static final DataUsage[] DATA_USAGES = DataUsage.values();
+
+        private BinaryLogEncoding() {
+        }
+
+        /**
+         * Reads the header and the trailer of the binary log file of the
+         * given channel.
+         *
+         * @param channel Channel of the file.
+         * @return The index of the traces of the file.
+         * @throws IOException if the file cannot be read.
+         * @throws ParserException if the file is no complete binary log file.
+         */
+        public static Index readIndex(FileChannel channel) throws IOException, ParserException {
+                long fileSize = channel.size();
+                if (fileSize < HEADER_SIZE + FOOTER_SIZE) {
+                        throw new ParserException("File is no complete binary log file.");
+                }
+                Decoder decoder = new Decoder();
+                decoder.setInput(read(channel, 0, HEADER_SIZE), 0, HEADER_SIZE);
+                decoder.decodeHeader();
+
+                byte[] footer = read(channel, fileSize - FOOTER_SIZE, FOOTER_SIZE);
+                if (!Arrays.equals(Arrays.copyOfRange(footer, 8, footer.length), END_MAGIC)) {
+                        throw new ParserException("Binary log file is incomplete.");
+                }
+                decoder.setInput(footer, 0, 8);
+                long trailerOffset = decoder.readLong();
+                long trailerLength = fileSize - FOOTER_SIZE - trailerOffset;
+                if (trailerOffset < HEADER_SIZE || trailerLength <= 0 || trailerLength > Integer.MAX_VALUE) {
+                        throw new ParserException("Invalid trailer offset of binary log file.");
+                }
+
+                decoder.setInput(read(channel, trailerOffset, (int) trailerLength), 0, (int) trailerLength);
+                if (decoder.readByte() != RECORD_TRAILER) {
+                        throw new ParserException("Invalid trailer of binary log file.");
+                }
+                int symbolCount = decoder.readCount();
+                List<String> dictionary = new ArrayList<>(symbolCount);
+                for (int i = 0; i < symbolCount; i++) {
+                        dictionary.add(decoder.readString());
+                }
+                int traceCount = decoder.readCount();
+                long[] caseNumbers = new long[traceCount];
+                long[] offsets = new long[traceCount + 1];
+                long caseNumber = 0;
+                long offset = 0;
+                for (int i = 0; i < traceCount; i++) {
+                        caseNumber += decoder.readSignedVarLong();
+                        offset += decoder.readVarLong();
+                        if (offset < HEADER_SIZE || offset >= trailerOffset || (i > 0 && offset <= offsets[i - 1])) {
+                                throw new ParserException("Invalid index of binary log file.");
+                        }
+                        caseNumbers[i] = caseNumber;
+                        offsets[i] = offset;
+                }
+                // The end of the last trace record is the beginning of the trailer.
+                offsets[traceCount] = trailerOffset;
+                return new Index(dictionary, caseNumbers, offsets);
+        }
+
+        /**
+         * Reads the given number of bytes at the given position of a channel.
+         *
+         * @param channel Channel to read from.
+         * @param position Position of the first byte.
+         * @param length Number of bytes.
+         * @return The bytes read.
+         * @throws IOException if the bytes cannot be read.
+         */
+        public static byte[] read(FileChannel channel, long position, int length) throws IOException {
+                ByteBuffer buffer = ByteBuffer.allocate(length);
+                while (buffer.hasRemaining()) {
+                        if (channel.read(buffer, position + buffer.position()) < 0) {
+                                throw new EOFException("Unexpected end of binary log file.");
+                        }
+                }
+                return buffer.array();
+        }
+
+        /**
+         * Dictionary and index of the traces of a binary log file, as
+         * contained in its trailer.
+         */
+        public static class Index {
+
+                private final List<String> dictionary;
+                private final long[] caseNumbers;
+                private final long[] offsets;
+
+                private Index(List<String> dictionary, long[] caseNumbers, long[] offsets) {
+                        this.dictionary = dictionary;
+                        this.caseNumbers = caseNumbers;
+                        this.offsets = offsets;
+                }
+
+                /**
+                 * @return The complete dictionary of the file.
+                 */
+                public List<String> getDictionary() {
+                        return Collections.unmodifiableList(dictionary);
+                }
+
+                public int getTraceCount() {
+                        return caseNumbers.length;
+                }
+
+                /**
+                 * @param index Position of the trace in the file.
+                 * @return The case number of the trace.
+                 */
+                public long getCaseNumber(int index) {
+                        return caseNumbers[index];
+                }
+
+                /**
+                 * Returns the offset of the record of the trace at the given
+                 * position. The record of a trace ends at the offset of the
+                 * next position, so that the offset for position
+                 * {@link #getTraceCount()} is the offset of the trailer.
+                 *
+                 * @param index Position of the trace in the file.
+                 * @return The offset of the trace record.
+                 */
+                public long getOffset(int index) {
+                        return offsets[index];
+                }
+        }
+
+        /**
+         * <p>
+         * Encodes traces into records of a binary log file.
+         * </p>
+         * <p>
+         * The encoder keeps the dictionary of all symbols of the encoded
+         * traces, so that all records of a file have to be encoded by the
+         * same encoder, in the order in which they are written. The encoded
+         * bytes are valid until the next call of an encode method. Instances
+         * of this class are not thread-safe.
+         * </p>
+         */
+        public static class Encoder {
+
+                /** Space reserved in front of a trace for the record type and length */
+                private static final int RECORD_PREFIX_SIZE = 6;
+
+                private final Map<String, Integer> symbolIndexes = new HashMap<>();
+                private final List<String> dictionary = new ArrayList<>();
+                private byte[] buffer = new byte[8192];
+                private int offset = 0;
+                private int size = 0;
+
+                /**
+                 * @return The symbols defined so far, in the order of their
+                 * indexes.
+                 */
+                public List<String> getDictionary() {
+                        return Collections.unmodifiableList(dictionary);
+                }
+
+                /**
+                 * @return The buffer containing the last encoded record.
+                 */
+                public byte[] getBuffer() {
+                        return buffer;
+                }
+
+                /**
+                 * @return The position of the last encoded record in the
+                 * buffer.
+                 */
+                public int getOffset() {
+                        return offset;
+                }
+
+                /**
+                 * @return The length of the last encoded record in bytes.
+                 */
+                public int getLength() {
+                        return size - offset;
+                }
+
+                /**
+                 * Encodes the magic number and version at the beginning of a
+                 * file.
+                 */
+                public void encodeHeader() {
+                        offset = 0;
+                        size = 0;
+                        writeBytes(MAGIC);
+                        writeByte(VERSION);
+                }
+
+                /**
+                 * Encodes the given trace as trace record. Symbols that are
+                 * not contained in the dictionary yet are added to it and
+                 * defined within the record.
+                 *
+                 * @param <E> Type of log entries.
+                 * @param trace The trace to encode.
+                 */
+                public <E extends LogEntry> void encodeTrace(LogTrace<E> trace) {
+                        offset = 0;
+                        size = RECORD_PREFIX_SIZE;
+                        writeSignedVarLong(trace.getCaseNumber());
+                        Set<Long> similarInstances = trace.getSimilarInstances();
+                        writeVarInt(similarInstances.size());
+                        for (long similarInstance : similarInstances) {
+                                writeSignedVarLong(similarInstance);
+                        }
+                        writeVarInt(trace.size());
+                        long lastTime = 0;
+                        for (E entry : trace.getEntries()) {
+                                lastTime = encodeEntry(entry, lastTime);
+                        }
+
+                        // Record type and length are put directly in front of the trace.
+                        int end = size;
+                        int length = end - RECORD_PREFIX_SIZE;
+                        offset = RECORD_PREFIX_SIZE - 1 - varIntSize(length);
+                        size = offset;
+                        writeByte(RECORD_TRACE);
+                        writeVarInt(length);
+                        size = end;
+                }
+
+                /**
+                 * Encodes the trailer of a file, which contains the
+                 * dictionary, the case numbers and offsets of all traces, the
+                 * offset of the trailer and the end magic number.
+                 *
+                 * @param caseNumbers Case numbers of the traces, in the order
+                 * of the trace records.
+                 * @param offsets File offsets of the trace records.
+                 * @param traceCount Number of traces.
+                 * @param trailerOffset File offset of the trailer.
+                 */
+                public void encodeTrailer(long[] caseNumbers, long[] offsets, int traceCount, long trailerOffset) {
+                        offset = 0;
+                        size = 0;
+                        writeByte(RECORD_TRAILER);
+                        writeVarInt(dictionary.size());
+                        for (String symbol : dictionary) {
+                                writeString(symbol);
+                        }
+                        writeVarInt(traceCount);
+                        long lastCaseNumber = 0;
+                        long lastOffset = 0;
+                        for (int i = 0; i < traceCount; i++) {
+                                writeSignedVarLong(caseNumbers[i] - lastCaseNumber);
+                                writeVarLong(offsets[i] - lastOffset);
+                                lastCaseNumber = caseNumbers[i];
+                                lastOffset = offsets[i];
+                        }
+                        writeLong(trailerOffset);
+                        writeBytes(END_MAGIC);
+                }
+
+                private long encodeEntry(LogEntry entry, long lastTime) {
+                        Date timestamp = entry.getTimestamp();
+                        Set<DataAttribute> metaData = entry.getMetaAttributes();
+                        Map<DataAttribute, Set<DataUsage>> dataUsage = null;
+                        int flags = 0;
+                        if (entry instanceof DULogEntry) {
+                                dataUsage = ((DULogEntry) entry).getDataUsage();
+                                flags |= FLAG_DATA_USAGE;
+                        }
+                        if (timestamp != null) {
+                                flags |= FLAG_TIMESTAMP;
+                        }
+                        if (entry.getActivity() != null) {
+                                flags |= FLAG_ACTIVITY;
+                        }
+                        if (entry.getOriginator() != null) {
+                                flags |= FLAG_ORIGINATOR;
+                        }
+                        if (entry.getRole() != null) {
+                                flags |= FLAG_ROLE;
+                        }
+                        if (entry.getEventType() != null) {
+                                flags |= FLAG_EVENT_TYPE;
+                        }
+                        if (entry.getGroup() != null) {
+                                flags |= FLAG_GROUP;
+                        }
+                        if (!metaData.isEmpty()) {
+                                flags |= FLAG_META_DATA;
+                        }
+                        writeByte(flags);
+
+                        if (timestamp != null) {
+                                long time = timestamp.getTime();
+                                writeSignedVarLong(time - lastTime);
+                                lastTime = time;
+                        }
+                        if (entry.getActivity() != null) {
+                                writeSymbol(entry.getActivity());
+                        }
+                        if (entry.getOriginator() != null) {
+                                writeSymbol(entry.getOriginator());
+                        }
+                        if (entry.getRole() != null) {
+                                writeSymbol(entry.getRole());
+                        }
+                        if (entry.getEventType() != null) {
+                                writeByte(entry.getEventType().ordinal());
+                        }
+                        if (entry.getGroup() != null) {
+                                writeString(entry.getGroup());
+                        }
+                        if (!metaData.isEmpty()) {
+                                writeVarInt(metaData.size());
+                                for (DataAttribute attribute : metaData) {
+                                        writeAttribute(attribute);
+                                }
+                        }
+                        if (dataUsage != null) {
+                                writeVarInt(dataUsage.size());
+                                for (Map.Entry<DataAttribute, Set<DataUsage>> usage : dataUsage.entrySet()) {
+                                        writeAttribute(usage.getKey());
+                                        long usageFlags = 0;
+                                        if (usage.getValue() != null) {
+                                                for (DataUsage dataUsageType : usage.getValue()) {
+                                                        usageFlags |= 1L << dataUsageType.ordinal();
+                                                }
+                                        }
+                                        writeVarLong(usageFlags);
+                                }
+                        }
+                        return lastTime;
+                }
+
+                private void writeAttribute(DataAttribute attribute) {
+                        writeSymbol(attribute.name);
+                        Object value = attribute.value;
+                        if (value == null) {
+                                writeByte(VALUE_NULL);
+                        } else if (value instanceof String) {
+                                writeByte(VALUE_STRING);
+                                writeString((String) value);
+                        } else if (value instanceof Integer) {
+                                writeByte(VALUE_INTEGER);
+                                writeSignedVarLong((Integer) value);
+                        } else if (value instanceof Long) {
+                                writeByte(VALUE_LONG);
+                                writeSignedVarLong((Long) value);
+                        } else if (value instanceof Double) {
+                                double doubleValue = (Double) value;
+                                long longValue = (long) doubleValue;
+                                if (longValue == doubleValue && Double.doubleToRawLongBits(doubleValue) != NEGATIVE_ZERO_BITS) {
+                                        writeByte(VALUE_INTEGRAL_DOUBLE);
+                                        writeSignedVarLong(longValue);
+                                } else {
+                                        writeByte(VALUE_DOUBLE);
+                                        writeLong(Double.doubleToRawLongBits(doubleValue));
+                                }
+                        } else if (value instanceof Float) {
+                                writeByte(VALUE_FLOAT);
+                                writeInt(Float.floatToRawIntBits((Float) value));
+                        } else if (value instanceof Boolean) {
+                                writeByte((Boolean) value ? VALUE_TRUE : VALUE_FALSE);
+                        } else if (value instanceof Date) {
+                                writeByte(VALUE_DATE);
+                                writeSignedVarLong(((Date) value).getTime());
+                        } else {
+                                writeByte(VALUE_STRING);
+                                writeString(String.valueOf(value));
+                        }
+                }
+
+                /**
+                 * Writes a reference to the given symbol. The reference is 0
+                 * for <code>null</code> and otherwise the index of the symbol
+                 * plus one, shifted by one bit that is set if the symbol is
+                 * defined by the subsequent string.
+                 */
+                private void writeSymbol(String symbol) {
+                        if (symbol == null) {
+                                writeVarInt(0);
+                                return;
+                        }
+                        Integer index = symbolIndexes.get(symbol);
+                        if (index != null) {
+                                writeVarInt((index << 1) + 1);
+                                return;
+                        }
+                        index = dictionary.size();
+                        dictionary.add(symbol);
+                        symbolIndexes.put(symbol, index);
+                        writeVarInt((index << 1) + 2);
+                        writeString(symbol);
+                }
+
+                private void writeString(String value) {
+                        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                        writeVarInt(bytes.length);
+                        writeBytes(bytes);
+                }
+
+                private void writeVarInt(int value) {
+                        ensureCapacity(5);
+                        while ((value & ~0x7F) != 0) {
+                                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                                value >>>= 7;
+                        }
+                        buffer[size++] = (byte) value;
+                }
+
+                private void writeVarLong(long value) {
+                        ensureCapacity(10);
+                        while ((value & ~0x7FL) != 0) {
+                                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                                value >>>= 7;
+                        }
+                        buffer[size++] = (byte) value;
+                }
+
+                private void writeSignedVarLong(long value) {
+                        writeVarLong((value << 1) ^ (value >> 63));
+                }
+
+                private void writeLong(long value) {
+                        writeInt((int) (value >>> 32));
+                        writeInt((int) value);
+                }
+
+                private void writeInt(int value) {
+                        ensureCapacity(4);
+                        buffer[size++] = (byte) (value >>> 24);
+                        buffer[size++] = (byte) (value >>> 16);
+                        buffer[size++] = (byte) (value >>> 8);
+                        buffer[size++] = (byte) value;
+                }
+
+                private void writeByte(int value) {
+                        ensureCapacity(1);
+                        buffer[size++] = (byte) value;
+                }
+
+                private void writeBytes(byte[] bytes) {
+                        ensureCapacity(bytes.length);
+                        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+                        size += bytes.length;
+                }
+
+                private void ensureCapacity(int length) {
+                        if (size + length > buffer.length) {
+                                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+                        }
+                }
+
+                private static int varIntSize(int value) {
+                        int bytes = 1;
+                        while ((value & ~0x7F) != 0) {
+                                value >>>= 7;
+                                bytes++;
+                        }
+                        return bytes;
+                }
+        }
+
+        /**
+         * <p>
+         * Decodes records of a binary log file.
+         * </p>
+         * <p>
+         * When reading a file sequentially, symbols defined within trace
+         * records are added to the dictionary of the decoder. When reading
+         * single traces, the dictionary of the trailer has to be given, in
+         * which case inline definitions are skipped. Decoders with a complete
+         * dictionary can be used by several threads if each thread uses its
+         * own decoder. Instances of this class are not thread-safe.
+         * </p>
+         */
+        public static class Decoder {
+
+                private final List<String> dictionary;
+                private final boolean defineSymbols;
+                private byte[] data = new byte[0];
+                private int position = 0;
+                private int limit = 0;
+
+                /**
+                 * Creates a decoder for reading a file sequentially, which
+                 * builds the dictionary from the definitions in the trace
+                 * records.
+                 */
+                public Decoder() {
+                        this.dictionary = new ArrayList<>();
+                        this.defineSymbols = true;
+                }
+
+                /**
+                 * Creates a decoder for reading single traces.
+                 *
+                 * @param dictionary The complete dictionary of the file.
+                 */
+                public Decoder(List<String> dictionary) {
+                        this.dictionary = dictionary;
+                        this.defineSymbols = false;
+                }
+
+                /**
+                 * Sets the bytes to decode.
+                 *
+                 * @param data Array containing the bytes.
+                 * @param offset Position of the first byte.
+                 * @param length Number of bytes.
+                 */
+                public void setInput(byte[] data, int offset, int length) {
+                        if (offset < 0 || length < 0 || offset + length > data.length) {
+                                throw new ParameterException("Invalid range of input bytes.");
+                        }
+                        this.data = data;
+                        this.position = offset;
+                        this.limit = offset + length;
+                }
+
+                /**
+                 * @return <code>true</code> if not all bytes of the input have
+                 * been decoded yet.
+                 */
+                public boolean hasRemaining() {
+                        return position < limit;
+                }
+
+                /**
+                 * Decodes and checks the magic number and version at the
+                 * beginning of a file.
+                 *
+                 * @throws ParserException if the input is no binary log file
+                 * or has an unsupported version.
+                 */
+                public void decodeHeader() throws ParserException {
+                        for (byte magicByte : MAGIC) {
+                                if (readByte() != (magicByte & 0xFF)) {
+                                        throw new ParserException("Input is no binary log file.");
+                                }
+                        }
+                        int version = readByte();
+                        if (version != VERSION) {
+                                throw new ParserException("Unsupported version of binary log file: " + version);
+                        }
+                }
+
+                /**
+                 * Decodes a trace record consisting of record type, length and
+                 * trace.
+                 *
+                 * @return The decoded trace.
+                 * @throws ParserException if the input is no valid trace
+                 * record.
+                 */
+                public LogTrace<LogEntry> decodeTraceRecord() throws ParserException {
+                        if (readByte() != RECORD_TRACE) {
+                                throw new ParserException("Input is no trace record.");
+                        }
+                        int length = readVarInt();
+                        if (length < 0 || length > limit - position) {
+                                throw new ParserException("Incomplete trace record.");
+                        }
+                        return decodeTrace();
+                }
+
+                /**
+                 * Decodes a trace without preceding record type and length.
+                 *
+                 * @return The decoded trace.
+                 * @throws ParserException if the input is no valid trace.
+                 */
+                public LogTrace<LogEntry> decodeTrace() throws ParserException {
+                        try {
+                                long caseNumber = readSignedVarLong();
+                                LogTrace<LogEntry> trace = caseNumber < 0 ? new LogTrace<>() : new LogTrace<>(caseNumber);
+                                int similarInstanceCount = readCount();
+                                if (similarInstanceCount > 0) {
+                                        List<Long> similarInstances = new ArrayList<>(similarInstanceCount);
+                                        for (int i = 0; i < similarInstanceCount; i++) {
+                                                similarInstances.add(readSignedVarLong());
+                                        }
+                                        trace.setSimilarInstances(similarInstances);
+                                }
+                                int entryCount = readCount();
+                                long lastTime = 0;
+                                for (int i = 0; i < entryCount; i++) {
+                                        lastTime = decodeEntry(trace, lastTime);
+                                }
+                                return trace;
+                        } catch (LockingException | ParameterException e) {
+                                throw new ParserException(e);
+                        }
+                }
+
+                private long decodeEntry(LogTrace<LogEntry> trace, long lastTime) throws ParserException, LockingException {
+                        int flags = readByte();
+                        LogEntry entry = (flags & FLAG_DATA_USAGE) != 0 ? new DULogEntry() : new LogEntry();
+                        if ((flags & FLAG_TIMESTAMP) != 0) {
+                                lastTime += readSignedVarLong();
+                                entry.setTimestamp(new Date(lastTime));
+                        }
+                        if ((flags & FLAG_ACTIVITY) != 0) {
+                                entry.setActivity(readSymbol());
+                        }
+                        if ((flags & FLAG_ORIGINATOR) != 0) {
+                                entry.setOriginator(readSymbol());
+                        }
+                        if ((flags & FLAG_ROLE) != 0) {
+                                entry.setRole(readSymbol());
+                        }
+                        if ((flags & FLAG_EVENT_TYPE) != 0) {
+                                int eventType = readByte();
+                                if (eventType >= EVENT_TYPES.length) {
+                                        throw new ParserException("Invalid event type: " + eventType);
+                                }
+                                entry.setEventType(EVENT_TYPES[eventType]);
+                        }
+                        if ((flags & FLAG_GROUP) != 0) {
+                                entry.setGroup(readString());
+                        }
+                        if ((flags & FLAG_META_DATA) != 0) {
+                                int attributeCount = readCount();
+                                for (int i = 0; i < attributeCount; i++) {
+                                        entry.addMetaAttribute(readAttribute());
+                                }
+                        }
+                        if ((flags & FLAG_DATA_USAGE) != 0) {
+                                DULogEntry duEntry = (DULogEntry) entry;
+                                int attributeCount = readCount();
+                                for (int i = 0; i < attributeCount; i++) {
+                                        DataAttribute attribute = readAttribute();
+                                        long usageFlags = readVarLong();
+                                        if (usageFlags == 0) {
+                                                duEntry.addDataUsage(attribute, null);
+                                        }
+                                        for (DataUsage dataUsage : DATA_USAGES) {
+                                                if ((usageFlags & (1L << dataUsage.ordinal())) != 0) {
+                                                        duEntry.addDataUsage(attribute, dataUsage);
+                                                }
+                                        }
+                                }
+                        }
+                        trace.addEntry(entry);
+                        return lastTime;
+                }
+
+                private DataAttribute readAttribute() throws ParserException {
+                        String name = readSymbol();
+                        int type = readByte();
+                        switch (type) {
+                                case VALUE_NULL:
+                                        return new DataAttribute(name);
+                                case VALUE_STRING:
+                                        return new DataAttribute(name, readString());
+                                case VALUE_INTEGER:
+                                        return new DataAttribute(name, (int) readSignedVarLong());
+                                case VALUE_LONG:
+                                        return new DataAttribute(name, readSignedVarLong());
+                                case VALUE_DOUBLE:
+                                        return new DataAttribute(name, Double.longBitsToDouble(readLong()));
+                                case VALUE_INTEGRAL_DOUBLE:
+                                        return new DataAttribute(name, (double) readSignedVarLong());
+                                case VALUE_FLOAT:
+                                        return new DataAttribute(name, Float.intBitsToFloat(readInt()));
+                                case VALUE_FALSE:
+                                        return new DataAttribute(name, false);
+                                case VALUE_TRUE:
+                                        return new DataAttribute(name, true);
+                                case VALUE_DATE:
+                                        return new DataAttribute(name, new Date(readSignedVarLong()));
+                                default:
+                                        throw new ParserException("Invalid type of attribute value: " + type);
+                        }
+                }
+
+                /**
+                 * Reads a symbol reference and adds or skips the definition of
+                 * the symbol.
+                 *
+                 * @return The referenced symbol.
+                 * @throws ParserException if the symbol is not defined.
+                 */
+                public String readSymbol() throws ParserException {
+                        int reference = readVarInt();
+                        if (reference == 0) {
+                                return null;
+                        }
+                        int index = (reference - 1) >>> 1;
+                        if (((reference - 1) & 1) != 0) {
+                                if (defineSymbols) {
+                                        if (index != dictionary.size()) {
+                                                throw new ParserException("Invalid definition of symbol " + index + ".");
+                                        }
+                                        String symbol = readString();
+                                        dictionary.add(symbol);
+                                        return symbol;
+                                }
+                                int length = readVarInt();
+                                checkRemaining(length);
+                                position += length;
+                        }
+                        if (index >= dictionary.size()) {
+                                throw new ParserException("Undefined symbol " + index + ".");
+                        }
+                        return dictionary.get(index);
+                }
+
+                public String readString() throws ParserException {
+                        int length = readVarInt();
+                        checkRemaining(length);
+                        String value = new String(data, position, length, StandardCharsets.UTF_8);
+                        position += length;
+                        return value;
+                }
+
+                /**
+                 * Reads the number of elements of a sequence. Since every
+                 * element is encoded by at least one byte, the number cannot
+                 * exceed the number of remaining bytes.
+                 *
+                 * @return The number of elements.
+                 * @throws ParserException if the number is negative or larger
+                 * than the number of remaining bytes.
+                 */
+                public int readCount() throws ParserException {
+                        int count = readVarInt();
+                        if (count < 0) {
+                                throw new ParserException("Invalid number of elements: " + count);
+                        }
+                        checkRemaining(count);
+                        return count;
+                }
+
+                public int readVarInt() throws ParserException {
+                        long value = readVarLong();
+                        if ((value & ~0xFFFFFFFFL) != 0) {
+                                throw new ParserException("Invalid variable-length integer.");
+                        }
+                        return (int) value;
+                }
+
+                public long readVarLong() throws ParserException {
+                        long value = 0;
+                        for (int shift = 0; shift < 64; shift += 7) {
+                                int b = readByte();
+                                value |= (long) (b & 0x7F) << shift;
+                                if ((b & 0x80) == 0) {
+                                        return value;
+                                }
+                        }
+                        throw new ParserException("Invalid variable-length integer.");
+                }
+
+                public long readSignedVarLong() throws ParserException {
+                        long value = readVarLong();
+                        return (value >>> 1) ^ -(value & 1);
+                }
+
+                public long readLong() throws ParserException {
+                        return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+                }
+
+                public int readInt() throws ParserException {
+                        checkRemaining(4);
+                        int value = ((data[position] & 0xFF) << 24) | ((data[position + 1] & 0xFF) << 16) | ((data[position + 2] & 0xFF) << 8) | (data[position + 3] & 0xFF);
+                        position += 4;
+                        return value;
+                }
+
+                public int readByte() throws ParserException {
+                        if (position >= limit) {
+                                throw new ParserException("Unexpected end of binary log data.");
+                        }
+                        return data[position++] & 0xFF;
+                }
+
+                private void checkRemaining(int length) throws ParserException {
+                        if (length < 0 || length > limit - position) {
+                                throw new ParserException("Unexpected end of binary log data.");
+                        }
+                }
+        }
+}
@@ -0,0 +1,120 @@
+package de.uni.freiburg.iig.telematik.sewol.format;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import de.invation.code.toval.validate.Validate;
+
+/**
+ * Compression of log files. A compressed log file has the extension of its log
+ * format followed by the extension of the compression, e.g.
+ * <code>log.xes.gz</code>.
+ *
+ * @version 1.0.2
+ * @since 1.0.2
+ */
+public enum LogCompression {
+
+        /** Uncompressed log files */
+        NONE(null),
+        /** GZIP compressed log files */
+        GZIP("gz");
+
+        /** Size of the buffers of compressed streams */
+        public static final int BUFFER_SIZE = 64 * 1024;
+
+        private static final int GZIP_MAGIC_1 = 0x1f;
+        private static final int GZIP_MAGIC_2 = 0x8b;
+
+        private final String fileExtension;
+
+        private LogCompression(String fileExtension) {
+                this.fileExtension = fileExtension;
+        }
+
+        /**
+         * @return The file extension without leading dot or <code>null</code>
+         * for uncompressed files.
+         */
+        public String getFileExtension() {
+                return fileExtension;
+        }
+
+        /**
+         * Returns the compression of a file with the given name, based on its
+         * extension.
+         *
+         * @param fileName The name of the file.
+         * @return The compression of the file.
+         */
+        public static LogCompression forFileName(String fileName) {
+                Validate.notNull(fileName);
+                for (LogCompression compression : values()) {
+                        if (compression.fileExtension != null && fileName.endsWith("." + compression.fileExtension)) {
+                                return compression;
+                        }
+                }
+                return NONE;
+        }
+
+        /**
+         * Removes the extension of the compression from the given file name,
+         * so that the remaining extension identifies the log format.
+         *
+         * @param fileName The name of the file.
+         * @return The file name without the extension of the compression.
+         */
+        public static String stripFileExtension(String fileName) {
+                LogCompression compression = forFileName(fileName);
+                if (compression == NONE) {
+                        return fileName;
+                }
+                return fileName.substring(0, fileName.length() - compression.fileExtension.length() - 1);
+        }
+
+        /**
+         * Opens a buffered stream on the given file that transparently
+         * decompresses GZIP compressed content. The compression is detected
+         * by the content of the file, regardless of its extension.
+         *
+         * @param file The file to read.
+         * @return The stream of the uncompressed content.
+         * @throws IOException if the file cannot be opened.
+         */
+        public static InputStream openInputStream(File file) throws IOException {
+                Validate.notNull(file);
+                BufferedInputStream inputStream = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+                try {
+                        inputStream.mark(2);
+                        int first = inputStream.read();
+                        int second = inputStream.read();
+                        inputStream.reset();
+                        if (first == GZIP_MAGIC_1 && second == GZIP_MAGIC_2) {
+                                return new GZIPInputStream(inputStream, BUFFER_SIZE);
+                        }
+                        return inputStream;
+                } catch (IOException e) {
+                        inputStream.close();
+                        throw e;
+                }
+        }
+
+        /**
+         * Checks if the given file is GZIP compressed, based on its content.
+         *
+         * @param file The file to check.
+         * @return <code>true</code> if the file starts with the GZIP magic
+         * number.
+         * @throws IOException if the file cannot be read.
+         */
+        public static boolean isCompressed(File file) throws IOException {
+                Validate.notNull(file);
+                try (InputStream inputStream = new FileInputStream(file)) {
+                        return inputStream.read() == GZIP_MAGIC_1 && inputStream.read() == GZIP_MAGIC_2;
+                }
+        }
+}
@@ -0,0 +1,31 @@
+package de.uni.freiburg.iig.telematik.sewol.format;
+
+import java.nio.charset.Charset;
+
+import de.invation.code.toval.file.FileFormat;
+
+/**
+ * File format of binary log files.
+ *
+ * @see BinaryLogEncoding
+ * @version 1.0.2
+ * @since 1.0.2
+ */
+public class LogFF_Binary extends FileFormat{
+
+	@Override
+	public String getFileExtension() {
+		return "slog";
+	}
+
+	@Override
+	public String getName() {
+		return "BINARY";
+	}
+
+	@Override
+	public boolean supportsCharset(Charset charset) {
+		return true;
+	}
+
+}
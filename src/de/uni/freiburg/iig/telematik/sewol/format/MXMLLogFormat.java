@@ -1,8 +1,8 @@
 package de.uni.freiburg.iig.telematik.sewol.format;
 
 import de.invation.code.toval.validate.Validate;
+import java.io.IOException;
 import java.nio.charset.Charset;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.Set;
 
@@ -11,7 +11,6 @@ import de.uni.freiburg.iig.telematik.sewol.log.DataAttribute;
 import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
 import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
 import de.uni.freiburg.iig.telematik.sewol.writer.PerspectiveException;
-import java.util.List;
 
 /**
  * Weil die Zeilenumbrüche hardcoded in den String-Konstanten sind muss darauf
@@ -44,22 +43,27 @@ public class MXMLLogFormat extends AbstractLogFormat {
         private static final String FILE_HEADER = String.format(FILE_HEADER_FORMAT, DEFAULT_LINE_SEPARATOR, DEFAULT_LINE_SEPARATOR, DEFAULT_LINE_SEPARATOR);
         private static final String FILE_FOOTER_FORMAT = "</" + ELEMENT_LOG + ">%s</" + ELEMENT_ROOT + ">%s";
         private static final String FILE_FOOTER = String.format(FILE_FOOTER_FORMAT, DEFAULT_LINE_SEPARATOR, DEFAULT_LINE_SEPARATOR);
-        private static final String INSTANCE_START_FORMAT = "<" + ELEMENT_TRACE + " id=\"%d\">%s";
-        private static final String INSTANCE_END_FORMAT = "</" + ELEMENT_TRACE + ">%s";
-        private static final String INSTANCE_END = String.format(INSTANCE_END_FORMAT, DEFAULT_LINE_SEPARATOR);
-
-        private static final String ENTRY_START_FORMAT = "<" + ELEMENT_ENTRY + ">%s"
-                + "<" + ELEMENT_ACTIVITY + ">%s</" + ELEMENT_ACTIVITY + ">%s"
-                + "<" + ELEMENT_TYPE + ">%s</" + ELEMENT_TYPE + ">%s"
-                + "<" + ELEMENT_TIME + ">%s</" + ELEMENT_TIME + ">%s";
-        private static final String ENTRY_END_FORMAT = "</" + ELEMENT_ENTRY + ">%s";
-
-        private static final String DATA_SUB_FORMAT = "<" + ELEMENT_DATA + ">%%s%s</" + ELEMENT_DATA + ">%%s";
-
-        //private static final String ATTRIBUTE_FORMAT = "<Attribute type=\"%s\" name=\"%s\">%s</Attribute>%s";
-        private static final String ATTRIBUTE_FORMAT = "<" + ELEMENT_ATTRIBUTE + " name=\"%s\">%s</" + ELEMENT_ATTRIBUTE + ">%s";
-
-        private static final String ORIGINATOR_FORMAT = "<" + ELEMENT_ORIGINATOR + ">%s</" + ELEMENT_ORIGINATOR + ">%s";
+        private static final String INSTANCE_START = "<" + ELEMENT_TRACE + " id=\"";
+        private static final String INSTANCE_START_END = "\">" + DEFAULT_LINE_SEPARATOR;
+        private static final String INSTANCE_END = "</" + ELEMENT_TRACE + ">" + DEFAULT_LINE_SEPARATOR;
+
+        private static final String ENTRY_START = "<" + ELEMENT_ENTRY + ">" + DEFAULT_LINE_SEPARATOR;
+        private static final String ENTRY_END = "</" + ELEMENT_ENTRY + ">" + DEFAULT_LINE_SEPARATOR;
+        private static final String ACTIVITY_START = "<" + ELEMENT_ACTIVITY + ">";
+        private static final String ACTIVITY_END = "</" + ELEMENT_ACTIVITY + ">" + DEFAULT_LINE_SEPARATOR;
+        private static final String TYPE_START = "<" + ELEMENT_TYPE + ">";
+        private static final String TYPE_END = "</" + ELEMENT_TYPE + ">" + DEFAULT_LINE_SEPARATOR;
+        private static final String TIME_START = "<" + ELEMENT_TIME + ">";
+        private static final String TIME_END = "</" + ELEMENT_TIME + ">" + DEFAULT_LINE_SEPARATOR;
+        private static final String ORIGINATOR_START = "<" + ELEMENT_ORIGINATOR + ">";
+        private static final String ORIGINATOR_END = "</" + ELEMENT_ORIGINATOR + ">" + DEFAULT_LINE_SEPARATOR;
+
+        private static final String DATA_START = "<" + ELEMENT_DATA + ">" + DEFAULT_LINE_SEPARATOR;
+        private static final String DATA_END = "</" + ELEMENT_DATA + ">" + DEFAULT_LINE_SEPARATOR;
+
+        private static final String ATTRIBUTE_START = "<" + ELEMENT_ATTRIBUTE + " " + ATTRIBUTE_NAME + "=\"";
+        private static final String ATTRIBUTE_START_END = "\">";
+        private static final String ATTRIBUTE_END = "</" + ELEMENT_ATTRIBUTE + ">" + DEFAULT_LINE_SEPARATOR;
 
         private final String MXML_DATEPATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
 
@@ -119,74 +123,52 @@ public class MXMLLogFormat extends AbstractLogFormat {
         }
 
         @Override
-        public <E extends LogEntry> String getTraceAsString(LogTrace<E> trace) {
-                StringBuilder builder = new StringBuilder();
-                builder.append(String.format(INSTANCE_START_FORMAT, trace.getCaseNumber(), DEFAULT_LINE_SEPARATOR));
+        public <E extends LogEntry> void writeTrace(LogTrace<E> trace, Appendable output) throws IOException {
+                output.append(INSTANCE_START).append(Long.toString(trace.getCaseNumber())).append(INSTANCE_START_END);
                 for (LogEntry e : trace.getEntries()) {
-                        builder.append(getEntryAsString(e, trace.getCaseNumber()));
+                        writeEntry(e, trace.getCaseNumber(), output);
                 }
-                builder.append(INSTANCE_END);
-                return builder.toString();
+                output.append(INSTANCE_END);
         }
 
         @Override
-        public <E extends LogEntry> String getEntryAsString(E entry, long caseNumber) {
-                StringBuilder builder = new StringBuilder();
-                builder.append(ENTRY_START_FORMAT);
-                List<Object> formatArgs = new ArrayList<>();
-                formatArgs.add(DEFAULT_LINE_SEPARATOR);
-                formatArgs.add(entry.getActivity());
-                formatArgs.add(DEFAULT_LINE_SEPARATOR);
-                formatArgs.add(entry.getEventType() == null ? "" : entry.getEventType().toString());
-                formatArgs.add(DEFAULT_LINE_SEPARATOR);
+        public <E extends LogEntry> void writeEntry(E entry, long caseNumber, Appendable output) throws IOException {
+                output.append(ENTRY_START);
+                output.append(ACTIVITY_START).append(entry.getActivity()).append(ACTIVITY_END);
+                output.append(TYPE_START).append(entry.getEventType() == null ? "" : entry.getEventType().toString()).append(TYPE_END);
+                output.append(TIME_START);
                 Date timestamp = entry.getTimestamp();
                 if (timestamp != null) {
-//			System.out.println(entry.getTimestamp());
-//			System.out.println(dateFormat.format(entry.getTimestamp()));
-//			System.out.println();
-                        formatArgs.add(dateFormat.format(entry.getTimestamp()));
+                        appendDate(timestamp, output);
                 } else {
-                        formatArgs.add("-");
+                        output.append('-');
                 }
-                formatArgs.add(DEFAULT_LINE_SEPARATOR);
+                output.append(TIME_END);
                 if (entry.getOriginator() != null) {
-                        builder.append(ORIGINATOR_FORMAT);
-                        formatArgs.add(entry.getOriginator());
-                        formatArgs.add(DEFAULT_LINE_SEPARATOR);
+                        output.append(ORIGINATOR_START).append(entry.getOriginator()).append(ORIGINATOR_END);
                 }
 
                 if (entry instanceof DULogEntry) {
                         Set<DataAttribute> data = ((DULogEntry) entry).getDataAttributes();
                         if (data != null) {
-                                StringBuilder dataFormat = new StringBuilder();
-                                formatArgs.add(DEFAULT_LINE_SEPARATOR);
-                                for (DataAttribute input : data) {
-                                        dataFormat.append(ATTRIBUTE_FORMAT);
-                                        formatArgs.add(input.name);
-                                        formatArgs.add(input.value);
-                                        formatArgs.add(DEFAULT_LINE_SEPARATOR);
-                                }
-                                builder.append(String.format(DATA_SUB_FORMAT, dataFormat.toString()));
-                                formatArgs.add(DEFAULT_LINE_SEPARATOR);
+                                writeData(data, output);
                         }
                 }
 
                 Set<DataAttribute> metaInformation = entry.getMetaAttributes();
                 if (metaInformation != null && !metaInformation.isEmpty()) {
-                        StringBuilder metaFormat = new StringBuilder();
-                        formatArgs.add(DEFAULT_LINE_SEPARATOR);
-                        for (DataAttribute meta : metaInformation) {
-                                metaFormat.append(ATTRIBUTE_FORMAT);
-                                formatArgs.add(meta.name);
-                                formatArgs.add(meta.value);
-                                formatArgs.add(DEFAULT_LINE_SEPARATOR);
-                        }
-                        builder.append(String.format(DATA_SUB_FORMAT, metaFormat.toString()));
-                        formatArgs.add(DEFAULT_LINE_SEPARATOR);
+                        writeData(metaInformation, output);
+                }
+                output.append(ENTRY_END);
+        }
+
+        private void writeData(Set<DataAttribute> attributes, Appendable output) throws IOException {
+                output.append(DATA_START);
+                for (DataAttribute attribute : attributes) {
+                        output.append(ATTRIBUTE_START).append(attribute.name).append(ATTRIBUTE_START_END);
+                        output.append(String.valueOf(attribute.value)).append(ATTRIBUTE_END);
                 }
-                builder.append(ENTRY_END_FORMAT);
-                formatArgs.add(DEFAULT_LINE_SEPARATOR);
-                return String.format(builder.toString(), formatArgs.toArray());
+                output.append(DATA_END);
         }
 
         @Override
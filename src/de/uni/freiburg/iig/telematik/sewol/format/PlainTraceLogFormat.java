@@ -1,5 +1,6 @@
 package de.uni.freiburg.iig.telematik.sewol.format;
 
+import java.io.IOException;
 import java.nio.charset.Charset;
 
 import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
@@ -57,19 +58,17 @@ public class PlainTraceLogFormat extends AbstractLogFormat {
 	}
 	
 	@Override
-	public <E extends LogEntry> String getTraceAsString(LogTrace<E> trace) {
-		StringBuilder builder = new StringBuilder();
+	public <E extends LogEntry> void writeTrace(LogTrace<E> trace, Appendable output) throws IOException {
 		for(LogEntry e: trace.getEntries()) {
-			builder.append(getEntryAsString(e, trace.getCaseNumber()));
-			builder.append(activityDelimiter);
+			writeEntry(e, trace.getCaseNumber(), output);
+			output.append(activityDelimiter);
 		}
-		builder.append('\n');
-		return builder.toString();
+		output.append('\n');
 	}
 
 	@Override
-	public <E extends LogEntry> String getEntryAsString(E entry, long caseNumber) {
-		return entry.getActivity();
+	public <E extends LogEntry> void writeEntry(E entry, long caseNumber, Appendable output) throws IOException {
+		output.append(entry.getActivity());
 	}
 
         @Override
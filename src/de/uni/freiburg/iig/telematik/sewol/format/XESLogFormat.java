@@ -1,5 +1,6 @@
 package de.uni.freiburg.iig.telematik.sewol.format;
 
+import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.Date;
 import java.util.Map;
@@ -48,16 +49,28 @@ public class XESLogFormat extends AbstractLogFormat {
         private static final String EVENT_END_FORMAT = "%s</event>%s";
         private static final String EVENT_END = String.format(EVENT_END_FORMAT, INDENT2, DEFAULT_LINE_SEPARATOR);
 
-        private static final String ATTRIBUTE_STRING_FORMAT = "%s<string key=\"%s\" value=\"%s\">%s</string>%s";
         private static final String ATTRIBUTE_STRING_FORMAT_C = "%s<string key=\"%s\" value=\"%s\" />%s";
-        private static final String ATTRIBUTE_DATE_FORMAT = "%s<date key=\"%s\" value=\"%s\">%s</date>%s";
-        private static final String ATTRIBUTE_DATE_FORMAT_C = "%s<date key=\"%s\" value=\"%s\" />%s";
-        private static final String ATTRIBUTE_INT_FORMAT = "%s<int key=\"%s\" value=\"%d\">%s</int>%s";
-        private static final String ATTRIBUTE_INT_FORMAT_C = "%s<int key=\"%s\" value=\"%d\" />%s";
-        private static final String ATTRIBUTE_FLOAT_FORMAT = "%s<float key=\"%s\" value=\"%f\">%s</float>%s";
-        private static final String ATTRIBUTE_FLOAT_FORMAT_C = "%s<float key=\"%s\" value=\"%f\" />%s";
-        private static final String ATTRIBUTE_BOOLEAN_FORMAT = "%s<boolean key=\"%s\" value=\"%b\">%s</boolean>%s";
-        private static final String ATTRIBUTE_BOOLEAN_FORMAT_C = "%s<boolean key=\"%s\" value=\"%b\" />%s";
+
+        private static final String KEY_START = " key=\"";
+        private static final String VALUE_START = "\" value=\"";
+        private static final String ELEMENT_START_END = "\">" + DEFAULT_LINE_SEPARATOR;
+        private static final String EMPTY_ELEMENT_END = "\" />" + DEFAULT_LINE_SEPARATOR;
+        private static final String FLOAT_VALUE_FORMAT = "%f";
+
+        private static final String TRACE_NAME_START = INDENT2 + "<string" + KEY_START + XESExtensions.CONCEPT.prefix + ":name" + VALUE_START;
+        private static final String EVENT_RESOURCE_START = INDENT3 + "<string" + KEY_START + XESExtensions.ORGANIZATIONAL.prefix + ":resource" + VALUE_START;
+        private static final String EVENT_NAME_START = INDENT3 + "<string" + KEY_START + XESExtensions.CONCEPT.prefix + ":name" + VALUE_START;
+        private static final String EVENT_TIMESTAMP_START = INDENT3 + "<date" + KEY_START + XESExtensions.TIME.prefix + ":timestamp" + VALUE_START;
+        private static final String DATA_START = INDENT3 + "<string" + KEY_START + XESExtensions.ATTRIBUTE_DATA_USAGE.prefix + ":data" + VALUE_START + ELEMENT_START_END;
+        private static final String DATA_END = INDENT3 + "</string>" + DEFAULT_LINE_SEPARATOR;
+        private static final String DATA_USAGE_START = INDENT5 + "<string" + KEY_START + "dataUsage" + VALUE_START;
+        private static final String[] DATA_USAGE_NAMES = new String[DataUsage.values().length];
+
+        static {
+                for (DataUsage dataUsage : DataUsage.values()) {
+                        DATA_USAGE_NAMES[dataUsage.ordinal()] = dataUsage.toString().toLowerCase();
+                }
+        }
 
         private static final String XES_DATEPATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
 
@@ -146,100 +159,100 @@ public class XESLogFormat extends AbstractLogFormat {
         }
 
         @Override
-        public <E extends LogEntry> String getTraceAsString(LogTrace<E> trace) {
-                StringBuilder builder = new StringBuilder();
-                builder.append(TRACE_START);
+        public <E extends LogEntry> void writeTrace(LogTrace<E> trace, Appendable output) throws IOException {
+                output.append(TRACE_START);
 
                 // concept name
-                builder.append(String.format(ATTRIBUTE_STRING_FORMAT_C, INDENT2, XESExtensions.CONCEPT.prefix + ":name", trace.getCaseNumber(), DEFAULT_LINE_SEPARATOR));
+                output.append(TRACE_NAME_START).append(Long.toString(trace.getCaseNumber())).append(EMPTY_ELEMENT_END);
 
                 for (LogEntry e : trace.getEntries()) {
-                        builder.append(getEntryAsString(e, trace.getCaseNumber()));
+                        writeEntry(e, trace.getCaseNumber(), output);
                 }
-                builder.append(TRACE_END);
-                return builder.toString();
+                output.append(TRACE_END);
         }
 
         @Override
-        public <E extends LogEntry> String getEntryAsString(E entry, long caseNumber) {
-                StringBuilder builder = new StringBuilder();
+        public <E extends LogEntry> void writeEntry(E entry, long caseNumber, Appendable output) throws IOException {
+                output.append(EVENT_START);
 
-                builder.append(EVENT_START);
-
-                // originator => "%s<string key=\"%s\" value=\"%s\">%s</string>%s"
-                builder.append(String.format(ATTRIBUTE_STRING_FORMAT_C, INDENT3, XESExtensions.ORGANIZATIONAL.prefix + ":resource", entry.getOriginator(), DEFAULT_LINE_SEPARATOR));
+                // originator
+                output.append(EVENT_RESOURCE_START).append(String.valueOf(entry.getOriginator())).append(EMPTY_ELEMENT_END);
                 // concept name
-                builder.append(String.format(ATTRIBUTE_STRING_FORMAT_C, INDENT3, XESExtensions.CONCEPT.prefix + ":name", entry.getActivity(), DEFAULT_LINE_SEPARATOR));
+                output.append(EVENT_NAME_START).append(String.valueOf(entry.getActivity())).append(EMPTY_ELEMENT_END);
                 // time
-                builder.append(String.format(ATTRIBUTE_DATE_FORMAT_C, INDENT3, XESExtensions.TIME.prefix + ":timestamp", entry.getTimestamp() != null ? dateFormat.format(entry.getTimestamp()) : "-", DEFAULT_LINE_SEPARATOR));
+                output.append(EVENT_TIMESTAMP_START);
+                Date timestamp = entry.getTimestamp();
+                if (timestamp != null) {
+                        appendDate(timestamp, output);
+                } else {
+                        output.append('-');
+                }
+                output.append(EMPTY_ELEMENT_END);
                 // data
                 if (entry instanceof DULogEntry) {
                         DULogEntry duEntry = (DULogEntry) entry;
                         Set<DataAttribute> data = duEntry.getDataAttributes();
                         if (data != null && !data.isEmpty()) {
-                                StringBuilder dataBlock = new StringBuilder();
-                                dataBlock.append(DEFAULT_LINE_SEPARATOR);
+                                output.append(DATA_START);
                                 Map<DataAttribute, Set<DataUsage>> dataUsage = duEntry.getDataUsage();
                                 for (DataAttribute dataAttribute : data) {
-                                        StringBuilder du = new StringBuilder();
-                                        du.append(DEFAULT_LINE_SEPARATOR);
-                                        StringBuilder v = new StringBuilder();
+                                        String type = getAttributeType(dataAttribute.value);
+                                        output.append(INDENT4).append('<').append(type).append(KEY_START).append(dataAttribute.name).append(VALUE_START);
+                                        appendAttributeValue(dataAttribute.value, output);
+                                        output.append(ELEMENT_START_END);
+                                        output.append(DATA_USAGE_START);
+                                        boolean first = true;
                                         for (DataUsage dataUsageValue : dataUsage.get(dataAttribute)) {
-                                                v.append(dataUsageValue.toString().toLowerCase());
-                                                v.append(",");
-                                        }
-                                        String dataUsageString = v.length() > 0 ? v.substring(0, v.length() - 1) : "";
-                                        du.append(String.format(ATTRIBUTE_STRING_FORMAT_C, INDENT5, "dataUsage", dataUsageString, DEFAULT_LINE_SEPARATOR));
-                                        du.append(INDENT4);
-
-                                        // retrieve data type
-                                        String dataAttributeFormat = ATTRIBUTE_STRING_FORMAT;
-                                        if (dataAttribute.value instanceof Date) {
-                                                dataAttributeFormat = ATTRIBUTE_DATE_FORMAT;
-                                        } else if (dataAttribute.value instanceof Integer) {
-                                                dataAttributeFormat = ATTRIBUTE_INT_FORMAT;
-                                        } else if (dataAttribute.value instanceof Float) {
-                                                dataAttributeFormat = ATTRIBUTE_FLOAT_FORMAT;
-                                        } else if (dataAttribute.value instanceof Double) {
-                                                dataAttributeFormat = ATTRIBUTE_FLOAT_FORMAT;
-                                        } else if (dataAttribute.value instanceof Boolean) {
-                                                dataAttributeFormat = ATTRIBUTE_BOOLEAN_FORMAT;
+                                                if (!first) {
+                                                        output.append(',');
+                                                }
+                                                output.append(DATA_USAGE_NAMES[dataUsageValue.ordinal()]);
+                                                first = false;
                                         }
-
-                                        dataBlock.append(String.format(dataAttributeFormat, INDENT4, dataAttribute.name, dataAttribute.value, du.toString(), DEFAULT_LINE_SEPARATOR));
+                                        output.append(EMPTY_ELEMENT_END);
+                                        output.append(INDENT4).append("</").append(type).append('>').append(DEFAULT_LINE_SEPARATOR);
                                 }
-                                dataBlock.append(INDENT3);
-                                builder.append(String.format(ATTRIBUTE_STRING_FORMAT, INDENT3, XESExtensions.ATTRIBUTE_DATA_USAGE.prefix + ":data", "", dataBlock.toString(), DEFAULT_LINE_SEPARATOR));
+                                output.append(DATA_END);
                         }
                 }
 
                 // meta
-                if (entry.getMetaAttributes() != null && !entry.getMetaAttributes().isEmpty()) {
-                        Set<DataAttribute> metaAttributes = entry.getMetaAttributes();
-                        if (metaAttributes != null && !metaAttributes.isEmpty()) {
-                                for (DataAttribute metaAttribute : metaAttributes) {
-                                        // retrieve data type
-                                        String metaAttributeFormat = ATTRIBUTE_STRING_FORMAT_C;
-                                        if (metaAttribute.value instanceof Date) {
-                                                metaAttributeFormat = ATTRIBUTE_DATE_FORMAT_C;
-                                        } else if (metaAttribute.value instanceof Integer) {
-                                                metaAttributeFormat = ATTRIBUTE_INT_FORMAT_C;
-                                        } else if (metaAttribute.value instanceof Float) {
-                                                metaAttributeFormat = ATTRIBUTE_FLOAT_FORMAT_C;
-                                        } else if (metaAttribute.value instanceof Double) {
-                                                metaAttributeFormat = ATTRIBUTE_FLOAT_FORMAT_C;
-                                        } else if (metaAttribute.value instanceof Boolean) {
-                                                metaAttributeFormat = ATTRIBUTE_BOOLEAN_FORMAT_C;
-                                        }
-
-                                        builder.append(String.format(metaAttributeFormat, INDENT3, metaAttribute.name, metaAttribute.value, DEFAULT_LINE_SEPARATOR));
-                                }
+                Set<DataAttribute> metaAttributes = entry.getMetaAttributes();
+                if (metaAttributes != null && !metaAttributes.isEmpty()) {
+                        for (DataAttribute metaAttribute : metaAttributes) {
+                                output.append(INDENT3).append('<').append(getAttributeType(metaAttribute.value)).append(KEY_START).append(metaAttribute.name).append(VALUE_START);
+                                appendAttributeValue(metaAttribute.value, output);
+                                output.append(EMPTY_ELEMENT_END);
                         }
                 }
 
-                builder.append(EVENT_END);
+                output.append(EVENT_END);
+        }
 
-                return builder.toString();
+        /**
+         * Returns the XES element name for the type of the given attribute
+         * value.
+         */
+        private static String getAttributeType(Object value) {
+                if (value instanceof Date) {
+                        return "date";
+                } else if (value instanceof Integer) {
+                        return "int";
+                } else if (value instanceof Float || value instanceof Double) {
+                        return "float";
+                } else if (value instanceof Boolean) {
+                        return "boolean";
+                }
+                return "string";
+        }
+
+        private static void appendAttributeValue(Object value, Appendable output) throws IOException {
+                if (value instanceof Float || value instanceof Double) {
+                        // Keeps the locale-dependent representation of floating point values.
+                        output.append(String.format(FLOAT_VALUE_FORMAT, value));
+                } else {
+                        output.append(String.valueOf(value));
+                }
         }
 
         @Override
@@ -0,0 +1,779 @@
+package de.uni.freiburg.iig.telematik.sewol.log;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import de.invation.code.toval.validate.ParameterException;
+import de.invation.code.toval.validate.Validate;
+
+/**
+ * <p>
+ * Log storing its entries column-wise instead of as one object per entry.
+ * </p>
+ * <p>
+ * Activities, originators and roles are stored as int codes of a
+ * {@link LogDictionary}, timestamps as milliseconds in a <code>long[]</code>,
+ * event types as ordinals in a <code>byte[]</code> and the traces as offsets
+ * into these columns. Groups, meta attributes and locked fields, which most
+ * entries do not have, are stored in maps by the position of the entry. Other
+ * fields of subclasses of {@link LogEntry} are not stored.
+ * </p>
+ * <p>
+ * Traces and entries are provided as lightweight views on the columns, which
+ * are created on access. An entry view refers to the position of the entry,
+ * so that changes through the setters of an entry are stored in the columns.
+ * Entries cannot be added to or removed from a trace once the trace has been
+ * added to the log. Sorting a trace reorders the entries within the columns,
+ * so that previously obtained entry views of the trace refer to the entries
+ * now at their position.
+ * </p>
+ * <p>
+ * The index of distinct traces is built on the first query. Its keys only
+ * store the position and hash code of a trace and compare the columns, so
+ * that the index does not copy the entries. Changing an entry or sorting a
+ * trace drops the index, which is built again on the next query.
+ * </p>
+ *
+ * @version 1.0.2
+ * @since 1.0.2
+ */
+public class ColumnarLog extends Log<LogEntry> {
+
+        private static final int INITIAL_CAPACITY = 1024;
+        /** Timestamp value representing <code>null</code> */
+        private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+        /** Event type value representing <code>null</code> */
+        private static final byte NO_EVENT_TYPE = -1;
+        private static final EventType[] EVENT_TYPES = EventType.values();
+
+        private final LogDictionary dictionary;
+
+        private int eventCount = 0;
+        private int[] activities = new int[INITIAL_CAPACITY];
+        private int[] originators = new int[INITIAL_CAPACITY];
+        private int[] roles = new int[INITIAL_CAPACITY];
+        private long[] timestamps = new long[INITIAL_CAPACITY];
+        private byte[] eventTypes = new byte[INITIAL_CAPACITY];
+        /**
+         * Position of the first entry of each trace. The entries of trace
+         * <i>i</i> are stored at the positions from
+         * <code>traceOffsets[i]</code> to <code>traceOffsets[i + 1]</code>
+         * (exclusive).
+         */
+        private int[] traceOffsets = new int[INITIAL_CAPACITY];
+
+        private Map<Integer, String> groups = new HashMap<>();
+        private Map<Integer, Set<DataAttribute>> metaAttributes = new HashMap<>();
+        private Map<Integer, Set<EntryField>> lockedFields = new HashMap<>();
+        /** Whether the index of distinct traces contains all traces */
+        private boolean distinctTracesIndexed = false;
+
+        /**
+         * Creates a new columnar log with its own dictionary.
+         */
+        public ColumnarLog() {
+                this(new LogDictionary());
+        }
+
+        /**
+         * Creates a new columnar log using the given dictionary, which can be
+         * shared with other logs.
+         *
+         * @param dictionary Dictionary for activities, originators and roles.
+         */
+        public ColumnarLog(LogDictionary dictionary) {
+                Validate.notNull(dictionary);
+                this.dictionary = dictionary;
+        }
+
+        public LogDictionary getDictionary() {
+                return dictionary;
+        }
+
+        /**
+         * @return The number of entries of all traces of the log.
+         */
+        public int getEventCount() {
+                return eventCount;
+        }
+
+        @Override
+        void reinitialize() {
+                super.reinitialize();
+                eventCount = 0;
+                activities = new int[INITIAL_CAPACITY];
+                originators = new int[INITIAL_CAPACITY];
+                roles = new int[INITIAL_CAPACITY];
+                timestamps = new long[INITIAL_CAPACITY];
+                eventTypes = new byte[INITIAL_CAPACITY];
+                traceOffsets = new int[INITIAL_CAPACITY];
+                groups = new HashMap<>();
+                metaAttributes = new HashMap<>();
+                lockedFields = new HashMap<>();
+                distinctTracesIndexed = false;
+        }
+
+        /**
+         * Copies the entries of the given trace into the columns of the log
+         * and adds a view on them as new trace. The given trace is not
+         * modified and not referenced by the log.
+         *
+         * @param trace Trace to add.
+         * @throws ParameterException
+         */
+        @Override
+        public void addTrace(LogTrace<LogEntry> trace) throws ParameterException {
+                Validate.notNull(trace);
+                int traceIndex = traces.size();
+                if (traceIndex + 2 > traceOffsets.length) {
+                        traceOffsets = Arrays.copyOf(traceOffsets, grow(traceOffsets.length, traceIndex + 2));
+                }
+                ensureEventCapacity(eventCount + trace.size());
+                for (LogEntry entry : trace.getEntries()) {
+                        append(entry);
+                }
+                traceOffsets[traceIndex + 1] = eventCount;
+
+                TraceView view = new TraceView(traceIndex);
+                traces.add(view);
+                summary.addTrace(view);
+                if (distinctTracesIndexed) {
+                        addDistinctTrace(view);
+                }
+        }
+
+        private void append(LogEntry entry) {
+                int event = eventCount++;
+                activities[event] = dictionary.encode(entry.getActivity());
+                originators[event] = dictionary.encode(entry.getOriginator());
+                roles[event] = dictionary.encode(entry.getRole());
+                Date timestamp = entry.getTimestamp();
+                timestamps[event] = timestamp == null ? NO_TIMESTAMP : timestamp.getTime();
+                EventType eventType = entry.getEventType();
+                eventTypes[event] = eventType == null ? NO_EVENT_TYPE : (byte) eventType.ordinal();
+                if (entry.getGroup() != null) {
+                        groups.put(event, entry.getGroup());
+                }
+                if (!entry.getMetaAttributes().isEmpty()) {
+                        metaAttributes.put(event, new HashSet<>(entry.getMetaAttributes()));
+                }
+                for (EntryField field : EntryField.values()) {
+                        if (entry.isFieldLocked(field)) {
+                                lockField(event, field);
+                        }
+                }
+        }
+
+        private void ensureEventCapacity(int capacity) {
+                if (capacity <= activities.length) {
+                        return;
+                }
+                int newLength = grow(activities.length, capacity);
+                activities = Arrays.copyOf(activities, newLength);
+                originators = Arrays.copyOf(originators, newLength);
+                roles = Arrays.copyOf(roles, newLength);
+                timestamps = Arrays.copyOf(timestamps, newLength);
+                eventTypes = Arrays.copyOf(eventTypes, newLength);
+        }
+
+        private static int grow(int length, int capacity) {
+                return Math.max(capacity, length + (length >> 1));
+        }
+
+        /**
+         * Shrinks the columns to the number of stored entries and traces.
+         */
+        public void trimToSize() {
+                activities = Arrays.copyOf(activities, eventCount);
+                originators = Arrays.copyOf(originators, eventCount);
+                roles = Arrays.copyOf(roles, eventCount);
+                timestamps = Arrays.copyOf(timestamps, eventCount);
+                eventTypes = Arrays.copyOf(eventTypes, eventCount);
+                traceOffsets = Arrays.copyOf(traceOffsets, traces.size() + 1);
+        }
+
+        private void lockField(int event, EntryField field) {
+                Set<EntryField> fields = lockedFields.get(event);
+                if (fields == null) {
+                        fields = EnumSet.noneOf(EntryField.class);
+                        lockedFields.put(event, fields);
+                }
+                fields.add(field);
+        }
+
+        /**
+         * Computes the hash code of the entry at the given position like
+         * {@link LogEntry#hashCode()}.
+         */
+        private int hashCode(int event) {
+                final int prime = 31;
+                int result = 1;
+                String activity = dictionary.decode(activities[event]);
+                result = prime * result + ((activity == null) ? 0 : activity.hashCode());
+                EventType eventType = getEventType(event);
+                result = prime * result + ((eventType == null) ? 0 : eventType.hashCode());
+                Set<DataAttribute> attributes = metaAttributes.get(event);
+                result = prime * result + ((attributes == null) ? 0 : attributes.hashCode());
+                String originator = dictionary.decode(originators[event]);
+                result = prime * result + ((originator == null) ? 0 : originator.hashCode());
+                long timestamp = timestamps[event];
+                result = prime * result + ((timestamp == NO_TIMESTAMP) ? 0 : (int) timestamp ^ (int) (timestamp >> 32));
+                return result;
+        }
+
+        private EventType getEventType(int event) {
+                byte eventType = eventTypes[event];
+                return eventType == NO_EVENT_TYPE ? null : EVENT_TYPES[eventType];
+        }
+
+        /**
+         * Compares the entries of two traces of the log like
+         * {@link LogEntry#equals(Object)}.
+         */
+        private boolean equalEntries(int traceIndex1, int traceIndex2) {
+                int event1 = traceOffsets[traceIndex1];
+                int event2 = traceOffsets[traceIndex2];
+                int size = traceOffsets[traceIndex1 + 1] - event1;
+                if (size != traceOffsets[traceIndex2 + 1] - event2) {
+                        return false;
+                }
+                for (int i = 0; i < size; i++, event1++, event2++) {
+                        if (activities[event1] != activities[event2]
+                                || originators[event1] != originators[event2]
+                                || timestamps[event1] != timestamps[event2]
+                                || eventTypes[event1] != eventTypes[event2]
+                                || !Objects.equals(metaAttributes.get(event1), metaAttributes.get(event2))) {
+                                return false;
+                        }
+                }
+                return true;
+        }
+
+        /**
+         * Indexes the distinct traces of the log if they have not been
+         * indexed since the log has been created or its entries have been
+         * changed.
+         */
+        private void indexDistinctTraces() {
+                if (distinctTracesIndexed) {
+                        return;
+                }
+                for (LogTrace<LogEntry> trace : traces) {
+                        addDistinctTrace(trace);
+                }
+                distinctTracesIndexed = true;
+        }
+
+        /**
+         * Drops the index of distinct traces after an entry has been changed,
+         * since the keys of the changed trace are no longer valid.
+         */
+        private void invalidateDistinctTraces() {
+                if (distinctTracesIndexed) {
+                        distinctTraces = new HashMap<>();
+                        distinctTracesIndexed = false;
+                }
+        }
+
+        /**
+         * Returns the number of traces with distinct entries. The traces are
+         * indexed on the first call after the log has been changed.
+         *
+         * @return The number of distinct traces.
+         */
+        @Override
+        public int getDistinctTraceCount() {
+                indexDistinctTraces();
+                return super.getDistinctTraceCount();
+        }
+
+        @Override
+        public Set<Long> getSimilarInstances(LogTrace<LogEntry> trace) throws ParameterException {
+                indexDistinctTraces();
+                return super.getSimilarInstances(trace);
+        }
+
+        /**
+         * Sorts the entries of the given trace by their timestamps. The sort
+         * is stable and entries without timestamp are put first.
+         */
+        private void sort(int traceIndex) {
+                invalidateDistinctTraces();
+                int start = traceOffsets[traceIndex];
+                int end = traceOffsets[traceIndex + 1];
+                Integer[] order = new Integer[end - start];
+                for (int i = 0; i < order.length; i++) {
+                        order[i] = start + i;
+                }
+                Arrays.sort(order, new Comparator<Integer>() {
+                        @Override
+                        public int compare(Integer event1, Integer event2) {
+                                return Long.compare(timestamps[event1], timestamps[event2]);
+                        }
+                });
+
+                int[] sortedActivities = new int[order.length];
+                int[] sortedOriginators = new int[order.length];
+                int[] sortedRoles = new int[order.length];
+                long[] sortedTimestamps = new long[order.length];
+                byte[] sortedEventTypes = new byte[order.length];
+                Map<Integer, String> sortedGroups = new HashMap<>();
+                Map<Integer, Set<DataAttribute>> sortedMetaAttributes = new HashMap<>();
+                Map<Integer, Set<EntryField>> sortedLockedFields = new HashMap<>();
+                for (int i = 0; i < order.length; i++) {
+                        int event = order[i];
+                        sortedActivities[i] = activities[event];
+                        sortedOriginators[i] = originators[event];
+                        sortedRoles[i] = roles[event];
+                        sortedTimestamps[i] = timestamps[event];
+                        sortedEventTypes[i] = eventTypes[event];
+                        moveValue(groups, event, sortedGroups, start + i);
+                        moveValue(metaAttributes, event, sortedMetaAttributes, start + i);
+                        moveValue(lockedFields, event, sortedLockedFields, start + i);
+                }
+                System.arraycopy(sortedActivities, 0, activities, start, order.length);
+                System.arraycopy(sortedOriginators, 0, originators, start, order.length);
+                System.arraycopy(sortedRoles, 0, roles, start, order.length);
+                System.arraycopy(sortedTimestamps, 0, timestamps, start, order.length);
+                System.arraycopy(sortedEventTypes, 0, eventTypes, start, order.length);
+                groups.putAll(sortedGroups);
+                metaAttributes.putAll(sortedMetaAttributes);
+                lockedFields.putAll(sortedLockedFields);
+        }
+
+        private static <V> void moveValue(Map<Integer, V> source, int sourceEvent, Map<Integer, V> target, int targetEvent) {
+                V value = source.remove(sourceEvent);
+                if (value != null) {
+                        target.put(targetEvent, value);
+                }
+        }
+
+        /**
+         * View on a trace of the log.
+         */
+        private class TraceView extends LogTrace<LogEntry> {
+
+                private final int traceIndex;
+
+                TraceView(int traceIndex) {
+                        super(traceIndex + 1);
+                        this.traceIndex = traceIndex;
+                }
+
+                @Override
+                protected List<LogEntry> entries() {
+                        return new EntryList(traceIndex);
+                }
+
+                @Override
+                protected int indexOfEntry(LogEntry entry) {
+                        if (entry instanceof EntryView && ((EntryView) entry).getLog() == ColumnarLog.this) {
+                                int event = ((EntryView) entry).event;
+                                if (event >= traceOffsets[traceIndex] && event < traceOffsets[traceIndex + 1]) {
+                                        return event - traceOffsets[traceIndex];
+                                }
+                        }
+                        return -1;
+                }
+
+                @Override
+                public int size() {
+                        return traceOffsets[traceIndex + 1] - traceOffsets[traceIndex];
+                }
+
+                @Override
+                public void sort() {
+                        ColumnarLog.this.sort(traceIndex);
+                }
+
+                /**
+                 * Uses a key that compares the columns of the trace, so that
+                 * indexes of distinct traces do not hold the entries.
+                 */
+                @Override
+                List<LogEntry> fingerprint() {
+                        return new TraceKey(traceIndex);
+                }
+        }
+
+        /**
+         * Unmodifiable list of views on the entries of a trace.
+         */
+        private class EntryList extends AbstractList<LogEntry> implements RandomAccess {
+
+                private final int traceIndex;
+
+                EntryList(int traceIndex) {
+                        this.traceIndex = traceIndex;
+                }
+
+                @Override
+                public LogEntry get(int index) {
+                        if (index < 0 || index >= size()) {
+                                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+                        }
+                        return new EntryView(traceOffsets[traceIndex] + index);
+                }
+
+                @Override
+                public int size() {
+                        return traceOffsets[traceIndex + 1] - traceOffsets[traceIndex];
+                }
+
+                @Override
+                public int hashCode() {
+                        int result = 1;
+                        for (int event = traceOffsets[traceIndex]; event < traceOffsets[traceIndex + 1]; event++) {
+                                result = 31 * result + ColumnarLog.this.hashCode(event);
+                        }
+                        return result;
+                }
+        }
+
+        /**
+         * Key of a trace in an index of distinct traces, which stores the hash
+         * code of the entries and compares the columns of the trace. The
+         * entries are created on access, so that a key is equal to any list
+         * of entries with equal field values.
+         */
+        private class TraceKey extends AbstractList<LogEntry> implements RandomAccess {
+
+                private final int traceIndex;
+                private final int hashCode;
+
+                TraceKey(int traceIndex) {
+                        this.traceIndex = traceIndex;
+                        this.hashCode = new EntryList(traceIndex).hashCode();
+                }
+
+                @Override
+                public LogEntry get(int index) {
+                        if (index < 0 || index >= size()) {
+                                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+                        }
+                        int event = traceOffsets[traceIndex] + index;
+                        LogEntry entry = new LogEntry();
+                        try {
+                                String activity = dictionary.decode(activities[event]);
+                                if (activity != null) {
+                                        entry.setActivity(activity);
+                                }
+                                String originator = dictionary.decode(originators[event]);
+                                if (originator != null) {
+                                        entry.setOriginator(originator);
+                                }
+                                if (timestamps[event] != NO_TIMESTAMP) {
+                                        entry.setTimestamp(new Date(timestamps[event]));
+                                }
+                                EventType eventType = getEventType(event);
+                                if (eventType != null) {
+                                        entry.setEventType(eventType);
+                                }
+                        } catch (LockingException e) {
+                                // Cannot happen since no field is locked by default.
+                                throw new RuntimeException(e);
+                        }
+                        Set<DataAttribute> attributes = metaAttributes.get(event);
+                        if (attributes != null) {
+                                for (DataAttribute attribute : attributes) {
+                                        entry.addMetaAttribute(attribute);
+                                }
+                        }
+                        return entry;
+                }
+
+                @Override
+                public int size() {
+                        return traceOffsets[traceIndex + 1] - traceOffsets[traceIndex];
+                }
+
+                @Override
+                public int hashCode() {
+                        return hashCode;
+                }
+
+                @Override
+                public boolean equals(Object obj) {
+                        if (this == obj) {
+                                return true;
+                        }
+                        if (!(obj instanceof List) || obj.hashCode() != hashCode) {
+                                return false;
+                        }
+                        if (obj instanceof TraceKey && ((TraceKey) obj).getLog() == ColumnarLog.this) {
+                                return equalEntries(traceIndex, ((TraceKey) obj).traceIndex);
+                        }
+                        return super.equals(obj);
+                }
+
+                private ColumnarLog getLog() {
+                        return ColumnarLog.this;
+                }
+        }
+
+        /**
+         * View on an entry of the log.
+         */
+        private class EntryView extends LogEntry {
+
+                private final int event;
+
+                EntryView(int event) {
+                        this.event = event;
+                }
+
+                private ColumnarLog getLog() {
+                        return ColumnarLog.this;
+                }
+
+                private long getTime() {
+                        return timestamps[event];
+                }
+
+                @Override
+                public void clearFields() {
+                        invalidateDistinctTraces();
+                        activities[event] = LogDictionary.NO_CODE;
+                        eventTypes[event] = NO_EVENT_TYPE;
+                        groups.remove(event);
+                        metaAttributes.remove(event);
+                        originators[event] = LogDictionary.NO_CODE;
+                        timestamps[event] = NO_TIMESTAMP;
+                }
+
+                @Override
+                public Date getTimestamp() {
+                        return timestamps[event] == NO_TIMESTAMP ? null : new Date(timestamps[event]);
+                }
+
+                @Override
+                public boolean setTimestamp(Date date) throws LockingException {
+                        Validate.notNull(date);
+                        if (isFieldLocked(EntryField.TIME)) {
+                                if (timestamps[event] != date.getTime()) {
+                                        throw new LockingException(EntryField.TIME);
+                                }
+                                return false;
+                        }
+                        timestamps[event] = date.getTime();
+                        invalidateDistinctTraces();
+                        return true;
+                }
+
+                @Override
+                public void removeTimestamp() {
+                        timestamps[event] = NO_TIMESTAMP;
+                        invalidateDistinctTraces();
+                }
+
+                @Override
+                public String getActivity() {
+                        return dictionary.decode(activities[event]);
+                }
+
+                @Override
+                public void reduceToActivity() {
+                        int activity = activities[event];
+                        clearFields();
+                        activities[event] = activity;
+                }
+
+                @Override
+                public boolean setActivity(String activity) throws LockingException {
+                        Validate.notNull(activity);
+                        Validate.notEmpty(activity);
+                        if (isFieldLocked(EntryField.ACTIVITY)) {
+                                if (!activity.equals(getActivity())) {
+                                        throw new LockingException(EntryField.ACTIVITY);
+                                }
+                                return false;
+                        }
+                        activities[event] = dictionary.encode(activity);
+                        invalidateDistinctTraces();
+                        return true;
+                }
+
+                @Override
+                public void removeActivity() {
+                        activities[event] = LogDictionary.NO_CODE;
+                        invalidateDistinctTraces();
+                }
+
+                @Override
+                public String getOriginator() {
+                        return dictionary.decode(originators[event]);
+                }
+
+                @Override
+                public boolean setOriginator(String originator) throws LockingException {
+                        Validate.notNull(originator);
+                        Validate.notEmpty(originator);
+                        if (isFieldLocked(EntryField.ORIGINATOR)) {
+                                if (!originator.equals(getOriginator())) {
+                                        throw new LockingException(EntryField.ORIGINATOR);
+                                }
+                                return false;
+                        }
+                        originators[event] = dictionary.encode(originator);
+                        invalidateDistinctTraces();
+                        return true;
+                }
+
+                @Override
+                public void removeOriginator() {
+                        originators[event] = LogDictionary.NO_CODE;
+                        invalidateDistinctTraces();
+                }
+
+                @Override
+                public String getRole() {
+                        return dictionary.decode(roles[event]);
+                }
+
+                @Override
+                public boolean setRole(String role) throws LockingException {
+                        Validate.notNull(role);
+                        Validate.notEmpty(role);
+                        if (isFieldLocked(EntryField.ROLE)) {
+                                if (!role.equals(getRole())) {
+                                        throw new LockingException(EntryField.ROLE);
+                                }
+                                return false;
+                        }
+                        roles[event] = dictionary.encode(role);
+                        return true;
+                }
+
+                @Override
+                public void removeRole() {
+                        roles[event] = LogDictionary.NO_CODE;
+                }
+
+                @Override
+                public EventType getEventType() {
+                        return ColumnarLog.this.getEventType(event);
+                }
+
+                @Override
+                public boolean setEventType(EventType eventType) throws LockingException {
+                        Validate.notNull(eventType);
+                        if (isFieldLocked(EntryField.EVENTTYPE)) {
+                                if (eventType != getEventType()) {
+                                        throw new LockingException(EntryField.EVENTTYPE);
+                                }
+                                return false;
+                        }
+                        eventTypes[event] = (byte) eventType.ordinal();
+                        invalidateDistinctTraces();
+                        return true;
+                }
+
+                @Override
+                public boolean addMetaAttribute(DataAttribute metaAttribute) {
+                        if (metaAttribute == null) {
+                                return false;
+                        }
+                        Set<DataAttribute> attributes = metaAttributes.get(event);
+                        if (attributes == null) {
+                                attributes = new HashSet<>();
+                                metaAttributes.put(event, attributes);
+                        }
+                        if (!attributes.add(metaAttribute)) {
+                                return false;
+                        }
+                        invalidateDistinctTraces();
+                        return true;
+                }
+
+                @Override
+                public Set<DataAttribute> getMetaAttributes() {
+                        Set<DataAttribute> attributes = metaAttributes.get(event);
+                        if (attributes == null) {
+                                return Collections.emptySet();
+                        }
+                        return Collections.unmodifiableSet(attributes);
+                }
+
+                @Override
+                public String getGroup() {
+                        return groups.get(event);
+                }
+
+                @Override
+                public void setGroup(String group) {
+                        if (group == null) {
+                                groups.remove(event);
+                        } else {
+                                groups.put(event, group);
+                        }
+                }
+
+                /**
+                 * Locks a field of the log entry. The reason is not stored.
+                 */
+                @Override
+                public void lockField(EntryField entryField, String reason) {
+                        ColumnarLog.this.lockField(event, entryField);
+                        if (entryField == EntryField.ORIGINATOR) {
+                                ColumnarLog.this.lockField(event, EntryField.ORIGINATOR_CANDIDATES);
+                        }
+                }
+
+                @Override
+                public boolean isFieldLocked(EntryField entryField) {
+                        Set<EntryField> fields = lockedFields.get(event);
+                        return fields != null && fields.contains(entryField);
+                }
+
+                /**
+                 * Clones of entry views are independent {@link LogEntry}s.
+                 */
+                @Override
+                protected LogEntry newInstance() {
+                        return new LogEntry();
+                }
+
+                @Override
+                protected void copyFieldValues(LogEntry clone) throws LockingException {
+                        super.copyFieldValues(clone);
+                        Set<EntryField> fields = lockedFields.get(event);
+                        if (fields != null) {
+                                for (EntryField lockedField : fields) {
+                                        clone.lockField(lockedField, null);
+                                }
+                        }
+                }
+
+                @Override
+                public int hashCode() {
+                        return ColumnarLog.this.hashCode(event);
+                }
+
+                @Override
+                public boolean equals(Object obj) {
+                        if (this == obj) {
+                                return true;
+                        }
+                        if (!(obj instanceof EntryView)) {
+                                return false;
+                        }
+                        EntryView other = (EntryView) obj;
+                        return getTime() == other.getTime()
+                                && getEventType() == other.getEventType()
+                                && Objects.equals(getActivity(), other.getActivity())
+                                && Objects.equals(getOriginator(), other.getOriginator())
+                                && getMetaAttributes().equals(other.getMetaAttributes());
+                }
+        }
+}
@@ -18,9 +18,11 @@ public class DULogEntry extends LogEntry {
 
         /**
          * The list of attributes that are affected on executing the logged
-         * activity.
+         * activity.<br>
+         * The map is created when the first data usage is added and is
+         * <code>null</code> before.
          */
-        protected Map<DataAttribute, Set<DataUsage>> dataUsage = new HashMap<>();
+        protected Map<DataAttribute, Set<DataUsage>> dataUsage = null;
 
         private static final Pattern STRING_PATTERN = Pattern.compile("\\w+(\\((\\w+:[rwcd]{1,4})(,(\\w+:[rwcd]{1,4}))*\\))?");
 
@@ -35,7 +37,7 @@ public class DULogEntry extends LogEntry {
 
 	// ------- Data Usage ------------------------------------------------------------------------
         public boolean containsDataUsage() {
-                return !dataUsage.isEmpty();
+                return dataUsage != null && !dataUsage.isEmpty();
         }
 
         /**
@@ -45,6 +47,9 @@ public class DULogEntry extends LogEntry {
          * @return A list containing the attributes.
          */
         public Set<DataAttribute> getDataAttributes() {
+                if (dataUsage == null) {
+                        return Collections.emptySet();
+                }
                 return Collections.unmodifiableSet(dataUsage.keySet());
         }
 
@@ -55,9 +60,22 @@ public class DULogEntry extends LogEntry {
          * @return A map containing data usage information for each attribute.
          */
         public Map<DataAttribute, Set<DataUsage>> getDataUsage() {
+                if (dataUsage == null) {
+                        return Collections.emptyMap();
+                }
                 return Collections.unmodifiableMap(dataUsage);
         }
 
+        /**
+         * Returns {@link #dataUsage} and creates it if necessary.
+         */
+        private Map<DataAttribute, Set<DataUsage>> dataUsage() {
+                if (dataUsage == null) {
+                        dataUsage = new HashMap<>();
+                }
+                return dataUsage;
+        }
+
         /**
          * Removes the given attribute from the set of managed attributes.
          *
@@ -70,12 +88,12 @@ public class DULogEntry extends LogEntry {
          */
         public boolean removeDataAttribute(DataAttribute attribute) throws LockingException {
                 if (isFieldLocked(EntryField.DATA)) {
-                        if (dataUsage.containsKey(attribute)) {
+                        if (getDataUsage().containsKey(attribute)) {
                                 throw new LockingException(EntryField.DATA);
                         }
                         return false;
                 } else {
-                        return dataUsage.remove(attribute) != null;
+                        return dataUsage != null && dataUsage.remove(attribute) != null;
                 }
         }
 
@@ -97,7 +115,7 @@ public class DULogEntry extends LogEntry {
                 Validate.noNullElements(dataUsage.values());
 
                 if (isFieldLocked(EntryField.DATA)) {
-                        if (!this.dataUsage.equals(dataUsage)) {
+                        if (!getDataUsage().equals(dataUsage)) {
                                 throw new LockingException(EntryField.DATA);
                         }
                         return false;
@@ -129,12 +147,12 @@ public class DULogEntry extends LogEntry {
                 Validate.notEmpty(dataUsage);
 
                 if (isFieldLocked(EntryField.DATA)) {
-                        if (!(this.dataUsage.containsKey(attribute) && this.dataUsage.get(attribute).equals(dataUsage))) {
+                        if (!(getDataUsage().containsKey(attribute) && getDataUsage().get(attribute).equals(dataUsage))) {
                                 throw new LockingException(EntryField.DATA);
                         }
                         return false;
                 } else {
-                        this.dataUsage.put(attribute, dataUsage);
+                        dataUsage().put(attribute, dataUsage);
                         return true;
                 }
         }
@@ -155,12 +173,12 @@ public class DULogEntry extends LogEntry {
                 Validate.notNull(attribute);
 
                 if (isFieldLocked(EntryField.DATA)) {
-                        if (!dataUsage.containsKey(attribute)) {
+                        if (!getDataUsage().containsKey(attribute)) {
                                 throw new LockingException(EntryField.DATA);
                         }
                         return false;
                 } else {
-                        if (dataUsage.get(attribute) == null) {
+                        if (dataUsage().get(attribute) == null) {
                                 dataUsage.put(attribute, new HashSet<>());
                         }
                         if (usage != null) {
@@ -184,8 +202,8 @@ public class DULogEntry extends LogEntry {
         @Override
         protected void copyFieldValues(LogEntry clone) throws LockingException, ParameterException {
                 super.copyFieldValues(clone);
-                for (DataAttribute att : dataUsage.keySet()) {
-                        ((DULogEntry) clone).setDataUsageFor(att, new HashSet<>(dataUsage.get(att)));
+                for (Map.Entry<DataAttribute, Set<DataUsage>> usage : getDataUsage().entrySet()) {
+                        ((DULogEntry) clone).setDataUsageFor(usage.getKey(), new HashSet<>(usage.getValue()));
                 }
         }
 
@@ -196,9 +214,7 @@ public class DULogEntry extends LogEntry {
                         return superValue;
                 }
                 if (field == EntryField.DATA) {
-                        if (dataUsage != null) {
-                                return Collections.unmodifiableMap(dataUsage);
-                        }
+                        return getDataUsage();
                 }
                 return null;
         }
@@ -223,14 +239,7 @@ public class DULogEntry extends LogEntry {
                         return false;
                 }
                 DULogEntry other = (DULogEntry) obj;
-                if (dataUsage == null) {
-                        if (other.dataUsage != null) {
-                                return false;
-                        }
-                } else if (!dataUsage.equals(other.dataUsage)) {
-                        return false;
-                }
-                return true;
+                return getDataUsage().equals(other.getDataUsage());
         }
 
         public static DULogEntry parse(String entryString) throws ParserException {
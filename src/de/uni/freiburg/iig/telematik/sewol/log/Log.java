@@ -32,8 +32,10 @@ package de.uni.freiburg.iig.telematik.sewol.log;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import de.invation.code.toval.validate.ParameterException;
@@ -45,7 +47,7 @@ import de.invation.code.toval.validate.Validate;
 public class Log<E extends LogEntry> {
 
         LogSummary<E> summary = new LogSummary<>();
-        Set<LogTrace<E>> distinctTraces = new HashSet<>();
+        Map<Object, DistinctTrace> distinctTraces = new HashMap<>();
         List<LogTrace<E>> traces = new ArrayList<>();
 
         /**
@@ -63,7 +65,7 @@ public class Log<E extends LogEntry> {
          */
         void reinitialize() {
                 summary = new LogSummary<>();
-                distinctTraces = new HashSet<>();
+                distinctTraces = new HashMap<>();
                 traces = new ArrayList<>();
         }
 
@@ -91,14 +93,78 @@ public class Log<E extends LogEntry> {
                 trace.setCaseNumber(traces.size() + 1);
                 traces.add(trace);
                 summary.addTrace(trace);
-                if (!distinctTraces.add(trace)) {
-                        for (LogTrace<E> storedTrace : traces) {
-                                if (storedTrace.equals(trace)) {
-                                        storedTrace.addSimilarInstance(trace.getCaseNumber());
-                                        trace.addSimilarInstance(storedTrace.getCaseNumber());
-                                }
-                        }
+                addDistinctTrace(trace);
+        }
+
+        /**
+         * Adds the trace to the index of distinct traces. The fingerprint of
+         * the trace serves as key, so that a trace whose entries are equal to
+         * the ones of a previously added trace is found in constant time.<br>
+         * The case numbers of traces with equal entries are kept by the index
+         * only, the traces themselves are not modified.<br>
+         * Entries are compared by {@link LogEntry#equals(Object)}, which
+         * includes the timestamps. In logs with timestamps, traces rarely
+         * have equal entries, so that most traces form a group of their own
+         * and the index holds about one key per trace. To group traces by
+         * their activities only, parse the log with
+         * {@link de.uni.freiburg.iig.telematik.sewol.parser.ParsingMode#DISTINCT_ACTIVITY_SEQUENCES}
+         * or compare {@link LogTrace#getActivities()}.
+         *
+         * @param trace Trace to add.
+         */
+        void addDistinctTrace(LogTrace<E> trace) {
+                Object fingerprint = trace.fingerprint();
+                DistinctTrace distinctTrace = distinctTraces.get(fingerprint);
+                if (distinctTrace == null) {
+                        distinctTraces.put(fingerprint, new DistinctTrace(trace.getCaseNumber()));
+                } else {
+                        distinctTrace.add(trace.getCaseNumber());
+                }
+        }
+
+        /**
+         * Removes the case number of the trace from the index of distinct
+         * traces.
+         *
+         * @param trace Trace to remove.
+         */
+        void removeDistinctTrace(LogTrace<E> trace) {
+                Object fingerprint = trace.fingerprint();
+                DistinctTrace distinctTrace = distinctTraces.get(fingerprint);
+                if (distinctTrace != null && distinctTrace.remove(trace.getCaseNumber())) {
+                        distinctTraces.remove(fingerprint);
+                }
+        }
+
+        /**
+         * Returns the number of traces with distinct entries. Since entries
+         * with different timestamps are not equal, this is usually the number
+         * of traces for logs with timestamps.
+         *
+         * @return
+         * @see #addDistinctTrace(LogTrace)
+         */
+        public int getDistinctTraceCount() {
+                return distinctTraces.size();
+        }
+
+        /**
+         * Returns the case numbers of all traces of this log whose entries are
+         * equal to the ones of the given trace, including the case number of
+         * the trace itself. Entries are compared including their timestamps.
+         *
+         * @param trace Trace to look for.
+         * @return An unmodifiable set of case numbers, which is empty if the
+         * log does not contain a trace with equal entries.
+         * @throws ParameterException If the given trace is null.
+         */
+        public Set<Long> getSimilarInstances(LogTrace<E> trace) throws ParameterException {
+                Validate.notNull(trace);
+                DistinctTrace distinctTrace = distinctTraces.get(trace.fingerprint());
+                if (distinctTrace == null) {
+                        return Collections.emptySet();
                 }
+                return distinctTrace.getCaseNumbers();
         }
 
         /**
@@ -109,4 +175,45 @@ public class Log<E extends LogEntry> {
         public List<LogTrace<E>> getTraces() {
                 return Collections.unmodifiableList(traces);
         }
+
+        /**
+         * Case numbers of a group of traces with equal entries. The set of
+         * case numbers is only created when the second trace of the group is
+         * added.
+         */
+        static class DistinctTrace {
+
+                private final long firstCaseNumber;
+                private Set<Long> caseNumbers = null;
+
+                DistinctTrace(long firstCaseNumber) {
+                        this.firstCaseNumber = firstCaseNumber;
+                }
+
+                void add(long caseNumber) {
+                        if (caseNumbers == null) {
+                                caseNumbers = new HashSet<>();
+                                caseNumbers.add(firstCaseNumber);
+                        }
+                        caseNumbers.add(caseNumber);
+                }
+
+                /**
+                 * @return <code>true</code> if the group is empty afterwards.
+                 */
+                boolean remove(long caseNumber) {
+                        if (caseNumbers == null) {
+                                return firstCaseNumber == caseNumber;
+                        }
+                        caseNumbers.remove(caseNumber);
+                        return caseNumbers.isEmpty();
+                }
+
+                Set<Long> getCaseNumbers() {
+                        if (caseNumbers == null) {
+                                return Collections.singleton(firstCaseNumber);
+                        }
+                        return Collections.unmodifiableSet(caseNumbers);
+                }
+        }
 }
@@ -0,0 +1,84 @@
+package de.uni.freiburg.iig.telematik.sewol.log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary assigning consecutive int codes to strings, used by
+ * {@link ColumnarLog} to store activities, originators and roles.<br>
+ * A dictionary can be shared by several logs, so that equal strings of
+ * different logs are stored only once and have the same code.<br>
+ * Dictionaries are not thread-safe.
+ *
+ * @version 1.0.2
+ * @since 1.0.2
+ */
+public class LogDictionary {
+
+        /**
+         * Code representing <code>null</code>.
+         */
+        public static final int NO_CODE = -1;
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        /**
+         * Returns the code of the given string and assigns a new code if the
+         * string is not contained in the dictionary yet.
+         *
+         * @param value The string to encode.
+         * @return The code of the string or {@link #NO_CODE} if the string is
+         * <code>null</code>.
+         */
+        public int encode(String value) {
+                if (value == null) {
+                        return NO_CODE;
+                }
+                Integer code = codes.get(value);
+                if (code == null) {
+                        code = values.size();
+                        values.add(value);
+                        codes.put(value, code);
+                }
+                return code;
+        }
+
+        /**
+         * Returns the code of the given string without adding it to the
+         * dictionary.
+         *
+         * @param value The string to look up.
+         * @return The code of the string or {@link #NO_CODE} if the string is
+         * <code>null</code> or not contained in the dictionary.
+         */
+        public int getCode(String value) {
+                Integer code = value == null ? null : codes.get(value);
+                return code == null ? NO_CODE : code;
+        }
+
+        /**
+         * Returns the string with the given code.
+         *
+         * @param code The code of the string.
+         * @return The string or <code>null</code> if the code is
+         * {@link #NO_CODE}.
+         * @throws IndexOutOfBoundsException if no string has been assigned the
+         * given code.
+         */
+        public String decode(int code) {
+                if (code == NO_CODE) {
+                        return null;
+                }
+                return values.get(code);
+        }
+
+        /**
+         * @return The number of strings in the dictionary.
+         */
+        public int size() {
+                return values.size();
+        }
+}
@@ -4,7 +4,7 @@ import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.Random;
 import java.util.Set;
@@ -42,15 +42,22 @@ public class LogEntry implements Comparable<LogEntry>, Cloneable {
          */
         protected EventType eventType = null;
         /**
-         * A list of additional meta information for the log entry.
+         * A list of additional meta information for the log entry.<br>
+         * Most entries do not have meta information, so the set is created
+         * when the first attribute is added and is <code>null</code> before.
          */
-        protected final Set<DataAttribute> metaData = new HashSet<>();
+        protected Set<DataAttribute> metaData = null;
         /**
-         * Stores the locked fields of the log entry together with the locking
-         * reason.<br>
+         * Stores the locked fields of the log entry as bitmask over the
+         * ordinals of {@link EntryField}.<br>
          * Locked fields cannot be altered any more.
          */
-        private final Map<EntryField, String> locking = new HashMap<>();
+        private int lockedFields = 0;
+        /**
+         * Stores the locking reasons of the locked fields. The map is created
+         * when the first field is locked with a reason.
+         */
+        private Map<EntryField, String> lockingReasons = null;
         /**
          * Random generator.
          */
@@ -92,7 +99,7 @@ public class LogEntry implements Comparable<LogEntry>, Cloneable {
                 this.activity = null;
                 this.eventType = null;
                 this.group = null;
-                this.metaData.clear();
+                this.metaData = null;
                 this.originator = null;
                 this.timestamp = null;
         }
@@ -157,7 +164,7 @@ public class LogEntry implements Comparable<LogEntry>, Cloneable {
                 }
 
                 Calendar cal = Calendar.getInstance();
-                cal.setTimeInMillis(timestamp.getTime() + diff);
+                cal.setTimeInMillis(getTimestamp().getTime() + diff);
                 return setTimestamp(cal.getTime());
         }
 
@@ -205,7 +212,7 @@ public class LogEntry implements Comparable<LogEntry>, Cloneable {
          * @return <code>true</code> if {@link #activity} was modified;<br>
          * <code>false</code> otherwise.
          */
-        public final boolean setActivity(String activity) throws LockingException {
+        public boolean setActivity(String activity) throws LockingException {
                 Validate.notNull(activity);
                 Validate.notEmpty(activity);
                 if (isFieldLocked(EntryField.ACTIVITY)) {
@@ -337,12 +344,18 @@ public class LogEntry implements Comparable<LogEntry>, Cloneable {
         //------- Meta Attribute --------------------------------------------------------------------
         public boolean addMetaAttribute(DataAttribute metaAttribute) {
                 if (metaAttribute != null) {
+                        if (metaData == null) {
+                                metaData = new HashSet<>();
+                        }
                         return this.metaData.add(metaAttribute);
                 }
                 return false;
         }
 
         public Set<DataAttribute> getMetaAttributes() {
+                if (metaData == null) {
+                        return Collections.emptySet();
+                }
                 return Collections.unmodifiableSet(metaData);
         }
 
@@ -354,11 +367,11 @@ public class LogEntry implements Comparable<LogEntry>, Cloneable {
                         case ACTIVITY:
                                 return getActivity();
                         case ORIGINATOR:
-                                return originator;
+                                return getOriginator();
                         case EVENTTYPE:
-                                return eventType;
+                                return getEventType();
                         case META:
-                                return Collections.unmodifiableSet(metaData);
+                                return getMetaAttributes();
                         default:
                                 return null;
                 }
@@ -402,9 +415,21 @@ public class LogEntry implements Comparable<LogEntry>, Cloneable {
          * @param reason
          */
         public void lockField(EntryField entryField, String reason) {
-                locking.put(entryField, reason);
+                lock(entryField, reason);
                 if (entryField == EntryField.ORIGINATOR) {
-                        locking.put(EntryField.ORIGINATOR_CANDIDATES, reason);
+                        lock(EntryField.ORIGINATOR_CANDIDATES, reason);
+                }
+        }
+
+        private void lock(EntryField entryField, String reason) {
+                lockedFields |= 1 << entryField.ordinal();
+                if (reason != null) {
+                        if (lockingReasons == null) {
+                                lockingReasons = new EnumMap<>(EntryField.class);
+                        }
+                        lockingReasons.put(entryField, reason);
+                } else if (lockingReasons != null) {
+                        lockingReasons.remove(entryField);
                 }
         }
 
@@ -416,7 +441,7 @@ public class LogEntry implements Comparable<LogEntry>, Cloneable {
          * <code>false</code> otherwise.
          */
         public boolean isFieldLocked(EntryField entryField) {
-                return locking.containsKey(entryField);
+                return (lockedFields & (1 << entryField.ordinal())) != 0;
         }
 
         //------- Helper methods ---------------------------------------------------------------------
@@ -440,13 +465,15 @@ public class LogEntry implements Comparable<LogEntry>, Cloneable {
         }
 
         protected void copyFieldValues(LogEntry clone) throws LockingException {
-                clone.setActivity(activity);
-                clone.setTimestamp((Date) this.timestamp.clone());
-                clone.setEventType(eventType);
-                clone.setOriginator(originator);
-                clone.setRole(role);
-                for (EntryField lockedField : locking.keySet()) {
-                        clone.lockField(lockedField, locking.get(lockedField));
+                clone.setActivity(getActivity());
+                clone.setTimestamp(getTimestamp());
+                clone.setEventType(getEventType());
+                clone.setOriginator(getOriginator());
+                clone.setRole(getRole());
+                for (EntryField lockedField : EntryField.values()) {
+                        if (isFieldLocked(lockedField)) {
+                                clone.lockField(lockedField, lockingReasons == null ? null : lockingReasons.get(lockedField));
+                        }
                 }
         }
 
@@ -489,11 +516,7 @@ public class LogEntry implements Comparable<LogEntry>, Cloneable {
                 if (eventType != other.eventType) {
                         return false;
                 }
-                if (metaData == null) {
-                        if (other.metaData != null) {
-                                return false;
-                        }
-                } else if (!metaData.equals(other.metaData)) {
+                if (!getMetaAttributes().equals(other.getMetaAttributes())) {
                         return false;
                 }
                 if (originator == null) {
@@ -515,7 +538,8 @@ public class LogEntry implements Comparable<LogEntry>, Cloneable {
 
         @Override
         public String toString() {
-                String ts = (this.timestamp == null) ? "-" : sdf.format(this.timestamp);
+                Date date = getTimestamp();
+                String ts = (date == null) ? "-" : sdf.format(date);
                 return String.format(toStringFormat, ts, getActivity(), getOriginator());
         }
 
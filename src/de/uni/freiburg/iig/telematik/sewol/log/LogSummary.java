@@ -1,20 +1,31 @@
 package de.uni.freiburg.iig.telematik.sewol.log;
 
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
-import de.invation.code.toval.statistic.Observation;
 import de.invation.code.toval.validate.ParameterException;
 import de.invation.code.toval.validate.Validate;
 
+/**
+ * Summary of the activities, originators, roles and trace lengths of a set of
+ * traces.<br>
+ * For each activity, originator and role the number of traces containing it is
+ * counted, so that traces can be removed from the summary without recomputing
+ * it from the remaining traces.
+ *
+ * @param <E>
+ */
 public class LogSummary<E extends LogEntry> {
 
-        private final Set<String> activities = new HashSet<>();
-        private final Set<String> originators = new HashSet<>();
-        private final Set<String> roles = new HashSet<>();
-        private final Observation traceLength = new Observation();
+        private final Map<String, Integer> activities = new HashMap<>();
+        private final Map<String, Integer> originators = new HashMap<>();
+        private final Map<String, Integer> roles = new HashMap<>();
+        private long traceLengthSum = 0;
+        private int traceCount = 0;
 
         public LogSummary() {
         }
@@ -32,32 +43,114 @@ public class LogSummary<E extends LogEntry> {
 
         public void addTrace(LogTrace<E> trace) throws ParameterException {
                 Validate.notNull(trace);
-                activities.addAll(trace.getDistinctActivities());
-                originators.addAll(trace.getDistinctOriginators());
-                roles.addAll(trace.getDistinctRoles());
-                traceLength.addValue(trace.size());
+                increment(activities, trace.getDistinctActivities());
+                increment(originators, trace.getDistinctOriginators());
+                increment(roles, trace.getDistinctRoles());
+                traceLengthSum += trace.size();
+                traceCount++;
+        }
+
+        /**
+         * Removes a trace that has been added to the summary before.
+         *
+         * @param trace Trace to remove.
+         * @throws ParameterException If the given trace is null.
+         */
+        public void removeTrace(LogTrace<E> trace) throws ParameterException {
+                Validate.notNull(trace);
+                decrement(activities, trace.getDistinctActivities());
+                decrement(originators, trace.getDistinctOriginators());
+                decrement(roles, trace.getDistinctRoles());
+                traceLengthSum -= trace.size();
+                traceCount--;
+        }
+
+        /**
+         * Adds all traces of another summary, e.g. a summary over a partition
+         * of the traces that has been computed concurrently.
+         *
+         * @param other Summary whose traces are added.
+         * @throws ParameterException If the given summary is null.
+         */
+        public void addSummary(LogSummary<E> other) throws ParameterException {
+                Validate.notNull(other);
+                merge(activities, other.activities, 1);
+                merge(originators, other.originators, 1);
+                merge(roles, other.roles, 1);
+                traceLengthSum += other.traceLengthSum;
+                traceCount += other.traceCount;
+        }
+
+        /**
+         * Removes all traces of another summary, whose traces have been added
+         * to this summary before.
+         *
+         * @param other Summary whose traces are removed.
+         * @throws ParameterException If the given summary is null.
+         */
+        public void removeSummary(LogSummary<E> other) throws ParameterException {
+                Validate.notNull(other);
+                merge(activities, other.activities, -1);
+                merge(originators, other.originators, -1);
+                merge(roles, other.roles, -1);
+                traceLengthSum -= other.traceLengthSum;
+                traceCount -= other.traceCount;
+        }
+
+        private static void merge(Map<String, Integer> counts, Map<String, Integer> otherCounts, int sign) {
+                for (Map.Entry<String, Integer> otherCount : otherCounts.entrySet()) {
+                        Integer count = counts.get(otherCount.getKey());
+                        int newCount = (count == null ? 0 : count) + sign * otherCount.getValue();
+                        if (newCount <= 0) {
+                                counts.remove(otherCount.getKey());
+                        } else {
+                                counts.put(otherCount.getKey(), newCount);
+                        }
+                }
+        }
+
+        private static void increment(Map<String, Integer> counts, Collection<? extends String> keys) {
+                for (String key : keys) {
+                        Integer count = counts.get(key);
+                        counts.put(key, count == null ? 1 : count + 1);
+                }
+        }
+
+        private static void decrement(Map<String, Integer> counts, Collection<? extends String> keys) {
+                for (String key : keys) {
+                        Integer count = counts.get(key);
+                        if (count == null || count <= 1) {
+                                counts.remove(key);
+                        } else {
+                                counts.put(key, count - 1);
+                        }
+                }
         }
 
         public Set<String> getActivities() {
-                return Collections.unmodifiableSet(activities);
+                return Collections.unmodifiableSet(activities.keySet());
         }
 
         public Set<String> getOriginators() {
-                return Collections.unmodifiableSet(originators);
+                return Collections.unmodifiableSet(originators.keySet());
         }
 
         public Set<String> getRoles() {
-                return Collections.unmodifiableSet(roles);
+                return Collections.unmodifiableSet(roles.keySet());
         }
 
         public double getAverageTraceLength() {
-                return traceLength.getAverage();
+                if (traceCount == 0) {
+                        return 0.0;
+                }
+                return (double) traceLengthSum / traceCount;
         }
 
         public void clear() {
                 activities.clear();
                 originators.clear();
                 roles.clear();
-                traceLength.reset();
+                traceLengthSum = 0;
+                traceCount = 0;
         }
 }
@@ -28,19 +28,30 @@ public class LogTrace<E extends LogEntry> {
 
     public boolean addEntry(E entry) {
         if (entry != null) {
-            return logEntries.add(entry);
+            return entries().add(entry);
         }
         return false;
     }
 
+    /**
+     * Returns the list the entries of this trace are stored in. All methods
+     * of this class access the entries through this list, so that subclasses
+     * can provide the entries from a different storage.
+     *
+     * @return The modifiable list of entries.
+     */
+    protected List<E> entries() {
+        return logEntries;
+    }
+
     public List<E> getEntries() {
-        return Collections.unmodifiableList(logEntries);
+        return Collections.unmodifiableList(entries());
     }
 
     public List<E> getEntriesForActivity(String activity) {
         Validate.notNull(activity);
         List<E> result = new ArrayList<>();
-        for (E entry : logEntries) {
+        for (E entry : entries()) {
             if (entry.getActivity().equals(activity)) {
                 result.add(entry);
             }
@@ -58,7 +69,7 @@ public class LogTrace<E extends LogEntry> {
     public List<E> getEntriesForActivities(Set<String> activities) {
         Validate.noNullElements(activities);
         List<E> result = new ArrayList<>();
-        for (E entry : logEntries) {
+        for (E entry : entries()) {
             if (activities.contains(entry.getActivity())) {
                 result.add(entry);
             }
@@ -69,7 +80,7 @@ public class LogTrace<E extends LogEntry> {
     public List<E> getEntriesForGroup(String groupID) {
         Validate.notNull(groupID);
         List<E> result = new ArrayList<>();
-        for (E entry : logEntries) {
+        for (E entry : entries()) {
             if (entry.getGroup().equals(groupID)) {
                 result.add(entry);
             }
@@ -87,7 +98,7 @@ public class LogTrace<E extends LogEntry> {
             return result;
         }
         for (int i = 0; i < k; i++) {
-            result.add(logEntries.get(i));
+            result.add(entries().get(i));
         }
         return result;
     }
@@ -95,32 +106,36 @@ public class LogTrace<E extends LogEntry> {
     public List<E> getSucceedingEntries(E entry) {
         Validate.notNull(entry);
         List<E> result = new ArrayList<>();
-        int index = -1;
-        for (E traceEntry : logEntries) {
-            if (traceEntry == entry) {
-                index = logEntries.indexOf(traceEntry);
-                break;
-            }
-        }
-        if (index > -1 && index < logEntries.size() - 1) {
-            for (int i = index + 1; i < logEntries.size(); i++) {
-                result.add(logEntries.get(i));
+        int index = indexOfEntry(entry);
+        if (index > -1 && index < entries().size() - 1) {
+            for (int i = index + 1; i < entries().size(); i++) {
+                result.add(entries().get(i));
             }
         }
         return result;
     }
 
-    public E getDirectSuccessor(E entry) {
-        Validate.notNull(entry);
-        int index = -1;
-        for (E traceEntry : logEntries) {
+    /**
+     * Returns the position of the given entry object within this trace.
+     *
+     * @param entry The entry to look for.
+     * @return The position of the first entry equal to the given entry object
+     * or <code>-1</code> if the trace does not contain the entry object.
+     */
+    protected int indexOfEntry(E entry) {
+        for (E traceEntry : entries()) {
             if (traceEntry == entry) {
-                index = logEntries.indexOf(traceEntry);
-                break;
+                return entries().indexOf(traceEntry);
             }
         }
-        if (index > -1 && index < logEntries.size() - 1) {
-            return logEntries.get(index + 1);
+        return -1;
+    }
+
+    public E getDirectSuccessor(E entry) {
+        Validate.notNull(entry);
+        int index = indexOfEntry(entry);
+        if (index > -1 && index < entries().size() - 1) {
+            return entries().get(index + 1);
         }
         return null;
     }
@@ -128,16 +143,10 @@ public class LogTrace<E extends LogEntry> {
     public List<E> getPreceedingEntries(E entry) {
         Validate.notNull(entry);
         List<E> result = new ArrayList<>();
-        int index = -1;
-        for (E traceEntry : logEntries) {
-            if (traceEntry == entry) {
-                index = logEntries.indexOf(traceEntry);
-                break;
-            }
-        }
+        int index = indexOfEntry(entry);
         if (index > 0) {
             for (int i = 0; i < index; i++) {
-                result.add(logEntries.get(i));
+                result.add(entries().get(i));
             }
         }
         return result;
@@ -145,21 +154,15 @@ public class LogTrace<E extends LogEntry> {
 
     public E getDirectPredecessor(E entry) {
         Validate.notNull(entry);
-        int index = -1;
-        for (E traceEntry : logEntries) {
-            if (traceEntry == entry) {
-                index = logEntries.indexOf(traceEntry);
-                break;
-            }
-        }
+        int index = indexOfEntry(entry);
         if (index > 0) {
-            return logEntries.get(index - 1);
+            return entries().get(index - 1);
         }
         return null;
     }
 
     public boolean removeEntry(E entry) {
-        return logEntries.remove(entry);
+        return entries().remove(entry);
     }
 
     public boolean removeAllEntries(Collection<E> entries) {
@@ -183,7 +186,7 @@ public class LogTrace<E extends LogEntry> {
     }
 
     public int size() {
-        return logEntries.size();
+        return entries().size();
     }
 
     public Set<Long> getSimilarInstances() {
@@ -205,13 +208,30 @@ public class LogTrace<E extends LogEntry> {
         this.similarInstances.addAll(similarInstances);
     }
 
+    /**
+     * Returns the key of this trace in the index of distinct traces of a
+     * {@link Log}. Keys of traces with equal entries in the same order are
+     * equal, regardless of the case numbers and the type of the traces.
+     * Entries are compared by {@link LogEntry#equals(Object)}, so that traces
+     * whose entries only differ in their timestamps have different keys.<br>
+     * The key is a snapshot of the entry sequence, so that adding, removing or
+     * reordering entries afterwards does not change it. The entries
+     * themselves are not copied and must not be modified while the trace is
+     * contained in a log.
+     *
+     * @return An unmodifiable list containing the entries of the trace.
+     */
+    List<E> fingerprint() {
+        return Collections.unmodifiableList(new ArrayList<>(entries()));
+    }
+
     public boolean containsActivity(String activity) {
         return getDistinctActivities().contains(activity);
     }
 
     public int activitySupport(String activity) {
         int result = 0;
-        for (E entry : logEntries) {
+        for (E entry : entries()) {
             if (entry.getActivity().equals(activity)) {
                 result++;
             }
@@ -221,7 +241,7 @@ public class LogTrace<E extends LogEntry> {
 
     public Map<String, Integer> getActivitySupports() {
         Map<String, Integer> result = new HashMap<>();
-        for (E entry : logEntries) {
+        for (E entry : entries()) {
             if (!result.containsKey(entry.getActivity())) {
                 result.put(entry.getActivity(), 1);
             } else {
@@ -243,21 +263,21 @@ public class LogTrace<E extends LogEntry> {
 
     public List<String> getActivities() {
         List<String> result = new ArrayList<>();
-        for (E entry : logEntries) {
+        for (E entry : entries()) {
             result.add(entry.getActivity());
         }
         return result;
     }
 
     public void reduceToActivities() {
-        for (E entry : logEntries) {
+        for (E entry : entries()) {
             entry.reduceToActivity();
         }
     }
 
     public Set<String> getDistinctActivities() {
         Set<String> result = new HashSet<>();
-        for (E entry : logEntries) {
+        for (E entry : entries()) {
             result.add(entry.getActivity());
         }
         return result;
@@ -265,7 +285,7 @@ public class LogTrace<E extends LogEntry> {
 
     public Set<String> getDistinctOriginators() {
         Set<String> result = new HashSet<>();
-        for (E entry : logEntries) {
+        for (E entry : entries()) {
             result.add(entry.getOriginator());
         }
         return result;
@@ -273,18 +293,18 @@ public class LogTrace<E extends LogEntry> {
 
     public Collection<? extends String> getDistinctRoles() {
         Set<String> result = new HashSet<>();
-        for (E entry : logEntries) {
+        for (E entry : entries()) {
             result.add(entry.getRole());
         }
         return result;
     }
 
     public void sort() {
-        Collections.sort(logEntries);
+        Collections.sort(entries());
     }
 
     @Override
     public String toString() {
-        return logEntries.toString();
+        return entries().toString();
     }
 }
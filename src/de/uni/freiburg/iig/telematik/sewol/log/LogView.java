@@ -37,14 +37,21 @@ import de.invation.code.toval.validate.Validate;
 import de.uni.freiburg.iig.telematik.sewol.log.filter.AbstractLogFilter;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Observable;
 import java.util.Observer;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Adapter class for {@link Log} with {@link Filterable} representing a filtered
@@ -55,9 +62,43 @@ import java.util.Set;
  */
 public class LogView<E extends LogEntry> extends Log<E> implements Observer, NamedComponent, Comparator<LogView> {
 
+        /**
+         * Minimum number of traces for which filters are evaluated in
+         * parallel.
+         */
+        public static final int PARALLEL_THRESHOLD = 10000;
+        /**
+         * Number of traces below which a partition is not split further. Must
+         * be a multiple of 64, so that partitions do not share words of the
+         * resulting bit sets.
+         */
+        private static final int PARTITION_SIZE = 4096;
+
         private List<LogTrace<E>> allTraces = new ArrayList<>();
         final private Set<AbstractLogFilter<E>> filters = new HashSet<>();
 
+        /**
+         * Acceptance of each filter for the traces in {@link #allTraces}, bit
+         * <i>i</i> being set if the filter accepts trace <i>i</i>.
+         */
+        private Map<AbstractLogFilter<E>, BitSet> filterResults = new IdentityHashMap<>();
+        /**
+         * Filters that have been changed since their acceptance has been
+         * determined.
+         */
+        private Set<AbstractLogFilter<E>> changedFilters = Collections.newSetFromMap(new IdentityHashMap<AbstractLogFilter<E>, Boolean>());
+        /**
+         * Traces in {@link #allTraces} that are currently contained in
+         * {@link #traces}.
+         */
+        private BitSet acceptedTraces = new BitSet();
+
+        /**
+         * Pool for the parallel evaluation of filters or <code>null</code> if
+         * filters are evaluated sequentially.
+         */
+        private ForkJoinPool evaluationPool = null;
+
         private boolean uptodate = true;
         private String name;
 
@@ -77,6 +118,7 @@ public class LogView<E extends LogEntry> extends Log<E> implements Observer, Nam
         public void addFilter(AbstractLogFilter<E> filter) {
                 Validate.notNull(filter);
                 filters.add(filter);
+                changedFilters.add(filter);
                 uptodate = false;
                 filter.addObserver(this);
         }
@@ -88,7 +130,13 @@ public class LogView<E extends LogEntry> extends Log<E> implements Observer, Nam
          */
         public void removeFilter(AbstractLogFilter<E> filter) {
                 Validate.notNull(filter);
-                filters.remove(filter);
+                // The hash code of a filter changes with its parameters.
+                Iterator<AbstractLogFilter<E>> iterator = filters.iterator();
+                while (iterator.hasNext()) {
+                        if (iterator.next() == filter) {
+                                iterator.remove();
+                        }
+                }
                 uptodate = false;
                 filter.deleteObserver(this);
         }
@@ -97,6 +145,50 @@ public class LogView<E extends LogEntry> extends Log<E> implements Observer, Nam
         public void reinitialize() {
                 super.reinitialize();
                 allTraces = new ArrayList<>();
+                filterResults = new IdentityHashMap<>();
+                changedFilters = Collections.newSetFromMap(new IdentityHashMap<AbstractLogFilter<E>, Boolean>());
+                changedFilters.addAll(filters);
+                acceptedTraces = new BitSet();
+                uptodate = filters.isEmpty();
+        }
+
+        /**
+         * Enables or disables the parallel evaluation of filters in the
+         * common fork-join pool.
+         *
+         * @param parallel <code>true</code> if filters are evaluated in
+         * parallel.
+         * @see #setEvaluationPool(ForkJoinPool)
+         */
+        public void setParallelEvaluation(boolean parallel) {
+                setEvaluationPool(parallel ? ForkJoinPool.commonPool() : null);
+        }
+
+        /**
+         * Sets the pool in which filters are evaluated for views with at least
+         * {@link #PARALLEL_THRESHOLD} traces. The traces are split into
+         * partitions whose acceptance and summaries are determined
+         * concurrently and merged afterwards. The order of the traces of the
+         * view is not affected. Filters must not modify the traces they are
+         * evaluated on.
+         *
+         * @param evaluationPool The pool to use or <code>null</code> for
+         * sequential evaluation.
+         */
+        public void setEvaluationPool(ForkJoinPool evaluationPool) {
+                this.evaluationPool = evaluationPool;
+        }
+
+        /**
+         * @return The pool in which filters are evaluated or
+         * <code>null</code> if filters are evaluated sequentially.
+         */
+        public ForkJoinPool getEvaluationPool() {
+                return evaluationPool;
+        }
+
+        public boolean isParallelEvaluation() {
+                return evaluationPool != null;
         }
 
         /**
@@ -115,45 +207,100 @@ public class LogView<E extends LogEntry> extends Log<E> implements Observer, Nam
         }
 
         @Override
-        public void addTrace(LogTrace<E> trace) throws ParameterException {
-                addTrace(trace, true);
+        public int getDistinctTraceCount() {
+                update();
+                return super.getDistinctTraceCount();
         }
 
-        private void addTrace(LogTrace<E> trace, boolean addToAllTraces) throws ParameterException {
+        /**
+         * Returns the case numbers of all traces accepted by the view whose
+         * entries are equal to the ones of the given trace. The groups of
+         * similar instances are kept by the view itself, so that neither the
+         * traces nor the log they originate from are modified.
+         *
+         * @param trace Trace to look for.
+         * @return An unmodifiable set of case numbers.
+         * @throws ParameterException If the given trace is null.
+         */
+        @Override
+        public Set<Long> getSimilarInstances(LogTrace<E> trace) throws ParameterException {
+                update();
+                return super.getSimilarInstances(trace);
+        }
+
+        /**
+         * Adds a trace to the view. The trace is evaluated by all filters
+         * whose acceptance is up to date.
+         *
+         * @param trace Trace to add.
+         * @throws ParameterException
+         */
+        @Override
+        public void addTrace(LogTrace<E> trace) throws ParameterException {
                 Validate.notNull(trace);
+                int index = allTraces.size();
+                allTraces.add(trace);
                 boolean accept = true;
                 for (AbstractLogFilter<E> filter : filters) {
-                        if (!filter.accept(trace)) {
+                        BitSet filterResult = filterResults.get(filter);
+                        if (filterResult == null || changedFilters.contains(filter)) {
+                                // will be evaluated completely on the next update
+                                continue;
+                        }
+                        if (filter.accept(trace)) {
+                                filterResult.set(index);
+                        } else {
                                 accept = false;
-                                break;
                         }
                 }
-                if (accept) {
+                if (accept && uptodate) {
+                        acceptedTraces.set(index);
                         traces.add(trace);
                         summary.addTrace(trace);
-                        if (!distinctTraces.add(trace)) {
-                                for (LogTrace<E> storedTrace : traces) {
-                                        if (storedTrace.equals(trace)) {
-                                                storedTrace.addSimilarInstance(trace.getCaseNumber());
-                                                trace.addSimilarInstance(storedTrace.getCaseNumber());
-                                        }
-                                }
-                        }
-                }
-                if (addToAllTraces) {
-                        allTraces.add(trace);
+                        addDistinctTrace(trace);
                 }
         }
 
+        /**
+         * Adds traces to the view. In case of parallel evaluation, large
+         * lists of traces are evaluated by the up-to-date filters in
+         * parallel.
+         *
+         * @param traces Traces to add.
+         * @throws ParameterException
+         */
         @Override
         public void addTraces(List<LogTrace<E>> traces) throws ParameterException {
-                addTraces(traces, true);
-        }
-
-        private void addTraces(List<LogTrace<E>> traces, boolean addToAllTraces) throws ParameterException {
                 Validate.notNull(traces);
-                for (LogTrace<E> trace : traces) {
-                        addTrace(trace, addToAllTraces);
+                Validate.noNullElements(traces);
+                if (!isParallel(traces.size())) {
+                        for (LogTrace<E> trace : traces) {
+                                addTrace(trace);
+                        }
+                        return;
+                }
+                int from = allTraces.size();
+                allTraces.addAll(traces);
+                int to = allTraces.size();
+                BitSet accepted = new BitSet(to);
+                accepted.set(from, to);
+                for (AbstractLogFilter<E> filter : filters) {
+                        BitSet filterResult = filterResults.get(filter);
+                        if (filterResult == null || changedFilters.contains(filter)) {
+                                // will be evaluated completely on the next update
+                                continue;
+                        }
+                        BitSet batchResult = evaluate(filter, from, to);
+                        filterResult.or(batchResult);
+                        accepted.and(batchResult);
+                }
+                if (uptodate) {
+                        acceptedTraces.or(accepted);
+                        for (int i = accepted.nextSetBit(from); i >= 0; i = accepted.nextSetBit(i + 1)) {
+                                this.traces.add(allTraces.get(i));
+                                addDistinctTrace(allTraces.get(i));
+                        }
+                        summary.addSummary(summarize(accepted, from, to));
                 }
         }
 
@@ -165,20 +312,187 @@ public class LogView<E extends LogEntry> extends Log<E> implements Observer, Nam
 
         @Override
         public void update(Observable observable, Object object) {
+                if (observable instanceof AbstractLogFilter) {
+                        changedFilters.add((AbstractLogFilter<E>) observable);
+                }
                 uptodate = false;
         }
 
         /**
          * Updates the summary, set of distinct traces and list of traces if the
-         * filter set has been changed.
+         * filter set has been changed.<br>
+         * Only filters that have been added or changed are evaluated again.
+         * The summary and the set of distinct traces are updated with the
+         * traces whose acceptance has changed.
          */
         private void update() {
-                if (!uptodate) {
-                        summary.clear();
-                        distinctTraces.clear();
+                if (uptodate) {
+                        return;
+                }
+                BitSet accepted = new BitSet(allTraces.size());
+                accepted.set(0, allTraces.size());
+                Map<AbstractLogFilter<E>, BitSet> results = new IdentityHashMap<>();
+                for (AbstractLogFilter<E> filter : filters) {
+                        BitSet filterResult = filterResults.get(filter);
+                        if (filterResult == null || changedFilters.contains(filter)) {
+                                filterResult = evaluate(filter);
+                        }
+                        results.put(filter, filterResult);
+                        accepted.and(filterResult);
+                }
+                filterResults = results;
+                changedFilters.clear();
+
+                BitSet removed = (BitSet) acceptedTraces.clone();
+                removed.andNot(accepted);
+                BitSet added = (BitSet) accepted.clone();
+                added.andNot(acceptedTraces);
+                for (int i = removed.nextSetBit(0); i >= 0; i = removed.nextSetBit(i + 1)) {
+                        removeDistinctTrace(allTraces.get(i));
+                }
+                for (int i = added.nextSetBit(0); i >= 0; i = added.nextSetBit(i + 1)) {
+                        addDistinctTrace(allTraces.get(i));
+                }
+                summary.removeSummary(summarize(removed, 0, allTraces.size()));
+                summary.addSummary(summarize(added, 0, allTraces.size()));
+                if (!removed.isEmpty() || !added.isEmpty()) {
                         traces.clear();
-                        addTraces(allTraces, false);
-                        uptodate = true;
+                        for (int i = accepted.nextSetBit(0); i >= 0; i = accepted.nextSetBit(i + 1)) {
+                                traces.add(allTraces.get(i));
+                        }
+                }
+                acceptedTraces = accepted;
+                uptodate = true;
+        }
+
+        private BitSet evaluate(AbstractLogFilter<E> filter) {
+                return evaluate(filter, 0, allTraces.size());
+        }
+
+        /**
+         * Evaluates the filter for the traces of {@link #allTraces} in the
+         * given range.
+         *
+         * @return The acceptance of the traces in the range, bit <i>i</i>
+         * being set if the filter accepts trace <i>i</i>.
+         */
+        private BitSet evaluate(AbstractLogFilter<E> filter, int from, int to) {
+                if (isParallel(to - from)) {
+                        long[] words = new long[(to + 63) / 64];
+                        evaluationPool.invoke(new FilterTask(filter, words, from, to));
+                        return BitSet.valueOf(words);
+                }
+                BitSet filterResult = new BitSet(to);
+                for (int i = from; i < to; i++) {
+                        if (filter.accept(allTraces.get(i))) {
+                                filterResult.set(i);
+                        }
+                }
+                return filterResult;
+        }
+
+        /**
+         * Creates a summary of the traces of {@link #allTraces} in the given
+         * range whose bits are set.
+         */
+        private LogSummary<E> summarize(BitSet selection, int from, int to) {
+                if (isParallel(selection.cardinality())) {
+                        return evaluationPool.invoke(new SummaryTask(selection, from, to));
+                }
+                LogSummary<E> selectionSummary = new LogSummary<>();
+                for (int i = selection.nextSetBit(from); i >= 0 && i < to; i = selection.nextSetBit(i + 1)) {
+                        selectionSummary.addTrace(allTraces.get(i));
+                }
+                return selectionSummary;
+        }
+
+        private boolean isParallel(int traceCount) {
+                return evaluationPool != null && traceCount >= PARALLEL_THRESHOLD;
+        }
+
+        /**
+         * Splits the range at a multiple of 64, so that the partitions set
+         * bits in disjoint words.
+         *
+         * @return The split position or <code>-1</code> if the range is not
+         * split further.
+         */
+        private static int split(int from, int to) {
+                if (to - from <= PARTITION_SIZE) {
+                        return -1;
+                }
+                int mid = ((from + to) >>> 1) & ~63;
+                return mid > from ? mid : -1;
+        }
+
+        /**
+         * Evaluates a filter for a range of {@link #allTraces} and sets the
+         * bits of accepted traces in a shared array of words.
+         */
+        private class FilterTask extends RecursiveAction {
+
+                private static final long serialVersionUID = 1L;
+
+                private final AbstractLogFilter<E> filter;
+                private final long[] words;
+                private final int from;
+                private final int to;
+
+                FilterTask(AbstractLogFilter<E> filter, long[] words, int from, int to) {
+                        this.filter = filter;
+                        this.words = words;
+                        this.from = from;
+                        this.to = to;
+                }
+
+                @Override
+                protected void compute() {
+                        int mid = split(from, to);
+                        if (mid != -1) {
+                                invokeAll(new FilterTask(filter, words, from, mid), new FilterTask(filter, words, mid, to));
+                                return;
+                        }
+                        for (int i = from; i < to; i++) {
+                                if (filter.accept(allTraces.get(i))) {
+                                        words[i >>> 6] |= 1L << i;
+                                }
+                        }
+                }
+        }
+
+        /**
+         * Creates the summary of the selected traces of a range of
+         * {@link #allTraces} by merging the summaries of its partitions.
+         */
+        private class SummaryTask extends RecursiveTask<LogSummary<E>> {
+
+                private static final long serialVersionUID = 1L;
+
+                private final BitSet selection;
+                private final int from;
+                private final int to;
+
+                SummaryTask(BitSet selection, int from, int to) {
+                        this.selection = selection;
+                        this.from = from;
+                        this.to = to;
+                }
+
+                @Override
+                protected LogSummary<E> compute() {
+                        int mid = split(from, to);
+                        if (mid != -1) {
+                                SummaryTask second = new SummaryTask(selection, mid, to);
+                                second.fork();
+                                LogSummary<E> result = new SummaryTask(selection, from, mid).compute();
+                                result.addSummary(second.join());
+                                return result;
+                        }
+                        LogSummary<E> result = new LogSummary<>();
+                        for (int i = selection.nextSetBit(from); i >= 0 && i < to; i = selection.nextSetBit(i + 1)) {
+                                result.addTrace(allTraces.get(i));
+                        }
+                        return result;
                 }
         }
 
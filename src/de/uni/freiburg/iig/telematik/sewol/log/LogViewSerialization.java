@@ -86,6 +86,10 @@ public class LogViewSerialization {
                 // omit fields
                 xstream.omitField(LogView.class, "allTraces");
                 xstream.omitField(LogView.class, "uptodate");
+                xstream.omitField(LogView.class, "filterResults");
+                xstream.omitField(LogView.class, "changedFilters");
+                xstream.omitField(LogView.class, "acceptedTraces");
+                xstream.omitField(LogView.class, "evaluationPool");
                 xstream.omitField(LogView.class, "fileReference");
                 xstream.omitField(Log.class, "summary");
                 xstream.omitField(Log.class, "traces");
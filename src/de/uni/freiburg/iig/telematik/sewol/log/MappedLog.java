@@ -0,0 +1,713 @@
+package de.uni.freiburg.iig.telematik.sewol.log;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import de.invation.code.toval.parser.ParserException;
+import de.invation.code.toval.validate.ParameterException;
+import de.invation.code.toval.validate.ParameterException.ErrorCode;
+import de.invation.code.toval.validate.Validate;
+import de.uni.freiburg.iig.telematik.sewol.format.BinaryLogEncoding;
+
+/**
+ * <p>
+ * Log whose traces are stored in a file instead of the heap, so that logs
+ * larger than the available memory can be processed.
+ * </p>
+ * <p>
+ * Every trace is stored as record of a binary log file (see
+ * {@link BinaryLogEncoding}). The file is read through memory-mapped segments
+ * and decoded traces are kept in a cache of limited capacity, from which the
+ * least recently used trace is evicted. The heap only holds the file offsets
+ * and case numbers of the traces, the dictionary, the summary and the cached
+ * traces.
+ * </p>
+ * <p>
+ * {@link #getTraces()} returns lightweight views on the stored traces, which
+ * decode their entries on access. The entries of a view are not modifiable and
+ * changes of their fields are not written back to the file, so that they may
+ * be lost as soon as the trace is evicted from the cache. Views are suitable
+ * as traces of a {@link LogView}, which then only holds the views but not
+ * their entries. The similar instances of a view are the ones stored with the
+ * trace. The distinct traces of the log are not indexed but grouped on demand
+ * by the hash codes of their entries, which are kept until a trace is added.
+ * </p>
+ * <p>
+ * Traces can be added to a new log. On {@link #close()}, the dictionary and
+ * index are appended, so that the file is a complete binary log file that can
+ * be opened again with {@link #open(File)}, which is read-only. Traces can be
+ * read by several threads concurrently, but not while traces are added.
+ * </p>
+ *
+ * @version 1.0.2
+ * @since 1.0.2
+ */
+public class MappedLog extends Log<LogEntry> implements Closeable {
+
+        /** Default number of decoded traces kept in memory */
+        public static final int DEFAULT_CACHE_CAPACITY = 1024;
+
+        /** Size of the memory-mapped segments of the file */
+        private static final long SEGMENT_SIZE = 1L << 28;
+        private static final int WRITE_BUFFER_SIZE = 1 << 20;
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private final File file;
+        private final FileChannel channel;
+        private final boolean readOnly;
+        private final boolean deleteOnClose;
+        private BinaryLogEncoding.Encoder encoder;
+        private List<String> dictionary;
+        private final List<MappedByteBuffer> segments = new ArrayList<>();
+        private final ByteBuffer writeBuffer;
+        /** Number of bytes written to the file */
+        private long fileSize;
+
+        private int traceCount = 0;
+        private long[] caseNumbers;
+        /**
+         * Offsets of the trace records, followed by the end of the last
+         * record.
+         */
+        private long[] offsets;
+
+        private final LinkedHashMap<Integer, LogTrace<LogEntry>> cache = new LinkedHashMap<>(16, 0.75f, true);
+        private int cacheCapacity = DEFAULT_CACHE_CAPACITY;
+        private long cacheHits = 0;
+        private long cacheMisses = 0;
+
+        private boolean summaryComplete;
+        private int distinctTraceCount = -1;
+        /**
+         * Hash codes of the entries of the traces in the upper and positions
+         * of the traces in the lower half, sorted so that equal hash codes
+         * are grouped. Computed on demand until a trace is added.
+         */
+        private long[] traceKeys = null;
+        private boolean closed = false;
+
+        /**
+         * Creates a new log stored in a temporary file, which is deleted when
+         * the log is closed.
+         *
+         * @throws IOException if the file cannot be created.
+         */
+        public MappedLog() throws IOException {
+                this(File.createTempFile("sewol", ".slog"), true);
+        }
+
+        /**
+         * Creates a new log stored in the given file. The file is overwritten
+         * if it already exists.
+         *
+         * @param file The file to store the traces in.
+         * @throws IOException if the file cannot be created.
+         */
+        public MappedLog(File file) throws IOException {
+                this(file, false);
+        }
+
+        private MappedLog(File file, boolean deleteOnClose) throws IOException {
+                Validate.notNull(file);
+                this.file = file;
+                this.readOnly = false;
+                this.deleteOnClose = deleteOnClose;
+                this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                this.encoder = new BinaryLogEncoding.Encoder();
+                this.dictionary = encoder.getDictionary();
+                this.writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+                this.caseNumbers = new long[INITIAL_CAPACITY];
+                this.offsets = new long[INITIAL_CAPACITY + 1];
+                this.summaryComplete = true;
+                encoder.encodeHeader();
+                append(encoder.getBuffer(), encoder.getOffset(), encoder.getLength());
+                offsets[0] = BinaryLogEncoding.HEADER_SIZE;
+        }
+
+        private MappedLog(File file, FileChannel channel, BinaryLogEncoding.Index index) throws IOException {
+                this.file = file;
+                this.readOnly = true;
+                this.deleteOnClose = false;
+                this.channel = channel;
+                this.encoder = null;
+                this.dictionary = index.getDictionary();
+                this.writeBuffer = null;
+                this.fileSize = channel.size();
+                this.traceCount = index.getTraceCount();
+                this.caseNumbers = new long[traceCount];
+                this.offsets = new long[traceCount + 1];
+                for (int i = 0; i < traceCount; i++) {
+                        caseNumbers[i] = index.getCaseNumber(i);
+                        offsets[i] = index.getOffset(i);
+                }
+                offsets[traceCount] = index.getOffset(traceCount);
+                // The summary is computed on first access, which requires reading all traces.
+                this.summaryComplete = false;
+        }
+
+        /**
+         * Opens the given binary log file as read-only log. Only the
+         * dictionary and the index of the file are read, the summary is
+         * computed on its first access.
+         *
+         * @param file A complete binary log file.
+         * @return The log of the traces of the file.
+         * @throws IOException if the file cannot be read.
+         * @throws ParserException if the file is no complete binary log file.
+         */
+        public static MappedLog open(File file) throws IOException, ParserException {
+                Validate.notNull(file);
+                FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                try {
+                        return new MappedLog(file, channel, BinaryLogEncoding.readIndex(channel));
+                } catch (IOException | ParserException | RuntimeException e) {
+                        channel.close();
+                        throw e;
+                }
+        }
+
+        public File getFile() {
+                return file;
+        }
+
+        public boolean isReadOnly() {
+                return readOnly;
+        }
+
+        public int getCacheCapacity() {
+                return cacheCapacity;
+        }
+
+        /**
+         * Sets the maximum number of decoded traces kept in memory.
+         *
+         * @param cacheCapacity Maximum number of cached traces.
+         */
+        public void setCacheCapacity(int cacheCapacity) {
+                Validate.positive(cacheCapacity);
+                synchronized (cache) {
+                        this.cacheCapacity = cacheCapacity;
+                        evict();
+                }
+        }
+
+        /**
+         * @return The number of trace accesses that have been served by the
+         * cache.
+         */
+        public long getCacheHits() {
+                synchronized (cache) {
+                        return cacheHits;
+                }
+        }
+
+        /**
+         * @return The number of trace accesses that required decoding the
+         * trace.
+         */
+        public long getCacheMisses() {
+                synchronized (cache) {
+                        return cacheMisses;
+                }
+        }
+
+        /**
+         * @return The number of traces of the log.
+         */
+        public int size() {
+                return traceCount;
+        }
+
+        /**
+         * Serializes the given trace into the file and adds it to the
+         * summary. Like {@link Log#addTrace(LogTrace)}, the case number of the
+         * trace is set to its position in the log. The given trace is not
+         * referenced by the log.
+         *
+         * @param trace Trace to add.
+         * @throws ParameterException If the given trace is null.
+         * @throws UnsupportedOperationException if the log is read-only.
+         * @throws UncheckedIOException if the trace cannot be written.
+         */
+        @Override
+        public void addTrace(LogTrace<LogEntry> trace) throws ParameterException {
+                Validate.notNull(trace);
+                checkWritable();
+                trace.setCaseNumber(traceCount + 1);
+                encoder.encodeTrace(trace);
+                if (traceCount == caseNumbers.length) {
+                        caseNumbers = Arrays.copyOf(caseNumbers, traceCount * 2);
+                        offsets = Arrays.copyOf(offsets, traceCount * 2 + 1);
+                }
+                try {
+                        append(encoder.getBuffer(), encoder.getOffset(), encoder.getLength());
+                } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                }
+                caseNumbers[traceCount] = trace.getCaseNumber();
+                offsets[traceCount + 1] = offsets[traceCount] + encoder.getLength();
+                traceCount++;
+                summary.addTrace(trace);
+                distinctTraceCount = -1;
+                traceKeys = null;
+        }
+
+        /**
+         * Removes all traces from the log and truncates its file. Since the
+         * symbols defined by the removed trace records are gone, a new encoder
+         * with an empty dictionary is used for the following traces.
+         */
+        @Override
+        void reinitialize() {
+                checkWritable();
+                super.reinitialize();
+                synchronized (cache) {
+                        cache.clear();
+                }
+                encoder = new BinaryLogEncoding.Encoder();
+                dictionary = encoder.getDictionary();
+                try {
+                        // the header may not have been flushed yet
+                        writeBuffer.clear();
+                        channel.truncate(0);
+                        fileSize = 0;
+                        encoder.encodeHeader();
+                        append(encoder.getBuffer(), encoder.getOffset(), encoder.getLength());
+                } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                }
+                segments.clear();
+                traceCount = 0;
+                distinctTraceCount = -1;
+                traceKeys = null;
+        }
+
+        /**
+         * Returns the summary of all traces. For logs opened from a file, the
+         * summary is computed by reading all traces on the first call.
+         *
+         * @return The summary of the log.
+         * @throws UncheckedIOException if a trace cannot be read.
+         */
+        @Override
+        public LogSummary<LogEntry> getSummary() {
+                synchronized (this) {
+                        if (!summaryComplete) {
+                                LogSummary<LogEntry> completeSummary = new LogSummary<>();
+                                for (int i = 0; i < traceCount; i++) {
+                                        completeSummary.addTrace(decode(i));
+                                }
+                                summary = completeSummary;
+                                summaryComplete = true;
+                        }
+                }
+                return summary;
+        }
+
+        /**
+         * Returns the number of traces with distinct entries. The traces are
+         * grouped by their hash codes, so that only traces with equal hash
+         * codes have to be compared. The number is cached until a trace is
+         * added.
+         *
+         * @return The number of distinct traces.
+         * @throws UncheckedIOException if a trace cannot be read.
+         */
+        @Override
+        public synchronized int getDistinctTraceCount() {
+                if (distinctTraceCount >= 0) {
+                        return distinctTraceCount;
+                }
+                long[] keys = getTraceKeys();
+                int count = 0;
+                int start = 0;
+                while (start < traceCount) {
+                        int end = start + 1;
+                        while (end < traceCount && (keys[end] >>> 32) == (keys[start] >>> 32)) {
+                                end++;
+                        }
+                        if (end - start == 1) {
+                                count++;
+                        } else {
+                                Set<List<LogEntry>> distinctEntries = new HashSet<>();
+                                for (int i = start; i < end; i++) {
+                                        distinctEntries.add(decode((int) keys[i]).getEntries());
+                                }
+                                count += distinctEntries.size();
+                        }
+                        start = end;
+                }
+                distinctTraceCount = count;
+                return count;
+        }
+
+        /**
+         * Returns the case numbers of all traces of this log whose entries are
+         * equal to the ones of the given trace. Only traces with the hash code
+         * of the given entries are compared, which are found in the grouping
+         * of {@link #getDistinctTraceCount()}.
+         *
+         * @throws UncheckedIOException if a trace cannot be read.
+         */
+        @Override
+        public synchronized Set<Long> getSimilarInstances(LogTrace<LogEntry> trace) throws ParameterException {
+                Validate.notNull(trace);
+                List<LogEntry> entries = trace.getEntries();
+                long hashCode = entries.hashCode();
+                long[] keys = getTraceKeys();
+                // The lowest key with the hash code is the one of position 0.
+                int start = Arrays.binarySearch(keys, hashCode << 32);
+                if (start < 0) {
+                        start = -start - 1;
+                }
+                Set<Long> similarInstances = new HashSet<>();
+                for (int i = start; i < keys.length && (keys[i] >> 32) == hashCode; i++) {
+                        int index = (int) keys[i];
+                        if (decode(index).getEntries().equals(entries)) {
+                                similarInstances.add(caseNumbers[index]);
+                        }
+                }
+                return Collections.unmodifiableSet(similarInstances);
+        }
+
+        private long[] getTraceKeys() {
+                if (traceKeys == null) {
+                        long[] keys = new long[traceCount];
+                        for (int i = 0; i < traceCount; i++) {
+                                keys[i] = ((long) decode(i).getEntries().hashCode() << 32) | i;
+                        }
+                        Arrays.sort(keys);
+                        traceKeys = keys;
+                }
+                return traceKeys;
+        }
+
+        /**
+         * Returns an unmodifiable list of views on the traces of the log.
+         * Views are created on access and decode their entries when needed.
+         *
+         * @return The traces of the log.
+         */
+        @Override
+        public List<LogTrace<LogEntry>> getTraces() {
+                return new TraceList();
+        }
+
+        /**
+         * Returns the trace at the given position, which is decoded if it is
+         * not contained in the cache. The trace must not be modified.
+         *
+         * @param index Position of the trace.
+         * @return The decoded trace.
+         * @throws ParameterException if there is no trace at the given
+         * position.
+         * @throws UncheckedIOException if the trace cannot be read.
+         */
+        public LogTrace<LogEntry> getTrace(int index) {
+                validateIndex(index);
+                synchronized (cache) {
+                        LogTrace<LogEntry> trace = cache.get(index);
+                        if (trace != null) {
+                                cacheHits++;
+                                return trace;
+                        }
+                        cacheMisses++;
+                }
+                LogTrace<LogEntry> trace = decode(index);
+                synchronized (cache) {
+                        cache.put(index, trace);
+                        evict();
+                }
+                return trace;
+        }
+
+        /**
+         * Appends the dictionary and index to a new log, so that its file is
+         * a complete binary log file, and closes the file. Temporary files are
+         * deleted.
+         *
+         * @throws IOException if writing or closing the file fails.
+         */
+        @Override
+        public synchronized void close() throws IOException {
+                if (closed) {
+                        return;
+                }
+                closed = true;
+                try {
+                        if (!readOnly && !deleteOnClose) {
+                                encoder.encodeTrailer(caseNumbers, offsets, traceCount, offsets[traceCount]);
+                                append(encoder.getBuffer(), encoder.getOffset(), encoder.getLength());
+                                flush();
+                        }
+                } finally {
+                        segments.clear();
+                        synchronized (cache) {
+                                cache.clear();
+                        }
+                        channel.close();
+                        if (deleteOnClose) {
+                                file.delete();
+                        }
+                }
+        }
+
+        private void evict() {
+                Iterator<Map.Entry<Integer, LogTrace<LogEntry>>> iterator = cache.entrySet().iterator();
+                while (cache.size() > cacheCapacity && iterator.hasNext()) {
+                        iterator.next();
+                        iterator.remove();
+                }
+        }
+
+        private LogTrace<LogEntry> decode(int index) {
+                try {
+                        byte[] record = read(offsets[index], (int) (offsets[index + 1] - offsets[index]));
+                        BinaryLogEncoding.Decoder decoder = new BinaryLogEncoding.Decoder(dictionary);
+                        decoder.setInput(record, 0, record.length);
+                        return decoder.decodeTraceRecord();
+                } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                } catch (ParserException e) {
+                        throw new UncheckedIOException(new IOException("Invalid record of trace " + index + ".", e));
+                }
+        }
+
+        /**
+         * Reads the given range of the file. Ranges within a completely
+         * written segment are read from the memory-mapped segment, other
+         * ranges with positional reads.
+         */
+        private byte[] read(long position, int length) throws IOException {
+                if (position + length > fileSize) {
+                        synchronized (this) {
+                                flush();
+                        }
+                }
+                int segment = (int) (position / SEGMENT_SIZE);
+                if (segment == (position + length - 1) / SEGMENT_SIZE) {
+                        MappedByteBuffer buffer = getSegment(segment);
+                        if (buffer != null) {
+                                byte[] data = new byte[length];
+                                ByteBuffer view = buffer.duplicate();
+                                view.position((int) (position - segment * SEGMENT_SIZE));
+                                view.get(data);
+                                return data;
+                        }
+                }
+                return BinaryLogEncoding.read(channel, position, length);
+        }
+
+        /**
+         * Returns the mapping of the given segment or <code>null</code> if
+         * the segment is still being written.
+         */
+        private synchronized MappedByteBuffer getSegment(int segment) throws IOException {
+                long start = segment * SEGMENT_SIZE;
+                long end = readOnly ? Math.min(start + SEGMENT_SIZE, fileSize) : start + SEGMENT_SIZE;
+                if (end > fileSize) {
+                        return null;
+                }
+                while (segments.size() <= segment) {
+                        segments.add(null);
+                }
+                MappedByteBuffer buffer = segments.get(segment);
+                if (buffer == null) {
+                        buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                        segments.set(segment, buffer);
+                }
+                return buffer;
+        }
+
+        private void append(byte[] data, int offset, int length) throws IOException {
+                if (length > writeBuffer.remaining()) {
+                        flush();
+                }
+                if (length > writeBuffer.capacity()) {
+                        write(ByteBuffer.wrap(data, offset, length));
+                } else {
+                        writeBuffer.put(data, offset, length);
+                }
+        }
+
+        private void flush() throws IOException {
+                if (writeBuffer == null || writeBuffer.position() == 0) {
+                        return;
+                }
+                writeBuffer.flip();
+                write(writeBuffer);
+                writeBuffer.clear();
+        }
+
+        private void write(ByteBuffer data) throws IOException {
+                while (data.hasRemaining()) {
+                        fileSize += channel.write(data, fileSize);
+                }
+        }
+
+        private void checkWritable() {
+                if (readOnly) {
+                        throw new UnsupportedOperationException("Log is read-only.");
+                }
+                if (closed) {
+                        throw new IllegalStateException("Log is closed.");
+                }
+        }
+
+        private void validateIndex(int index) {
+                if (index < 0 || index >= traceCount) {
+                        throw new ParameterException(ErrorCode.RANGEVIOLATION, "No trace for index " + index);
+                }
+        }
+
+        /**
+         * Unmodifiable list of views on the traces of the log.
+         */
+        private class TraceList extends AbstractList<LogTrace<LogEntry>> implements RandomAccess {
+
+                @Override
+                public LogTrace<LogEntry> get(int index) {
+                        validateIndex(index);
+                        return new TraceView(index);
+                }
+
+                @Override
+                public int size() {
+                        return traceCount;
+                }
+        }
+
+        /**
+         * View on a trace of the log.
+         */
+        private class TraceView extends LogTrace<LogEntry> {
+
+                private final int traceIndex;
+                private long caseNumber;
+                private Set<Long> similarInstances = null;
+
+                TraceView(int traceIndex) {
+                        this.traceIndex = traceIndex;
+                        this.caseNumber = caseNumbers[traceIndex];
+                }
+
+                @Override
+                protected List<LogEntry> entries() {
+                        return getTrace(traceIndex).getEntries();
+                }
+
+                @Override
+                public int size() {
+                        return entries().size();
+                }
+
+                @Override
+                public void setCaseNumber(int caseNumber) {
+                        this.caseNumber = caseNumber;
+                }
+
+                @Override
+                public long getCaseNumber() {
+                        return caseNumber;
+                }
+
+                @Override
+                public Set<Long> getSimilarInstances() {
+                        if (similarInstances == null) {
+                                return getTrace(traceIndex).getSimilarInstances();
+                        }
+                        return Collections.unmodifiableSet(similarInstances);
+                }
+
+                @Override
+                public int getNumberOfSimilarInstances() {
+                        return getSimilarInstances().size();
+                }
+
+                @Override
+                public void addSimilarInstance(long similarInstance) {
+                        if (similarInstances == null) {
+                                similarInstances = new HashSet<>(getTrace(traceIndex).getSimilarInstances());
+                        }
+                        similarInstances.add(similarInstance);
+                }
+
+                @Override
+                public void setSimilarInstances(Collection<Long> similarInstances) {
+                        Validate.notNull(similarInstances);
+                        this.similarInstances = new HashSet<>(similarInstances);
+                }
+
+                /**
+                 * Uses a key that decodes the entries when they are compared,
+                 * so that indexes of distinct traces do not hold the entries.
+                 */
+                @Override
+                List<LogEntry> fingerprint() {
+                        return new TraceKey(traceIndex, entries().hashCode());
+                }
+        }
+
+        /**
+         * Key of a trace in an index of distinct traces, which stores the
+         * hash code of the entries and decodes them only for comparisons.
+         */
+        private class TraceKey extends AbstractList<LogEntry> implements RandomAccess {
+
+                private final int traceIndex;
+                private final int hashCode;
+
+                TraceKey(int traceIndex, int hashCode) {
+                        this.traceIndex = traceIndex;
+                        this.hashCode = hashCode;
+                }
+
+                @Override
+                public LogEntry get(int index) {
+                        return getTrace(traceIndex).getEntries().get(index);
+                }
+
+                @Override
+                public int size() {
+                        return getTrace(traceIndex).size();
+                }
+
+                @Override
+                public int hashCode() {
+                        return hashCode;
+                }
+
+                @Override
+                public boolean equals(Object obj) {
+                        if (obj instanceof TraceKey && ((TraceKey) obj).traceIndex == traceIndex && ((TraceKey) obj).getLog() == MappedLog.this) {
+                                return true;
+                        }
+                        if (obj instanceof List && ((List<?>) obj).hashCode() != hashCode) {
+                                return false;
+                        }
+                        return getTrace(traceIndex).getEntries().equals(obj);
+                }
+
+                private MappedLog getLog() {
+                        return MappedLog.this;
+                }
+        }
+}
@@ -1,10 +1,15 @@
 package de.uni.freiburg.iig.telematik.sewol.parser;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
+import de.invation.code.toval.parser.ParserException;
 import de.invation.code.toval.validate.ParameterException;
 import de.invation.code.toval.validate.ParameterException.ErrorCode;
 import de.invation.code.toval.validate.Validate;
+import de.uni.freiburg.iig.telematik.sewol.format.LogCompression;
 import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
 import de.uni.freiburg.iig.telematik.sewol.log.LogSummary;
 import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
@@ -14,6 +19,49 @@ public abstract class AbstractLogParser implements LogParserInterface {
 
         protected List<List<LogTrace<LogEntry>>> parsedLogFiles = null;
         protected final List<LogSummary<LogEntry>> summaries = new ArrayList<>();
+        /**
+         * Symbol table of the last parser run, shared by all strings of names
+         * of activities, originators, roles and attributes.
+         */
+        protected SymbolTable symbolTable = new SymbolTable();
+        private int symbolTableCapacity = SymbolTable.DEFAULT_CAPACITY;
+
+        /**
+         * Returns the symbol table of the last call of a parse method. The
+         * statistics of the table show how many strings have been
+         * deduplicated. For trace-wise parsing, the table is filled while the
+         * traces are read.
+         *
+         * @return The symbol table of the last parser run.
+         */
+        public SymbolTable getSymbolTable() {
+                return symbolTable;
+        }
+
+        public int getSymbolTableCapacity() {
+                return symbolTableCapacity;
+        }
+
+        /**
+         * Sets the maximum number of symbols of the symbol tables of
+         * subsequent parser runs.
+         *
+         * @param symbolTableCapacity Maximum number of symbols.
+         */
+        public void setSymbolTableCapacity(int symbolTableCapacity) {
+                Validate.positive(symbolTableCapacity);
+                this.symbolTableCapacity = symbolTableCapacity;
+        }
+
+        /**
+         * Creates the symbol table for a new parser run.
+         *
+         * @return The new symbol table.
+         */
+        protected SymbolTable newSymbolTable() {
+                symbolTable = new SymbolTable(symbolTableCapacity);
+                return symbolTable;
+        }
 
         protected boolean parsed() {
                 return parsedLogFiles != null;
@@ -26,6 +74,42 @@ public abstract class AbstractLogParser implements LogParserInterface {
                 return parsedLogFiles.size();
         }
 
+        /**
+         * Opens the given file and returns an iterator over its traces.
+         *
+         * @param file File to parse
+         * @param parsingMode
+         * @return Iterator that reads the traces of the file on demand.
+         * @throws IOException if the file cannot be opened.
+         * @throws ParserException if the file content cannot be interpreted.
+         * @see #parseTraceWise(java.io.InputStream, ParsingMode)
+         */
+        @Override
+        public LogTraceIterator parseTraceWise(File file, ParsingMode parsingMode) throws IOException, ParserException {
+                Validate.noDirectory(file);
+                if (!file.canRead()) {
+                        throw new ParameterException("Unable to read input file!");
+                }
+                InputStream inputStream = LogCompression.openInputStream(file);
+                try {
+                        return parseTraceWise(inputStream, parsingMode);
+                } catch (ParserException | RuntimeException e) {
+                        // the stream is only closed by the iterator
+                        try {
+                                inputStream.close();
+                        } catch (IOException closeException) {
+                                e.addSuppressed(closeException);
+                        }
+                        throw e;
+                }
+        }
+
+        @Override
+        public LogTraceIterator parseTraceWise(String filePath, ParsingMode parsingMode) throws IOException, ParserException {
+                Validate.notNull(filePath);
+                return parseTraceWise(new File(filePath), parsingMode);
+        }
+
         @Override
         public List<LogTrace<LogEntry>> getParsedLog(int index) throws ParameterException {
                 if (!parsed()) {
@@ -1,45 +1,105 @@
 package de.uni.freiburg.iig.telematik.sewol.parser;
 
-import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
+import de.invation.code.toval.validate.Validate;
+
+/**
+ * <p>
+ * Input stream over a fragment of a log that consists of several byte ranges,
+ * typically the header of the log, a range of traces and the footer.
+ * </p>
+ * <p>
+ * The ranges are not copied, so that fragments of memory-mapped files are read
+ * directly from the mapping.
+ * </p>
+ */
 public class LogFragment extends InputStream {
 
-        private byte[] content = null;
-        private StringBuffer buffer = null;
-        private int counter = 0;
+        private final ByteBuffer[] content;
+        private final ByteBuffer[] parts;
+        private int currentPart = 0;
 
-        public LogFragment() {
-                reset();
+        /**
+         * Creates a new fragment that consists of the remaining bytes of the
+         * given buffers. The positions of the given buffers are not changed.
+         *
+         * @param parts Byte ranges of the fragment in reading order.
+         */
+        public LogFragment(ByteBuffer... parts) {
+                Validate.notNull(parts);
+                Validate.noNullElements(parts);
+                this.content = new ByteBuffer[parts.length];
+                this.parts = new ByteBuffer[parts.length];
+                for (int i = 0; i < parts.length; i++) {
+                        this.content[i] = parts[i].duplicate();
+                        this.parts[i] = parts[i].duplicate();
+                }
         }
 
-        public void addLine(String line) {
-                buffer.append(line);
-                buffer.append(System.getProperty("line.separator"));
+        /**
+         * @return The total number of bytes of the fragment.
+         */
+        public long length() {
+                long length = 0;
+                for (ByteBuffer part : content) {
+                        length += part.remaining();
+                }
+                return length;
         }
 
         @Override
-        public final void reset() {
-                content = null;
-                buffer = new StringBuffer();
-                counter = 0;
+        public int read() {
+                while (currentPart < parts.length) {
+                        if (parts[currentPart].hasRemaining()) {
+                                return parts[currentPart].get() & 0xFF;
+                        }
+                        currentPart++;
+                }
+                return -1;
         }
 
         @Override
-        public void close() {
-                content = buffer.toString().getBytes();
+        public int read(byte[] b, int off, int len) {
+                if (off < 0 || len < 0 || len > b.length - off) {
+                        throw new IndexOutOfBoundsException();
+                }
+                if (len == 0) {
+                        return 0;
+                }
+                int read = 0;
+                while (len > 0 && currentPart < parts.length) {
+                        ByteBuffer part = parts[currentPart];
+                        if (!part.hasRemaining()) {
+                                currentPart++;
+                                continue;
+                        }
+                        int n = Math.min(len, part.remaining());
+                        part.get(b, off, n);
+                        off += n;
+                        len -= n;
+                        read += n;
+                }
+                return read == 0 ? -1 : read;
         }
 
         @Override
-        public int read() throws IOException {
-                if (counter == content.length) {
-                        return -1;
+        public int available() {
+                long available = 0;
+                for (int i = currentPart; i < parts.length; i++) {
+                        available += parts[i].remaining();
                 }
-                return content[counter++];
+                return (int) Math.min(available, Integer.MAX_VALUE);
         }
 
         @Override
         public String toString() {
-                return new String(content);
+                StringBuilder builder = new StringBuilder();
+                for (ByteBuffer part : content) {
+                        builder.append(StandardCharsets.UTF_8.decode(part.duplicate()));
+                }
+                return builder.toString();
         }
 }
@@ -3,11 +3,14 @@ package de.uni.freiburg.iig.telematik.sewol.parser;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import de.invation.code.toval.parser.ParserException;
 import de.invation.code.toval.parser.ParserException.ErrorCode;
 import de.invation.code.toval.validate.Validate;
+import de.uni.freiburg.iig.telematik.sewol.format.LogCompression;
 import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
 import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
+import de.uni.freiburg.iig.telematik.sewol.parser.binary.BinaryLogParser;
 import de.uni.freiburg.iig.telematik.sewol.parser.mxml.MXMLLogParser;
 import de.uni.freiburg.iig.telematik.sewol.parser.petrify.PetrifyParser;
 import de.uni.freiburg.iig.telematik.sewol.parser.plain.PlainParser;
@@ -59,6 +62,82 @@ public class LogParser {
                 return parse(prepareFile(fileName), format);
         }
 
+        /**
+         * Returns an iterator that reads the traces of the given file on
+         * demand instead of keeping the whole log in memory.
+         *
+         * @param file File to parse
+         * @return Iterator over the traces of the file.
+         * @throws IOException if the file cannot be opened.
+         * @throws ParserException if the file format is unknown or the file
+         * content cannot be interpreted.
+         */
+        public static LogTraceIterator parseTraceWise(File file) throws IOException, ParserException {
+                return parseTraceWise(file, ParsingMode.COMPLETE);
+        }
+
+        public static LogTraceIterator parseTraceWise(File file, ParsingMode parsingMode) throws IOException, ParserException {
+                validateFile(file);
+                LogParsingFormat format = guessFormat(file);
+                if (format == null) {
+                        throw new ParserException(ErrorCode.UNKNOWN_FILE_EXTENSION);
+                }
+                return parseTraceWise(file, format, parsingMode);
+        }
+
+        public static LogTraceIterator parseTraceWise(String fileName) throws IOException, ParserException {
+                return parseTraceWise(fileName, ParsingMode.COMPLETE);
+        }
+
+        public static LogTraceIterator parseTraceWise(String fileName, ParsingMode parsingMode) throws IOException, ParserException {
+                Validate.notNull(fileName);
+                return parseTraceWise(prepareFile(fileName), parsingMode);
+        }
+
+        public static LogTraceIterator parseTraceWise(File file, LogParsingFormat format, ParsingMode parsingMode) throws IOException, ParserException {
+                validateFile(file);
+                Validate.notNull(format);
+                LogParserInterface parser = getParser(file, format);
+                return parser.parseTraceWise(file, parsingMode);
+        }
+
+        /**
+         * Parses the given XES or MXML file by splitting it into trace-aligned
+         * chunks that are parsed concurrently on the common pool.
+         *
+         * @param file File to parse
+         * @param parsingMode
+         * @return Collection of processes, which consist of a collection of
+         * instances, which again consist of a collection of {@link LogTrace}
+         * objects.
+         * @throws IOException if the file cannot be opened.
+         * @throws ParserException if the file format is unknown or not
+         * supported for parallel parsing, or the file content cannot be
+         * interpreted.
+         * @see ParallelLogParser
+         */
+        public static List<List<LogTrace<LogEntry>>> parseParallel(File file, ParsingMode parsingMode) throws IOException, ParserException {
+                return parseParallel(file, parsingMode, ForkJoinPool.commonPool());
+        }
+
+        public static List<List<LogTrace<LogEntry>>> parseParallel(File file, ParsingMode parsingMode, ForkJoinPool pool) throws IOException, ParserException {
+                validateFile(file);
+                LogParsingFormat format = guessFormat(file);
+                if (format == null) {
+                        throw new ParserException(ErrorCode.UNKNOWN_FILE_EXTENSION);
+                }
+                return parseParallel(file, format, parsingMode, pool);
+        }
+
+        public static List<List<LogTrace<LogEntry>>> parseParallel(File file, LogParsingFormat format, ParsingMode parsingMode, ForkJoinPool pool) throws IOException, ParserException {
+                validateFile(file);
+                Validate.notNull(format);
+                if (format != LogParsingFormat.XES && format != LogParsingFormat.MXML) {
+                        throw new ParserException(ErrorCode.UNSUPPORTED_FORMAT);
+                }
+                return new ParallelLogParser(format, pool).parse(file, parsingMode);
+        }
+
         public static synchronized LogParserInterface getParser(File file, LogParsingFormat format) throws ParserException {
                 switch (format) {
                         case XES:
@@ -71,6 +150,8 @@ public class LogParser {
                                 return new PlainParser("\\s");
                         case PLAIN_TAB:
                                 return new PlainParser("\\t");
+                        case BINARY:
+                                return new BinaryLogParser();
                         default:
                                 break;
                 }
@@ -95,9 +176,20 @@ public class LogParser {
                 }
         }
 
+        /**
+         * Guesses the format of the given file based on its extension. The
+         * extension of a compressed file is ignored, so that e.g.
+         * <code>log.xes.gz</code> is recognized as XES file.
+         *
+         * @param file The file to guess the format of.
+         * @return The format of the file or <code>null</code> if the extension
+         * is unknown.
+         * @see LogCompression
+         */
         public static LogParsingFormat guessFormat(File file) {
+                String fileName = LogCompression.stripFileExtension(file.getName());
                 for (LogParsingFormat format : LogParsingFormat.values()) {
-                        if (file.getName().endsWith(format.fileFormat.getFileExtension())) {
+                        if (fileName.endsWith(format.fileFormat.getFileExtension())) {
                                 return format;
                         }
                 }
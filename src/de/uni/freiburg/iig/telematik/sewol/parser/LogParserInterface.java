@@ -19,6 +19,12 @@ public interface LogParserInterface {
 
         public List<List<LogTrace<LogEntry>>> parse(InputStream inputStream, ParsingMode parsingMode) throws ParameterException, ParserException;
 
+        public LogTraceIterator parseTraceWise(File file, ParsingMode parsingMode) throws IOException, ParserException;
+
+        public LogTraceIterator parseTraceWise(String filePath, ParsingMode parsingMode) throws IOException, ParserException;
+
+        public LogTraceIterator parseTraceWise(InputStream inputStream, ParsingMode parsingMode) throws ParameterException, ParserException;
+
         public List<LogTrace<LogEntry>> getParsedLog(int index);
 
         public List<LogTrace<LogEntry>> getFirstParsedLog();
@@ -1,6 +1,7 @@
 package de.uni.freiburg.iig.telematik.sewol.parser;
 
 import de.invation.code.toval.file.FileFormat;
+import de.uni.freiburg.iig.telematik.sewol.format.LogFF_Binary;
 import de.uni.freiburg.iig.telematik.sewol.format.LogFF_MXML;
 import de.uni.freiburg.iig.telematik.sewol.format.LogFF_Petrify;
 import de.uni.freiburg.iig.telematik.sewol.format.LogFF_Plain;
@@ -12,7 +13,8 @@ public enum LogParsingFormat {
         MXML(new LogFF_MXML()),
         PETRIFY(new LogFF_Petrify()),
         PLAIN_TAB(new LogFF_Plain()),
-        PLAIN_SPACE(new LogFF_Plain());
+        PLAIN_SPACE(new LogFF_Plain()),
+        BINARY(new LogFF_Binary());
 
         public final FileFormat fileFormat;
 
@@ -0,0 +1,114 @@
+package de.uni.freiburg.iig.telematik.sewol.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import de.invation.code.toval.parser.ParserException;
+import de.invation.code.toval.validate.Validate;
+import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
+import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
+
+/**
+ * <p>
+ * Pull-based iterator over the traces of a log file. In contrast to
+ * {@link LogParserInterface#parse(java.io.InputStream, ParsingMode)}, traces
+ * are read from the underlying source on demand, so that only the trace that
+ * is currently processed has to be kept in memory.
+ * </p>
+ * <p>
+ * The parsing mode is applied while iterating, i.e. in mode
+ * {@link ParsingMode#DISTINCT_ACTIVITY_SEQUENCES} only traces with a new
+ * activity sequence are returned. The underlying source is closed as soon as
+ * the last trace has been read, or explicitly by calling {@link #close()}.
+ * Exceptions that occur while reading are wrapped into a
+ * {@link RuntimeException}.
+ * </p>
+ *
+ * @version 1.0.2
+ * @since 1.0.2
+ */
+public abstract class LogTraceIterator implements Iterator<LogTrace<LogEntry>>, Closeable {
+
+        private final ParsingMode parsingMode;
+        private final Set<List<String>> activitySequences = new HashSet<>();
+        private LogTrace<LogEntry> nextTrace = null;
+        private boolean finished = false;
+
+        protected LogTraceIterator(ParsingMode parsingMode) {
+                Validate.notNull(parsingMode);
+                this.parsingMode = parsingMode;
+        }
+
+        /**
+         * Reads the next trace from the underlying source.
+         *
+         * @return The next trace or <code>null</code> if there are no more
+         * traces.
+         * @throws IOException if the underlying source cannot be read.
+         * @throws ParserException if the content of the source cannot be
+         * interpreted.
+         */
+        protected abstract LogTrace<LogEntry> readNextTrace() throws IOException, ParserException;
+
+        public ParsingMode getParsingMode() {
+                return parsingMode;
+        }
+
+        @Override
+        public boolean hasNext() {
+                if (nextTrace != null) {
+                        return true;
+                }
+                if (finished) {
+                        return false;
+                }
+                try {
+                        LogTrace<LogEntry> candidate;
+                        while ((candidate = readNextTrace()) != null) {
+                                if (accept(candidate)) {
+                                        nextTrace = candidate;
+                                        return true;
+                                }
+                        }
+                        finished = true;
+                        close();
+                        return false;
+                } catch (IOException | ParserException e) {
+                        throw new RuntimeException(e);
+                }
+        }
+
+        @Override
+        public LogTrace<LogEntry> next() {
+                if (!hasNext()) {
+                        throw new NoSuchElementException();
+                }
+                LogTrace<LogEntry> result = nextTrace;
+                nextTrace = null;
+                return result;
+        }
+
+        @Override
+        public void remove() {
+                throw new UnsupportedOperationException();
+        }
+
+        private boolean accept(LogTrace<LogEntry> trace) {
+                switch (parsingMode) {
+                        case DISTINCT_ACTIVITY_SEQUENCES:
+                                if (!activitySequences.add(trace.getActivities())) {
+                                        return false;
+                                }
+                                trace.reduceToActivities();
+                                return true;
+                        case COMPLETE:
+                        default:
+                                return true;
+                }
+        }
+}
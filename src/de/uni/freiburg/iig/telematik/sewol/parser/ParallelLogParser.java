@@ -0,0 +1,324 @@
+package de.uni.freiburg.iig.telematik.sewol.parser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import de.invation.code.toval.parser.ParserException;
+import de.invation.code.toval.validate.ParameterException;
+import de.invation.code.toval.validate.Validate;
+import de.uni.freiburg.iig.telematik.sewol.format.LogCompression;
+import de.uni.freiburg.iig.telematik.sewol.format.MXMLLogFormat;
+import de.uni.freiburg.iig.telematik.sewol.log.DULogEntry;
+import de.uni.freiburg.iig.telematik.sewol.log.DataAttribute;
+import de.uni.freiburg.iig.telematik.sewol.log.LockingException;
+import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
+import de.uni.freiburg.iig.telematik.sewol.log.LogSummary;
+import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
+import de.uni.freiburg.iig.telematik.sewol.parser.mxml.MXMLLogParser;
+import de.uni.freiburg.iig.telematik.sewol.parser.xes.XESLogParser;
+
+/**
+ * <p>
+ * Parser for XES and MXML files that parses independent parts of a file
+ * concurrently.
+ * </p>
+ * <p>
+ * The file is split into trace-aligned chunks (see {@link TraceChunker}), each
+ * of which is parsed by a separate instance of the sequential parser on a
+ * {@link ForkJoinPool}. The traces of all chunks are reassembled in file order,
+ * so that the result is equal to the result of the sequential parser. Since
+ * chunks always start at the beginning of a trace, the first process of a chunk
+ * is the continuation of the last process of the preceding chunk.
+ * </p>
+ * <p>
+ * Input streams cannot be split without reading them completely, so that
+ * {@link #parse(InputStream, ParsingMode)} and
+ * {@link #parseTraceWise(InputStream, ParsingMode)} delegate to the sequential
+ * parser.
+ * </p>
+ *
+ * @version 1.0.2
+ * @since 1.0.2
+ */
+public class ParallelLogParser extends AbstractLogParser {
+
+        /** Lower bound for the size of a chunk in bytes */
+        public static final long MIN_CHUNK_SIZE = 1024 * 1024;
+        /** Number of chunks per thread to balance chunks of different costs */
+        public static final int CHUNKS_PER_THREAD = 4;
+
+        private final LogParsingFormat format;
+        private final ForkJoinPool pool;
+        private final long chunkSize;
+
+        /**
+         * Creates a new parallel parser for the given format that uses the
+         * common pool and derives the chunk size from the file size.
+         *
+         * @param format Format of the files to parse, either
+         * {@link LogParsingFormat#XES} or {@link LogParsingFormat#MXML}.
+         */
+        public ParallelLogParser(LogParsingFormat format) {
+                this(format, ForkJoinPool.commonPool());
+        }
+
+        /**
+         * Creates a new parallel parser for the given format that uses the
+         * given pool and derives the chunk size from the file size.
+         *
+         * @param format Format of the files to parse, either
+         * {@link LogParsingFormat#XES} or {@link LogParsingFormat#MXML}.
+         * @param pool Pool to run the parsing tasks on.
+         */
+        public ParallelLogParser(LogParsingFormat format, ForkJoinPool pool) {
+                this(format, pool, 0);
+        }
+
+        /**
+         * Creates a new parallel parser for the given format.
+         *
+         * @param format Format of the files to parse, either
+         * {@link LogParsingFormat#XES} or {@link LogParsingFormat#MXML}.
+         * @param pool Pool to run the parsing tasks on.
+         * @param chunkSize Approximate size of a chunk in bytes or
+         * <code>0</code> to derive the chunk size from the file size and the
+         * parallelism of the pool.
+         */
+        public ParallelLogParser(LogParsingFormat format, ForkJoinPool pool, long chunkSize) {
+                Validate.notNull(format);
+                Validate.notNull(pool);
+                Validate.notNegative(chunkSize);
+                if (format != LogParsingFormat.XES && format != LogParsingFormat.MXML) {
+                        throw new ParameterException("Parallel parsing is only supported for XES and MXML files.");
+                }
+                this.format = format;
+                this.pool = pool;
+                this.chunkSize = chunkSize;
+        }
+
+        public LogParsingFormat getFormat() {
+                return format;
+        }
+
+        public ForkJoinPool getPool() {
+                return pool;
+        }
+
+        private AbstractLogParser createSequentialParser() {
+                AbstractLogParser parser;
+                switch (format) {
+                        case MXML:
+                                parser = new MXMLLogParser();
+                                break;
+                        case XES:
+                        default:
+                                parser = new XESLogParser();
+                                break;
+                }
+                parser.setSymbolTableCapacity(getSymbolTableCapacity());
+                return parser;
+        }
+
+        private String getTraceElement() {
+                switch (format) {
+                        case MXML:
+                                return MXMLLogFormat.ELEMENT_TRACE;
+                        case XES:
+                        default:
+                                return "trace";
+                }
+        }
+
+        private long getChunkSize(File file) {
+                if (chunkSize > 0) {
+                        return chunkSize;
+                }
+                return Math.max(MIN_CHUNK_SIZE, file.length() / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        }
+
+        @Override
+        public List<List<LogTrace<LogEntry>>> parse(String filePath, ParsingMode parsingMode) throws ParameterException, ParserException {
+                Validate.notNull(filePath);
+                return parse(new File(filePath), parsingMode);
+        }
+
+        /**
+         * Parses the given file by splitting it into trace-aligned chunks that
+         * are parsed concurrently.
+         *
+         * @param file File to parse
+         * @param parsingMode
+         * @return Collection of processes, which consist of a collection of
+         * instances, which again consist of a collection of {@link LogTrace}
+         * objects.
+         * @throws ParameterException Gets thrown if the file can't be read.
+         * @throws ParserException Gets thrown if a chunk cannot be parsed.
+         */
+        @Override
+        public List<List<LogTrace<LogEntry>>> parse(File file, ParsingMode parsingMode) throws ParameterException, ParserException {
+                Validate.noDirectory(file);
+                Validate.notNull(parsingMode);
+                if (!file.canRead()) {
+                        throw new ParameterException("Unable to read input file!");
+                }
+
+                final TraceChunker chunker;
+                try {
+                        if (LogCompression.isCompressed(file)) {
+                                // Compressed files cannot be split without decompressing them.
+                                return parse(LogCompression.openInputStream(file), parsingMode);
+                        }
+                        chunker = new TraceChunker(file, getTraceElement(), getChunkSize(file));
+                } catch (IOException e) {
+                        throw new ParserException(e);
+                }
+                if (chunker.getChunkCount() < 2) {
+                        try {
+                                return parse(new FileInputStream(file), parsingMode);
+                        } catch (FileNotFoundException e) {
+                                throw new ParserException(e);
+                        }
+                }
+
+                List<ForkJoinTask<List<List<LogTrace<LogEntry>>>>> tasks = new ArrayList<>(chunker.getChunkCount());
+                for (int i = 0; i < chunker.getChunkCount(); i++) {
+                        final int index = i;
+                        tasks.add(pool.submit(new Callable<List<List<LogTrace<LogEntry>>>>() {
+                                @Override
+                                public List<List<LogTrace<LogEntry>>> call() throws Exception {
+                                        try (InputStream chunk = chunker.getChunk(index)) {
+                                                AbstractLogParser parser = createSequentialParser();
+                                                return parser.parse(chunk, ParsingMode.COMPLETE);
+                                        }
+                                }
+                        }));
+                }
+
+                List<List<LogTrace<LogEntry>>> logs = new ArrayList<>();
+                try {
+                        for (ForkJoinTask<List<List<LogTrace<LogEntry>>>> task : tasks) {
+                                List<List<LogTrace<LogEntry>>> chunkLogs = task.get();
+                                for (int i = 0; i < chunkLogs.size(); i++) {
+                                        if (i == 0 && !logs.isEmpty()) {
+                                                logs.get(logs.size() - 1).addAll(chunkLogs.get(0));
+                                        } else {
+                                                logs.add(chunkLogs.get(i));
+                                        }
+                                }
+                        }
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new ParserException(e);
+                } catch (ExecutionException e) {
+                        if (e.getCause() instanceof ParserException) {
+                                throw (ParserException) e.getCause();
+                        }
+                        throw new ParserException(e);
+                } finally {
+                        for (ForkJoinTask<?> task : tasks) {
+                                task.cancel(false);
+                        }
+                }
+
+                // The chunks are parsed with separate symbol tables, so that
+                // equal names of different chunks are separate instances until
+                // they are canonicalized again against a single table, which
+                // then also holds the statistics of the whole file.
+                SymbolTable symbols = newSymbolTable();
+                for (List<LogTrace<LogEntry>> log : logs) {
+                        for (LogTrace<LogEntry> trace : log) {
+                                for (LogEntry entry : trace.getEntries()) {
+                                        recanonicalize(entry, symbols);
+                                }
+                        }
+                }
+
+                parsedLogFiles = new ArrayList<>(logs.size());
+                summaries.clear();
+                for (List<LogTrace<LogEntry>> log : logs) {
+                        List<LogTrace<LogEntry>> logTraces = applyParsingMode(log, parsingMode);
+                        parsedLogFiles.add(logTraces);
+                        summaries.add(new LogSummary<>(logTraces));
+                }
+                return parsedLogFiles;
+        }
+
+        /**
+         * Replaces the names of the given entry by their canonical instances
+         * of the given table.
+         */
+        private static void recanonicalize(LogEntry entry, SymbolTable symbols) throws ParserException {
+                try {
+                        if (entry.getActivity() != null) {
+                                entry.setActivity(symbols.recanonicalize(entry.getActivity()));
+                        }
+                        if (entry.getOriginator() != null) {
+                                entry.setOriginator(symbols.recanonicalize(entry.getOriginator()));
+                        }
+                        if (entry.getRole() != null) {
+                                entry.setRole(symbols.recanonicalize(entry.getRole()));
+                        }
+                } catch (LockingException e) {
+                        throw new ParserException(e);
+                }
+                // The names do not change their values, so that the hash codes
+                // of the attributes within their sets stay the same.
+                for (DataAttribute attribute : entry.getMetaAttributes()) {
+                        attribute.name = symbols.recanonicalize(attribute.name);
+                }
+                if (entry instanceof DULogEntry) {
+                        for (DataAttribute attribute : ((DULogEntry) entry).getDataAttributes()) {
+                                attribute.name = symbols.recanonicalize(attribute.name);
+                        }
+                }
+        }
+
+        private static List<LogTrace<LogEntry>> applyParsingMode(List<LogTrace<LogEntry>> log, ParsingMode parsingMode) {
+                switch (parsingMode) {
+                        case DISTINCT_ACTIVITY_SEQUENCES:
+                                Set<List<String>> activitySequencesSet = new HashSet<>();
+                                List<LogTrace<LogEntry>> logTraces = new ArrayList<>();
+                                for (LogTrace<LogEntry> logTrace : log) {
+                                        if (activitySequencesSet.add(logTrace.getActivities())) {
+                                                logTrace.reduceToActivities();
+                                                logTraces.add(logTrace);
+                                        }
+                                }
+                                return logTraces;
+                        case COMPLETE:
+                        default:
+                                return log;
+                }
+        }
+
+        @Override
+        public List<List<LogTrace<LogEntry>>> parse(InputStream inputStream, ParsingMode parsingMode) throws ParameterException, ParserException {
+                AbstractLogParser parser = createSequentialParser();
+                parsedLogFiles = parser.parse(inputStream, parsingMode);
+                symbolTable = parser.getSymbolTable();
+                summaries.clear();
+                for (int i = 0; i < parsedLogFiles.size(); i++) {
+                        summaries.add(parser.getSummary(i));
+                }
+                return parsedLogFiles;
+        }
+
+        @Override
+        public LogTraceIterator parseTraceWise(InputStream inputStream, ParsingMode parsingMode) throws ParameterException, ParserException {
+                AbstractLogParser parser = createSequentialParser();
+                LogTraceIterator iterator = parser.parseTraceWise(inputStream, parsingMode);
+                symbolTable = parser.getSymbolTable();
+                return iterator;
+        }
+}
@@ -19,6 +19,13 @@ public enum ParserDateFormat {
         public final static String DEFAULT_MXML_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
         public final static String MXML_WITHOUT_MILIS_FORMAT = "yyyy-MM-dd'T'HH:mm:ssZ";
 
+        private final ThreadLocal<DateFormat> cachedDateFormat = new ThreadLocal<DateFormat>() {
+                @Override
+                protected DateFormat initialValue() {
+                        return getDateFormat(ParserDateFormat.this);
+                }
+        };
+
         /**
          * Returns the date format string that belongs to the ParserDateFormat.
          *
@@ -47,4 +54,19 @@ public enum ParserDateFormat {
         public static DateFormat getDateFormat(ParserDateFormat pdf) {
                 return new SimpleDateFormat(getFormatString(pdf));
         }
+
+        /**
+         * Returns a cached {@link DateFormat} that belongs to the
+         * ParserDateFormat.<br>
+         * As {@link SimpleDateFormat} is not thread-safe, each thread gets its
+         * own instance. The returned instance must therefore not be passed to
+         * other threads.
+         *
+         * @param pdf
+         * @return
+         */
+        public static DateFormat getCachedDateFormat(ParserDateFormat pdf) {
+                Validate.notNull(pdf);
+                return pdf.cachedDateFormat.get();
+        }
 }
@@ -0,0 +1,245 @@
+package de.uni.freiburg.iig.telematik.sewol.parser;
+
+import de.invation.code.toval.validate.Validate;
+
+/**
+ * <p>
+ * Bounded table of canonical strings, used by the parsers to let all
+ * occurrences of an activity, originator, role or attribute name share one
+ * string instance.
+ * </p>
+ * <p>
+ * In contrast to {@link String#intern()}, the table is local to a parser run,
+ * so that its strings can be garbage collected together with the parsed log
+ * and concurrent parser runs do not contend for the JVM string pool. Once the
+ * table contains the maximum number of symbols, further strings are returned
+ * unchanged, so that logs with many distinct values cannot grow the table
+ * without bounds.
+ * </p>
+ * <p>
+ * The table counts lookups and hits and estimates the number of bytes saved
+ * by returning a canonical string instead of a new one. The estimate assumes
+ * strings backed by a <code>char</code> array and compressed object pointers.
+ * Instances of this class are not thread-safe.
+ * </p>
+ *
+ * @version 1.0.2
+ * @since 1.0.2
+ */
+public class SymbolTable {
+
+        /**
+         * Default maximum number of symbols.
+         */
+        public static final int DEFAULT_CAPACITY = 1 << 16;
+
+        private static final int INITIAL_TABLE_SIZE = 64;
+        /** Size of a string object without its character array */
+        private static final int STRING_SIZE = 24;
+        /** Size of the header of an array */
+        private static final int ARRAY_HEADER_SIZE = 16;
+
+        private final int capacity;
+        private String[] symbols = new String[INITIAL_TABLE_SIZE];
+        private int size = 0;
+
+        private long lookups = 0;
+        private long hits = 0;
+        private long bytesSaved = 0;
+
+        /**
+         * Creates a new symbol table with the default capacity.
+         */
+        public SymbolTable() {
+                this(DEFAULT_CAPACITY);
+        }
+
+        /**
+         * Creates a new symbol table.
+         *
+         * @param capacity Maximum number of symbols.
+         */
+        public SymbolTable(int capacity) {
+                Validate.positive(capacity);
+                this.capacity = capacity;
+        }
+
+        /**
+         * Returns the canonical instance of the given string. If the table
+         * does not contain an equal string yet, the given string becomes the
+         * canonical instance, as long as the capacity is not exhausted.
+         *
+         * @param value The string to look up.
+         * @return The canonical instance or <code>null</code> if the given
+         * string is <code>null</code>.
+         */
+        public String canonicalize(String value) {
+                if (value == null) {
+                        return null;
+                }
+                lookups++;
+                int hash = value.hashCode();
+                int mask = symbols.length - 1;
+                int index = spread(hash) & mask;
+                String symbol;
+                while ((symbol = symbols[index]) != null) {
+                        if (symbol.hashCode() == hash && symbol.equals(value)) {
+                                hits++;
+                                if (symbol != value) {
+                                        bytesSaved += stringSize(value.length());
+                                }
+                                return symbol;
+                        }
+                        index = (index + 1) & mask;
+                }
+                insert(index, value);
+                return value;
+        }
+
+        /**
+         * Returns the canonical instance of the string with the given
+         * characters. A new string is only created if the table does not
+         * contain an equal string yet.
+         *
+         * @param value The characters to look up.
+         * @return The canonical instance or <code>null</code> if the given
+         * characters are <code>null</code>.
+         */
+        public String canonicalize(CharSequence value) {
+                if (value == null) {
+                        return null;
+                }
+                lookups++;
+                int hash = hashCode(value);
+                int mask = symbols.length - 1;
+                int index = spread(hash) & mask;
+                String symbol;
+                while ((symbol = symbols[index]) != null) {
+                        if (symbol.hashCode() == hash && symbol.contentEquals(value)) {
+                                hits++;
+                                bytesSaved += stringSize(value.length());
+                                return symbol;
+                        }
+                        index = (index + 1) & mask;
+                }
+                String string = value.toString();
+                insert(index, string);
+                return string;
+        }
+
+        /**
+         * Returns the canonical instance of the given string like
+         * {@link #canonicalize(String)}, but counts the bytes of every hit as
+         * saved, even if the given string already is the canonical instance.
+         * Used to canonicalize strings again that have been canonicalized by
+         * other tables, e.g. the ones of concurrent parser runs, so that the
+         * statistics of this table cover all of them.
+         *
+         * @param value The string to look up.
+         * @return The canonical instance or <code>null</code> if the given
+         * string is <code>null</code>.
+         */
+        public String recanonicalize(String value) {
+                // The lookup of character sequences counts every hit and
+                // keeps the given string if it becomes the canonical one.
+                return canonicalize((CharSequence) value);
+        }
+
+        private void insert(int index, String value) {
+                if (size >= capacity) {
+                        return;
+                }
+                symbols[index] = value;
+                size++;
+                if (size * 2 > symbols.length) {
+                        rehash(symbols.length * 2);
+                }
+        }
+
+        private void rehash(int tableSize) {
+                String[] oldSymbols = symbols;
+                symbols = new String[tableSize];
+                int mask = tableSize - 1;
+                for (String symbol : oldSymbols) {
+                        if (symbol != null) {
+                                int index = spread(symbol.hashCode()) & mask;
+                                while (symbols[index] != null) {
+                                        index = (index + 1) & mask;
+                                }
+                                symbols[index] = symbol;
+                        }
+                }
+        }
+
+        private static int spread(int hash) {
+                return hash ^ (hash >>> 16);
+        }
+
+        /**
+         * Computes the hash code of the characters like
+         * {@link String#hashCode()}.
+         */
+        private static int hashCode(CharSequence value) {
+                int hash = 0;
+                for (int i = 0; i < value.length(); i++) {
+                        hash = 31 * hash + value.charAt(i);
+                }
+                return hash;
+        }
+
+        private static long stringSize(int length) {
+                return STRING_SIZE + ((ARRAY_HEADER_SIZE + 2L * length + 7) & ~7L);
+        }
+
+        /**
+         * @return The number of symbols in the table.
+         */
+        public int size() {
+                return size;
+        }
+
+        /**
+         * @return The maximum number of symbols.
+         */
+        public int getCapacity() {
+                return capacity;
+        }
+
+        /**
+         * @return The number of strings that have been looked up.
+         */
+        public long getLookupCount() {
+                return lookups;
+        }
+
+        /**
+         * @return The number of lookups that returned a string of the table.
+         */
+        public long getHitCount() {
+                return hits;
+        }
+
+        /**
+         * @return The share of lookups that returned a string of the table,
+         * between 0 and 1.
+         */
+        public double getDeduplicationRatio() {
+                if (lookups == 0) {
+                        return 0.0;
+                }
+                return (double) hits / lookups;
+        }
+
+        /**
+         * @return The estimated number of bytes of duplicate strings that are
+         * not retained because of the table.
+         */
+        public long getBytesSaved() {
+                return bytesSaved;
+        }
+
+        @Override
+        public String toString() {
+                return String.format("SymbolTable{symbols=%d, lookups=%d, hits=%d, deduplication=%.1f%%, bytesSaved=%d}", size, lookups, hits, getDeduplicationRatio() * 100, bytesSaved);
+        }
+}
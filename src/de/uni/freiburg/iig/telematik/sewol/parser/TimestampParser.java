@@ -0,0 +1,259 @@
+package de.uni.freiburg.iig.telematik.sewol.parser;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * <p>
+ * Parser for the timestamps of MXML and XES files.
+ * </p>
+ * <p>
+ * Timestamps in the ISO-8601 / xs:dateTime notation
+ * <code>yyyy-MM-dd'T'HH:mm:ss[.fraction][zone]</code> are parsed by a
+ * hand-written parser that neither uses regular expressions nor creates
+ * intermediate objects. The zone can be <code>Z</code>, <code>+HH:mm</code>,
+ * <code>+HHmm</code> or <code>+HH</code>. Timestamps without zone are
+ * interpreted in the default time zone. The fraction of a second is
+ * interpreted as decimal fraction, digits behind the milliseconds are
+ * ignored.
+ * </p>
+ * <p>
+ * Timestamps that do not match this notation are parsed with the formats of
+ * {@link ParserDateFormat}, starting with the format that matched last.
+ * Instances of this class are therefore not thread-safe and should be used by
+ * one parser at a time.
+ * </p>
+ *
+ * @version 1.0.2
+ * @since 1.0.2
+ */
+public class TimestampParser {
+
+        private static final String TIMESTAMP_ENDING_PATTERN = ":(\\d\\d)$";
+
+        private static final long MILLIS_PER_SECOND = 1000L;
+        private static final long MILLIS_PER_MINUTE = 60 * MILLIS_PER_SECOND;
+        private static final long MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+        private static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+
+        /** Sentinel returned by {@link #parseMillis(String)} for invalid input */
+        private static final long INVALID = Long.MIN_VALUE;
+
+        private ParserDateFormat lastFormat = null;
+
+        /**
+         * Parses the given timestamp.
+         *
+         * @param value The timestamp to parse.
+         * @return The parsed date or <code>null</code> if the timestamp can
+         * be interpreted neither as ISO-8601 nor with one of the formats of
+         * {@link ParserDateFormat}.
+         */
+        public Date parse(String value) {
+                if (value == null || value.isEmpty()) {
+                        return null;
+                }
+                long millis = parseMillis(value);
+                if (millis != INVALID) {
+                        return new Date(millis);
+                }
+                return parseWithDateFormats(value);
+        }
+
+        /**
+         * Parses the given timestamp with the formats of
+         * {@link ParserDateFormat}. The format that matched last is tried
+         * first.
+         */
+        private Date parseWithDateFormats(String value) {
+                String sanitizedValue = value.trim().replaceAll(TIMESTAMP_ENDING_PATTERN, "$1");
+                if (lastFormat != null) {
+                        try {
+                                return ParserDateFormat.getCachedDateFormat(lastFormat).parse(sanitizedValue);
+                        } catch (ParseException e) {
+                                // try the other formats
+                        }
+                }
+                for (ParserDateFormat pdf : ParserDateFormat.values()) {
+                        if (pdf == lastFormat) {
+                                continue;
+                        }
+                        try {
+                                Date date = ParserDateFormat.getCachedDateFormat(pdf).parse(sanitizedValue);
+                                lastFormat = pdf;
+                                return date;
+                        } catch (ParseException e) {
+                                // is allowed to happen
+                        }
+                }
+                return null;
+        }
+
+        /**
+         * Parses a timestamp in ISO-8601 / xs:dateTime notation.
+         *
+         * @param value The timestamp to parse.
+         * @return The parsed date or <code>null</code> if the timestamp is not
+         * in ISO-8601 notation.
+         */
+        public static Date parseISO8601(String value) {
+                if (value == null) {
+                        return null;
+                }
+                long millis = parseMillis(value);
+                return millis != INVALID ? new Date(millis) : null;
+        }
+
+        /**
+         * @return The milliseconds since the epoch or {@link #INVALID}.
+         */
+        private static long parseMillis(String value) {
+                int start = 0;
+                int end = value.length();
+                while (start < end && value.charAt(start) <= ' ') {
+                        start++;
+                }
+                while (end > start && value.charAt(end - 1) <= ' ') {
+                        end--;
+                }
+
+                // Date: the year has at least four digits
+                int pos = start;
+                while (pos < end && isDigit(value.charAt(pos))) {
+                        pos++;
+                }
+                if (pos - start < 4 || pos - start > 9) {
+                        return INVALID;
+                }
+                int year = digits(value, start, pos);
+                if (!isChar(value, pos, end, '-')) {
+                        return INVALID;
+                }
+                int month = digits(value, pos + 1, pos + 3, end);
+                if (month < 1 || month > 12 || !isChar(value, pos + 3, end, '-')) {
+                        return INVALID;
+                }
+                int day = digits(value, pos + 4, pos + 6, end);
+                if (day < 1 || day > 31 || !isChar(value, pos + 6, end, 'T')) {
+                        return INVALID;
+                }
+
+                // Time
+                pos += 7;
+                int hour = digits(value, pos, pos + 2, end);
+                if (hour < 0 || hour > 24 || !isChar(value, pos + 2, end, ':')) {
+                        return INVALID;
+                }
+                int minute = digits(value, pos + 3, pos + 5, end);
+                if (minute < 0 || minute > 59 || !isChar(value, pos + 5, end, ':')) {
+                        return INVALID;
+                }
+                int second = digits(value, pos + 6, pos + 8, end);
+                if (second < 0 || second > 60) {
+                        return INVALID;
+                }
+                pos += 8;
+
+                // Fraction of a second
+                int millis = 0;
+                boolean zeroFraction = true;
+                if (isChar(value, pos, end, '.') || isChar(value, pos, end, ',')) {
+                        pos++;
+                        int fractionStart = pos;
+                        int factor = 100;
+                        while (pos < end && isDigit(value.charAt(pos))) {
+                                millis += factor * (value.charAt(pos) - '0');
+                                zeroFraction &= value.charAt(pos) == '0';
+                                factor /= 10;
+                                pos++;
+                        }
+                        if (pos == fractionStart) {
+                                return INVALID;
+                        }
+                }
+                // 24:00:00 denotes the end of the day, any later time is invalid
+                if (hour == 24 && (minute != 0 || second != 0 || !zeroFraction)) {
+                        return INVALID;
+                }
+
+                long localMillis = daysFromCivil(year, month, day) * MILLIS_PER_DAY
+                        + hour * MILLIS_PER_HOUR
+                        + minute * MILLIS_PER_MINUTE
+                        + second * MILLIS_PER_SECOND
+                        + millis;
+
+                // Zone
+                if (pos == end) {
+                        TimeZone timeZone = TimeZone.getDefault();
+                        return localMillis - timeZone.getOffset(localMillis - timeZone.getRawOffset());
+                }
+                char zone = value.charAt(pos);
+                if (zone == 'Z' || zone == 'z') {
+                        return pos + 1 == end ? localMillis : INVALID;
+                }
+                if (zone != '+' && zone != '-') {
+                        return INVALID;
+                }
+                int offsetHours = digits(value, pos + 1, pos + 3, end);
+                int offsetMinutes = 0;
+                pos += 3;
+                if (isChar(value, pos, end, ':')) {
+                        pos++;
+                }
+                if (pos < end) {
+                        offsetMinutes = digits(value, pos, pos + 2, end);
+                        pos += 2;
+                }
+                if (offsetHours < 0 || offsetHours > 18 || offsetMinutes < 0 || offsetMinutes > 59 || pos != end) {
+                        return INVALID;
+                }
+                long offset = offsetHours * MILLIS_PER_HOUR + offsetMinutes * MILLIS_PER_MINUTE;
+                return zone == '+' ? localMillis - offset : localMillis + offset;
+        }
+
+        /**
+         * Returns the number of days between 1970-01-01 and the given date of
+         * the proleptic Gregorian calendar.
+         */
+        private static long daysFromCivil(long year, int month, int day) {
+                year -= month <= 2 ? 1 : 0;
+                long era = (year >= 0 ? year : year - 399) / 400;
+                long yearOfEra = year - era * 400;
+                long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+                long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+                return era * 146097 + dayOfEra - 719468;
+        }
+
+        private static boolean isDigit(char c) {
+                return c >= '0' && c <= '9';
+        }
+
+        private static boolean isChar(String value, int pos, int end, char c) {
+                return pos < end && value.charAt(pos) == c;
+        }
+
+        /**
+         * @return The value of the digits in the given range or
+         * <code>-1</code> if the range exceeds the end or contains other
+         * characters.
+         */
+        private static int digits(String value, int from, int to, int end) {
+                if (to > end) {
+                        return -1;
+                }
+                return digits(value, from, to);
+        }
+
+        private static int digits(String value, int from, int to) {
+                int result = 0;
+                for (int i = from; i < to; i++) {
+                        char c = value.charAt(i);
+                        if (!isDigit(c)) {
+                                return -1;
+                        }
+                        result = result * 10 + (c - '0');
+                }
+                return result;
+        }
+}
@@ -0,0 +1,108 @@
+package de.uni.freiburg.iig.telematik.sewol.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.invation.code.toval.validate.Validate;
+
+/**
+ * <p>
+ * Splits XML log files into trace-aligned byte ranges.
+ * </p>
+ * <p>
+ * The file is scanned once for start and end tags of the given trace element
+ * (see {@link TraceScanner}). Everything before the first trace start is
+ * treated as header and everything behind the last trace end as footer. The traces in between are split into
+ * chunks of approximately the requested size, where each chunk starts at the
+ * beginning of a trace. A chunk together with the header and the footer forms
+ * a well-formed document, as long as the trace element name does not occur
+ * inside comments or CDATA sections.
+ * </p>
+ *
+ * @version 1.0.2
+ * @since 1.0.2
+ */
+class TraceChunker {
+
+        private final File file;
+        private final String traceElement;
+        private final long chunkSize;
+
+        private final List<Long> boundaries = new ArrayList<>();
+        private final List<ByteBuffer> chunks = new ArrayList<>();
+        private long lastTraceEnd = -1;
+        private ByteBuffer header = null;
+        private ByteBuffer footer = null;
+
+        /**
+         * Creates a new chunker and scans the given file for trace
+         * boundaries.
+         *
+         * @param file The XML file to split
+         * @param traceElement Name of the element enclosing a single trace
+         * @param chunkSize Approximate size of a chunk in bytes
+         * @throws IOException if the file cannot be read.
+         */
+        TraceChunker(File file, String traceElement, long chunkSize) throws IOException {
+                Validate.noDirectory(file);
+                Validate.notEmpty(traceElement);
+                Validate.positive(chunkSize);
+                this.file = file;
+                this.traceElement = traceElement;
+                this.chunkSize = chunkSize;
+                scan();
+        }
+
+        private void scan() throws IOException {
+                try (TraceScanner scanner = TraceScanner.forFile(file, traceElement)) {
+                        long lastBoundary = -chunkSize;
+                        long traceStart;
+                        while ((traceStart = scanner.nextTraceStart()) != -1) {
+                                if (traceStart - lastBoundary >= chunkSize) {
+                                        boundaries.add(traceStart);
+                                        lastBoundary = traceStart;
+                                }
+                        }
+                        lastTraceEnd = scanner.getLastTraceEnd();
+                        if (!hasTraces()) {
+                                return;
+                        }
+                        header = scanner.slice(0, boundaries.get(0));
+                        for (int i = 0; i < boundaries.size(); i++) {
+                                long end = i + 1 < boundaries.size() ? boundaries.get(i + 1) : lastTraceEnd;
+                                chunks.add(scanner.slice(boundaries.get(i), end));
+                        }
+                        footer = scanner.slice(lastTraceEnd, file.length());
+                }
+        }
+
+        /**
+         * @return <code>true</code> if at least one complete trace has been
+         * found in the file.
+         */
+        boolean hasTraces() {
+                return !boundaries.isEmpty() && lastTraceEnd > boundaries.get(0);
+        }
+
+        /**
+         * @return The number of chunks the file has been split into.
+         */
+        int getChunkCount() {
+                return hasTraces() ? boundaries.size() : 0;
+        }
+
+        /**
+         * Returns a stream containing the header, the traces of the chunk with
+         * the given index and the footer of the file. The traces are read
+         * directly from the memory-mapped file.
+         *
+         * @param index Index of the chunk
+         * @return A well-formed document containing the traces of the chunk.
+         */
+        LogFragment getChunk(int index) {
+                return new LogFragment(header, chunks.get(index), footer);
+        }
+}
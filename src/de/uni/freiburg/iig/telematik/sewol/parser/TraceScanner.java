@@ -0,0 +1,248 @@
+package de.uni.freiburg.iig.telematik.sewol.parser;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import de.invation.code.toval.validate.Validate;
+
+/**
+ * <p>
+ * Locates the boundaries of trace elements in the bytes of an XML log without
+ * parsing the document.
+ * </p>
+ * <p>
+ * A trace start is the offset of a start tag of the trace element (e.g.
+ * "&lt;trace" followed by whitespace, '&gt;' or '/'), a trace end the offset
+ * behind the corresponding end tag. The scanner works on raw bytes and does
+ * not depend on line breaks. Occurrences of the tags within comments or CDATA
+ * sections are not distinguished from real ones.
+ * </p>
+ * <p>
+ * Offsets are absolute positions in the log. Byte ranges between them can be
+ * obtained with {@link #slice(long, long)}, which has to be called with
+ * increasing offsets for scanners that work on streams.
+ * </p>
+ *
+ * @version 1.0.2
+ * @since 1.0.2
+ */
+abstract class TraceScanner implements Closeable {
+
+        private final byte[] startTag;
+        private final byte[] endTag;
+        private int startMatched = 0;
+        private int endMatched = 0;
+        private long lastTraceEnd = -1;
+
+        protected TraceScanner(String traceElement) {
+                Validate.notEmpty(traceElement);
+                startTag = ("<" + traceElement).getBytes(StandardCharsets.US_ASCII);
+                endTag = ("</" + traceElement + ">").getBytes(StandardCharsets.US_ASCII);
+        }
+
+        /**
+         * Creates a scanner that works on a memory-mapped view of the given
+         * file.
+         */
+        static TraceScanner forFile(File file, String traceElement) throws IOException {
+                return new MappedTraceScanner(file, traceElement);
+        }
+
+        /**
+         * Creates a scanner that reads the given stream. Bytes are buffered
+         * until they are handed out by {@link #slice(long, long)}.
+         */
+        static TraceScanner forStream(InputStream inputStream, String traceElement) {
+                return new StreamTraceScanner(inputStream, traceElement);
+        }
+
+        /**
+         * @return The next byte of the log or <code>-1</code> if the end is
+         * reached.
+         */
+        protected abstract int nextByte() throws IOException;
+
+        /**
+         * @return The offset of the byte that will be returned by the next
+         * call of {@link #nextByte()}.
+         */
+        protected abstract long position();
+
+        /**
+         * Returns the bytes in the given range of the log. The returned
+         * buffer is not copied for file based scanners.
+         *
+         * @param start Offset of the first byte
+         * @param end Offset behind the last byte
+         * @return Buffer whose remaining bytes are the requested range.
+         * @throws IOException if the range cannot be read.
+         */
+        abstract ByteBuffer slice(long start, long end) throws IOException;
+
+        /**
+         * Scans the log up to the next trace start.
+         *
+         * @return The offset of the next trace start or <code>-1</code> if
+         * there are no further traces.
+         * @throws IOException if the log cannot be read.
+         */
+        long nextTraceStart() throws IOException {
+                int b;
+                while ((b = nextByte()) != -1) {
+                        // Make sure the element name is complete, e.g. "<trace" but not "<traces".
+                        boolean traceStart = startMatched == startTag.length
+                                && (b == '>' || b == '/' || b == ' ' || b == '\t' || b == '\r' || b == '\n');
+                        if (startMatched == startTag.length) {
+                                startMatched = 0;
+                        }
+                        startMatched = match(startTag, startMatched, b);
+                        endMatched = match(endTag, endMatched, b);
+                        if (endMatched == endTag.length) {
+                                lastTraceEnd = position();
+                                endMatched = 0;
+                        }
+                        if (traceStart) {
+                                // the delimiter behind the tag has already been consumed
+                                return position() - 1 - startTag.length;
+                        }
+                }
+                return -1;
+        }
+
+        /**
+         * @return The offset behind the last trace end tag that has been
+         * scanned so far or <code>-1</code> if there is none.
+         */
+        long getLastTraceEnd() {
+                return lastTraceEnd;
+        }
+
+        /**
+         * Advances the matching position of a tag by one byte. Since tags start
+         * with '&lt;', which does not occur a second time within the tag, a
+         * mismatch can only start a new match if the byte is a '&lt;'.
+         */
+        private static int match(byte[] tag, int matched, int b) {
+                if (tag[matched] == b) {
+                        return matched + 1;
+                }
+                return b == tag[0] ? 1 : 0;
+        }
+
+        private static class MappedTraceScanner extends TraceScanner {
+
+                /** Maximum number of bytes mapped at once while scanning */
+                private static final int WINDOW_SIZE = 1 << 26;
+
+                private final FileChannel channel;
+                private final long size;
+                private MappedByteBuffer window = null;
+                private long windowStart = 0;
+                private long position = 0;
+
+                MappedTraceScanner(File file, String traceElement) throws IOException {
+                        super(traceElement);
+                        Validate.noDirectory(file);
+                        channel = new RandomAccessFile(file, "r").getChannel();
+                        size = channel.size();
+                }
+
+                @Override
+                protected int nextByte() throws IOException {
+                        if (position >= size) {
+                                return -1;
+                        }
+                        if (window == null || position >= windowStart + window.limit()) {
+                                windowStart = position;
+                                window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(WINDOW_SIZE, size - windowStart));
+                        }
+                        return window.get((int) (position++ - windowStart)) & 0xFF;
+                }
+
+                @Override
+                protected long position() {
+                        return position;
+                }
+
+                @Override
+                ByteBuffer slice(long start, long end) throws IOException {
+                        if (window != null && start >= windowStart && end <= windowStart + window.limit()) {
+                                ByteBuffer slice = window.duplicate();
+                                slice.limit((int) (end - windowStart));
+                                slice.position((int) (start - windowStart));
+                                return slice.slice();
+                        }
+                        // Mapped buffers stay valid after the channel has been closed.
+                        return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                }
+
+                @Override
+                public void close() throws IOException {
+                        channel.close();
+                }
+        }
+
+        private static class StreamTraceScanner extends TraceScanner {
+
+                private final InputStream inputStream;
+                private byte[] buffer = new byte[1 << 16];
+                private int length = 0;
+                private long bufferStart = 0;
+
+                StreamTraceScanner(InputStream inputStream, String traceElement) {
+                        super(traceElement);
+                        Validate.notNull(inputStream);
+                        this.inputStream = new BufferedInputStream(inputStream, 1 << 16);
+                }
+
+                @Override
+                protected int nextByte() throws IOException {
+                        int b = inputStream.read();
+                        if (b == -1) {
+                                return -1;
+                        }
+                        if (length == buffer.length) {
+                                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                        }
+                        buffer[length++] = (byte) b;
+                        return b;
+                }
+
+                @Override
+                protected long position() {
+                        return bufferStart + length;
+                }
+
+                /**
+                 * Copies the given range out of the buffer and discards all
+                 * buffered bytes in front of the end of the range.
+                 */
+                @Override
+                ByteBuffer slice(long start, long end) {
+                        if (start < bufferStart || end > position()) {
+                                throw new IllegalStateException("Range is not buffered anymore.");
+                        }
+                        int from = (int) (start - bufferStart);
+                        int to = (int) (end - bufferStart);
+                        ByteBuffer slice = ByteBuffer.wrap(Arrays.copyOfRange(buffer, from, to));
+                        System.arraycopy(buffer, to, buffer, 0, length - to);
+                        length -= to;
+                        bufferStart = end;
+                        return slice;
+                }
+
+                @Override
+                public void close() throws IOException {
+                        inputStream.close();
+                }
+        }
+}
@@ -1,9 +1,12 @@
 package de.uni.freiburg.iig.telematik.sewol.parser;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 
-import de.invation.code.toval.file.FileReader;
 import de.invation.code.toval.validate.ParameterException;
 import de.invation.code.toval.validate.Validate;
 
@@ -12,6 +15,9 @@ import de.invation.code.toval.validate.Validate;
  * The TraceWiseXesIterator is an {@link Iterator} implementation that splits large XES files into smaller ones. For not keeping the whole document in memory, the source file gets streamed.
  * </p>
  * <p>
+ * Trace boundaries are located on the raw bytes of the document (see {@link TraceScanner}). Log files are memory-mapped, so that each {@link LogFragment} consists of the header, a slice of the mapping and the footer without copying the traces. Input streams are buffered until the fragment is complete.
+ * </p>
+ * <p>
  * The fragment size has a direct impact on the memory usage and the performance of the following parsing process. By choosing a large fragment size, the parser might need a lot of memory and might need to write out some shadow maps for swapping (see NikeFS of OpenXES). For a low fragment size one must keep in mind that the parser reloads the extensions regularly, what slows down the parsing process enormously and also fills up the shadow maps. For many
  * traces with few entries a fragment size of more than 10000 can be sufficient, where a fragment size of 1000 can bring a good performance with less very large traces. The default value of a fragment size of 5000 should bring a good tradeoff of memory usage and performance.
  * </p>
@@ -25,12 +31,12 @@ public class TraceWiseXesIterator implements Iterator<LogFragment> {
 	/** Specifies the default number of traces for the iterator */
 	public static final int DEFAULT_FRAGMENT_SIZE = 5000;
 
-	private final String LOG_END = "</log>";
+	private static final String TRACE_ELEMENT = "trace";
+	private static final byte[] LOG_END = "</log>".getBytes(StandardCharsets.US_ASCII);
 
-	private FileReader fileReader = null;
-	private String header = null;
-	private Boolean hasNextTrace = null;
-	private String lastTraceStart = null;
+	private final TraceScanner scanner;
+	private ByteBuffer header = null;
+	private long nextTraceStart = -1;
 	private int fragmentSize = 1;
 
 	/**
@@ -56,56 +62,54 @@ public class TraceWiseXesIterator implements Iterator<LogFragment> {
 	public TraceWiseXesIterator(String logFile, int fragmentSize) throws ParameterException, IOException {
 		Validate.exists(logFile);
 		Validate.positive(fragmentSize);
-		fileReader = new FileReader(logFile);
-		header = nextStringFragment();
+		scanner = TraceScanner.forFile(new File(logFile), TRACE_ELEMENT);
 		this.fragmentSize = fragmentSize;
+		readHeader();
 	}
 
-	private String nextStringFragment() throws IOException {
-		if (hasNextTrace != null && !hasNextTrace)
-			return null;
-
-		StringBuilder buffer = new StringBuilder();
-		if (lastTraceStart != null) {
-			buffer.append(lastTraceStart);
-			buffer.append(System.getProperty("line.separator"));
-		}
-		String nextLine = null;
-		while ((nextLine = fileReader.readLine()) != null && !headerEnd(nextLine)) {
-			buffer.append(nextLine);
-			buffer.append(System.getProperty("line.separator"));
-		}
-		if (nextLine != null && !nextLine.trim().startsWith("</log")) {
-			lastTraceStart = nextLine;
-			hasNextTrace = true;
-		} else {
-			hasNextTrace = false;
-		}
-		return buffer.toString();
+	/**
+	 * Creates a new TraceWiseXesIterator with the specified fragment size that reads from the given input stream.
+	 * 
+	 * @param inputStream
+	 *            Stream containing the XES document
+	 * @param fragmentSize
+	 *            The number of traces for the iterator
+	 * @throws IOException
+	 */
+	public TraceWiseXesIterator(InputStream inputStream, int fragmentSize) throws ParameterException, IOException {
+		Validate.notNull(inputStream);
+		Validate.positive(fragmentSize);
+		scanner = TraceScanner.forStream(inputStream, TRACE_ELEMENT);
+		this.fragmentSize = fragmentSize;
+		readHeader();
 	}
 
-	private boolean headerEnd(String line) {
-		String cleanedLine = line.trim();
-		return cleanedLine.startsWith("<trace") || cleanedLine.startsWith("</log");
+	private void readHeader() throws IOException {
+		nextTraceStart = scanner.nextTraceStart();
+		if (nextTraceStart == -1) {
+			scanner.close();
+			return;
+		}
+		header = scanner.slice(0, nextTraceStart);
 	}
 
 	@Override
 	public boolean hasNext() {
-		return hasNextTrace;
+		return nextTraceStart != -1;
 	}
 
 	@Override
 	public LogFragment next() {
 		if (hasNext()) {
 			try {
-				LogFragment newFragment = new LogFragment();
-				newFragment.addLine(header);
-				int traceCount = 0;
-				while (hasNext() && traceCount++ < fragmentSize) {
-					newFragment.addLine(nextStringFragment());
+				long fragmentStart = nextTraceStart;
+				for (int traceCount = 0; traceCount < fragmentSize && nextTraceStart != -1; traceCount++) {
+					nextTraceStart = scanner.nextTraceStart();
 				}
-				newFragment.addLine(LOG_END);
-				newFragment.close();
+				long fragmentEnd = nextTraceStart != -1 ? nextTraceStart : Math.max(fragmentStart, scanner.getLastTraceEnd());
+				LogFragment newFragment = new LogFragment(header, scanner.slice(fragmentStart, fragmentEnd), ByteBuffer.wrap(LOG_END));
+				if (nextTraceStart == -1)
+					scanner.close();
 				return newFragment;
 			} catch (IOException e) {
 				throw new RuntimeException(e);
@@ -114,6 +118,16 @@ public class TraceWiseXesIterator implements Iterator<LogFragment> {
 		return null;
 	}
 
+	/**
+	 * Stops the iteration and closes the underlying file or input stream.
+	 * 
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		nextTraceStart = -1;
+		scanner.close();
+	}
+
 	@Override
 	public void remove() {
 		throw new UnsupportedOperationException();
@@ -0,0 +1,168 @@
+package de.uni.freiburg.iig.telematik.sewol.parser.binary;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.invation.code.toval.parser.ParserException;
+import de.invation.code.toval.validate.ParameterException;
+import de.invation.code.toval.validate.Validate;
+import de.uni.freiburg.iig.telematik.sewol.format.BinaryLogEncoding;
+import de.uni.freiburg.iig.telematik.sewol.format.LogCompression;
+import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
+import de.uni.freiburg.iig.telematik.sewol.log.LogSummary;
+import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
+import de.uni.freiburg.iig.telematik.sewol.parser.AbstractLogParser;
+import de.uni.freiburg.iig.telematik.sewol.parser.LogTraceIterator;
+import de.uni.freiburg.iig.telematik.sewol.parser.ParsingMode;
+
+/**
+ * <p>
+ * Parser for binary log files, which reads the trace records sequentially.
+ * Since the file is read sequentially, it may also be compressed. To read
+ * single traces by their case number, use {@link BinaryLogReader} instead.
+ * </p>
+ * <p>
+ * Names are shared by means of the dictionary of the file, so that the symbol
+ * table of the parser is not used.
+ * </p>
+ *
+ * @see de.uni.freiburg.iig.telematik.sewol.writer.BinaryLogWriter
+ * @version 1.0.2
+ * @since 1.0.2
+ */
+public class BinaryLogParser extends AbstractLogParser {
+
+        @Override
+        public List<List<LogTrace<LogEntry>>> parse(File file, ParsingMode parsingMode) throws IOException, ParserException {
+                Validate.noDirectory(file);
+                if (!file.canRead()) {
+                        throw new ParameterException("Unable to read input file!");
+                }
+                return parse(LogCompression.openInputStream(file), parsingMode);
+        }
+
+        @Override
+        public List<List<LogTrace<LogEntry>>> parse(String filePath, ParsingMode parsingMode) throws IOException, ParserException {
+                Validate.notNull(filePath);
+                return parse(new File(filePath), parsingMode);
+        }
+
+        @Override
+        public List<List<LogTrace<LogEntry>>> parse(InputStream inputStream, ParsingMode parsingMode) throws ParameterException, ParserException {
+                parsedLogFiles = new ArrayList<>();
+                List<LogTrace<LogEntry>> traceList = new ArrayList<>();
+                parsedLogFiles.add(traceList);
+
+                try (LogTraceIterator iterator = parseTraceWise(inputStream, parsingMode)) {
+                        while (iterator.hasNext()) {
+                                traceList.add(iterator.next());
+                        }
+                } catch (IOException e) {
+                        throw new ParserException(e);
+                } catch (RuntimeException e) {
+                        if (e.getCause() instanceof ParserException) {
+                                throw (ParserException) e.getCause();
+                        }
+                        if (e.getCause() instanceof IOException) {
+                                throw new ParserException((IOException) e.getCause());
+                        }
+                        throw e;
+                }
+
+                summaries.add(new LogSummary<>(traceList));
+                return parsedLogFiles;
+        }
+
+        @Override
+        public LogTraceIterator parseTraceWise(InputStream inputStream, ParsingMode parsingMode) throws ParameterException, ParserException {
+                Validate.notNull(inputStream);
+                if (!(inputStream instanceof BufferedInputStream)) {
+                        inputStream = new BufferedInputStream(inputStream, LogCompression.BUFFER_SIZE);
+                }
+                DataInputStream input = new DataInputStream(inputStream);
+                BinaryLogEncoding.Decoder decoder = new BinaryLogEncoding.Decoder();
+                try {
+                        byte[] header = new byte[BinaryLogEncoding.HEADER_SIZE];
+                        input.readFully(header);
+                        decoder.setInput(header, 0, header.length);
+                        decoder.decodeHeader();
+                } catch (IOException e) {
+                        ParameterException exception = new ParameterException("Unable to read input file: " + e.getMessage());
+                        close(input, exception);
+                        throw exception;
+                } catch (ParserException | RuntimeException e) {
+                        // the stream is only closed by the iterator
+                        close(input, e);
+                        throw e;
+                }
+                return new BinaryTraceIterator(input, decoder, parsingMode);
+        }
+
+        private static void close(InputStream input, Exception failure) {
+                try {
+                        input.close();
+                } catch (IOException closeException) {
+                        failure.addSuppressed(closeException);
+                }
+        }
+
+        private static class BinaryTraceIterator extends LogTraceIterator {
+
+                private final DataInputStream input;
+                private final BinaryLogEncoding.Decoder decoder;
+                private byte[] buffer = new byte[8192];
+
+                BinaryTraceIterator(DataInputStream input, BinaryLogEncoding.Decoder decoder, ParsingMode parsingMode) {
+                        super(parsingMode);
+                        this.input = input;
+                        this.decoder = decoder;
+                }
+
+                @Override
+                protected LogTrace<LogEntry> readNextTrace() throws IOException, ParserException {
+                        int recordType = input.read();
+                        if (recordType == BinaryLogEncoding.RECORD_TRAILER) {
+                                return null;
+                        }
+                        if (recordType < 0) {
+                                throw new EOFException("Binary log file is incomplete.");
+                        }
+                        if (recordType != BinaryLogEncoding.RECORD_TRACE) {
+                                throw new ParserException("Invalid record type: " + recordType);
+                        }
+                        int length = readVarInt();
+                        if (length > buffer.length) {
+                                buffer = new byte[Math.max(length, buffer.length * 2)];
+                        }
+                        input.readFully(buffer, 0, length);
+                        decoder.setInput(buffer, 0, length);
+                        return decoder.decodeTrace();
+                }
+
+                private int readVarInt() throws IOException, ParserException {
+                        int value = 0;
+                        for (int shift = 0; shift < 32; shift += 7) {
+                                int b = input.readUnsignedByte();
+                                value |= (b & 0x7F) << shift;
+                                if ((b & 0x80) == 0) {
+                                        if (value < 0) {
+                                                break;
+                                        }
+                                        return value;
+                                }
+                        }
+                        throw new ParserException("Invalid length of trace record.");
+                }
+
+                @Override
+                public void close() throws IOException {
+                        input.close();
+                }
+        }
+}
@@ -0,0 +1,172 @@
+package de.uni.freiburg.iig.telematik.sewol.parser.binary;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.invation.code.toval.parser.ParserException;
+import de.invation.code.toval.validate.ParameterException;
+import de.invation.code.toval.validate.ParameterException.ErrorCode;
+import de.invation.code.toval.validate.Validate;
+import de.uni.freiburg.iig.telematik.sewol.format.BinaryLogEncoding;
+import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
+import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
+import de.uni.freiburg.iig.telematik.sewol.parser.LogTraceIterator;
+import de.uni.freiburg.iig.telematik.sewol.parser.ParsingMode;
+
+/**
+ * <p>
+ * Reader for single traces of a binary log file.
+ * </p>
+ * <p>
+ * On opening a file, only the dictionary and the index of the traces are read
+ * from its trailer. A trace is read by looking up its file offset in the index
+ * and decoding only its record, so that the time for reading a trace does not
+ * depend on its position in the file. If several traces have the same case
+ * number, {@link #getTrace(long)} returns the first one, while all traces can
+ * be read by their position with {@link #getTraceAt(int)}.
+ * </p>
+ * <p>
+ * Traces are read with positional reads of the file channel, so that several
+ * threads can read traces of the same reader concurrently.
+ * </p>
+ *
+ * @see de.uni.freiburg.iig.telematik.sewol.writer.BinaryLogWriter
+ * @version 1.0.2
+ * @since 1.0.2
+ */
+public class BinaryLogReader implements Closeable {
+
+        private final FileChannel channel;
+        private final BinaryLogEncoding.Index fileIndex;
+        private final Map<Long, Integer> indexByCaseNumber = new HashMap<>();
+
+        /**
+         * Opens the given binary log file and reads its dictionary and index.
+         *
+         * @param file The binary log file.
+         * @throws IOException if the file cannot be read.
+         * @throws ParserException if the file is no complete binary log file.
+         */
+        public BinaryLogReader(File file) throws IOException, ParserException {
+                Validate.notNull(file);
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                try {
+                        fileIndex = BinaryLogEncoding.readIndex(channel);
+                } catch (IOException | ParserException | RuntimeException e) {
+                        channel.close();
+                        throw e;
+                }
+                for (int i = 0; i < fileIndex.getTraceCount(); i++) {
+                        if (!indexByCaseNumber.containsKey(fileIndex.getCaseNumber(i))) {
+                                indexByCaseNumber.put(fileIndex.getCaseNumber(i), i);
+                        }
+                }
+        }
+
+        /**
+         * @return The number of traces of the log.
+         */
+        public int size() {
+                return fileIndex.getTraceCount();
+        }
+
+        /**
+         * Returns the case number of the trace at the given position.
+         *
+         * @param index Position of the trace in the file.
+         * @return The case number of the trace.
+         * @throws ParameterException if there is no trace at the given
+         * position.
+         */
+        public long getCaseNumber(int index) {
+                validateIndex(index);
+                return fileIndex.getCaseNumber(index);
+        }
+
+        public boolean containsCase(long caseNumber) {
+                return indexByCaseNumber.containsKey(caseNumber);
+        }
+
+        /**
+         * Reads the trace with the given case number.
+         *
+         * @param caseNumber The case number of the trace.
+         * @return The trace or <code>null</code> if the log does not contain
+         * a trace with the given case number.
+         * @throws IOException if the file cannot be read.
+         * @throws ParserException if the trace record is invalid.
+         */
+        public LogTrace<LogEntry> getTrace(long caseNumber) throws IOException, ParserException {
+                Integer index = indexByCaseNumber.get(caseNumber);
+                if (index == null) {
+                        return null;
+                }
+                return readTrace(index);
+        }
+
+        /**
+         * Reads the trace at the given position.
+         *
+         * @param index Position of the trace in the file.
+         * @return The trace.
+         * @throws IOException if the file cannot be read.
+         * @throws ParserException if the trace record is invalid.
+         * @throws ParameterException if there is no trace at the given
+         * position.
+         */
+        public LogTrace<LogEntry> getTraceAt(int index) throws IOException, ParserException {
+                validateIndex(index);
+                return readTrace(index);
+        }
+
+        /**
+         * Returns an iterator over all traces in the order of the file. The
+         * iterator does not close this reader.
+         *
+         * @param parsingMode
+         * @return Iterator over the traces of the log.
+         */
+        public LogTraceIterator iterator(ParsingMode parsingMode) {
+                return new LogTraceIterator(parsingMode) {
+
+                        private int index = 0;
+
+                        @Override
+                        protected LogTrace<LogEntry> readNextTrace() throws IOException, ParserException {
+                                if (index >= size()) {
+                                        return null;
+                                }
+                                return readTrace(index++);
+                        }
+
+                        @Override
+                        public void close() {
+                                index = size();
+                        }
+                };
+        }
+
+        @Override
+        public void close() throws IOException {
+                channel.close();
+        }
+
+        private LogTrace<LogEntry> readTrace(int index) throws IOException, ParserException {
+                long offset = fileIndex.getOffset(index);
+                int length = (int) (fileIndex.getOffset(index + 1) - offset);
+                BinaryLogEncoding.Decoder decoder = new BinaryLogEncoding.Decoder(fileIndex.getDictionary());
+                decoder.setInput(BinaryLogEncoding.read(channel, offset, length), 0, length);
+                return decoder.decodeTraceRecord();
+        }
+
+        private void validateIndex(int index) {
+                if (index < 0 || index >= size()) {
+                        throw new ParameterException(ErrorCode.RANGEVIOLATION, "No trace for index " + index);
+                }
+        }
+}
@@ -1,7 +1,6 @@
 package de.uni.freiburg.iig.telematik.sewol.parser.mxml;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
@@ -9,6 +8,7 @@ import java.util.List;
 import de.invation.code.toval.parser.ParserException;
 import de.invation.code.toval.validate.ParameterException;
 import de.invation.code.toval.validate.Validate;
+import de.uni.freiburg.iig.telematik.sewol.format.LogCompression;
 import de.uni.freiburg.iig.telematik.sewol.format.MXMLLogFormat;
 import de.uni.freiburg.iig.telematik.sewol.log.DataAttribute;
 import de.uni.freiburg.iig.telematik.sewol.log.EventType;
@@ -17,15 +17,19 @@ import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
 import de.uni.freiburg.iig.telematik.sewol.log.LogSummary;
 import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
 import de.uni.freiburg.iig.telematik.sewol.parser.AbstractLogParser;
-import de.uni.freiburg.iig.telematik.sewol.parser.ParserDateFormat;
+import de.uni.freiburg.iig.telematik.sewol.parser.LogTraceIterator;
 import de.uni.freiburg.iig.telematik.sewol.parser.ParsingMode;
-import java.io.FileNotFoundException;
-import java.text.ParseException;
+import de.uni.freiburg.iig.telematik.sewol.parser.SymbolTable;
+import de.uni.freiburg.iig.telematik.sewol.parser.TimestampParser;
 import java.util.ArrayList;
 import java.util.Date;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
@@ -86,7 +90,7 @@ public class MXMLLogParser extends AbstractLogParser {
 
                 try {
                         SAXParser parser = SAXParserFactory.newInstance().newSAXParser();
-                        MXMLSAXHandler handler = new MXMLSAXHandler();
+                        MXMLSAXHandler handler = new MXMLSAXHandler(newSymbolTable());
                         parser.parse(inputStream, handler);
 
                         summaries.addAll(handler.summaries);
@@ -119,9 +123,9 @@ public class MXMLLogParser extends AbstractLogParser {
 
                 try {
                         try {
-                                InputStream is = new FileInputStream(file);
+                                InputStream is = LogCompression.openInputStream(file);
                                 return parse(is, parsingMode);
-                        } catch (FileNotFoundException | ParameterException | ParserException e) {
+                        } catch (IOException | ParameterException | ParserException e) {
                                 throw new ParserException(e);
                         }
                 } catch (Exception e) {
@@ -129,6 +133,128 @@ public class MXMLLogParser extends AbstractLogParser {
                 }
         }
 
+        /**
+         * Returns an iterator over the traces of the given MXML stream.<br>
+         * In contrast to {@link #parse(InputStream, ParsingMode)}, the stream
+         * is read with a StAX reader on demand and traces of all contained
+         * processes are returned one after another in file order.
+         *
+         * @param inputStream {@link InputStream} to parse
+         * @param parsingMode
+         * @return Iterator that reads the traces of the stream on demand.
+         * @throws ParameterException Gets thrown if the stream can't be read.
+         * @throws ParserException Gets thrown if no StAX reader can be created
+         * for the stream.
+         */
+        @Override
+        public LogTraceIterator parseTraceWise(InputStream inputStream, ParsingMode parsingMode) throws ParameterException, ParserException {
+                try {
+                        inputStream.available();
+                } catch (IOException e) {
+                        throw new ParameterException("Unable to read input file: " + e.getMessage());
+                }
+
+                try {
+                        XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(inputStream);
+                        return new MXMLTraceIterator(reader, inputStream, parsingMode, newSymbolTable());
+                } catch (XMLStreamException ex) {
+                        throw new ParserException(ex);
+                }
+        }
+
+        private static class MXMLTraceIterator extends LogTraceIterator {
+
+                private final XMLStreamReader reader;
+                private final InputStream inputStream;
+                private final TimestampParser timestampParser = new TimestampParser();
+                private final SymbolTable symbols;
+
+                MXMLTraceIterator(XMLStreamReader reader, InputStream inputStream, ParsingMode parsingMode, SymbolTable symbols) {
+                        super(parsingMode);
+                        this.reader = reader;
+                        this.inputStream = inputStream;
+                        this.symbols = symbols;
+                }
+
+                @Override
+                protected LogTrace<LogEntry> readNextTrace() throws IOException, ParserException {
+                        LogTrace<LogEntry> currentTrace = null;
+                        LogEntry currentEntry = null;
+                        try {
+                                while (reader.hasNext()) {
+                                        switch (reader.next()) {
+                                                case XMLStreamConstants.START_ELEMENT:
+                                                        switch (reader.getLocalName()) {
+                                                                case MXMLLogFormat.ELEMENT_TRACE:
+                                                                        String idString = reader.getAttributeValue(null, MXMLLogFormat.ATTRIBUTE_ID);
+                                                                        if (idString != null) {
+                                                                                currentTrace = new LogTrace<>(MXMLSAXHandler.idStrToInt(idString));
+                                                                        } else {
+                                                                                currentTrace = new LogTrace<>();
+                                                                        }
+                                                                        break;
+                                                                case MXMLLogFormat.ELEMENT_ENTRY:
+                                                                        currentEntry = new LogEntry();
+                                                                        break;
+                                                                case MXMLLogFormat.ELEMENT_ACTIVITY:
+                                                                        currentEntry.setActivity(symbols.canonicalize(reader.getElementText()));
+                                                                        break;
+                                                                case MXMLLogFormat.ELEMENT_TYPE:
+                                                                        EventType type = EventType.parse(reader.getElementText(), false);
+                                                                        if (type != null) {
+                                                                                currentEntry.setEventType(type);
+                                                                        }
+                                                                        break;
+                                                                case MXMLLogFormat.ELEMENT_TIME:
+                                                                        Date date = timestampParser.parse(reader.getElementText());
+                                                                        if (date != null) {
+                                                                                currentEntry.setTimestamp(date);
+                                                                        }
+                                                                        break;
+                                                                case MXMLLogFormat.ELEMENT_ORIGINATOR:
+                                                                        currentEntry.setOriginator(symbols.canonicalize(reader.getElementText()));
+                                                                        break;
+                                                                case MXMLLogFormat.ELEMENT_ATTRIBUTE:
+                                                                        if (currentEntry != null) {
+                                                                                String nameString = reader.getAttributeValue(null, MXMLLogFormat.ATTRIBUTE_NAME);
+                                                                                String value = reader.getElementText();
+                                                                                if (nameString != null) {
+                                                                                        currentEntry.addMetaAttribute(new DataAttribute(symbols.canonicalize(nameString), MXMLSAXHandler.parseAttributeValue(value)));
+                                                                                }
+                                                                        }
+                                                                        break;
+                                                        }
+                                                        break;
+                                                case XMLStreamConstants.END_ELEMENT:
+                                                        switch (reader.getLocalName()) {
+                                                                case MXMLLogFormat.ELEMENT_ENTRY:
+                                                                        currentTrace.addEntry(currentEntry);
+                                                                        currentEntry = null;
+                                                                        break;
+                                                                case MXMLLogFormat.ELEMENT_TRACE:
+                                                                        return currentTrace;
+                                                        }
+                                                        break;
+                                        }
+                                }
+                        } catch (XMLStreamException | LockingException ex) {
+                                throw new ParserException(ex);
+                        }
+                        return null;
+                }
+
+                @Override
+                public void close() throws IOException {
+                        try {
+                                reader.close();
+                        } catch (XMLStreamException ex) {
+                                throw new IOException(ex);
+                        } finally {
+                                inputStream.close();
+                        }
+                }
+        }
+
         private static class MXMLSAXHandler extends DefaultHandler {
 
                 private final List<List<LogTrace<LogEntry>>> logs = new ArrayList<>();
@@ -142,16 +268,17 @@ public class MXMLLogParser extends AbstractLogParser {
                 private final StringBuilder lastCharacters = new StringBuilder();
                 private boolean recordCharacters = false;
                 private Date date = null;
-                private static ParserDateFormat PARSER_DATE_FORMAT = null;
-                private static boolean PARSER_DATE_FORMAT_INITIALIZED = false;
-                private static boolean PARSER_DATE_FORMAT_SANITIZE = false;
-
-                private static final String TIMESTAMP_ENDING_PATTERN = ":(\\d\\d)$";
+                private final TimestampParser timestampParser = new TimestampParser();
+                private final SymbolTable symbols;
 
                 private static final String INT_PATTERN = "^0*(\\d+)$";
                 private static final String DOUBLE_PATTERN = "^((?:\\d+\\.\\d+)|(?:\\d+\\.)|(?:\\.\\d+))$";
                 private static final String NON_INT_PATTERN = "(\\D+)";
 
+                MXMLSAXHandler(SymbolTable symbols) {
+                        this.symbols = symbols;
+                }
+
                 @Override
                 public void startDocument() throws SAXException {
                 }
@@ -190,7 +317,7 @@ public class MXMLLogParser extends AbstractLogParser {
                                                 lastCharacters.setLength(0);
                                                 recordCharacters = true;
                                                 if (attributes.getIndex(MXMLLogFormat.ATTRIBUTE_NAME) >= 0) {
-                                                        String nameString = attributes.getValue(attributes.getIndex(MXMLLogFormat.ATTRIBUTE_NAME)).intern();
+                                                        String nameString = symbols.canonicalize(attributes.getValue(attributes.getIndex(MXMLLogFormat.ATTRIBUTE_NAME)));
                                                         currentAttribute = new DataAttribute(nameString);
                                                 }
                                         }
@@ -215,39 +342,31 @@ public class MXMLLogParser extends AbstractLogParser {
                                                 currentEntry = null;
                                                 break;
                                         case MXMLLogFormat.ELEMENT_ACTIVITY:
-                                                currentEntry.setActivity(lastCharacters.toString().intern());
+                                                currentEntry.setActivity(symbols.canonicalize(lastCharacters));
                                                 recordCharacters = false;
                                                 break;
                                         case MXMLLogFormat.ELEMENT_TYPE:
-                                                EventType type = EventType.parse(lastCharacters.toString().intern(), false);
+                                                EventType type = EventType.parse(lastCharacters.toString(), false);
                                                 if (type != null) {
                                                         currentEntry.setEventType(type);
                                                 }
                                                 recordCharacters = false;
                                                 break;
                                         case MXMLLogFormat.ELEMENT_TIME:
-                                                String dateStr = lastCharacters.toString().intern();
-                                                date = parseTimestamp(dateStr, true);
+                                                String dateStr = lastCharacters.toString();
+                                                date = timestampParser.parse(dateStr);
                                                 if (date != null) {
                                                         currentEntry.setTimestamp(date);
                                                 }
                                                 recordCharacters = false;
                                                 break;
                                         case MXMLLogFormat.ELEMENT_ORIGINATOR:
-                                                currentEntry.setOriginator(lastCharacters.toString().intern());
+                                                currentEntry.setOriginator(symbols.canonicalize(lastCharacters));
                                                 recordCharacters = false;
                                                 break;
                                         case MXMLLogFormat.ELEMENT_ATTRIBUTE:
                                                 if (currentAttribute != null) {
-                                                        String value = lastCharacters.toString().intern();
-
-                                                        if (value.matches(INT_PATTERN)) {
-                                                                currentAttribute.value = Long.valueOf(value);
-                                                        } else if (value.matches(DOUBLE_PATTERN)) {
-                                                                currentAttribute.value = Double.valueOf(value);
-                                                        } else {
-                                                                currentAttribute.value = value;
-                                                        }
+                                                        currentAttribute.value = parseAttributeValue(lastCharacters.toString());
                                                         currentEntry.addMetaAttribute(currentAttribute);
                                                         currentAttribute = null;
                                                 }
@@ -262,11 +381,7 @@ public class MXMLLogParser extends AbstractLogParser {
                 @Override
                 public void characters(char[] ch, int start, int length) throws SAXException {
                         if (recordCharacters) {
-                                StringBuilder str = new StringBuilder();
-                                for (int i = 0; i < length; i++) {
-                                        str.append(ch[start + i]);
-                                }
-                                lastCharacters.append(str);
+                                lastCharacters.append(ch, start, length);
                         }
                 }
 
@@ -280,42 +395,13 @@ public class MXMLLogParser extends AbstractLogParser {
                         throw e;
                 }
 
-                private static Date parseTimestamp(String value, boolean sanitize) {
-                        if (value == null || value.isEmpty()) {
-                                return null;
-                        }
-
-                        if (!PARSER_DATE_FORMAT_INITIALIZED) {
-                                String sanitizedValue = value.replaceAll(TIMESTAMP_ENDING_PATTERN, "$1");
-                                if (!sanitizedValue.equals(value)) {
-                                        PARSER_DATE_FORMAT_SANITIZE = true;
-                                        value = sanitize ? value = sanitizedValue : value;
-                                }
-                                PARSER_DATE_FORMAT_INITIALIZED = true;
-
-                                for (ParserDateFormat pdf : ParserDateFormat.values()) {
-                                        try {
-                                                ParserDateFormat.getDateFormat(pdf).parse(value);
-                                                PARSER_DATE_FORMAT = pdf;
-                                        } catch (ParseException e) {
-                                                // is allowed to happen
-                                        } catch (ParameterException e) {
-                                                // cannot happen.
-                                                throw new RuntimeException(e);
-                                        }
-                                }
-                        }
-
-                        if (sanitize && PARSER_DATE_FORMAT_SANITIZE) {
-                                value = value.replaceAll(TIMESTAMP_ENDING_PATTERN, "$1");
-                        }
-
-                        try {
-                                return ParserDateFormat.getDateFormat(PARSER_DATE_FORMAT).parse(value);
-                        } catch (ParseException | ParameterException ex) {
-                                // is allowed to happen
-                                return null;
+                private static Object parseAttributeValue(String value) {
+                        if (value.matches(INT_PATTERN)) {
+                                return Long.valueOf(value);
+                        } else if (value.matches(DOUBLE_PATTERN)) {
+                                return Double.valueOf(value);
                         }
+                        return value;
                 }
 
                 private static long idStrToInt(String idString) {
@@ -2,7 +2,6 @@ package de.uni.freiburg.iig.telematik.sewol.parser.plain;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -14,12 +13,14 @@ import java.util.Set;
 import de.invation.code.toval.parser.ParserException;
 import de.invation.code.toval.validate.ParameterException;
 import de.invation.code.toval.validate.Validate;
+import de.uni.freiburg.iig.telematik.sewol.format.LogCompression;
 import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
 import de.uni.freiburg.iig.telematik.sewol.log.LogSummary;
 import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
 import de.uni.freiburg.iig.telematik.sewol.parser.AbstractLogParser;
+import de.uni.freiburg.iig.telematik.sewol.parser.LogTraceIterator;
 import de.uni.freiburg.iig.telematik.sewol.parser.ParsingMode;
-import java.io.FileNotFoundException;
+import de.uni.freiburg.iig.telematik.sewol.parser.SymbolTable;
 
 public class PlainParser extends AbstractLogParser {
 
@@ -37,9 +38,9 @@ public class PlainParser extends AbstractLogParser {
                 }
 
                 try {
-                        InputStream is = new FileInputStream(file);
+                        InputStream is = LogCompression.openInputStream(file);
                         return parse(is, parsingMode);
-                } catch (FileNotFoundException | ParameterException | ParserException e) {
+                } catch (IOException | ParameterException | ParserException e) {
                         throw new ParserException("Exception while parsing: " + e.getMessage());
                 }
         }
@@ -66,16 +67,12 @@ public class PlainParser extends AbstractLogParser {
                 BufferedReader bufferedReader = new BufferedReader(inputStreamReader);
                 String nextLine = null;
                 int traceCount = 0;
+                SymbolTable symbols = newSymbolTable();
 
                 Set<List<String>> activitySequences = new HashSet<>();
                 try {
                         while ((nextLine = bufferedReader.readLine()) != null) {
-                                LogTrace<LogEntry> newTrace = new LogTrace<>(++traceCount);
-                                for (String nextToken : nextLine.split(delimiter)) {
-                                        if (nextToken != null && !nextToken.isEmpty()) {
-                                                newTrace.addEntry(new LogEntry(nextToken));
-                                        }
-                                }
+                                LogTrace<LogEntry> newTrace = parseTrace(nextLine, ++traceCount, symbols);
                                 switch (parsingMode) {
                                         case COMPLETE:
                                                 traceList.add(newTrace);
@@ -96,4 +93,54 @@ public class PlainParser extends AbstractLogParser {
                 summaries.add(new LogSummary<>(traceList));
                 return parsedLogFiles;
         }
+
+        @Override
+        public LogTraceIterator parseTraceWise(InputStream inputStream, ParsingMode parsingMode) throws ParameterException, ParserException {
+                try {
+                        inputStream.available();
+                } catch (IOException e) {
+                        throw new ParameterException("Unable to read input file: " + e.getMessage());
+                }
+                return new PlainTraceIterator(new BufferedReader(new InputStreamReader(inputStream)), parsingMode, newSymbolTable());
+        }
+
+        /**
+         * Builds a trace out of a single line of the log file.
+         */
+        private LogTrace<LogEntry> parseTrace(String line, int caseNumber, SymbolTable symbols) {
+                LogTrace<LogEntry> newTrace = new LogTrace<>(caseNumber);
+                for (String nextToken : line.split(delimiter)) {
+                        if (nextToken != null && !nextToken.isEmpty()) {
+                                newTrace.addEntry(new LogEntry(symbols.canonicalize(nextToken)));
+                        }
+                }
+                return newTrace;
+        }
+
+        private class PlainTraceIterator extends LogTraceIterator {
+
+                private final BufferedReader reader;
+                private final SymbolTable symbols;
+                private int traceCount = 0;
+
+                PlainTraceIterator(BufferedReader reader, ParsingMode parsingMode, SymbolTable symbols) {
+                        super(parsingMode);
+                        this.reader = reader;
+                        this.symbols = symbols;
+                }
+
+                @Override
+                protected LogTrace<LogEntry> readNextTrace() throws IOException {
+                        String nextLine = reader.readLine();
+                        if (nextLine == null) {
+                                return null;
+                        }
+                        return parseTrace(nextLine, ++traceCount, symbols);
+                }
+
+                @Override
+                public void close() throws IOException {
+                        reader.close();
+                }
+        }
 }
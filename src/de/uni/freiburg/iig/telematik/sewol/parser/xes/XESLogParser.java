@@ -1,15 +1,14 @@
 package de.uni.freiburg.iig.telematik.sewol.parser.xes;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -27,6 +26,7 @@ import de.invation.code.toval.parser.ParserException;
 import de.invation.code.toval.types.DataUsage;
 import de.invation.code.toval.validate.ParameterException;
 import de.invation.code.toval.validate.Validate;
+import de.uni.freiburg.iig.telematik.sewol.format.LogCompression;
 import de.uni.freiburg.iig.telematik.sewol.log.DULogEntry;
 import de.uni.freiburg.iig.telematik.sewol.log.DataAttribute;
 import de.uni.freiburg.iig.telematik.sewol.log.EventType;
@@ -35,23 +35,49 @@ import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
 import de.uni.freiburg.iig.telematik.sewol.log.LogSummary;
 import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
 import de.uni.freiburg.iig.telematik.sewol.parser.AbstractLogParser;
-import de.uni.freiburg.iig.telematik.sewol.parser.ParserDateFormat;
+import de.uni.freiburg.iig.telematik.sewol.parser.LogTraceIterator;
 import de.uni.freiburg.iig.telematik.sewol.parser.ParserFileFormat;
 import de.uni.freiburg.iig.telematik.sewol.parser.ParsingMode;
-import java.io.FileNotFoundException;
+import de.uni.freiburg.iig.telematik.sewol.parser.SymbolTable;
+import de.uni.freiburg.iig.telematik.sewol.parser.TimestampParser;
+import de.uni.freiburg.iig.telematik.sewol.parser.TraceWiseXesIterator;
 
 /**
  * <p>
  * A parser class for MXML and XES files for the SEWOL log classes.
  * </p>
  * <p>
- * The {@link XParserRegistry} from OpenXES is used, as it helps choosing the right parser. Because of the transformation of the files to an OpenXES log format and the subsequent transformation to the SEWOL log format, the complexity in time and space ends up in O(2n). An own implementation without the OpenXES classes could result in O(n).
+ * By default, XES documents are read with a StAX based reader that builds the SEWOL log classes directly from the stream. Alternatively, the parser can use the {@link XParserRegistry} from OpenXES, as it helps choosing the right parser. Because of the transformation of the files to an OpenXES log format and the subsequent transformation to the SEWOL log format, the complexity in time and space of this variant ends up in O(2n).
  * </p>
  * 
  * @author Adrian Lange
  */
 public class XESLogParser extends AbstractLogParser {
 
+	private final boolean useOpenXES;
+	private final TimestampParser timestampParser = new TimestampParser();
+
+	/**
+	 * Creates a new XES parser that reads XES documents with the native StAX based reader.
+	 */
+	public XESLogParser() {
+		this(false);
+	}
+
+	/**
+	 * Creates a new XES parser.
+	 * 
+	 * @param useOpenXES
+	 *            <code>true</code> if documents should be read by converting the OpenXES object model, <code>false</code> if the native StAX based reader should be used.
+	 */
+	public XESLogParser(boolean useOpenXES) {
+		this.useOpenXES = useOpenXES;
+	}
+
+	public boolean usesOpenXES() {
+		return useOpenXES;
+	}
+
 	/**
 	 * Checks whether the given file can be parsed by the file extension.
          * @param file
@@ -103,6 +129,9 @@ public class XESLogParser extends AbstractLogParser {
 		} catch (IOException e) {
 			throw new ParameterException("Unable to read input file: " + e.getMessage());
 		}
+		SymbolTable symbols = newSymbolTable();
+		if (!useOpenXES)
+			return parseNative(inputStream, parsingMode, symbols);
 
 		Collection<XLog> logs = null;
 		XParser parser = ParserFileFormat.XES.getParser();
@@ -120,49 +149,11 @@ public class XESLogParser extends AbstractLogParser {
 		for (XLog log : logs) {
 			activitySequencesSet.clear();
 			traceSet.clear();
-			Class<?> logEntryClass = null;
+			Class<?> logEntryClass = getLogEntryClass(log);
 			List<LogTrace<LogEntry>> logTraces = new ArrayList<>();
-			if (containsDataUsageExtension(log)) {
-				logEntryClass = DULogEntry.class;
-			} else {
-				logEntryClass = LogEntry.class;
-			}
 			for (XTrace trace : log) {
-				Integer traceID = null;
-
-				// Extract trace ID
-				for (Map.Entry<String, XAttribute> attribute : trace.getAttributes().entrySet()) {
-					String key = attribute.getKey();
-					String value = attribute.getValue().toString();
-					if (key.equals("concept:name")) {
-						try {
-							traceID = Integer.parseInt(value);
-						} catch (NumberFormatException e) {
-							// if NAN, take the hash
-							traceID = value.hashCode();
-						}
-						if (traceID < 0) {
-							traceID *= Integer.signum(traceID);
-						}
-					}
-				}
-				if (traceID == null)
-					throw new ParserException("Cannot extract case-id");
-
-				// Build new log trace
-				LogTrace<LogEntry> logTrace = new LogTrace<>(traceID);
+				LogTrace<LogEntry> logTrace = buildLogTrace(trace, logEntryClass, symbols);
 
-				// Check for similar instances
-				Collection<Long> similarInstances = getSimilarInstances(trace);
-				if (similarInstances != null) {
-					logTrace.setSimilarInstances(similarInstances);
-				}
-
-				for (XEvent event : trace) {
-					// Add events to log trace
-					logTrace.addEntry(buildLogEntry(event, logEntryClass));
-				}
-				
 				switch(parsingMode){
 				case DISTINCT_ACTIVITY_SEQUENCES:
 					if(!activitySequencesSet.add(logTrace.getActivities()))
@@ -183,6 +174,33 @@ public class XESLogParser extends AbstractLogParser {
 		return parsedLogFiles;
 	}
 
+	/**
+	 * Parses the given stream with the native StAX based reader.
+	 */
+	private List<List<LogTrace<LogEntry>>> parseNative(InputStream inputStream, ParsingMode parsingMode, SymbolTable symbols) throws ParserException {
+		List<LogTrace<LogEntry>> logTraces = new ArrayList<>();
+		Set<List<String>> activitySequencesSet = new HashSet<>();
+		try (XESStreamReader reader = new XESStreamReader(inputStream, symbols)) {
+			LogTrace<LogEntry> logTrace;
+			while ((logTrace = reader.readNextTrace()) != null) {
+				switch (parsingMode) {
+				case DISTINCT_ACTIVITY_SEQUENCES:
+					if (!activitySequencesSet.add(logTrace.getActivities()))
+						break;
+					logTrace.reduceToActivities();
+				case COMPLETE:
+					logTraces.add(logTrace);
+				}
+			}
+		} catch (IOException e) {
+			throw new ParserException("Error while closing the input stream: " + e.getMessage());
+		}
+		parsedLogFiles = new ArrayList<>(1);
+		parsedLogFiles.add(logTraces);
+		summaries.add(new LogSummary<>(logTraces));
+		return parsedLogFiles;
+	}
+
 	/**
 	 * Parses the specified log file and returns a collection of processes.
 	 * 
@@ -203,9 +221,9 @@ public class XESLogParser extends AbstractLogParser {
 
 		try {
 			try {
-				InputStream is = new FileInputStream(file);
+				InputStream is = LogCompression.openInputStream(file);
 				return parse(is, parsingMode);
-			} catch (FileNotFoundException | ParameterException | ParserException e) {
+			} catch (IOException | ParameterException | ParserException e) {
 				throw new ParserException("Exception while parsing with OpenXES: " + e.getMessage());
 			}
 		} catch (Exception e) {
@@ -213,6 +231,41 @@ public class XESLogParser extends AbstractLogParser {
 		}
 	}
 
+	/**
+	 * Returns an iterator over the traces of the given XES stream.<br>
+	 * The native reader returns each trace as soon as its closing element has been read. If OpenXES is used, the stream is split into fragments of {@link TraceWiseXesIterator#DEFAULT_FRAGMENT_SIZE} traces by a {@link TraceWiseXesIterator}, so that at most one fragment is kept in memory at a time.
+	 * 
+	 * @param inputStream
+	 *            {@link InputStream} to parse
+	 * @param parsingMode
+	 * @return Iterator that reads the traces of the stream on demand.
+	 * @throws ParameterException
+	 *             Gets thrown if the stream can't be read.
+	 * @throws ParserException
+	 *             Gets thrown if the XES header can't be read.
+	 */
+	@Override
+	public LogTraceIterator parseTraceWise(InputStream inputStream, ParsingMode parsingMode) throws ParameterException, ParserException {
+		SymbolTable symbols = newSymbolTable();
+		if (!useOpenXES)
+			return new XESStreamTraceIterator(new XESStreamReader(inputStream, symbols), parsingMode);
+		try {
+			return new XESTraceIterator(new TraceWiseXesIterator(inputStream, TraceWiseXesIterator.DEFAULT_FRAGMENT_SIZE), parsingMode, symbols);
+		} catch (IOException e) {
+			throw new ParameterException("Unable to read input file: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the class of the log entries for the given log, which is {@link DULogEntry} if the log uses the data usage extension and {@link LogEntry} otherwise.
+	 */
+	private Class<?> getLogEntryClass(XLog log) {
+		if (containsDataUsageExtension(log)) {
+			return DULogEntry.class;
+		}
+		return LogEntry.class;
+	}
+
 	/**
 	 * Checks if the extension list contains the {@link XExtension} with the name <i>AttributeDataUsage</i>.
 	 */
@@ -224,7 +277,52 @@ public class XESLogParser extends AbstractLogParser {
 		return false;
 	}
 
-	private LogEntry buildLogEntry(XEvent xesEvent, Class<?> logEntryClass) throws ParserException, ParameterException {
+	private LogTrace<LogEntry> buildLogTrace(XTrace trace, Class<?> logEntryClass, SymbolTable symbols) throws ParserException, ParameterException {
+		Integer traceID = null;
+
+		// Extract trace ID
+		for (Map.Entry<String, XAttribute> attribute : trace.getAttributes().entrySet()) {
+			if (attribute.getKey().equals("concept:name")) {
+				traceID = parseTraceID(attribute.getValue().toString());
+			}
+		}
+		if (traceID == null)
+			throw new ParserException("Cannot extract case-id");
+
+		// Build new log trace
+		LogTrace<LogEntry> logTrace = new LogTrace<>(traceID);
+
+		// Check for similar instances
+		Collection<Long> similarInstances = getSimilarInstances(trace);
+		if (similarInstances != null) {
+			logTrace.setSimilarInstances(similarInstances);
+		}
+
+		for (XEvent event : trace) {
+			// Add events to log trace
+			logTrace.addEntry(buildLogEntry(event, logEntryClass, symbols));
+		}
+		return logTrace;
+	}
+
+	/**
+	 * Interprets the value of the <i>concept:name</i> attribute of a trace as case number. Non-numeric values are replaced by their hash.
+	 */
+	static int parseTraceID(String value) {
+		int traceID;
+		try {
+			traceID = Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			// if NAN, take the hash
+			traceID = value.hashCode();
+		}
+		if (traceID < 0) {
+			traceID *= Integer.signum(traceID);
+		}
+		return traceID;
+	}
+
+	private LogEntry buildLogEntry(XEvent xesEvent, Class<?> logEntryClass, SymbolTable symbols) throws ParserException, ParameterException {
 		LogEntry logEntry;
 		try {
 			logEntry = (LogEntry) logEntryClass.newInstance();
@@ -235,33 +333,33 @@ public class XESLogParser extends AbstractLogParser {
 			String key = attribute.getKey();
                         switch (key) {
                                 case "concept:name":
-                                        addName(logEntry, attribute.getValue().toString());
+                                        addName(logEntry, symbols.canonicalize(attribute.getValue().toString()));
                                         break;
                                 case "org:resource":
-                                        addOriginator(logEntry, attribute.getValue().toString());
+                                        addOriginator(logEntry, symbols.canonicalize(attribute.getValue().toString()));
                                         break;
                                 case "Role":
-                                        addRole(logEntry, attribute.getValue().toString());
+                                        addRole(logEntry, symbols.canonicalize(attribute.getValue().toString()));
                                         break;
                                 case "lifecycle:transition":
                                         addEventType(logEntry, attribute.getValue().toString());
                                         break;
                                 case "time:timestamp":
-                                        addTimestamp(logEntry, attribute.getValue().toString());
+                                        addTimestamp(logEntry, attribute.getValue().toString(), timestampParser);
                                         break;
                                 default:
                                         // If the key is unknown, a meta attribute or a data attribute with the key/value pair is added
                                         if (attribute.getValue().getAttributes().containsKey("dataUsage:usage")) {
-                                                addDataUsage(logEntry, attribute);
+                                                addDataUsage(logEntry, attribute, symbols);
                                         } else {
-                                                addMetaInformation(logEntry, attribute);
+                                                addMetaInformation(logEntry, attribute, symbols);
                                         }       break;
                         }
 		}
 		return logEntry;
 	}
 
-	private void addName(LogEntry entry, String value) throws ParserException {
+	static void addName(LogEntry entry, String value) throws ParserException {
 		if (value == null || value.isEmpty())
 			throw new ParserException("No value for concept:name");
 		try {
@@ -271,7 +369,7 @@ public class XESLogParser extends AbstractLogParser {
 		}
 	}
 
-	private void addOriginator(LogEntry entry, String value) throws ParserException {
+	static void addOriginator(LogEntry entry, String value) throws ParserException {
 		if (value == null || value.isEmpty())
 			throw new ParserException("No value for org:resource");
 		try {
@@ -283,7 +381,7 @@ public class XESLogParser extends AbstractLogParser {
 		}
 	}
 	
-	private void addRole(LogEntry entry, String value) throws ParserException {
+	static void addRole(LogEntry entry, String value) throws ParserException {
 		if (value == null || value.isEmpty())
 			throw new ParserException("No value for Role");
 		try {
@@ -295,7 +393,7 @@ public class XESLogParser extends AbstractLogParser {
 		}
 	}
 
-	private void addEventType(LogEntry entry, String value) throws ParserException {
+	static void addEventType(LogEntry entry, String value) throws ParserException {
 		if (value == null || value.isEmpty())
 			throw new ParserException("No value for lifecycle:transition");
 		EventType eventType = EventType.parse(value);
@@ -308,23 +406,10 @@ public class XESLogParser extends AbstractLogParser {
 		}
 	}
 
-	private void addTimestamp(LogEntry entry, String value) throws ParserException {
+	static void addTimestamp(LogEntry entry, String value, TimestampParser timestampParser) throws ParserException {
 		if (value == null || value.isEmpty())
 			throw new ParserException("No value for time:timestamp");
-		Date date = null;
-		String sanitizedDateString = value.replaceAll(":(\\d\\d)$", "$1");
-		for (ParserDateFormat pdf : ParserDateFormat.values()) {
-			if (date == null) {
-				try {
-					date = ParserDateFormat.getDateFormat(pdf).parse(sanitizedDateString);
-				} catch (ParseException e) {
-					// is allowed to happen
-				} catch (ParameterException e) {
-					// cannot happen.
-					throw new RuntimeException(e);
-				}
-			}
-		}
+		Date date = timestampParser.parse(value);
 		if (date == null)
 			throw new ParserException("Cannot read timestamp.");
 
@@ -335,51 +420,66 @@ public class XESLogParser extends AbstractLogParser {
 		}
 	}
 
-	private void addDataUsage(LogEntry entry, Map.Entry<String, XAttribute> attribute) throws ParserException, ParameterException {
+	private void addDataUsage(LogEntry entry, Map.Entry<String, XAttribute> attribute, SymbolTable symbols) throws ParserException, ParameterException {
+		// Get sub-attributes
+		for (Map.Entry<String, XAttribute> subattribute : attribute.getValue().getAttributes().entrySet()) {
+			if (subattribute.getKey().equals(DataUsageExtension.KEY_DATA)) {
+				addDataUsage(entry, symbols.canonicalize(attribute.getKey()), attribute.getValue().toString(), subattribute.getValue().toString());
+			}
+		}
+	}
+
+	/**
+	 * Adds a data attribute with the given key and value together with the usage modes in the given comma separated data usage string to the entry.
+	 */
+	static void addDataUsage(LogEntry entry, String key, String value, String dataUsageString) throws ParserException, ParameterException {
 		if (!(entry instanceof DULogEntry))
 			throw new ParameterException("Cannot add data usage to log entry of type " + entry.getClass().getSimpleName());
-		
-		String dataAttributeKey = attribute.getKey();
-		Object dataAttributeValue = parseAttributeValue(attribute.getValue());
-		DataAttribute dataAttribute = new DataAttribute(dataAttributeKey, dataAttributeValue);
 
-		// Get sub-attributes
-		for (Map.Entry<String, XAttribute> subattribute : attribute.getValue().getAttributes().entrySet()) {
-			String dataAttributeDataUsageString = null;
-			if (subattribute.getKey().equals("dataUsage:usage")) {
-				dataAttributeDataUsageString = subattribute.getValue().toString();
-				List<DataUsage> dataUsageList = parseDataUsageString(dataAttributeDataUsageString);
-				for (DataUsage dataUsage : dataUsageList) {
-					try {
-						((DULogEntry) entry).addDataUsage(dataAttribute, dataUsage);
-					} catch (ParameterException | LockingException e) {
-						throw new ParserException("Cannot add data usage information to log entry: " + e.getMessage());
-					}
-				}
+		DataAttribute dataAttribute = new DataAttribute(key, parseAttributeValue(value));
+		List<DataUsage> dataUsageList = parseDataUsageString(dataUsageString);
+		for (DataUsage dataUsage : dataUsageList) {
+			try {
+				((DULogEntry) entry).addDataUsage(dataAttribute, dataUsage);
+			} catch (ParameterException | LockingException e) {
+				throw new ParserException("Cannot add data usage information to log entry: " + e.getMessage());
 			}
 		}
 	}
 
-	private void addMetaInformation(LogEntry entry, Map.Entry<String, XAttribute> attribute) throws ParserException {
-		entry.addMetaAttribute(new DataAttribute(attribute.getKey(), attribute.getValue()));
+	private void addMetaInformation(LogEntry entry, Map.Entry<String, XAttribute> attribute, SymbolTable symbols) throws ParserException {
+		entry.addMetaAttribute(new DataAttribute(symbols.canonicalize(attribute.getKey()), attribute.getValue()));
 	}
 
 	private Collection<Long> getSimilarInstances(XTrace trace) throws ParserException {
 		// Check for similar instances
-		Integer numSimilarInstances = null;
+		String numSimilarInstances = null;
 		String groupedIdentifiers = null;
 		for (Entry<String, XAttribute> v : trace.getAttributes().entrySet()) {
-			if (v.getKey().toLowerCase().equals("numSimilarInstances".toLowerCase())) {
-				try {
-					numSimilarInstances = Integer.parseInt(v.getValue().toString().trim());
-				} catch (NumberFormatException e) {
-					throw new ParserException("The value of \"numSimilarInstances\" is not of the type integer: " + v.getValue().toString() + ": " + e.getMessage());
-				}
+			if (v.getKey().equalsIgnoreCase("numSimilarInstances")) {
+				numSimilarInstances = v.getValue().toString();
 			}
-			if (v.getKey().toLowerCase().equals("GroupedIdentifiers".toLowerCase())) {
+			if (v.getKey().equalsIgnoreCase("GroupedIdentifiers")) {
 				groupedIdentifiers = v.getValue().toString();
 			}
 		}
+		return getSimilarInstances(numSimilarInstances, groupedIdentifiers);
+	}
+
+	/**
+	 * Interprets the values of the trace attributes <i>numSimilarInstances</i> and <i>GroupedIdentifiers</i>.
+	 * 
+	 * @return The case numbers of similar instances or <code>null</code> if there are none.
+	 */
+	static Collection<Long> getSimilarInstances(String numSimilarInstancesString, String groupedIdentifiers) throws ParserException {
+		Integer numSimilarInstances = null;
+		if (numSimilarInstancesString != null) {
+			try {
+				numSimilarInstances = Integer.parseInt(numSimilarInstancesString.trim());
+			} catch (NumberFormatException e) {
+				throw new ParserException("The value of \"numSimilarInstances\" is not of the type integer: " + numSimilarInstancesString + ": " + e.getMessage());
+			}
+		}
 		if (numSimilarInstances != null && groupedIdentifiers != null) {
 			String[] groupedIdentifiersSplitted = groupedIdentifiers.trim().split("\\s*,\\s*");
 
@@ -401,10 +501,9 @@ public class XESLogParser extends AbstractLogParser {
 	}
 
 	/**
-	 * Tries to parse the value of a {@link XAttribute} to a numeric, boolean, or string value.
+	 * Tries to parse the string value of an attribute to a numeric, boolean, or string value.
 	 */
-	private Object parseAttributeValue(XAttribute xAttribute) {
-		String attributeString = xAttribute.toString();
+	static Object parseAttributeValue(String attributeString) {
 
 		// TODO better solution?
 
@@ -428,7 +527,7 @@ public class XESLogParser extends AbstractLogParser {
 	 * Takes a String containing {@link DataUsage} identifier separated by commas, removes every leading and training whitespace, and parses them into a {@link List}. <br>
 	 * TODO move to TOVAL into enum {@link DataUsage}?
 	 */
-	private static List<DataUsage> parseDataUsageString(String dataUsageString) throws ParameterException {
+	static List<DataUsage> parseDataUsageString(String dataUsageString) throws ParameterException {
 		List<String> dataUsageStrings = Arrays.asList(dataUsageString.split("\\s*,\\s*"));
 		List<DataUsage> dataUsageList = new ArrayList<>(dataUsageStrings.size());
 		for (String d : dataUsageStrings) {
@@ -439,6 +538,76 @@ public class XESLogParser extends AbstractLogParser {
 		return dataUsageList;
 	}
 
+	/**
+	 * Trace iterator that parses the fragments of a {@link TraceWiseXesIterator} one after another with OpenXES.
+	 */
+	private class XESTraceIterator extends LogTraceIterator {
+
+		private final TraceWiseXesIterator fragments;
+		private final XParser parser;
+		private final SymbolTable symbols;
+		private Iterator<LogTrace<LogEntry>> fragmentTraces = null;
+
+		XESTraceIterator(TraceWiseXesIterator fragments, ParsingMode parsingMode, SymbolTable symbols) throws ParameterException {
+			super(parsingMode);
+			this.fragments = fragments;
+			this.parser = ParserFileFormat.XES.getParser();
+			this.symbols = symbols;
+		}
+
+		@Override
+		protected LogTrace<LogEntry> readNextTrace() throws ParserException {
+			while (fragmentTraces == null || !fragmentTraces.hasNext()) {
+				if (!fragments.hasNext())
+					return null;
+				Collection<XLog> logs = null;
+				try {
+					logs = parser.parse(fragments.next());
+				} catch (Exception e) {
+					throw new ParserException("Exception while parsing with OpenXES: " + e.getMessage());
+				}
+				List<LogTrace<LogEntry>> traces = new ArrayList<>();
+				for (XLog log : logs) {
+					Class<?> logEntryClass = getLogEntryClass(log);
+					for (XTrace trace : log) {
+						traces.add(buildLogTrace(trace, logEntryClass, symbols));
+					}
+				}
+				fragmentTraces = traces.iterator();
+			}
+			return fragmentTraces.next();
+		}
+
+		@Override
+		public void close() throws IOException {
+			fragmentTraces = null;
+			fragments.close();
+		}
+	}
+
+	/**
+	 * Trace iterator that reads the traces of a document with the native {@link XESStreamReader}.
+	 */
+	private static class XESStreamTraceIterator extends LogTraceIterator {
+
+		private final XESStreamReader reader;
+
+		XESStreamTraceIterator(XESStreamReader reader, ParsingMode parsingMode) {
+			super(parsingMode);
+			this.reader = reader;
+		}
+
+		@Override
+		protected LogTrace<LogEntry> readNextTrace() throws ParserException {
+			return reader.readNextTrace();
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+
 	public static void main(String[] args) throws ParameterException, ParserException {
                 XESLogParser p = new XESLogParser();
 		List<List<LogTrace<LogEntry>>> l = p.parse("/home/alange/P2P-log-v6-anonymized.xes", ParsingMode.COMPLETE);
@@ -0,0 +1,314 @@
+package de.uni.freiburg.iig.telematik.sewol.parser.xes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.deckfour.xes.extension.XExtension;
+import org.deckfour.xes.extension.XExtensionManager;
+import org.deckfour.xes.factory.XFactory;
+import org.deckfour.xes.factory.XFactoryRegistry;
+import org.deckfour.xes.id.XID;
+import org.deckfour.xes.in.XesXmlParser;
+import org.deckfour.xes.model.XAttribute;
+import org.deckfour.xes.model.XAttributeCollection;
+import org.deckfour.xes.util.XsDateTimeConversion;
+import org.deckfour.xes.util.XsDateTimeConversionJava7;
+
+import de.invation.code.toval.parser.ParserException;
+import de.invation.code.toval.validate.ParameterException;
+import de.invation.code.toval.validate.Validate;
+import de.uni.freiburg.iig.telematik.sewol.log.DULogEntry;
+import de.uni.freiburg.iig.telematik.sewol.log.DataAttribute;
+import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
+import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
+import de.uni.freiburg.iig.telematik.sewol.parser.SymbolTable;
+import de.uni.freiburg.iig.telematik.sewol.parser.TimestampParser;
+
+/**
+ * <p>
+ * StAX based reader for XES documents that builds {@link LogTrace}s,
+ * {@link LogEntry}s and {@link DULogEntry}s directly from the stream without
+ * creating the OpenXES object model first.
+ * </p>
+ * <p>
+ * The reader interprets the event attributes in the same way as the OpenXES
+ * based path of {@link XESLogParser}: the standard attributes of the concept,
+ * organizational, lifecycle and time extensions are mapped to the fields of the
+ * log entry, attributes with a <i>dataUsage:usage</i> sub-attribute become data
+ * attributes of a {@link DULogEntry} and all remaining attributes are added as
+ * meta attributes. Like in the OpenXES based path, the values of meta
+ * attributes are the OpenXES attributes including their nested attributes.
+ * </p>
+ *
+ * @version 1.0.2
+ * @since 1.0.2
+ */
+class XESStreamReader implements Closeable {
+
+        private static final String ELEMENT_EXTENSION = "extension";
+        private static final String ELEMENT_GLOBAL = "global";
+        private static final String ELEMENT_TRACE = "trace";
+        private static final String ELEMENT_EVENT = "event";
+        private static final String ATTRIBUTE_KEY = "key";
+        private static final String ATTRIBUTE_VALUE = "value";
+        private static final String ATTRIBUTE_NAME = "name";
+
+        private static final String TYPE_STRING = "string";
+        private static final String TYPE_DATE = "date";
+        private static final String TYPE_INT = "int";
+        private static final String TYPE_FLOAT = "float";
+        private static final String TYPE_BOOLEAN = "boolean";
+        private static final String TYPE_ID = "id";
+        private static final String TYPE_LIST = "list";
+        private static final String TYPE_CONTAINER = "container";
+
+        private final InputStream inputStream;
+        private final XMLStreamReader reader;
+        private final TimestampParser timestampParser = new TimestampParser();
+        private final XsDateTimeConversion dateTimeConversion = new XsDateTimeConversionJava7();
+        private final XFactory factory = XFactoryRegistry.instance().currentDefault();
+        private final SymbolTable symbols;
+        private boolean containsDataUsageExtension = false;
+
+        XESStreamReader(InputStream inputStream, SymbolTable symbols) throws ParserException {
+                Validate.notNull(inputStream);
+                Validate.notNull(symbols);
+                this.inputStream = inputStream;
+                this.symbols = symbols;
+                try {
+                        reader = XMLInputFactory.newInstance().createXMLStreamReader(inputStream);
+                } catch (XMLStreamException e) {
+                        throw new ParserException(e);
+                }
+        }
+
+        /**
+         * Reads the next trace of the document.
+         *
+         * @return The next trace or <code>null</code> if the end of the document
+         * is reached.
+         * @throws ParserException if the document is malformed or an attribute
+         * value cannot be interpreted.
+         */
+        LogTrace<LogEntry> readNextTrace() throws ParserException {
+                try {
+                        while (reader.hasNext()) {
+                                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                                        continue;
+                                }
+                                switch (reader.getLocalName()) {
+                                        case ELEMENT_EXTENSION:
+                                                if (DataUsageExtension.EXTENSION_NAME.equals(reader.getAttributeValue(null, ATTRIBUTE_NAME))) {
+                                                        containsDataUsageExtension = true;
+                                                }
+                                                break;
+                                        case ELEMENT_GLOBAL:
+                                                skipElement();
+                                                break;
+                                        case ELEMENT_TRACE:
+                                                return readTrace();
+                                        default:
+                                                break;
+                                }
+                        }
+                        return null;
+                } catch (XMLStreamException e) {
+                        throw new ParserException(e);
+                }
+        }
+
+        private LogTrace<LogEntry> readTrace() throws XMLStreamException, ParserException {
+                String traceName = null;
+                String numSimilarInstances = null;
+                String groupedIdentifiers = null;
+                List<LogEntry> entries = new ArrayList<>();
+
+                while (reader.hasNext()) {
+                        int event = reader.next();
+                        if (event == XMLStreamConstants.END_ELEMENT) {
+                                break;
+                        }
+                        if (event != XMLStreamConstants.START_ELEMENT) {
+                                continue;
+                        }
+                        if (ELEMENT_EVENT.equals(reader.getLocalName())) {
+                                entries.add(readEvent());
+                                continue;
+                        }
+                        String key = reader.getAttributeValue(null, ATTRIBUTE_KEY);
+                        String value = reader.getAttributeValue(null, ATTRIBUTE_VALUE);
+                        if ("concept:name".equals(key)) {
+                                traceName = value;
+                        } else if ("numSimilarInstances".equalsIgnoreCase(key)) {
+                                numSimilarInstances = value;
+                        } else if ("GroupedIdentifiers".equalsIgnoreCase(key)) {
+                                groupedIdentifiers = value;
+                        }
+                        skipElement();
+                }
+
+                if (traceName == null) {
+                        throw new ParserException("Cannot extract case-id");
+                }
+                LogTrace<LogEntry> logTrace = new LogTrace<>(XESLogParser.parseTraceID(traceName));
+                Collection<Long> similarInstances = XESLogParser.getSimilarInstances(numSimilarInstances, groupedIdentifiers);
+                if (similarInstances != null) {
+                        logTrace.setSimilarInstances(similarInstances);
+                }
+                for (LogEntry entry : entries) {
+                        logTrace.addEntry(entry);
+                }
+                return logTrace;
+        }
+
+        private LogEntry readEvent() throws XMLStreamException, ParserException {
+                LogEntry logEntry = containsDataUsageExtension ? new DULogEntry() : new LogEntry();
+
+                while (reader.hasNext()) {
+                        int event = reader.next();
+                        if (event == XMLStreamConstants.END_ELEMENT) {
+                                break;
+                        }
+                        if (event != XMLStreamConstants.START_ELEMENT) {
+                                continue;
+                        }
+                        String type = reader.getLocalName();
+                        String key = reader.getAttributeValue(null, ATTRIBUTE_KEY);
+                        String value = reader.getAttributeValue(null, ATTRIBUTE_VALUE);
+                        XAttribute attribute = readAttribute(type, key, value);
+                        if (key == null) {
+                                continue;
+                        }
+                        switch (key) {
+                                case "concept:name":
+                                        XESLogParser.addName(logEntry, symbols.canonicalize(value));
+                                        break;
+                                case "org:resource":
+                                        XESLogParser.addOriginator(logEntry, symbols.canonicalize(value));
+                                        break;
+                                case "Role":
+                                        XESLogParser.addRole(logEntry, symbols.canonicalize(value));
+                                        break;
+                                case "lifecycle:transition":
+                                        XESLogParser.addEventType(logEntry, value);
+                                        break;
+                                case "time:timestamp":
+                                        XESLogParser.addTimestamp(logEntry, value, timestampParser);
+                                        break;
+                                default:
+                                        if (attribute == null) {
+                                                break;
+                                        }
+                                        XAttribute dataUsage = attribute.getAttributes().get(DataUsageExtension.KEY_DATA);
+                                        if (dataUsage != null) {
+                                                try {
+                                                        XESLogParser.addDataUsage(logEntry, symbols.canonicalize(key), value, dataUsage.toString());
+                                                } catch (ParameterException e) {
+                                                        throw new ParserException(e.getMessage());
+                                                }
+                                        } else {
+                                                logEntry.addMetaAttribute(new DataAttribute(symbols.canonicalize(key), attribute));
+                                        }
+                                        break;
+                        }
+                }
+                return logEntry;
+        }
+
+        /**
+         * Consumes the attribute element the reader is positioned on including
+         * all nested attributes and creates the same OpenXES attribute as the
+         * {@link XesXmlParser} does, so that meta attribute values do not
+         * depend on the reader that has been used.
+         *
+         * @return The attribute with its nested attributes or
+         * <code>null</code> if the element is no attribute or its date value
+         * cannot be parsed.
+         */
+        private XAttribute readAttribute(String type, String key, String value) throws XMLStreamException, ParserException {
+                XAttribute attribute = createAttribute(type, key == null ? "" : key, value == null ? "" : value);
+                while (reader.hasNext()) {
+                        int event = reader.next();
+                        if (event == XMLStreamConstants.END_ELEMENT) {
+                                break;
+                        }
+                        if (event != XMLStreamConstants.START_ELEMENT) {
+                                continue;
+                        }
+                        XAttribute nestedAttribute = readAttribute(reader.getLocalName(), reader.getAttributeValue(null, ATTRIBUTE_KEY), reader.getAttributeValue(null, ATTRIBUTE_VALUE));
+                        if (attribute != null && nestedAttribute != null) {
+                                attribute.getAttributes().put(nestedAttribute.getKey(), nestedAttribute);
+                                if (attribute instanceof XAttributeCollection) {
+                                        ((XAttributeCollection) attribute).addToCollection(nestedAttribute);
+                                }
+                        }
+                }
+                return attribute;
+        }
+
+        private XAttribute createAttribute(String type, String key, String value) throws ParserException {
+                XExtension extension = null;
+                int colonIndex = key.indexOf(':');
+                if (colonIndex > 0 && colonIndex < key.length() - 1) {
+                        extension = XExtensionManager.instance().getByPrefix(key.substring(0, colonIndex));
+                }
+                try {
+                        switch (type.toLowerCase()) {
+                                case TYPE_STRING:
+                                        return factory.createAttributeLiteral(key, value, extension);
+                                case TYPE_DATE:
+                                        Date date = dateTimeConversion.parseXsDateTime(value);
+                                        return date != null ? factory.createAttributeTimestamp(key, date, extension) : null;
+                                case TYPE_INT:
+                                        return factory.createAttributeDiscrete(key, Long.parseLong(value), extension);
+                                case TYPE_FLOAT:
+                                        return factory.createAttributeContinuous(key, Double.parseDouble(value), extension);
+                                case TYPE_BOOLEAN:
+                                        return factory.createAttributeBoolean(key, Boolean.parseBoolean(value), extension);
+                                case TYPE_ID:
+                                        return factory.createAttributeID(key, XID.parse(value), extension);
+                                case TYPE_LIST:
+                                        return factory.createAttributeList(key, extension);
+                                case TYPE_CONTAINER:
+                                        return factory.createAttributeContainer(key, extension);
+                                default:
+                                        return null;
+                        }
+                } catch (IllegalArgumentException e) {
+                        throw new ParserException("Cannot parse value of attribute " + key + ": " + e.getMessage());
+                }
+        }
+
+        private void skipElement() throws XMLStreamException {
+                int depth = 1;
+                while (depth > 0 && reader.hasNext()) {
+                        int event = reader.next();
+                        if (event == XMLStreamConstants.START_ELEMENT) {
+                                depth++;
+                        } else if (event == XMLStreamConstants.END_ELEMENT) {
+                                depth--;
+                        }
+                }
+        }
+
+        @Override
+        public void close() throws IOException {
+                try {
+                        reader.close();
+                } catch (XMLStreamException e) {
+                        throw new IOException(e);
+                } finally {
+                        inputStream.close();
+                }
+        }
+}
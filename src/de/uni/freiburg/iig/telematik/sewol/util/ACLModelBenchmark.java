@@ -0,0 +1,101 @@
+package de.uni.freiburg.iig.telematik.sewol.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import de.invation.code.toval.misc.soabase.SOABase;
+import de.invation.code.toval.types.DataUsage;
+import de.uni.freiburg.iig.telematik.sewol.accesscontrol.acl.ACLModel;
+import de.uni.freiburg.iig.telematik.sewol.accesscontrol.acl.BitSetACLModel;
+
+/**
+ * Measures the throughput of
+ * {@link ACLModel#isAuthorizedForObject(String, String, DataUsage)} for the
+ * map-based {@link ACLModel} and the {@link BitSetACLModel} with identical
+ * random permissions and queries.
+ */
+public class ACLModelBenchmark {
+
+	/** Number of subjects of the context */
+	public static final int SUBJECTS = 1000;
+	/** Number of objects of the context */
+	public static final int OBJECTS = 1000;
+	/** Probability of a subject having permissions for an object */
+	public static final double PERMISSION_DENSITY = 0.2;
+	/** Number of queries per run */
+	public static final int QUERIES = 1000000;
+	/** Number of runs that are not measured */
+	public static final int WARMUP_RUNS = 3;
+	/** Number of measured runs */
+	public static final int MEASURED_RUNS = 5;
+
+	public static void main(String[] args) throws Exception {
+		SOABase context = createContext();
+		ACLModel mapModel = new ACLModel("acl", context);
+		BitSetACLModel bitSetModel = new BitSetACLModel("acl", context);
+		addPermissions(mapModel);
+		addPermissions(bitSetModel);
+
+		Random random = new Random(1);
+		String[] subjects = new String[QUERIES];
+		String[] objects = new String[QUERIES];
+		DataUsage[] usages = new DataUsage[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			subjects[i] = "Subject " + random.nextInt(SUBJECTS);
+			objects[i] = "Object " + random.nextInt(OBJECTS);
+			usages[i] = DataUsage.values()[random.nextInt(DataUsage.values().length)];
+		}
+
+		for (ACLModel model : new ACLModel[]{mapModel, bitSetModel}) {
+			long duration = 0;
+			int authorized = 0;
+			for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+				long startTime = System.nanoTime();
+				authorized = 0;
+				for (int i = 0; i < QUERIES; i++) {
+					if (model.isAuthorizedForObject(subjects[i], objects[i], usages[i])) {
+						authorized++;
+					}
+				}
+				if (run >= WARMUP_RUNS) {
+					duration += System.nanoTime() - startTime;
+				}
+			}
+			double nanosPerQuery = duration / (double) (MEASURED_RUNS * QUERIES);
+			System.out.println(String.format("%-14s %8.1f ns/query, %d of %d authorized", model.getClass().getSimpleName() + ":", nanosPerQuery, authorized, QUERIES));
+		}
+	}
+
+	private static SOABase createContext() {
+		SOABase context = new SOABase("context");
+		List<String> subjects = new ArrayList<>();
+		for (int i = 0; i < SUBJECTS; i++) {
+			subjects.add("Subject " + i);
+		}
+		List<String> objects = new ArrayList<>();
+		for (int i = 0; i < OBJECTS; i++) {
+			objects.add("Object " + i);
+		}
+		context.setSubjects(subjects);
+		context.setObjects(objects);
+		return context;
+	}
+
+	private static void addPermissions(ACLModel model) throws Exception {
+		Random random = new Random(0);
+		for (int subject = 0; subject < SUBJECTS; subject++) {
+			for (int object = 0; object < OBJECTS; object++) {
+				if (random.nextDouble() < PERMISSION_DENSITY) {
+					List<DataUsage> usageModes = new ArrayList<>();
+					for (DataUsage usage : DataUsage.values()) {
+						if (random.nextBoolean()) {
+							usageModes.add(usage);
+						}
+					}
+					model.addObjectPermission("Subject " + subject, "Object " + object, usageModes);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package de.uni.freiburg.iig.telematik.sewol.util;
+
+import java.io.File;
+import java.util.Date;
+import java.util.Random;
+
+import de.uni.freiburg.iig.telematik.sewol.format.XESLogFormat;
+import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
+import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
+import de.uni.freiburg.iig.telematik.sewol.parser.LogParser;
+import de.uni.freiburg.iig.telematik.sewol.parser.binary.BinaryLogReader;
+import de.uni.freiburg.iig.telematik.sewol.writer.BinaryLogWriter;
+import de.uni.freiburg.iig.telematik.sewol.writer.LogWriter;
+
+/**
+ * Compares the size and parsing time of a log written as XES file and as
+ * binary log file, as well as the time for reading single traces of the binary
+ * log file by their case number.<br>
+ * The log files are written to the temporary directory and deleted
+ * afterwards.
+ */
+public class BinaryLogBenchmark {
+
+	/** Number of traces of the log */
+	public static final int TRACES = 100000;
+	/** Maximum number of entries of a trace */
+	public static final int MAX_TRACE_LENGTH = 10;
+	/** Number of distinct activities */
+	public static final int ACTIVITIES = 50;
+	/** Number of traces read by their case number */
+	public static final int RANDOM_READS = 10000;
+	/** Number of runs that are not measured */
+	public static final int WARMUP_RUNS = 1;
+	/** Number of measured runs */
+	public static final int MEASURED_RUNS = 3;
+
+	private static final String PATH = System.getProperty("java.io.tmpdir") + File.separator;
+	private static final String FILE_NAME = "BinaryLogBenchmark";
+
+	public static void main(String[] args) throws Exception {
+		XESLogFormat format = new XESLogFormat("benchmark");
+		LogWriter xesWriter = new LogWriter(format, PATH, FILE_NAME);
+		BinaryLogWriter binaryWriter = new BinaryLogWriter(PATH, FILE_NAME);
+		Random random = new Random(0);
+		for (int caseNumber = 0; caseNumber < TRACES; caseNumber++) {
+			LogTrace<LogEntry> trace = createTrace(caseNumber, random);
+			xesWriter.writeTrace(trace);
+			binaryWriter.writeTrace(trace);
+		}
+		xesWriter.closeFile();
+		binaryWriter.closeFile();
+		File xesFile = new File(PATH + FILE_NAME + "." + format.getFileExtension());
+		File binaryFile = binaryWriter.getFile();
+
+		try {
+			System.out.println(String.format("XES:    %10d bytes, parsed in %8.1f ms", xesFile.length(), measureParsing(xesFile)));
+			System.out.println(String.format("Binary: %10d bytes, parsed in %8.1f ms", binaryFile.length(), measureParsing(binaryFile)));
+			System.out.println(String.format("Binary: %d traces read by case number in %8.1f ms", RANDOM_READS, measureRandomReads(binaryFile)));
+		} finally {
+			xesFile.delete();
+			binaryFile.delete();
+		}
+	}
+
+	private static double measureParsing(File file) throws Exception {
+		long duration = 0;
+		for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+			long startTime = System.nanoTime();
+			LogParser.parse(file);
+			if (run >= WARMUP_RUNS) {
+				duration += System.nanoTime() - startTime;
+			}
+		}
+		return duration / 1e6 / MEASURED_RUNS;
+	}
+
+	private static double measureRandomReads(File file) throws Exception {
+		long duration = 0;
+		for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+			Random random = new Random(run);
+			long startTime = System.nanoTime();
+			try (BinaryLogReader reader = new BinaryLogReader(file)) {
+				for (int i = 0; i < RANDOM_READS; i++) {
+					reader.getTrace(random.nextInt(TRACES));
+				}
+			}
+			if (run >= WARMUP_RUNS) {
+				duration += System.nanoTime() - startTime;
+			}
+		}
+		return duration / 1e6 / MEASURED_RUNS;
+	}
+
+	private static LogTrace<LogEntry> createTrace(int caseNumber, Random random) throws Exception {
+		LogTrace<LogEntry> trace = new LogTrace<>(caseNumber);
+		long time = 1420070400000L + caseNumber * 60000L;
+		int length = 1 + random.nextInt(MAX_TRACE_LENGTH);
+		for (int j = 0; j < length; j++) {
+			LogEntry entry = new LogEntry("Activity " + random.nextInt(ACTIVITIES));
+			entry.setOriginator("Originator " + random.nextInt(10));
+			time += random.nextInt(3600000);
+			entry.setTimestamp(new Date(time));
+			trace.addEntry(entry);
+		}
+		return trace;
+	}
+}
@@ -0,0 +1,121 @@
+package de.uni.freiburg.iig.telematik.sewol.util;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.deckfour.xes.factory.XFactory;
+import org.deckfour.xes.factory.XFactoryBufferedImpl;
+import org.deckfour.xes.model.XAttributeMap;
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XTrace;
+import org.deckfour.xes.nikefs2.NikeFS2VirtualFileSystem;
+
+/**
+ * Measures the throughput of reading the events of buffered traces, whose
+ * events are stored in the NikeFS2 virtual file system, with 1, 4 and 16
+ * threads.<br>
+ * Every thread reads all events of the traces whose indexes are congruent to
+ * its index modulo the number of threads, so that the threads only share the
+ * swap files of the file system but no traces. Finally, the usage statistics
+ * of the file system are printed.
+ */
+public class BufferedTraceConcurrencyBenchmark {
+
+	/** Number of buffered traces */
+	public static final int TRACES = 20000;
+	/** Maximum number of events of a trace */
+	public static final int MAX_TRACE_LENGTH = 20;
+	/** Number of distinct activities */
+	public static final int ACTIVITIES = 50;
+	/** Numbers of threads to measure */
+	public static final int[] THREADS = {1, 4, 16};
+	/** Number of runs that are not measured */
+	public static final int WARMUP_RUNS = 1;
+	/** Number of measured runs */
+	public static final int MEASURED_RUNS = 3;
+
+	public static void main(String[] args) throws Exception {
+		List<XTrace> traces = createTraces(new XFactoryBufferedImpl());
+		for (int threads : THREADS) {
+			System.out.println(String.format("%2d threads: %12.0f events/s", threads, benchmark(traces, threads)));
+		}
+		System.out.println(NikeFS2VirtualFileSystem.instance().getStatistics());
+	}
+
+	private static double benchmark(List<XTrace> traces, int threads) throws Exception {
+		long duration = 0;
+		long events = 0;
+		for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+			long startTime = System.nanoTime();
+			long readEvents = read(traces, threads);
+			if (run >= WARMUP_RUNS) {
+				duration += System.nanoTime() - startTime;
+				events += readEvents;
+			}
+		}
+		return events / (duration / 1e9);
+	}
+
+	private static long read(final List<XTrace> traces, final int threads) throws Exception {
+		final AtomicLong events = new AtomicLong();
+		final List<Throwable> failures = new ArrayList<>();
+		List<Thread> workers = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			final int index = i;
+			workers.add(new Thread() {
+				@Override
+				public void run() {
+					try {
+						long readEvents = 0;
+						for (int j = index; j < traces.size(); j += threads) {
+							for (XEvent event : traces.get(j)) {
+								if (event == null || event.getAttributes().isEmpty()) {
+									throw new IllegalStateException("Unable to read event of trace " + j);
+								}
+								readEvents++;
+							}
+						}
+						events.addAndGet(readEvents);
+					} catch (Throwable t) {
+						synchronized (failures) {
+							failures.add(t);
+						}
+					}
+				}
+			});
+		}
+		for (Thread worker : workers) {
+			worker.start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		if (!failures.isEmpty()) {
+			throw new Exception(failures.get(0));
+		}
+		return events.get();
+	}
+
+	private static List<XTrace> createTraces(XFactory factory) {
+		Random random = new Random(0);
+		List<XTrace> traces = new ArrayList<>(TRACES);
+		for (int caseNumber = 0; caseNumber < TRACES; caseNumber++) {
+			XTrace trace = factory.createTrace();
+			long time = 1420070400000L + caseNumber * 60000L;
+			int length = 1 + random.nextInt(MAX_TRACE_LENGTH);
+			for (int j = 0; j < length; j++) {
+				XAttributeMap attributes = factory.createAttributeMap();
+				attributes.put("concept:name", factory.createAttributeLiteral("concept:name", "Activity " + random.nextInt(ACTIVITIES), null));
+				attributes.put("org:resource", factory.createAttributeLiteral("org:resource", "Originator " + random.nextInt(10), null));
+				time += random.nextInt(3600000);
+				attributes.put("time:timestamp", factory.createAttributeTimestamp("time:timestamp", new Date(time), null));
+				trace.add(factory.createEvent(attributes));
+			}
+			traces.add(trace);
+		}
+		return traces;
+	}
+}
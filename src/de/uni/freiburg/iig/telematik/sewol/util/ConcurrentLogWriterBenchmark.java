@@ -0,0 +1,130 @@
+package de.uni.freiburg.iig.telematik.sewol.util;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import de.uni.freiburg.iig.telematik.sewol.format.XESLogFormat;
+import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
+import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
+import de.uni.freiburg.iig.telematik.sewol.writer.ConcurrentLogWriter;
+import de.uni.freiburg.iig.telematik.sewol.writer.LogWriter;
+
+/**
+ * Compares the throughput of generating and writing traces with 1, 4 and 16
+ * threads, using a {@link LogWriter} shared under a lock and a
+ * {@link ConcurrentLogWriter} without and with case ordering.<br>
+ * Every thread generates the traces whose case numbers are congruent to its
+ * index modulo the number of threads, in ascending order. The log files are
+ * written to the temporary directory and deleted afterwards.
+ */
+public class ConcurrentLogWriterBenchmark {
+
+	/** Number of traces written per run */
+	public static final int TRACES = 200000;
+	/** Maximum number of entries of a trace */
+	public static final int MAX_TRACE_LENGTH = 10;
+	/** Number of distinct activities */
+	public static final int ACTIVITIES = 50;
+	/** Numbers of threads to measure */
+	public static final int[] THREADS = {1, 4, 16};
+	/** Number of runs that are not measured */
+	public static final int WARMUP_RUNS = 1;
+	/** Number of measured runs */
+	public static final int MEASURED_RUNS = 3;
+
+	private static final String PATH = System.getProperty("java.io.tmpdir") + File.separator;
+
+	private enum Mode {
+		SYNCHRONIZED, CONCURRENT, CONCURRENT_ORDERED
+	}
+
+	public static void main(String[] args) throws Exception {
+		for (int threads : THREADS) {
+			for (Mode mode : Mode.values()) {
+				System.out.println(String.format("%2d threads, %-18s %10.0f traces/s", threads, mode, benchmark(threads, mode)));
+			}
+		}
+	}
+
+	private static double benchmark(int threads, Mode mode) throws Exception {
+		long duration = 0;
+		for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+			long startTime = System.nanoTime();
+			write(threads, mode);
+			if (run >= WARMUP_RUNS) {
+				duration += System.nanoTime() - startTime;
+			}
+		}
+		return TRACES * (double) MEASURED_RUNS / (duration / 1e9);
+	}
+
+	private static void write(final int threads, Mode mode) throws Exception {
+		String fileName = "ConcurrentLogWriterBenchmark";
+		XESLogFormat format = new XESLogFormat("benchmark");
+		final LogWriter writer;
+		if (mode == Mode.SYNCHRONIZED) {
+			writer = new LogWriter(format, PATH, fileName);
+		} else {
+			ConcurrentLogWriter concurrentWriter = new ConcurrentLogWriter(format, PATH, fileName);
+			if (mode == Mode.CONCURRENT_ORDERED) {
+				concurrentWriter.setCaseOrdering(0);
+			}
+			writer = concurrentWriter;
+		}
+		final boolean lock = mode == Mode.SYNCHRONIZED;
+		final List<Throwable> failures = new ArrayList<>();
+		List<Thread> workers = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			final int index = i;
+			Thread worker = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						Random random = new Random(index);
+						for (int caseNumber = index; caseNumber < TRACES; caseNumber += threads) {
+							LogTrace<LogEntry> trace = createTrace(caseNumber, random);
+							if (lock) {
+								synchronized (writer) {
+									writer.writeTrace(trace);
+								}
+							} else {
+								writer.writeTrace(trace);
+							}
+						}
+					} catch (Throwable e) {
+						synchronized (failures) {
+							failures.add(e);
+						}
+					}
+				}
+			});
+			workers.add(worker);
+			worker.start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		writer.closeFile();
+		new File(PATH + fileName + "." + format.getFileExtension()).delete();
+		if (!failures.isEmpty()) {
+			throw new Exception(failures.get(0));
+		}
+	}
+
+	private static LogTrace<LogEntry> createTrace(int caseNumber, Random random) throws Exception {
+		LogTrace<LogEntry> trace = new LogTrace<>(caseNumber);
+		long time = 1420070400000L + caseNumber * 60000L;
+		int length = 1 + random.nextInt(MAX_TRACE_LENGTH);
+		for (int j = 0; j < length; j++) {
+			LogEntry entry = new LogEntry("Activity " + random.nextInt(ACTIVITIES));
+			entry.setOriginator("Originator " + random.nextInt(10));
+			time += random.nextInt(3600000);
+			entry.setTimestamp(new Date(time));
+			trace.addEntry(entry);
+		}
+		return trace;
+	}
+}
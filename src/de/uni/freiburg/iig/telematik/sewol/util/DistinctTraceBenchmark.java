@@ -0,0 +1,89 @@
+package de.uni.freiburg.iig.telematik.sewol.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import de.uni.freiburg.iig.telematik.sewol.log.Log;
+import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
+import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
+
+/**
+ * Measures the time for adding a large log with few distinct activity
+ * sequences to a {@link Log}, including the bookkeeping of similar instances.
+ * For comparison, the former approach of scanning all stored traces for every
+ * duplicate is measured on a smaller log.
+ */
+public class DistinctTraceBenchmark {
+
+	/** Number of traces of the log */
+	public static final int TRACES = 1000000;
+	/** Number of traces for the former approach, which is quadratic in the number of traces */
+	public static final int TRACES_LINEAR_SCAN = 20000;
+	/** Number of distinct activity sequences */
+	public static final int VARIANTS = 20;
+	/** Maximum number of entries of a trace */
+	public static final int MAX_TRACE_LENGTH = 10;
+
+	public static void main(String[] args) throws Exception {
+		List<List<String>> variants = createVariants();
+
+		List<LogTrace<LogEntry>> traces = createTraces(variants, TRACES);
+		long startTime = System.nanoTime();
+		Log<LogEntry> log = new Log<>();
+		log.addTraces(traces);
+		long duration = System.nanoTime() - startTime;
+		System.out.println("Fingerprint index: " + TRACES + " traces, " + log.getDistinctTraceCount() + " distinct, " + (duration / 1000000) + " ms");
+
+		traces = createTraces(variants, TRACES_LINEAR_SCAN);
+		startTime = System.nanoTime();
+		addWithLinearScan(traces);
+		duration = System.nanoTime() - startTime;
+		System.out.println("Linear scan:       " + TRACES_LINEAR_SCAN + " traces, " + (duration / 1000000) + " ms");
+	}
+
+	private static List<List<String>> createVariants() {
+		Random random = new Random(0);
+		List<List<String>> variants = new ArrayList<>();
+		for (int i = 0; i < VARIANTS; i++) {
+			List<String> activities = new ArrayList<>();
+			int length = 1 + random.nextInt(MAX_TRACE_LENGTH);
+			for (int j = 0; j < length; j++) {
+				activities.add("Activity " + random.nextInt(VARIANTS));
+			}
+			variants.add(activities);
+		}
+		return variants;
+	}
+
+	private static List<LogTrace<LogEntry>> createTraces(List<List<String>> variants, int count) {
+		Random random = new Random(1);
+		List<LogTrace<LogEntry>> traces = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			LogTrace<LogEntry> trace = new LogTrace<>();
+			for (String activity : variants.get(random.nextInt(variants.size()))) {
+				trace.addEntry(new LogEntry(activity));
+			}
+			traces.add(trace);
+		}
+		return traces;
+	}
+
+	/**
+	 * Bookkeeping of similar instances by comparing the entries of each added
+	 * trace with the ones of all stored traces.
+	 */
+	private static void addWithLinearScan(List<LogTrace<LogEntry>> traces) {
+		List<LogTrace<LogEntry>> storedTraces = new ArrayList<>();
+		for (LogTrace<LogEntry> trace : traces) {
+			trace.setCaseNumber(storedTraces.size() + 1);
+			storedTraces.add(trace);
+			for (LogTrace<LogEntry> storedTrace : storedTraces) {
+				if (storedTrace.getEntries().equals(trace.getEntries())) {
+					storedTrace.addSimilarInstance(trace.getCaseNumber());
+					trace.addSimilarInstance(storedTrace.getCaseNumber());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package de.uni.freiburg.iig.telematik.sewol.util;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import de.uni.freiburg.iig.telematik.sewol.log.ColumnarLog;
+import de.uni.freiburg.iig.telematik.sewol.log.DULogEntry;
+import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
+import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
+
+/**
+ * Reports the heap footprint of log entries. The size of an object is
+ * determined as the growth of the used heap after garbage collection when
+ * creating a large number of objects, divided by the number of objects.<br>
+ * Entries have an activity, an originator and a timestamp, the strings being
+ * shared between entries. The sizes include the timestamp {@link Date}. The
+ * empty {@link HashSet} and {@link HashMap}s are reported separately, since
+ * every {@link LogEntry} allocated one of each and every {@link DULogEntry} an
+ * additional {@link HashMap} before they were created on first use.
+ */
+public class LogEntryFootprintBenchmark {
+
+	/** Number of objects created per measurement */
+	public static final int OBJECTS = 1000000;
+	/** Number of entries of a trace of the columnar log */
+	public static final int TRACE_LENGTH = 10;
+
+	private static final String[] ACTIVITIES = {"Register", "Check", "Decide", "Notify", "Archive"};
+	private static final String[] ORIGINATORS = {"Alice", "Bob", "Carol"};
+
+	public static void main(String[] args) throws Exception {
+		report("LogEntry", measure(new Factory() {
+			@Override
+			public Object create(int index) throws Exception {
+				return createEntry(new LogEntry(), index);
+			}
+		}));
+		report("DULogEntry", measure(new Factory() {
+			@Override
+			public Object create(int index) throws Exception {
+				return createEntry(new DULogEntry(), index);
+			}
+		}));
+		report("Empty HashSet (former metaData)", measure(new Factory() {
+			@Override
+			public Object create(int index) {
+				return new HashSet<>();
+			}
+		}));
+		report("Empty HashMap (former locking/dataUsage)", measure(new Factory() {
+			@Override
+			public Object create(int index) {
+				return new HashMap<>();
+			}
+		}));
+		report("ColumnarLog entry", measureColumnarLog());
+	}
+
+	private static LogEntry createEntry(LogEntry entry, int index) throws Exception {
+		entry.setActivity(ACTIVITIES[index % ACTIVITIES.length]);
+		entry.setOriginator(ORIGINATORS[index % ORIGINATORS.length]);
+		entry.setTimestamp(new Date(index * 1000L));
+		return entry;
+	}
+
+	private static double measure(Factory factory) throws Exception {
+		Object[] objects = new Object[OBJECTS];
+		long before = usedMemory();
+		for (int i = 0; i < OBJECTS; i++) {
+			objects[i] = factory.create(i);
+		}
+		long after = usedMemory();
+		if (objects[OBJECTS - 1] == null) {
+			System.out.println();
+		}
+		return (double) (after - before) / OBJECTS;
+	}
+
+	/**
+	 * Measures the columnar log per entry, including the views on its
+	 * traces. The traces added to the log are not referenced by it.
+	 */
+	private static double measureColumnarLog() throws Exception {
+		long before = usedMemory();
+		ColumnarLog log = new ColumnarLog();
+		for (int i = 0; i < OBJECTS; i += TRACE_LENGTH) {
+			LogTrace<LogEntry> trace = new LogTrace<>();
+			for (int j = i; j < i + TRACE_LENGTH; j++) {
+				trace.addEntry(createEntry(new LogEntry(), j));
+			}
+			log.addTrace(trace);
+		}
+		log.trimToSize();
+		long after = usedMemory();
+		return (double) (after - before) / log.getEventCount();
+	}
+
+	private static long usedMemory() throws InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static void report(String name, double bytes) {
+		System.out.println(String.format("%-42s %6.1f bytes", name, bytes));
+	}
+
+	private interface Factory {
+
+		Object create(int index) throws Exception;
+	}
+}
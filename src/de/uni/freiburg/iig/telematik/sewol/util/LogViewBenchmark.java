@@ -0,0 +1,85 @@
+package de.uni.freiburg.iig.telematik.sewol.util;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
+import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
+import de.uni.freiburg.iig.telematik.sewol.log.LogView;
+import de.uni.freiburg.iig.telematik.sewol.log.filter.ContainsFilter;
+import de.uni.freiburg.iig.telematik.sewol.log.filter.ContainsFilter.ContainsFilterParameter;
+import de.uni.freiburg.iig.telematik.sewol.log.filter.TimeFilter;
+
+/**
+ * Compares the time for evaluating a {@link TimeFilter} and a
+ * {@link ContainsFilter} on a large {@link LogView} sequentially and in the
+ * common fork-join pool.
+ */
+public class LogViewBenchmark {
+
+	/** Number of traces of the view */
+	public static final int TRACES = 2000000;
+	/** Maximum number of entries of a trace */
+	public static final int MAX_TRACE_LENGTH = 10;
+	/** Number of distinct activities */
+	public static final int ACTIVITIES = 50;
+	/** Number of runs that are not measured */
+	public static final int WARMUP_RUNS = 2;
+	/** Number of measured runs */
+	public static final int MEASURED_RUNS = 5;
+
+	public static void main(String[] args) throws Exception {
+		List<LogTrace<LogEntry>> traces = createTraces();
+		System.out.println("Sequential: " + benchmark(traces, false) + " ms/run");
+		System.out.println("Parallel:   " + benchmark(traces, true) + " ms/run");
+	}
+
+	private static List<LogTrace<LogEntry>> createTraces() throws Exception {
+		Random random = new Random(0);
+		long now = System.currentTimeMillis();
+		List<LogTrace<LogEntry>> traces = new ArrayList<>(TRACES);
+		for (int i = 0; i < TRACES; i++) {
+			LogTrace<LogEntry> trace = new LogTrace<>(i + 1);
+			long time = now - (long) (random.nextDouble() * 1e11);
+			int length = 1 + random.nextInt(MAX_TRACE_LENGTH);
+			for (int j = 0; j < length; j++) {
+				LogEntry entry = new LogEntry("Activity " + random.nextInt(ACTIVITIES));
+				time += random.nextInt(3600000);
+				entry.setTimestamp(new Date(time));
+				trace.addEntry(entry);
+			}
+			traces.add(trace);
+		}
+		return traces;
+	}
+
+	private static double benchmark(List<LogTrace<LogEntry>> traces, boolean parallel) throws Exception {
+		LogView<LogEntry> view = new LogView<>("benchmark");
+		view.setParallelEvaluation(parallel);
+		view.addTraces(traces);
+		long now = System.currentTimeMillis();
+		TimeFilter<LogEntry> timeFilter = new TimeFilter<>(new Date(now - (long) 8e10), new Date(now));
+		ContainsFilter<LogEntry> containsFilter = new ContainsFilter<>(ContainsFilterParameter.ACTIVITY, "Activity 0");
+		view.addFilter(timeFilter);
+		view.addFilter(containsFilter);
+
+		long checksum = 0;
+		long duration = 0;
+		for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+			long startTime = System.nanoTime();
+			// changing the filters forces their evaluation on the next access
+			timeFilter.setStartDate(new Date(now - (long) (8e10 + run)));
+			containsFilter.setValue("Activity " + (run % ACTIVITIES));
+			checksum += view.getTraces().size() + view.getSummary().getActivities().size();
+			if (run >= WARMUP_RUNS) {
+				duration += System.nanoTime() - startTime;
+			}
+		}
+		if (checksum == 0) {
+			System.out.println();
+		}
+		return duration / 1e6 / MEASURED_RUNS;
+	}
+}
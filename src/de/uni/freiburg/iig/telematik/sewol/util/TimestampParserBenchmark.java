@@ -0,0 +1,80 @@
+package de.uni.freiburg.iig.telematik.sewol.util;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
+
+import de.uni.freiburg.iig.telematik.sewol.parser.ParserDateFormat;
+import de.uni.freiburg.iig.telematik.sewol.parser.TimestampParser;
+
+/**
+ * Compares the time needed for parsing XES timestamps with the
+ * {@link TimestampParser} and with the former approach of trying all
+ * {@link ParserDateFormat}s on the sanitized value.
+ */
+public class TimestampParserBenchmark {
+
+	/** Number of timestamps parsed per run */
+	public static final int TIMESTAMPS = 1000000;
+	/** Number of runs that are not measured */
+	public static final int WARMUP_RUNS = 3;
+	/** Number of measured runs */
+	public static final int MEASURED_RUNS = 5;
+
+	public static void main(String[] args) throws Exception {
+		String[] timestamps = createTimestamps();
+
+		System.out.println("ParserDateFormat: " + benchmark(timestamps, false) + " ms/run");
+		System.out.println("TimestampParser:  " + benchmark(timestamps, true) + " ms/run");
+	}
+
+	/**
+	 * Creates timestamps in the notation written by OpenXES, e.g.
+	 * 2015-03-04T12:13:14.123+01:00.
+	 */
+	private static String[] createTimestamps() {
+		DateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+		Random random = new Random(0);
+		long now = System.currentTimeMillis();
+		String[] timestamps = new String[TIMESTAMPS];
+		for (int i = 0; i < TIMESTAMPS; i++) {
+			String timestamp = format.format(new Date(now - (long) (random.nextDouble() * 1e12)));
+			timestamps[i] = timestamp.substring(0, timestamp.length() - 2) + ":" + timestamp.substring(timestamp.length() - 2);
+		}
+		return timestamps;
+	}
+
+	private static double benchmark(String[] timestamps, boolean fastPath) throws ParseException {
+		long checksum = 0;
+		long duration = 0;
+		for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+			TimestampParser parser = new TimestampParser();
+			long startTime = System.nanoTime();
+			for (String timestamp : timestamps) {
+				Date date = fastPath ? parser.parse(timestamp) : parseWithDateFormats(timestamp);
+				checksum += date.getTime();
+			}
+			if (run >= WARMUP_RUNS) {
+				duration += System.nanoTime() - startTime;
+			}
+		}
+		if (checksum == 0) {
+			System.out.println();
+		}
+		return duration / 1e6 / MEASURED_RUNS;
+	}
+
+	private static Date parseWithDateFormats(String value) throws ParseException {
+		String sanitizedDateString = value.replaceAll(":(\\d\\d)$", "$1");
+		for (ParserDateFormat pdf : ParserDateFormat.values()) {
+			try {
+				return ParserDateFormat.getDateFormat(pdf).parse(sanitizedDateString);
+			} catch (ParseException e) {
+				// is allowed to happen
+			}
+		}
+		throw new ParseException(value, 0);
+	}
+}
@@ -0,0 +1,53 @@
+package de.uni.freiburg.iig.telematik.sewol.util;
+
+import java.io.File;
+import java.util.List;
+
+import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
+import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
+import de.uni.freiburg.iig.telematik.sewol.parser.ParsingMode;
+import de.uni.freiburg.iig.telematik.sewol.parser.xes.XESLogParser;
+
+/**
+ * Compares the parsing time and memory usage of the native StAX based XES
+ * reader with the OpenXES based path of {@link XESLogParser}.
+ */
+public class XESParserBenchmark {
+
+	public static final String PATH = "/Users/stocker/Desktop/pseudoLog.xes";
+
+	/** Number of runs that are not measured */
+	public static final int WARMUP_RUNS = 3;
+	/** Number of measured runs */
+	public static final int MEASURED_RUNS = 10;
+	/** Multiplier for converting bytes to megabytes */
+	public static final int MB = 1024 * 1024;
+
+	public static void main(String[] args) throws Exception {
+		File file = new File(args.length > 0 ? args[0] : PATH);
+
+		System.out.println("OpenXES:  " + benchmark(file, true));
+		System.out.println("StAX:     " + benchmark(file, false));
+	}
+
+	private static String benchmark(File file, boolean useOpenXES) throws Exception {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			new XESLogParser(useOpenXES).parse(file, ParsingMode.COMPLETE);
+		}
+
+		long duration = 0;
+		long memory = 0;
+		int traces = 0;
+		for (int i = 0; i < MEASURED_RUNS; i++) {
+			System.gc();
+			long usedBefore = runtime.totalMemory() - runtime.freeMemory();
+			long startTime = System.nanoTime();
+			List<List<LogTrace<LogEntry>>> log = new XESLogParser(useOpenXES).parse(file, ParsingMode.COMPLETE);
+			duration += System.nanoTime() - startTime;
+			memory += runtime.totalMemory() - runtime.freeMemory() - usedBefore;
+			traces = log.get(0).size();
+		}
+		return String.format("%d traces, %.2f ms/run, %d MB/run", traces, duration / 1e6 / MEASURED_RUNS, memory / MB / MEASURED_RUNS);
+	}
+}
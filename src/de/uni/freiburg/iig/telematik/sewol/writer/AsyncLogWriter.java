@@ -0,0 +1,470 @@
+package de.uni.freiburg.iig.telematik.sewol.writer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import de.invation.code.toval.validate.CompatibilityException;
+import de.invation.code.toval.validate.ParameterException;
+import de.invation.code.toval.validate.Validate;
+import de.uni.freiburg.iig.telematik.sewol.format.AbstractLogFormat;
+import de.uni.freiburg.iig.telematik.sewol.format.LogPerspective;
+import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
+import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
+import de.uni.freiburg.iig.telematik.sewol.writer.PerspectiveException.PerspectiveError;
+
+/**
+ * <p>
+ * Log writer that serializes and writes traces on a background thread, so that
+ * the generation of traces and the output to the log file overlap.
+ * </p>
+ * <p>
+ * {@link #writeTrace(LogTrace)} only puts the trace into a bounded ring buffer.
+ * A serializer thread, started with the first trace, takes all buffered traces
+ * at once, serializes them into a batch and writes the batch to the file in
+ * large blocks. When the buffer is full, the {@link BackPressurePolicy}
+ * determines whether the caller waits, the trace is discarded or the call
+ * fails. Since traces are serialized later, they must not be modified after
+ * they have been passed to the writer.
+ * </p>
+ * <p>
+ * {@link #flush()} waits until all traces passed so far have been written and
+ * flushes the file, {@link #closeFile()} writes all remaining traces before
+ * closing the file. Exceptions of the serializer thread are reported by the
+ * next call of {@link #writeTrace(LogTrace)}, {@link #flush()} or
+ * {@link #closeFile()}. The writer may be used by one producer thread at a
+ * time.
+ * </p>
+ *
+ * @version 1.0.2
+ * @since 1.0.2
+ */
+public class AsyncLogWriter extends LogWriter {
+
+	/** Default number of traces the ring buffer can hold */
+	public static final int DEFAULT_BUFFER_CAPACITY = 1024;
+	/** Default number of characters written to the file at once */
+	public static final int DEFAULT_BATCH_SIZE = 64 * 1024;
+
+	/**
+	 * Behavior of {@link AsyncLogWriter#writeTrace(LogTrace)} if the ring
+	 * buffer is full.
+	 */
+	public enum BackPressurePolicy {
+		/** Waits until the serializer thread has taken buffered traces. */
+		BLOCK,
+		/** Discards the trace. Discarded traces are counted. */
+		DISCARD,
+		/** Throws an {@link IOException}. */
+		FAIL
+	}
+
+	private int bufferCapacity = DEFAULT_BUFFER_CAPACITY;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private BackPressurePolicy backPressurePolicy = BackPressurePolicy.BLOCK;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	/** Signaled when traces have been added or a flush has been requested */
+	private final Condition notEmpty = lock.newCondition();
+	/** Signaled when the serializer thread has taken traces */
+	private final Condition notFull = lock.newCondition();
+	/** Signaled when the serializer thread has written a batch */
+	private final Condition batchWritten = lock.newCondition();
+
+	private LogTrace<?>[] buffer = null;
+	private int head = 0;
+	private int count = 0;
+
+	private long submittedTraces = 0;
+	private long writtenTraces = 0;
+	private long discardedTraces = 0;
+	/** Number of written traces when the file was flushed last */
+	private long flushedTraces = 0;
+	private boolean flushRequested = false;
+	private boolean closed = false;
+	private Throwable failure = null;
+
+	private Thread serializer = null;
+
+	//------- Constructors -------------------------------------------------------------------
+
+	/**
+	 * Creates a new asynchronous log writer.
+	 * @see LogWriter#LogWriter(AbstractLogFormat)
+	 * @param logFormat
+	 * @throws PerspectiveException if the log format does not support the writers' log perspective.
+	 * @throws CompatibilityException if the charset of the log writer is not supported by the log format.
+	 * @throws ParameterException if some parameters are <code>null</code> or file name is an empty string.
+	 * @throws IOException if output file creation or header writing cause an exception.
+	 */
+	public AsyncLogWriter(AbstractLogFormat logFormat)
+			throws PerspectiveException, CompatibilityException, ParameterException, IOException {
+		super(logFormat);
+	}
+
+	/**
+	 * Creates a new asynchronous log writer.
+	 * @see LogWriter#LogWriter(AbstractLogFormat, String)
+	 * @param logFormat
+	 * @param fileName
+	 * @throws PerspectiveException if the log format does not support the writers' log perspective.
+	 * @throws CompatibilityException if the charset of the log writer is not supported by the log format.
+	 * @throws ParameterException if some parameters are <code>null</code> or file name is an empty string.
+	 * @throws IOException if output file creation or header writing cause an exception.
+	 */
+	public AsyncLogWriter(AbstractLogFormat logFormat, String fileName)
+			throws PerspectiveException, CompatibilityException, ParameterException, IOException {
+		super(logFormat, fileName);
+	}
+
+	/**
+	 * Creates a new asynchronous log writer.
+	 * @see LogWriter#LogWriter(AbstractLogFormat, String, String)
+	 * @param logFormat
+	 * @param path
+	 * @param fileName
+	 * @throws PerspectiveException if the log format does not support the writers' log perspective.
+	 * @throws CompatibilityException if the charset of the log writer is not supported by the log format.
+	 * @throws ParameterException if some parameters are <code>null</code> or file name is an empty string.
+	 * @throws IOException if output file creation or header writing cause an exception.
+	 */
+	public AsyncLogWriter(AbstractLogFormat logFormat, String path, String fileName)
+			throws PerspectiveException, CompatibilityException, ParameterException, IOException {
+		super(logFormat, path, fileName);
+	}
+
+	/**
+	 * Creates a new asynchronous log writer.
+	 * @see LogWriter#LogWriter(AbstractLogFormat, String, String, Charset)
+	 * @param logFormat
+	 * @param path
+	 * @param fileName
+	 * @param charset
+	 * @throws PerspectiveException if the log format does not support the writers' log perspective.
+	 * @throws CompatibilityException if the charset of the log writer is not supported by the log format.
+	 * @throws ParameterException if some parameters are <code>null</code> or file name is an empty string.
+	 * @throws IOException if output file creation or header writing cause an exception.
+	 */
+	public AsyncLogWriter(AbstractLogFormat logFormat, String path, String fileName, Charset charset)
+			throws PerspectiveException, CompatibilityException, ParameterException, IOException {
+		super(logFormat, path, fileName, charset);
+	}
+
+	//------- Getters and Setters ------------------------------------------------------------
+
+	public int getBufferCapacity() {
+		return bufferCapacity;
+	}
+
+	/**
+	 * Sets the number of traces the ring buffer can hold.<br>
+	 * The capacity can only be changed before the first trace is written.
+	 * @param bufferCapacity The capacity of the buffer.
+	 */
+	public void setBufferCapacity(int bufferCapacity) {
+		Validate.positive(bufferCapacity);
+		lock.lock();
+		try {
+			if (buffer != null)
+				throw new IllegalStateException("Buffer capacity cannot be changed after traces have been written.");
+			this.bufferCapacity = bufferCapacity;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Sets the number of characters of serialized traces that are collected
+	 * before they are written to the file.<br>
+	 * The batch size can only be changed before the first trace is written.
+	 * @param batchSize The batch size in characters.
+	 */
+	public void setBatchSize(int batchSize) {
+		Validate.positive(batchSize);
+		lock.lock();
+		try {
+			if (buffer != null)
+				throw new IllegalStateException("Batch size cannot be changed after traces have been written.");
+			this.batchSize = batchSize;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public BackPressurePolicy getBackPressurePolicy() {
+		return backPressurePolicy;
+	}
+
+	public void setBackPressurePolicy(BackPressurePolicy backPressurePolicy) {
+		Validate.notNull(backPressurePolicy);
+		lock.lock();
+		try {
+			this.backPressurePolicy = backPressurePolicy;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return The number of traces that have been passed to the writer and
+	 * are not written yet.
+	 */
+	public long getPendingTraceCount() {
+		lock.lock();
+		try {
+			return submittedTraces - writtenTraces;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return The number of traces that have been written to the file.
+	 */
+	public long getWrittenTraceCount() {
+		lock.lock();
+		try {
+			return writtenTraces;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return The number of traces that have been discarded because of a
+	 * full buffer.
+	 * @see BackPressurePolicy#DISCARD
+	 */
+	public long getDiscardedTraceCount() {
+		lock.lock();
+		try {
+			return discardedTraces;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	//------- Functionality ------------------------------------------------------------------
+
+	/**
+	 * Puts the trace into the buffer of traces to write.<br>
+	 * This method is only allowed in the trace perspective.
+	 * @param <E>
+	 * @param logTrace The log trace to write. It must not be modified afterwards.
+	 * @throws PerspectiveException
+	 * @throws IOException if writing previous traces failed, the writer is
+	 * closed or the buffer is full under {@link BackPressurePolicy#FAIL}.
+	 */
+	@Override
+	public <E extends LogEntry> void writeTrace(LogTrace<E> logTrace) throws PerspectiveException, IOException {
+		if(logPerspective == LogPerspective.ACTIVITY_PERSPECTIVE)
+			throw new PerspectiveException(PerspectiveError.WRITE_TRACE_IN_ACTIVITY_PERSPECTIVE);
+		Validate.notNull(logTrace);
+
+		lock.lock();
+		try {
+			checkState();
+			if (buffer == null) {
+				buffer = new LogTrace<?>[bufferCapacity];
+				startSerializer();
+			}
+			while (count == buffer.length) {
+				switch (backPressurePolicy) {
+					case DISCARD:
+						discardedTraces++;
+						return;
+					case FAIL:
+						throw new IOException("Trace buffer is full.");
+					case BLOCK:
+					default:
+						await(notFull);
+						checkState();
+				}
+			}
+			buffer[(head + count) % buffer.length] = logTrace;
+			count++;
+			submittedTraces++;
+			notEmpty.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Waits until all traces passed to the writer so far have been written
+	 * and flushes the file.
+	 * @throws IOException if writing the traces or flushing the file failed.
+	 */
+	public void flush() throws IOException {
+		lock.lock();
+		try {
+			checkState();
+			if (serializer == null)
+				return;
+			long target = submittedTraces;
+			while (flushedTraces < target) {
+				flushRequested = true;
+				notEmpty.signal();
+				await(batchWritten);
+				checkState();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Writes all buffered traces and closes the file.
+	 * @throws IOException if writing the traces or closing the file failed.
+	 */
+	@Override
+	public void closeFile() throws IOException {
+		Thread thread;
+		lock.lock();
+		try {
+			closed = true;
+			notEmpty.signal();
+			notFull.signalAll();
+			thread = serializer;
+		} finally {
+			lock.unlock();
+		}
+		if (thread != null) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while writing buffered traces.");
+			}
+		}
+		super.closeFile();
+		if (failure != null)
+			throw new IOException("Writing traces failed.", failure);
+	}
+
+	/**
+	 * Throws an exception if the writer is closed or the serializer thread failed.
+	 * Must be called while holding the lock.
+	 */
+	private void checkState() throws IOException {
+		if (failure != null)
+			throw new IOException("Writing traces failed.", failure);
+		if (closed)
+			throw new IOException("Log writer is closed.");
+	}
+
+	/**
+	 * Waits for the given condition. Must be called while holding the lock.
+	 */
+	private void await(Condition condition) throws InterruptedIOException {
+		try {
+			condition.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the serializer thread.");
+		}
+	}
+
+	private void startSerializer() {
+		serializer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				serialize();
+			}
+		}, "AsyncLogWriter-" + getFileName());
+		serializer.setDaemon(true);
+		serializer.start();
+	}
+
+	/**
+	 * Main loop of the serializer thread.
+	 */
+	private void serialize() {
+		StringBuilder batch = new StringBuilder(batchSize);
+		char[] chunk = new char[batchSize];
+		LogTrace<?>[] traces = new LogTrace<?>[buffer.length];
+		while (true) {
+			int taken;
+			boolean flush;
+			lock.lock();
+			try {
+				while (count == 0 && !closed && !flushRequested) {
+					notEmpty.awaitUninterruptibly();
+				}
+				if (count == 0 && closed) {
+					return;
+				}
+				taken = count;
+				for (int i = 0; i < taken; i++) {
+					int index = (head + i) % buffer.length;
+					traces[i] = buffer[index];
+					buffer[index] = null;
+				}
+				head = (head + taken) % buffer.length;
+				count = 0;
+				flush = flushRequested;
+				flushRequested = false;
+				notFull.signalAll();
+			} finally {
+				lock.unlock();
+			}
+
+			Throwable exception = null;
+			try {
+				if (failure == null) {
+					prepareOutput();
+					for (int i = 0; i < taken; i++) {
+						logFormat.writeTrace(traces[i], batch);
+						traces[i] = null;
+						if (batch.length() >= batchSize) {
+							writeBatch(batch, chunk);
+						}
+					}
+					writeBatch(batch, chunk);
+					if (flush) {
+						output.flush();
+					}
+				}
+			} catch (IOException | RuntimeException e) {
+				exception = e;
+			} finally {
+				for (int i = 0; i < taken; i++) {
+					traces[i] = null;
+				}
+				batch.setLength(0);
+			}
+
+			lock.lock();
+			try {
+				if (exception != null && failure == null) {
+					failure = exception;
+				}
+				writtenTraces += taken;
+				if (flush) {
+					flushedTraces = writtenTraces;
+				}
+				batchWritten.signalAll();
+				notFull.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	private void writeBatch(StringBuilder batch, char[] chunk) throws IOException {
+		int length = batch.length();
+		for (int offset = 0; offset < length; offset += chunk.length) {
+			int end = Math.min(length, offset + chunk.length);
+			batch.getChars(offset, end, chunk, 0);
+			output.write(chunk, 0, end - offset);
+		}
+		batch.setLength(0);
+	}
+
+}
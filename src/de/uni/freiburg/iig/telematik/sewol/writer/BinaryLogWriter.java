@@ -0,0 +1,141 @@
+package de.uni.freiburg.iig.telematik.sewol.writer;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import de.invation.code.toval.validate.ParameterException;
+import de.invation.code.toval.validate.Validate;
+import de.uni.freiburg.iig.telematik.sewol.format.BinaryLogEncoding;
+import de.uni.freiburg.iig.telematik.sewol.format.LogFF_Binary;
+import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
+import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
+
+/**
+ * <p>
+ * Writes traces to a binary log file, which can be parsed considerably faster
+ * than XML-based log files and allows to read single traces by their case
+ * number with
+ * {@link de.uni.freiburg.iig.telematik.sewol.parser.binary.BinaryLogReader}.
+ * Deletes the output file if it already exists.
+ * </p>
+ * <p>
+ * The index of the traces is written by {@link #closeFile()}, so that the
+ * file is incomplete until the writer has been closed. Instances of this class
+ * are not thread-safe.
+ * </p>
+ *
+ * @see BinaryLogEncoding
+ * @version 1.0.2
+ * @since 1.0.2
+ */
+public class BinaryLogWriter {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int INITIAL_INDEX_CAPACITY = 1024;
+
+	private final File file;
+	private final OutputStream output;
+	private final BinaryLogEncoding.Encoder encoder = new BinaryLogEncoding.Encoder();
+	private long position = 0;
+	private long[] caseNumbers = new long[INITIAL_INDEX_CAPACITY];
+	private long[] offsets = new long[INITIAL_INDEX_CAPACITY];
+	private int traceCount = 0;
+	private boolean closed = false;
+
+	/**
+	 * Creates a new binary log writer for the file with the given name and
+	 * the extension of binary log files in the given path.
+	 *
+	 * @param path Path of the log file.
+	 * @param fileName Name of the log file without extension.
+	 * @throws ParameterException if some parameters are <code>null</code> or
+	 * file name is an empty string.
+	 * @throws IOException if output file creation or header writing cause an
+	 * exception.
+	 */
+	public BinaryLogWriter(String path, String fileName) throws IOException {
+		this(createFile(path, fileName));
+	}
+
+	/**
+	 * Creates a new binary log writer for the given file.
+	 *
+	 * @param file The log file.
+	 * @throws ParameterException if the file is <code>null</code>.
+	 * @throws IOException if output file creation or header writing cause an
+	 * exception.
+	 */
+	public BinaryLogWriter(File file) throws IOException {
+		Validate.notNull(file);
+		this.file = file;
+		this.output = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE);
+		encoder.encodeHeader();
+		write();
+	}
+
+	private static File createFile(String path, String fileName) {
+		Validate.notNull(path);
+		Validate.notNull(fileName);
+		Validate.notEmpty(fileName);
+		return new File(path + fileName + "." + new LogFF_Binary().getFileExtension());
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * @return The number of traces written so far.
+	 */
+	public int getTraceCount() {
+		return traceCount;
+	}
+
+	public <E extends LogEntry> void writeTrace(LogTrace<E> logTrace) throws IOException {
+		Validate.notNull(logTrace);
+		ensureOpen();
+		encoder.encodeTrace(logTrace);
+		if (traceCount == caseNumbers.length) {
+			caseNumbers = Arrays.copyOf(caseNumbers, traceCount * 2);
+			offsets = Arrays.copyOf(offsets, traceCount * 2);
+		}
+		caseNumbers[traceCount] = logTrace.getCaseNumber();
+		offsets[traceCount] = position;
+		traceCount++;
+		write();
+	}
+
+	/**
+	 * Writes the dictionary and the index of the traces and closes the
+	 * file.
+	 *
+	 * @throws IOException if writing the trailer or closing the file fails.
+	 */
+	public void closeFile() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			encoder.encodeTrailer(caseNumbers, offsets, traceCount, position);
+			write();
+		} finally {
+			output.close();
+		}
+	}
+
+	private void write() throws IOException {
+		output.write(encoder.getBuffer(), encoder.getOffset(), encoder.getLength());
+		position += encoder.getLength();
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Writer is closed.");
+		}
+	}
+}
@@ -0,0 +1,382 @@
+package de.uni.freiburg.iig.telematik.sewol.writer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import de.invation.code.toval.validate.CompatibilityException;
+import de.invation.code.toval.validate.ParameterException;
+import de.invation.code.toval.validate.Validate;
+import de.uni.freiburg.iig.telematik.sewol.format.AbstractLogFormat;
+import de.uni.freiburg.iig.telematik.sewol.format.LogPerspective;
+import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
+import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
+import de.uni.freiburg.iig.telematik.sewol.writer.PerspectiveException.PerspectiveError;
+
+/**
+ * <p>
+ * Log writer that can be used by many threads simultaneously, e.g. by the
+ * worker threads of a log generator.
+ * </p>
+ * <p>
+ * Every thread serializes its traces into its own buffer, so that
+ * serialization runs in parallel. A buffer is written to the file when it
+ * exceeds the block size, which is the only point where threads synchronize.
+ * The order of traces written by different threads is arbitrary in this mode.
+ * {@link #flush()} and {@link #closeFile()} write the buffers of all threads.
+ * </p>
+ * <p>
+ * With case ordering enabled (see {@link #setCaseOrdering(long)}), traces are
+ * written in the order of their case numbers, which have to be consecutive
+ * starting with the first case number. A serialized trace is kept until all
+ * traces with smaller case numbers have been written. If the maximum number of
+ * kept traces is reached, threads wait until the missing traces are written.
+ * This cannot deadlock as long as every thread writes its traces in ascending
+ * order of case numbers.
+ * </p>
+ *
+ * @version 1.0.2
+ * @since 1.0.2
+ */
+public class ConcurrentLogWriter extends LogWriter {
+
+	/** Default number of characters a thread buffers before writing them to the file */
+	public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+	/** Default maximum number of serialized traces kept for case ordering */
+	public static final int DEFAULT_MAX_PENDING_TRACES = 4096;
+
+	private int blockSize = DEFAULT_BLOCK_SIZE;
+	private int maxPendingTraces = DEFAULT_MAX_PENDING_TRACES;
+	private volatile boolean caseOrdering = false;
+
+	/** Guards the output and all fields below */
+	private final Object outputLock = new Object();
+	/** Set when the first thread buffer is created, from then on settings are fixed */
+	private boolean started = false;
+	private volatile boolean closed = false;
+	private long nextCaseNumber = 0;
+	private final Map<Long, String> pendingTraces = new HashMap<>();
+
+	private final List<ThreadBuffer> threadBuffers = new ArrayList<>();
+	private final ThreadLocal<ThreadBuffer> threadBuffer = new ThreadLocal<ThreadBuffer>() {
+		@Override
+		protected ThreadBuffer initialValue() {
+			ThreadBuffer buffer;
+			synchronized (outputLock) {
+				started = true;
+				buffer = new ThreadBuffer(blockSize);
+			}
+			synchronized (threadBuffers) {
+				threadBuffers.add(buffer);
+			}
+			return buffer;
+		}
+	};
+
+	//------- Constructors -------------------------------------------------------------------
+
+	/**
+	 * Creates a new concurrent log writer.
+	 * @see LogWriter#LogWriter(AbstractLogFormat)
+	 * @param logFormat
+	 * @throws PerspectiveException if the log format does not support the writers' log perspective.
+	 * @throws CompatibilityException if the charset of the log writer is not supported by the log format.
+	 * @throws ParameterException if some parameters are <code>null</code> or file name is an empty string.
+	 * @throws IOException if output file creation or header writing cause an exception.
+	 */
+	public ConcurrentLogWriter(AbstractLogFormat logFormat)
+			throws PerspectiveException, CompatibilityException, ParameterException, IOException {
+		super(logFormat);
+	}
+
+	/**
+	 * Creates a new concurrent log writer.
+	 * @see LogWriter#LogWriter(AbstractLogFormat, String)
+	 * @param logFormat
+	 * @param fileName
+	 * @throws PerspectiveException if the log format does not support the writers' log perspective.
+	 * @throws CompatibilityException if the charset of the log writer is not supported by the log format.
+	 * @throws ParameterException if some parameters are <code>null</code> or file name is an empty string.
+	 * @throws IOException if output file creation or header writing cause an exception.
+	 */
+	public ConcurrentLogWriter(AbstractLogFormat logFormat, String fileName)
+			throws PerspectiveException, CompatibilityException, ParameterException, IOException {
+		super(logFormat, fileName);
+	}
+
+	/**
+	 * Creates a new concurrent log writer.
+	 * @see LogWriter#LogWriter(AbstractLogFormat, String, String)
+	 * @param logFormat
+	 * @param path
+	 * @param fileName
+	 * @throws PerspectiveException if the log format does not support the writers' log perspective.
+	 * @throws CompatibilityException if the charset of the log writer is not supported by the log format.
+	 * @throws ParameterException if some parameters are <code>null</code> or file name is an empty string.
+	 * @throws IOException if output file creation or header writing cause an exception.
+	 */
+	public ConcurrentLogWriter(AbstractLogFormat logFormat, String path, String fileName)
+			throws PerspectiveException, CompatibilityException, ParameterException, IOException {
+		super(logFormat, path, fileName);
+	}
+
+	/**
+	 * Creates a new concurrent log writer.
+	 * @see LogWriter#LogWriter(AbstractLogFormat, String, String, Charset)
+	 * @param logFormat
+	 * @param path
+	 * @param fileName
+	 * @param charset
+	 * @throws PerspectiveException if the log format does not support the writers' log perspective.
+	 * @throws CompatibilityException if the charset of the log writer is not supported by the log format.
+	 * @throws ParameterException if some parameters are <code>null</code> or file name is an empty string.
+	 * @throws IOException if output file creation or header writing cause an exception.
+	 */
+	public ConcurrentLogWriter(AbstractLogFormat logFormat, String path, String fileName, Charset charset)
+			throws PerspectiveException, CompatibilityException, ParameterException, IOException {
+		super(logFormat, path, fileName, charset);
+	}
+
+	//------- Getters and Setters ------------------------------------------------------------
+
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	/**
+	 * Sets the number of characters a thread buffers before writing them to the file.<br>
+	 * The block size can only be changed before the first trace is written.
+	 * @param blockSize The block size in characters.
+	 */
+	public void setBlockSize(int blockSize) {
+		Validate.positive(blockSize);
+		synchronized (outputLock) {
+			checkNotStarted();
+			this.blockSize = blockSize;
+		}
+	}
+
+	public boolean isCaseOrdering() {
+		return caseOrdering;
+	}
+
+	/**
+	 * Lets the writer write traces in the order of their case numbers.<br>
+	 * Case ordering can only be enabled before the first trace is written.
+	 * @param firstCaseNumber The case number of the first trace to write.
+	 */
+	public void setCaseOrdering(long firstCaseNumber) {
+		Validate.notNegative(firstCaseNumber);
+		synchronized (outputLock) {
+			checkNotStarted();
+			this.caseOrdering = true;
+			this.nextCaseNumber = firstCaseNumber;
+		}
+	}
+
+	public int getMaxPendingTraces() {
+		return maxPendingTraces;
+	}
+
+	/**
+	 * Sets the maximum number of serialized traces that are kept until the
+	 * traces with smaller case numbers have been written.
+	 * @param maxPendingTraces The maximum number of kept traces.
+	 */
+	public void setMaxPendingTraces(int maxPendingTraces) {
+		Validate.positive(maxPendingTraces);
+		synchronized (outputLock) {
+			this.maxPendingTraces = maxPendingTraces;
+			outputLock.notifyAll();
+		}
+	}
+
+	/**
+	 * @return The number of serialized traces that wait for traces with
+	 * smaller case numbers.
+	 */
+	public int getPendingTraceCount() {
+		synchronized (outputLock) {
+			return pendingTraces.size();
+		}
+	}
+
+	private void checkNotStarted() {
+		if (started)
+			throw new IllegalStateException("Writer settings cannot be changed after traces have been written.");
+	}
+
+	//------- Functionality ------------------------------------------------------------------
+
+	/**
+	 * Serializes the trace into the buffer of the calling thread.<br>
+	 * This method is only allowed in the trace perspective.
+	 * @param <E>
+	 * @param logTrace The log trace to write.
+	 * @throws PerspectiveException
+	 * @throws ParameterException if case ordering is enabled and a trace with
+	 * the same case number has already been written.
+	 * @throws IOException if the writer is closed or writing to the file failed.
+	 */
+	@Override
+	public <E extends LogEntry> void writeTrace(LogTrace<E> logTrace) throws PerspectiveException, IOException {
+		if(logPerspective == LogPerspective.ACTIVITY_PERSPECTIVE)
+			throw new PerspectiveException(PerspectiveError.WRITE_TRACE_IN_ACTIVITY_PERSPECTIVE);
+		Validate.notNull(logTrace);
+		if (closed)
+			throw new IOException("Log writer is closed.");
+
+		ThreadBuffer buffer = threadBuffer.get();
+		synchronized (buffer) {
+			if (caseOrdering) {
+				buffer.builder.setLength(0);
+				logFormat.writeTrace(logTrace, buffer.builder);
+				writeOrdered(logTrace.getCaseNumber(), buffer);
+			} else {
+				logFormat.writeTrace(logTrace, buffer.builder);
+				if (buffer.builder.length() >= blockSize) {
+					writeBuffer(buffer);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the trace serialized into the given buffer, if all traces with
+	 * smaller case numbers have been written, and keeps it otherwise.
+	 */
+	private void writeOrdered(long caseNumber, ThreadBuffer buffer) throws IOException {
+		synchronized (outputLock) {
+			checkOpen();
+			while (caseNumber > nextCaseNumber && pendingTraces.size() >= maxPendingTraces) {
+				try {
+					outputLock.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while waiting for preceding traces.");
+				}
+				checkOpen();
+			}
+			if (caseNumber < nextCaseNumber || pendingTraces.containsKey(caseNumber))
+				throw new ParameterException("Trace with case number " + caseNumber + " has already been written.");
+			if (caseNumber > nextCaseNumber) {
+				pendingTraces.put(caseNumber, buffer.builder.toString());
+				return;
+			}
+			write(buffer);
+			nextCaseNumber++;
+			String pendingTrace;
+			while ((pendingTrace = pendingTraces.remove(nextCaseNumber)) != null) {
+				output.write(pendingTrace);
+				nextCaseNumber++;
+			}
+			outputLock.notifyAll();
+		}
+	}
+
+	/**
+	 * Writes the content of the given thread buffer to the file.
+	 * Must be called while holding the lock of the buffer.
+	 */
+	private void writeBuffer(ThreadBuffer buffer) throws IOException {
+		synchronized (outputLock) {
+			checkOpen();
+			write(buffer);
+		}
+	}
+
+	/**
+	 * Writes the content of the given thread buffer to the file and clears the buffer.
+	 * Must be called while holding the lock of the buffer and the output.
+	 */
+	private void write(ThreadBuffer buffer) throws IOException {
+		prepareOutput();
+		StringBuilder builder = buffer.builder;
+		char[] chunk = buffer.chunk;
+		int length = builder.length();
+		for (int offset = 0; offset < length; offset += chunk.length) {
+			int end = Math.min(length, offset + chunk.length);
+			builder.getChars(offset, end, chunk, 0);
+			output.write(chunk, 0, end - offset);
+		}
+		builder.setLength(0);
+	}
+
+	private void checkOpen() throws IOException {
+		if (closed)
+			throw new IOException("Log writer is closed.");
+	}
+
+	/**
+	 * Writes the buffers of all threads to the file and flushes it.<br>
+	 * Traces that wait for traces with smaller case numbers are not written.
+	 * @throws IOException if writing to the file failed.
+	 */
+	public void flush() throws IOException {
+		writeThreadBuffers();
+		synchronized (outputLock) {
+			checkOpen();
+			if (output != null)
+				output.flush();
+		}
+	}
+
+	private void writeThreadBuffers() throws IOException {
+		if (caseOrdering)
+			return;
+		List<ThreadBuffer> buffers;
+		synchronized (threadBuffers) {
+			buffers = new ArrayList<>(threadBuffers);
+		}
+		for (ThreadBuffer buffer : buffers) {
+			synchronized (buffer) {
+				if (buffer.builder.length() > 0) {
+					writeBuffer(buffer);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the buffers of all threads and closes the file.<br>
+	 * With case ordering, traces still waiting for traces with smaller case
+	 * numbers are written in the order of their case numbers.
+	 * @throws IOException if writing to the file failed.
+	 */
+	@Override
+	public void closeFile() throws IOException {
+		writeThreadBuffers();
+		synchronized (outputLock) {
+			if (!pendingTraces.isEmpty()) {
+				prepareOutput();
+				for (String pendingTrace : new TreeMap<>(pendingTraces).values()) {
+					output.write(pendingTrace);
+				}
+				pendingTraces.clear();
+			}
+			closed = true;
+			outputLock.notifyAll();
+			super.closeFile();
+		}
+	}
+
+	/**
+	 * Serialization buffer of a thread.
+	 */
+	private static class ThreadBuffer {
+
+		private final StringBuilder builder;
+		private final char[] chunk;
+
+		private ThreadBuffer(int blockSize) {
+			builder = new StringBuilder(blockSize);
+			chunk = new char[Math.min(blockSize, 8192)];
+		}
+	}
+
+}
@@ -1,13 +1,22 @@
 package de.uni.freiburg.iig.telematik.sewol.writer;
 
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
 import de.invation.code.toval.file.EOLType;
 import de.invation.code.toval.file.FileWriter;
 import de.invation.code.toval.validate.CompatibilityException;
 import de.invation.code.toval.validate.ParameterException;
+import de.invation.code.toval.validate.Validate;
 import de.uni.freiburg.iig.telematik.sewol.format.AbstractLogFormat;
+import de.uni.freiburg.iig.telematik.sewol.format.LogCompression;
 import de.uni.freiburg.iig.telematik.sewol.format.LogPerspective;
 import de.uni.freiburg.iig.telematik.sewol.log.LogEntry;
 import de.uni.freiburg.iig.telematik.sewol.log.LogTrace;
@@ -27,6 +36,9 @@ public class LogWriter extends FileWriter{
 	protected AbstractLogFormat logFormat;
 	protected LogPerspective logPerspective = LogPerspective.TRACE_PERSPECTIVE;
 	private boolean headerWritten = false;
+	private LogCompression compression = LogCompression.NONE;
+	private ForkJoinPool compressionPool = null;
+	private boolean compressedOutput = false;
 	
         private String comment = null;
 	
@@ -164,9 +176,15 @@ public class LogWriter extends FileWriter{
 
 	//------- Getters and Setters ------------------------------------------------------------
 
+	/**
+	 * Returns the file extension of the log format,
+	 * followed by the extension of the compression if the log file is compressed.
+	 */
 	@Override
 	public String getFileExtension(){
-		return logFormat.getFileExtension();
+		if(compression == LogCompression.NONE)
+			return logFormat.getFileExtension();
+		return logFormat.getFileExtension() + "." + compression.getFileExtension();
 	}
 
 	@Override
@@ -201,6 +219,54 @@ public class LogWriter extends FileWriter{
 		this.logFormat = logFormat;
 	}
 
+	public LogCompression getCompression(){
+		return compression;
+	}
+
+	/**
+	 * Sets the compression of the log file.<br>
+	 * The compression can only be changed before the first trace is written.
+	 * @param compression The compression to use.
+	 */
+	public void setCompression(LogCompression compression){
+		Validate.notNull(compression);
+		checkOutputNotPrepared();
+		this.compression = compression;
+	}
+
+	/**
+	 * Returns the pool compressing blocks of the log file concurrently.
+	 * @return The pool or <code>null</code> if the log file is compressed sequentially.
+	 */
+	public ForkJoinPool getCompressionPool(){
+		return compressionPool;
+	}
+
+	/**
+	 * Enables or disables compressing blocks of the log file concurrently on the common pool.
+	 * @param parallelCompression <code>true</code> to compress blocks concurrently.
+	 * @see ParallelGZIPOutputStream
+	 */
+	public void setParallelCompression(boolean parallelCompression){
+		setCompressionPool(parallelCompression ? ForkJoinPool.commonPool() : null);
+	}
+
+	/**
+	 * Sets the pool compressing blocks of the log file concurrently.<br>
+	 * The pool can only be changed before the first trace is written.
+	 * @param compressionPool The pool or <code>null</code> to compress the log file sequentially.
+	 * @see ParallelGZIPOutputStream
+	 */
+	public void setCompressionPool(ForkJoinPool compressionPool){
+		checkOutputNotPrepared();
+		this.compressionPool = compressionPool;
+	}
+
+	private void checkOutputNotPrepared(){
+		if(headerWritten)
+			throw new IllegalStateException("Compression cannot be changed after writing has started.");
+	}
+
         /**
          * Sets a comment to add to the log.
          * @param comment 
@@ -233,6 +299,32 @@ public class LogWriter extends FileWriter{
 	
 	//------- Functionality ------------------------------------------------------------------
 	
+	/**
+	 * Prepares the output file and writes the file header,
+	 * unless it has already been written.
+	 * @throws IOException if output file creation or header writing cause an exception.
+	 */
+	protected void prepareOutput() throws IOException{
+		prepare();
+		if(compression != LogCompression.NONE && !compressedOutput){
+			// Replaces the uncompressed writer created for the file, which is still empty.
+			output.close();
+			output = new BufferedWriter(new OutputStreamWriter(openCompressedStream(), charset), LogCompression.BUFFER_SIZE);
+			compressedOutput = true;
+		}
+		if(!headerWritten){
+			write(logFormat.getFileHeader());
+			headerWritten = true;
+		}
+	}
+	
+	private OutputStream openCompressedStream() throws IOException{
+		OutputStream stream = new FileOutputStream(getFile());
+		if(compressionPool != null)
+			return new ParallelGZIPOutputStream(stream, compressionPool, ParallelGZIPOutputStream.DEFAULT_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION);
+		return new GZIPOutputStream(stream, LogCompression.BUFFER_SIZE);
+	}
+	
 	/**
 	 * This method is only allowed in the trace perspective.
          * @param <E>
@@ -244,12 +336,8 @@ public class LogWriter extends FileWriter{
 		if(logPerspective == LogPerspective.ACTIVITY_PERSPECTIVE)
 			throw new PerspectiveException(PerspectiveError.WRITE_TRACE_IN_ACTIVITY_PERSPECTIVE);
 		
-		prepare();
-		if(!headerWritten){
-			write(logFormat.getFileHeader());
-			headerWritten = true;
-		}
-		output.write(logFormat.getTraceAsString(logTrace));
+		prepareOutput();
+		logFormat.writeTrace(logTrace, output);
 	}
 	
 	/**
@@ -263,16 +351,15 @@ public class LogWriter extends FileWriter{
 		if(logPerspective == LogPerspective.TRACE_PERSPECTIVE)
 			throw new PerspectiveException(PerspectiveError.WRITE_ACTIVITY_IN_TRACE_PERSPECTIVE);
 		
-		prepare();
-		if(!headerWritten){
-			write(logFormat.getFileHeader());
-			headerWritten = true;
-		}
-		output.write(logFormat.getEntryAsString(logEntry, caseNumber));
+		prepareOutput();
+		logFormat.writeEntry(logEntry, caseNumber, output);
 	}
 	
 	@Override
 	public void closeFile() throws IOException {
+		// Like an uncompressed file, a compressed file is only created if output has been written to it.
+		if(compression != LogCompression.NONE && output != null)
+			prepareOutput();
                 if (comment != null) {
                         output.write(logFormat.formatComment(comment));
                 }
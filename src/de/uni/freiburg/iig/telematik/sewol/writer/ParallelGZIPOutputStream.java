@@ -0,0 +1,237 @@
+package de.uni.freiburg.iig.telematik.sewol.writer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import de.invation.code.toval.validate.ParameterException;
+import de.invation.code.toval.validate.Validate;
+
+/**
+ * <p>
+ * Output stream writing the GZIP format that compresses blocks of the data
+ * concurrently.
+ * </p>
+ * <p>
+ * The data is split into blocks of equal size, which are compressed by tasks
+ * on a {@link ForkJoinPool}. Every block but the last one is terminated by a
+ * sync flush, so that the compressed blocks form a single deflate stream when
+ * written in their original order. The last 32 KiB of the preceding block are
+ * used as dictionary of a block, so that the compression ratio is close to the
+ * one of sequential compression. The result can be read by every GZIP
+ * decompressor, e.g. {@link java.util.zip.GZIPInputStream}.
+ * </p>
+ * <p>
+ * The number of blocks being compressed is limited to twice the parallelism of
+ * the pool. Instances of this class are not thread-safe.
+ * </p>
+ *
+ * @version 1.0.2
+ * @since 1.0.2
+ */
+public class ParallelGZIPOutputStream extends FilterOutputStream {
+
+	/** Default size of the uncompressed blocks */
+	public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+	private static final int DICTIONARY_SIZE = 32 * 1024;
+	private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+	private final ForkJoinPool pool;
+	private final int level;
+	private final int maxPendingBlocks;
+	private final CRC32 crc = new CRC32();
+	private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+
+	private byte[] block;
+	private int blockLength = 0;
+	private byte[] dictionary = null;
+	private long size = 0;
+	private boolean headerWritten = false;
+	private boolean closed = false;
+
+	/**
+	 * Creates a new stream with the default block size and compression
+	 * level that compresses on the common pool.
+	 *
+	 * @param out The stream to write the compressed data to.
+	 */
+	public ParallelGZIPOutputStream(OutputStream out) {
+		this(out, ForkJoinPool.commonPool(), DEFAULT_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * Creates a new stream.
+	 *
+	 * @param out The stream to write the compressed data to.
+	 * @param pool Pool to run the compression tasks on.
+	 * @param blockSize Size of the uncompressed blocks in bytes.
+	 * @param level Compression level, see {@link Deflater}.
+	 */
+	public ParallelGZIPOutputStream(OutputStream out, ForkJoinPool pool, int blockSize, int level) {
+		super(out);
+		Validate.notNull(out);
+		Validate.notNull(pool);
+		if (blockSize < DICTIONARY_SIZE)
+			throw new ParameterException("Block size must be at least " + DICTIONARY_SIZE + " bytes.");
+		if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION)
+			throw new ParameterException("Invalid compression level: " + level);
+		this.pool = pool;
+		this.level = level;
+		this.maxPendingBlocks = 2 * pool.getParallelism();
+		this.block = new byte[blockSize];
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] {(byte) b}, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		ensureOpen();
+		crc.update(b, off, len);
+		size += len;
+		while (len > 0) {
+			int length = Math.min(len, block.length - blockLength);
+			System.arraycopy(b, off, block, blockLength, length);
+			blockLength += length;
+			off += length;
+			len -= length;
+			if (blockLength == block.length) {
+				submitBlock(false);
+			}
+		}
+	}
+
+	/**
+	 * Writes all compressed blocks and flushes the underlying stream. Data of
+	 * an incomplete block is kept until the block is full or the stream is
+	 * closed, so that flushing does not deteriorate the compression ratio.
+	 */
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+		while (!pendingBlocks.isEmpty()) {
+			writePendingBlock();
+		}
+		out.flush();
+	}
+
+	/**
+	 * Compresses the remaining data, writes the GZIP trailer and closes the
+	 * underlying stream.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			submitBlock(true);
+			while (!pendingBlocks.isEmpty()) {
+				writePendingBlock();
+			}
+			writeInt((int) crc.getValue());
+			writeInt((int) size);
+			out.flush();
+		} finally {
+			closed = true;
+			for (Future<byte[]> pendingBlock : pendingBlocks) {
+				pendingBlock.cancel(false);
+			}
+			pendingBlocks.clear();
+			out.close();
+		}
+	}
+
+	private void submitBlock(final boolean last) throws IOException {
+		final byte[] data = Arrays.copyOf(block, blockLength);
+		final byte[] blockDictionary = dictionary;
+		if (blockLength >= DICTIONARY_SIZE) {
+			dictionary = Arrays.copyOfRange(block, blockLength - DICTIONARY_SIZE, blockLength);
+		} else if (blockLength > 0) {
+			dictionary = data;
+		}
+		blockLength = 0;
+		while (pendingBlocks.size() >= maxPendingBlocks) {
+			writePendingBlock();
+		}
+		pendingBlocks.add(pool.submit(new Callable<byte[]>() {
+			@Override
+			public byte[] call() {
+				return compress(data, blockDictionary, last);
+			}
+		}));
+	}
+
+	private byte[] compress(byte[] data, byte[] blockDictionary, boolean last) {
+		Deflater deflater = new Deflater(level, true);
+		try {
+			if (blockDictionary != null) {
+				deflater.setDictionary(blockDictionary);
+			}
+			deflater.setInput(data);
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 2 + 64);
+			byte[] buffer = new byte[64 * 1024];
+			if (last) {
+				deflater.finish();
+				while (!deflater.finished()) {
+					int length = deflater.deflate(buffer);
+					compressed.write(buffer, 0, length);
+				}
+			} else {
+				int length;
+				do {
+					length = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+					compressed.write(buffer, 0, length);
+				} while (length == buffer.length);
+			}
+			return compressed.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private void writePendingBlock() throws IOException {
+		Future<byte[]> pendingBlock = pendingBlocks.removeFirst();
+		byte[] compressed;
+		try {
+			compressed = pendingBlock.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while compressing.");
+		} catch (ExecutionException e) {
+			throw new IOException("Compression failed.", e.getCause());
+		}
+		if (!headerWritten) {
+			out.write(HEADER);
+			headerWritten = true;
+		}
+		out.write(compressed);
+	}
+
+	private void writeInt(int value) throws IOException {
+		out.write(value & 0xff);
+		out.write((value >> 8) & 0xff);
+		out.write((value >> 16) & 0xff);
+		out.write((value >> 24) & 0xff);
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed.");
+		}
+	}
+}